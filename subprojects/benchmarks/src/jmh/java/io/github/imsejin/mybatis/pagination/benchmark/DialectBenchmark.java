@@ -0,0 +1,172 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Im Sejin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.imsejin.mybatis.pagination.benchmark;
+
+import io.github.imsejin.mybatis.pagination.benchmark.fixture.Fixtures;
+import io.github.imsejin.mybatis.pagination.constant.RewriteMode;
+import io.github.imsejin.mybatis.pagination.dialect.AbstractDialect;
+import io.github.imsejin.mybatis.pagination.dialect.MySQLDialect;
+import io.github.imsejin.mybatis.pagination.dialect.OracleDialect;
+import io.github.imsejin.mybatis.pagination.dialect.RewrittenSql;
+import io.github.imsejin.mybatis.pagination.model.PageRequest;
+import io.github.imsejin.mybatis.pagination.support.InterceptorSupport;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.session.Configuration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Benchmark of rewriting query by dialects.
+ *
+ * <p> {@code uncached} benchmarks parse and rewrite the query on every call, which happens
+ * only once per query in production. The others read rewritten query from cache,
+ * which happens on every call of paginated mapper method.
+ *
+ * <p> Parameter {@code rewriteMode} compares tokenizer with parser for the queries
+ * that tokenizer can rewrite. The others are rewritten by parser regardless of the mode.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DialectBenchmark {
+
+    @Param
+    private DialectType dialectType;
+
+    @Param
+    private Query query;
+
+    @Param
+    private RewriteMode rewriteMode;
+
+    private AbstractDialect dialect;
+
+    private Configuration config;
+
+    private BoundSql origin;
+
+    private PageRequest pageRequest;
+
+    @Setup
+    public void setup() {
+        this.dialect = this.dialectType.supplier.get();
+        this.dialect.setRewriteMode(this.rewriteMode);
+
+        this.config = new Configuration();
+        this.pageRequest = Fixtures.createPageRequest(3, 20);
+
+        int numOfMappings = InterceptorSupport.getNumOfMappings(this.query.sql);
+        List<ParameterMapping> parameterMappings = new ArrayList<>(numOfMappings);
+        for (int i = 0; i < numOfMappings; i++) {
+            parameterMappings.add(new ParameterMapping.Builder(this.config, "query.param" + i, Object.class).build());
+        }
+        this.origin = new BoundSql(this.config, this.query.sql, parameterMappings, this.pageRequest);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public RewrittenSql rewriteUncached() {
+        this.dialect.clearRewriteCache();
+        return this.dialect.rewrite(this.query.sql);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public RewrittenSql rewrite() {
+        return this.dialect.rewrite(this.query.sql);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public RewrittenSql rewriteConcurrently() {
+        return this.dialect.rewrite(this.query.sql);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public BoundSql createCountBoundSql() {
+        return this.dialect.createCountBoundSql(this.origin, this.config);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public BoundSql createOffsetLimitBoundSql() {
+        return this.dialect.createOffsetLimitBoundSql(this.origin, this.config, this.pageRequest);
+    }
+
+    public enum DialectType {
+        MYSQL(MySQLDialect::new),
+        ORACLE_11(() -> new OracleDialect(11)),
+        ORACLE_12(() -> new OracleDialect(12));
+
+        private final Supplier<AbstractDialect> supplier;
+
+        DialectType(Supplier<AbstractDialect> supplier) {
+            this.supplier = supplier;
+        }
+    }
+
+    public enum Query {
+        SIMPLE("SELECT ID, NAME, CATEGORY, PRICE " +
+                "FROM ITEM " +
+                "WHERE CATEGORY = ? AND PRICE > ? " +
+                "ORDER BY ID"),
+        JOIN("SELECT I.ID, I.NAME, C.LABEL " +
+                "FROM ITEM I " +
+                "LEFT JOIN CATEGORY C ON C.CODE = I.CATEGORY " +
+                "WHERE I.PRICE > ? AND I.NAME LIKE CONCAT('%', ?, '%') " +
+                "ORDER BY I.ID DESC"),
+        GROUPING("SELECT CATEGORY, COUNT(*) AS CNT, MAX(PRICE) AS MAX_PRICE " +
+                "FROM ITEM " +
+                "WHERE PRICE > ? " +
+                "GROUP BY CATEGORY " +
+                "HAVING COUNT(*) > ? " +
+                "ORDER BY CNT DESC"),
+        SUBQUERY("SELECT ID, NAME " +
+                "FROM ITEM " +
+                "WHERE ID IN (SELECT ITEM_ID FROM ORDERS WHERE USER_ID = ?) " +
+                "AND PRICE BETWEEN ? AND ? " +
+                "ORDER BY ID");
+
+        private final String sql;
+
+        Query(String sql) {
+            this.sql = sql;
+        }
+    }
+
+}
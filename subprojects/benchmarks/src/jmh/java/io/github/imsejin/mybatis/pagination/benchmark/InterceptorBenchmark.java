@@ -0,0 +1,116 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Im Sejin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.imsejin.mybatis.pagination.benchmark;
+
+import io.github.imsejin.mybatis.pagination.benchmark.fixture.Fixtures;
+import io.github.imsejin.mybatis.pagination.benchmark.fixture.Item;
+import io.github.imsejin.mybatis.pagination.benchmark.fixture.ItemMapper;
+import io.github.imsejin.mybatis.pagination.dialect.H2Dialect;
+import io.github.imsejin.mybatis.pagination.interceptor.PaginationInterceptor;
+import io.github.imsejin.mybatis.pagination.model.PageRequest;
+import io.github.imsejin.mybatis.pagination.model.Paginator;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.sql.DataSource;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end benchmark of {@link PaginationInterceptor#intercept(org.apache.ibatis.plugin.Invocation)}
+ * against in-memory H2 database.
+ *
+ * <p> {@link #paginateByHand(Blackhole)} runs the same queries for items and total items
+ * without the interceptor, so the difference between them is overhead of the interceptor.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class InterceptorBenchmark {
+
+    private static final int NUM_ITEMS = 100_000;
+
+    @Param({"1", "100"})
+    private int page;
+
+    @Param({"10", "100"})
+    private int size;
+
+    private SqlSessionFactory paginatedFactory;
+
+    private SqlSessionFactory plainFactory;
+
+    private PageRequest pageRequest;
+
+    @Setup
+    public void setup() {
+        DataSource dataSource = Fixtures.createDataSource("interceptor", NUM_ITEMS);
+
+        this.paginatedFactory = new SqlSessionFactoryBuilder()
+                .build(Fixtures.createConfiguration(dataSource, new PaginationInterceptor(new H2Dialect())));
+        this.plainFactory = new SqlSessionFactoryBuilder().build(Fixtures.createConfiguration(dataSource));
+        this.pageRequest = Fixtures.createPageRequest(this.page, this.size);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Paginator<Item> paginate() {
+        try (SqlSession session = this.paginatedFactory.openSession()) {
+            return session.getMapper(ItemMapper.class).selectAll(this.pageRequest);
+        }
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Paginator<Item> paginateConcurrently() {
+        return paginate();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void paginateByHand(Blackhole blackhole) {
+        try (SqlSession session = this.plainFactory.openSession()) {
+            ItemMapper mapper = session.getMapper(ItemMapper.class);
+            blackhole.consume(mapper.selectPage(Fixtures.CATEGORY, this.pageRequest.getOffset(), this.size));
+            blackhole.consume(mapper.countAll(Fixtures.CATEGORY));
+        }
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public void paginateByHandConcurrently(Blackhole blackhole) {
+        paginateByHand(blackhole);
+    }
+
+}
@@ -0,0 +1,91 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Im Sejin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.imsejin.mybatis.pagination.benchmark;
+
+import io.github.imsejin.mybatis.pagination.benchmark.fixture.ItemMapper;
+import io.github.imsejin.mybatis.pagination.support.InterceptorSupport;
+import io.github.imsejin.mybatis.pagination.support.registry.MapperMethodMetadata;
+import io.github.imsejin.mybatis.pagination.support.registry.MapperMethodRegistry;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.Configuration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of finding mapper method by reflection,
+ * compared with reading it from {@link MapperMethodRegistry}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class InterceptorSupportBenchmark {
+
+    private MappedStatement ms;
+
+    private MapperMethodRegistry registry;
+
+    @Setup
+    public void setup() {
+        Configuration config = new Configuration();
+        config.addMapper(ItemMapper.class);
+
+        this.ms = config.getMappedStatement(ItemMapper.class.getName() + ".selectAll");
+        this.registry = new MapperMethodRegistry();
+        this.registry.registerAll(config);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Method findMethod() {
+        return InterceptorSupport.findMethod(this.ms);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Method findMethodConcurrently() {
+        return InterceptorSupport.findMethod(this.ms);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public MapperMethodMetadata getFromRegistry() {
+        return this.registry.get(this.ms);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public MapperMethodMetadata getFromRegistryConcurrently() {
+        return this.registry.get(this.ms);
+    }
+
+}
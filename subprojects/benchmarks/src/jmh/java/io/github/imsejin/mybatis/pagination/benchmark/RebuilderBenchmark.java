@@ -0,0 +1,111 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Im Sejin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.imsejin.mybatis.pagination.benchmark;
+
+import io.github.imsejin.mybatis.pagination.benchmark.fixture.Fixtures;
+import io.github.imsejin.mybatis.pagination.benchmark.fixture.ItemMapper;
+import io.github.imsejin.mybatis.pagination.constant.MapperParameterType;
+import io.github.imsejin.mybatis.pagination.constant.RebuildMode;
+import io.github.imsejin.mybatis.pagination.support.rebuilder.Rebuilder;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.Configuration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of rebuilders, which run on every call of paginated mapper method.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RebuilderBenchmark {
+
+    private static final String COUNT_SQL = "SELECT COUNT(*) FROM ITEM WHERE CATEGORY = ?";
+
+    @Param
+    private RebuildMode rebuildMode;
+
+    private Configuration config;
+
+    private MappedStatement ms;
+
+    private BoundSql boundSql;
+
+    @Setup
+    public void setup() {
+        this.config = new Configuration();
+        this.config.addMapper(ItemMapper.class);
+
+        this.ms = this.config.getMappedStatement(ItemMapper.class.getName() + ".selectAll");
+        this.boundSql = this.ms.getBoundSql(Fixtures.createPageRequest(3, 20));
+    }
+
+    @Benchmark
+    @Threads(1)
+    public BoundSql rebuildBoundSql() {
+        return Rebuilder.init(this.boundSql, this.rebuildMode).config(this.config).sql(COUNT_SQL).rebuild();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public BoundSql rebuildBoundSqlConcurrently() {
+        return rebuildBoundSql();
+    }
+
+    /**
+     * Rebuilds mapped statement, finding parameter type of mapper method by reflection.
+     */
+    @Benchmark
+    @Threads(1)
+    public MappedStatement rebuildMappedStatement() {
+        return Rebuilder.init(this.ms, this.rebuildMode).suffix("benchmark").rebuild();
+    }
+
+    /**
+     * Rebuilds mapped statement with parameter type of mapper method from registry.
+     */
+    @Benchmark
+    @Threads(1)
+    public MappedStatement rebuildMappedStatementWithParameterType() {
+        return Rebuilder.init(this.ms, this.rebuildMode).suffix("benchmark")
+                .mapperParameterType(MapperParameterType.SINGLE).rebuild();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public MappedStatement rebuildMappedStatementConcurrently() {
+        return rebuildMappedStatement();
+    }
+
+}
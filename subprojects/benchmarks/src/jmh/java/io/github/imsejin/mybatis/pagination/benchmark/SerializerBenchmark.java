@@ -0,0 +1,96 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Im Sejin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.imsejin.mybatis.pagination.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.github.imsejin.mybatis.pagination.benchmark.fixture.Item;
+import io.github.imsejin.mybatis.pagination.model.PageInfo;
+import io.github.imsejin.mybatis.pagination.model.Paginator;
+import io.github.imsejin.mybatis.pagination.serializer.PaginatorSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of {@link PaginatorSerializer}, compared with serializing only the items.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SerializerBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int size;
+
+    private ObjectWriter writer;
+
+    private Paginator<Item> paginator;
+
+    @Setup
+    public void setup() {
+        List<Item> items = new ArrayList<>(this.size);
+        for (int i = 1; i <= this.size; i++) {
+            Item item = new Item();
+            item.setId((long) i);
+            item.setName("item-" + i);
+            item.setCategory("BOOK");
+            item.setPrice(i * 100);
+            items.add(item);
+        }
+
+        this.writer = new ObjectMapper().writer();
+        this.paginator = new Paginator<>(items, new PageInfo(this.size * 10, 1, this.size));
+    }
+
+    @Benchmark
+    @Threads(1)
+    public byte[] serializePaginator() throws JsonProcessingException {
+        return this.writer.writeValueAsBytes(this.paginator);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public byte[] serializePaginatorConcurrently() throws JsonProcessingException {
+        return this.writer.writeValueAsBytes(this.paginator);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public byte[] serializeItems() throws JsonProcessingException {
+        return this.writer.writeValueAsBytes(this.paginator.getItems());
+    }
+
+}
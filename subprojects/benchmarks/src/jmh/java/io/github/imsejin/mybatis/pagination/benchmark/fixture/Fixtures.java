@@ -0,0 +1,117 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Im Sejin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.imsejin.mybatis.pagination.benchmark.fixture;
+
+import io.github.imsejin.mybatis.pagination.model.PageRequest;
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+
+/**
+ * Shared fixtures of benchmarks.
+ */
+public final class Fixtures {
+
+    public static final String CATEGORY = "BOOK";
+
+    private static final String[] CATEGORIES = {CATEGORY, "MUSIC", "MOVIE", "GAME"};
+
+    private Fixtures() {
+    }
+
+    /**
+     * Creates in-memory database that has the given number of items.
+     *
+     * @param name     name of database
+     * @param numItems number of items
+     * @return data source
+     */
+    public static DataSource createDataSource(String name, int numItems) {
+        PooledDataSource dataSource = new PooledDataSource("org.h2.Driver",
+                "jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        dataSource.setPoolMaximumActiveConnections(Runtime.getRuntime().availableProcessors());
+
+        try (Connection conn = dataSource.getConnection()) {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("DROP TABLE IF EXISTS ITEM");
+                stmt.execute("CREATE TABLE ITEM (ID BIGINT PRIMARY KEY, NAME VARCHAR(50), " +
+                        "CATEGORY VARCHAR(10), PRICE INT)");
+                stmt.execute("CREATE INDEX IDX_ITEM_CATEGORY ON ITEM (CATEGORY, ID)");
+            }
+
+            try (PreparedStatement stmt = conn.prepareStatement("INSERT INTO ITEM VALUES (?, ?, ?, ?)")) {
+                for (int i = 1; i <= numItems; i++) {
+                    stmt.setLong(1, i);
+                    stmt.setString(2, "item-" + i);
+                    stmt.setString(3, CATEGORIES[i % CATEGORIES.length]);
+                    stmt.setInt(4, i * 100);
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to initialize database: " + name, e);
+        }
+
+        return dataSource;
+    }
+
+    /**
+     * Creates configuration that has {@link ItemMapper}.
+     *
+     * @param dataSource   data source
+     * @param interceptors interceptors to be registered
+     * @return configuration
+     */
+    public static Configuration createConfiguration(DataSource dataSource, Interceptor... interceptors) {
+        Environment environment = new Environment("benchmark", new JdbcTransactionFactory(), dataSource);
+
+        Configuration config = new Configuration(environment);
+        config.addMapper(ItemMapper.class);
+        for (Interceptor interceptor : interceptors) {
+            config.addInterceptor(interceptor);
+        }
+
+        return config;
+    }
+
+    public static PageRequest createPageRequest(int page, int size) {
+        PageRequest pageRequest = new PageRequest();
+        pageRequest.setPage(page);
+        pageRequest.setSize(size);
+        pageRequest.setQuery(Collections.singletonMap("category", CATEGORY));
+
+        return pageRequest;
+    }
+
+}
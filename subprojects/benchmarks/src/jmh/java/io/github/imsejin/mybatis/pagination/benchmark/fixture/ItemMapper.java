@@ -0,0 +1,75 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Im Sejin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.imsejin.mybatis.pagination.benchmark.fixture;
+
+import io.github.imsejin.mybatis.pagination.model.Pageable;
+import io.github.imsejin.mybatis.pagination.model.Paginator;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Result;
+import org.apache.ibatis.annotations.ResultMap;
+import org.apache.ibatis.annotations.Results;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.List;
+
+public interface ItemMapper {
+
+    @ResultMap("item")
+    @Select("SELECT ID, NAME, CATEGORY, PRICE " +
+            "FROM ITEM " +
+            "WHERE CATEGORY = #{query.category} " +
+            "ORDER BY ID")
+    Paginator<Item> selectAll(Pageable pageable);
+
+    /**
+     * Query for items that is paginated by hand, as baseline of {@link #selectAll(Pageable)}.
+     */
+    @ResultMap("item")
+    @Select("SELECT ID, NAME, CATEGORY, PRICE " +
+            "FROM ITEM " +
+            "WHERE CATEGORY = #{category} " +
+            "ORDER BY ID " +
+            "LIMIT #{limit} OFFSET #{offset}")
+    List<Item> selectPage(@Param("category") String category, @Param("offset") int offset, @Param("limit") int limit);
+
+    /**
+     * Query for total items that is written by hand, as baseline of {@link #selectAll(Pageable)}.
+     */
+    @Select("SELECT COUNT(*) " +
+            "FROM ITEM " +
+            "WHERE CATEGORY = #{category}")
+    int countAll(@Param("category") String category);
+
+    @Results(id = "item", value = {
+            @Result(property = "id", column = "ID"),
+            @Result(property = "name", column = "NAME"),
+            @Result(property = "category", column = "CATEGORY"),
+            @Result(property = "price", column = "PRICE"),
+    })
+    @Select("SELECT * " +
+            "FROM ITEM " +
+            "WHERE ID = #{id}")
+    Item selectById(long id);
+
+}
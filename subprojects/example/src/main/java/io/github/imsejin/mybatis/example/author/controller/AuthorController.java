@@ -2,6 +2,7 @@ package io.github.imsejin.mybatis.example.author.controller;
 
 import io.github.imsejin.mybatis.example.author.model.Author;
 import io.github.imsejin.mybatis.example.author.service.AuthorService;
+import io.github.imsejin.mybatis.pagination.model.KeysetRequest;
 import io.github.imsejin.mybatis.pagination.model.PageRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
@@ -18,6 +19,16 @@ public class AuthorController {
         return authorService.getAuthors(request);
     }
 
+    @GetMapping("slice")
+    public Object getAuthorSlice(PageRequest request) {
+        return authorService.getAuthorSlice(request);
+    }
+
+    @GetMapping("keyset")
+    public Object getAuthorKeyset(KeysetRequest request) {
+        return authorService.getAuthorKeyset(request);
+    }
+
     @GetMapping("id/{id}")
     public Object getAuthor(@PathVariable long id) {
         return authorService.getAuthor(id);
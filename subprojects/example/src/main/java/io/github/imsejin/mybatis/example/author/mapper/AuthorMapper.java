@@ -1,9 +1,14 @@
 package io.github.imsejin.mybatis.example.author.mapper;
 
 import io.github.imsejin.mybatis.example.author.model.Author;
+import io.github.imsejin.mybatis.pagination.model.KeysetPaginator;
+import io.github.imsejin.mybatis.pagination.model.KeysetRequest;
 import io.github.imsejin.mybatis.pagination.model.Pageable;
 import io.github.imsejin.mybatis.pagination.model.Paginator;
+import io.github.imsejin.mybatis.pagination.model.Slice;
 import org.apache.ibatis.annotations.*;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.session.ResultHandler;
 
 @Mapper
 public interface AuthorMapper {
@@ -41,6 +46,37 @@ public interface AuthorMapper {
             "</script>")
     Paginator<Author> selectAll(Pageable pageable);
 
+    @ResultMap("author")
+    @Select("SELECT ID, NAME, COUNTRY, BIRTHDATE, UUID() AS UUID " +
+            "FROM AUTHOR " +
+            "ORDER BY ID")
+    Slice<Author> selectSlice(Pageable pageable);
+
+    @ResultMap("author")
+    @Select("SELECT ID, NAME, COUNTRY, BIRTHDATE, UUID() AS UUID " +
+            "FROM AUTHOR " +
+            "ORDER BY ID")
+    Cursor<Author> selectCursor(Pageable pageable);
+
+    @ResultMap("author")
+    @Select("SELECT ID, NAME, COUNTRY, BIRTHDATE, UUID() AS UUID " +
+            "FROM AUTHOR " +
+            "ORDER BY ID")
+    void selectWithHandler(Pageable pageable, ResultHandler<Author> resultHandler);
+
+    @ResultMap("author")
+    @Select("<script> " +
+            "SELECT ID, NAME, COUNTRY, BIRTHDATE, UUID() AS UUID " +
+            "FROM AUTHOR " +
+            "WHERE 1 " +
+
+            "<if test='query.country != null'> " +
+            "   AND COUNTRY = #{query.country} " +
+            "</if> " +
+
+            "</script>")
+    KeysetPaginator<Author> selectKeyset(KeysetRequest request);
+
     @Results(id = "author", value = {
             @Result(property = "id", column = "ID"),
             @Result(property = "name", column = "NAME"),
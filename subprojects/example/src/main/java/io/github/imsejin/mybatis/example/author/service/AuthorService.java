@@ -2,7 +2,9 @@ package io.github.imsejin.mybatis.example.author.service;
 
 import io.github.imsejin.mybatis.example.author.mapper.AuthorMapper;
 import io.github.imsejin.mybatis.example.author.model.Author;
+import io.github.imsejin.mybatis.pagination.model.KeysetRequest;
 import io.github.imsejin.mybatis.pagination.model.PageRequest;
+import io.github.imsejin.mybatis.pagination.model.SortKey;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
@@ -18,6 +20,15 @@ public class AuthorService {
         return authorMapper.selectAll(request);
     }
 
+    public List<Author> getAuthorSlice(PageRequest request) {
+        return authorMapper.selectSlice(request);
+    }
+
+    public List<Author> getAuthorKeyset(KeysetRequest request) {
+        request.setSortKeys(SortKey.desc("BIRTHDATE", "birthdate").nullable(), SortKey.asc("ID", "id"));
+        return authorMapper.selectKeyset(request);
+    }
+
     public Author getAuthor(long id) {
         return authorMapper.selectById(id);
     }
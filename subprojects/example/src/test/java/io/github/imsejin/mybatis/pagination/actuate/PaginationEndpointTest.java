@@ -0,0 +1,52 @@
+package io.github.imsejin.mybatis.pagination.actuate;
+
+import io.github.imsejin.mybatis.AbstractControllerTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class PaginationEndpointTest extends AbstractControllerTest {
+
+    private static final String STATEMENT_ID = "io.github.imsejin.mybatis.example.author.mapper.AuthorMapper.selectAll";
+
+    @Test
+    void exposesPaginatedStatements() throws Exception {
+        // given
+        mockMvc.perform(get("/authors")
+                        .param("page", "2")
+                        .param("size", "5")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+
+        // expect
+        String statement = "$.statements['" + STATEMENT_ID + "']";
+        mockMvc.perform(get("/actuator/pagination"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.dialect", containsString("Dialect")))
+                .andExpect(jsonPath("$.rewriteCache.hitRatio").value(notNullValue()))
+                .andExpect(jsonPath("$.recentRewriteFailures").isArray())
+                .andExpect(jsonPath(statement + ".paginationType").value("PAGINATOR"))
+                .andExpect(jsonPath(statement + ".itemsSql", containsString("LIMIT")))
+                .andExpect(jsonPath(statement + ".countSql", containsString("COUNT")))
+                .andExpect(jsonPath(statement + ".itemsLatency.count", greaterThanOrEqualTo(1)))
+                .andExpect(jsonPath(statement + ".itemsLatency.p99").isNumber());
+    }
+
+    @Test
+    void exposesPaginatedStatement() throws Exception {
+        // expect
+        mockMvc.perform(get("/actuator/pagination/{statementId}", STATEMENT_ID))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.paginationType").value("PAGINATOR"))
+                .andExpect(jsonPath("$.countMode").value("EXACT"));
+        mockMvc.perform(get("/actuator/pagination/{statementId}", "unknown.Mapper.select"))
+                .andExpect(status().isNotFound());
+    }
+
+}
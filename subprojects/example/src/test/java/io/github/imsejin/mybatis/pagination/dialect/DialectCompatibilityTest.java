@@ -0,0 +1,329 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Im Sejin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.imsejin.mybatis.pagination.dialect;
+
+import io.github.imsejin.mybatis.pagination.constant.RewriteMode;
+import io.github.imsejin.mybatis.pagination.model.PageRequest;
+import io.github.imsejin.mybatis.pagination.model.SortKey;
+import io.github.imsejin.mybatis.pagination.support.keyset.CursorCodec;
+import io.github.imsejin.mybatis.pagination.support.keyset.Keyset;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Executes queries of dialects on H2 in the corresponding compatibility modes.
+ * H2 1.4.200 has no mode for MariaDB, so MariaDB dialect is executed on MySQL mode.
+ */
+class DialectCompatibilityTest {
+
+    private final Configuration config = new Configuration();
+
+    static Stream<Arguments> dialects() {
+        return Stream.of(
+                Arguments.of(new MySQLDialect(), "MySQL"),
+                Arguments.of(new MariaDBDialect(), "MySQL"),
+                Arguments.of(new PostgreSQLDialect(), "PostgreSQL"),
+                Arguments.of(new SQLServerDialect(), "MSSQLServer"),
+                Arguments.of(new H2Dialect(), "REGULAR"),
+                Arguments.of(new OracleDialect(11), "Oracle"),
+                Arguments.of(new OracleDialect(12), "Oracle"));
+    }
+
+    @ParameterizedTest
+    @MethodSource("dialects")
+    void paginatesOnCompatibilityMode(Dialect dialect, String mode) throws SQLException {
+        try (Connection connection = connect(mode)) {
+            // given
+            String sql = "SELECT ID, NAME FROM ITEM WHERE GRP <> ? ORDER BY ID";
+
+            for (RewriteMode rewriteMode : RewriteMode.values()) {
+                // when
+                ((AbstractDialect) dialect).setRewriteMode(rewriteMode);
+                List<Long> ids = new ArrayList<>();
+                BoundSql boundSql = dialect.createOffsetLimitBoundSql(createBoundSql(sql, 2, 5), config,
+                        createPageRequest(2, 5));
+                try (ResultSet resultSet = executeQuery(connection, boundSql)) {
+                    while (resultSet.next()) ids.add(resultSet.getLong("ID"));
+                }
+
+                // then
+                assertThat(ids).as("rewrite mode: %s", rewriteMode).containsExactly(8L, 10L, 11L, 13L, 14L);
+            }
+        }
+    }
+
+    /**
+     * H2 doesn't have "ROWID" of Oracle, which is used for deferred join by {@link OracleDialect}.
+     */
+    static Stream<Arguments> dialectsWithoutRowId() {
+        return dialects().filter(it -> !(it.get()[0] instanceof OracleDialect));
+    }
+
+    @ParameterizedTest
+    @MethodSource("dialectsWithoutRowId")
+    void paginatesWithDeferredJoinOnCompatibilityMode(Dialect dialect, String mode) throws SQLException {
+        try (Connection connection = connect(mode)) {
+            // given
+            String sql = "SELECT ID, NAME FROM ITEM WHERE GRP <> ? ORDER BY ID";
+
+            // when
+            List<Long> ids = new ArrayList<>();
+            BoundSql boundSql = dialect.createDeferredJoinBoundSql(createBoundSql(sql, 2, 5), config,
+                    createPageRequest(2, 5), "ID");
+            try (ResultSet resultSet = executeQuery(connection, boundSql)) {
+                while (resultSet.next()) ids.add(resultSet.getLong("ID"));
+            }
+
+            // then
+            assertThat(ids).containsExactly(8L, 10L, 11L, 13L, 14L);
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("dialectsWithoutRowId")
+    void paginatesWithDeferredJoinOnlyIfJoinedTablesMatchOneRow(Dialect dialect, String mode) throws SQLException {
+        try (Connection connection = connect(mode)) {
+            // given
+            ((AbstractDialect) dialect).setCountSqlOptimizer(new CountSqlOptimizer()
+                    .addUniqueKey("ITEM", "ID").addUniqueKey("ITEM_GROUP", "ID"));
+            String toOneSql = "SELECT I.ID, G.LABEL FROM ITEM I INNER JOIN ITEM_GROUP G ON G.ID = I.GRP " +
+                    "WHERE I.GRP <> ? ORDER BY I.ID";
+            String toManySql = "SELECT I.ID, T.TAG FROM ITEM I INNER JOIN ITEM_TAG T ON T.ITEM_ID = I.ID " +
+                    "WHERE T.TAG <> ? ORDER BY I.ID";
+
+            // when
+            BoundSql toOneBoundSql = dialect.createDeferredJoinBoundSql(createBoundSql(toOneSql, 2, 5), config,
+                    createPageRequest(2, 5), "I.ID");
+            BoundSql toManyBoundSql = dialect.createDeferredJoinBoundSql(createBoundSql(toManySql, 2, 5), config,
+                    createPageRequest(2, 5), "I.ID");
+            List<Long> toOneIds = new ArrayList<>();
+            try (ResultSet resultSet = executeQuery(connection, toOneBoundSql)) {
+                while (resultSet.next()) toOneIds.add(resultSet.getLong("ID"));
+            }
+            List<Long> toManyIds = new ArrayList<>();
+            try (ResultSet resultSet = executeQuery(connection, toManyBoundSql)) {
+                while (resultSet.next()) toManyIds.add(resultSet.getLong("ID"));
+            }
+
+            // then
+            assertThat(toOneBoundSql.getSql()).contains("PAGE_KEYS");
+            assertThat(toOneIds).containsExactly(8L, 10L, 11L, 13L, 14L);
+            assertThat(toManyBoundSql.getSql()).doesNotContain("PAGE_KEYS");
+            assertThat(toManyIds).containsExactly(6L, 7L, 8L, 9L, 10L);
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("dialects")
+    void countsOnCompatibilityMode(Dialect dialect, String mode) throws SQLException {
+        try (Connection connection = connect(mode)) {
+            // given
+            String plainSql = "SELECT ID, NAME FROM ITEM WHERE GRP <> ? ORDER BY ID";
+            String groupingSql = "SELECT GRP, COUNT(*) AS CNT FROM ITEM WHERE GRP <> ? GROUP BY GRP ORDER BY CNT";
+
+            for (RewriteMode rewriteMode : RewriteMode.values()) {
+                // when
+                ((AbstractDialect) dialect).setRewriteMode(rewriteMode);
+                BoundSql plainCountSql = dialect.createCountBoundSql(createBoundSql(plainSql, 1, 5), config);
+                BoundSql groupingCountSql = dialect.createCountBoundSql(createBoundSql(groupingSql, 1, 5), config);
+
+                // then
+                assertThat(executeCount(connection, plainCountSql)).as("rewrite mode: %s", rewriteMode).isEqualTo(17);
+                assertThat(executeCount(connection, groupingCountSql)).as("rewrite mode: %s", rewriteMode).isEqualTo(2);
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("dialects")
+    void paginatesWithKeysetOnCompatibilityMode(Dialect dialect, String mode) throws SQLException {
+        try (Connection connection = connect(mode)) {
+            // given
+            String sql = "SELECT ID, NAME FROM ITEM WHERE GRP <> ?";
+            List<SortKey> sortKeys = Collections.singletonList(SortKey.asc("ID", "id"));
+            Keyset keyset = CursorCodec.decode(CursorCodec.encode(sortKeys, new Object[]{5}, false), sortKeys);
+
+            // when
+            List<Long> ids = new ArrayList<>();
+            BoundSql boundSql = dialect.createKeysetBoundSql(createBoundSql(sql, 1, 3), config, keyset,
+                    createPageRequest(1, 3));
+            try (ResultSet resultSet = executeQuery(connection, boundSql)) {
+                while (resultSet.next()) ids.add(resultSet.getLong("ID"));
+            }
+
+            // then
+            assertThat(boundSql.getSql()).doesNotContain("OFFSET");
+            assertThat(boundSql.getParameterMappings()).extracting(ParameterMapping::getProperty)
+                    .doesNotContain("__page_OFFSET");
+            assertThat(ids).containsExactly(7L, 8L, 10L);
+        }
+    }
+
+    @Test
+    void countsRowsLimitedByTopOnSqlServer() throws SQLException {
+        try (Connection connection = connect("MSSQLServer")) {
+            // given
+            SQLServerDialect dialect = new SQLServerDialect();
+            String sql = "SELECT TOP 10 ID, NAME FROM ITEM WHERE GRP <> ? ORDER BY ID DESC";
+
+            // when
+            BoundSql countBoundSql = dialect.createCountBoundSql(createBoundSql(sql, 1, 5), config);
+
+            // then
+            assertThat(countBoundSql.getSql()).isEqualTo("SELECT COUNT(*) FROM (" + sql + ") COUNT_TARGET");
+            assertThat(executeCount(connection, countBoundSql)).isEqualTo(10);
+        }
+    }
+
+    @Test
+    void paginatesInOrderOfTopOnSqlServer() throws SQLException {
+        try (Connection connection = connect("MSSQLServer")) {
+            // given
+            SQLServerDialect dialect = new SQLServerDialect();
+            String sql = "SELECT TOP 10 I.ID AS ITEM_ID, I.NAME FROM ITEM I WHERE I.GRP <> ? ORDER BY I.ID DESC";
+
+            // when
+            List<Long> ids = new ArrayList<>();
+            BoundSql boundSql = dialect.createOffsetLimitBoundSql(createBoundSql(sql, 2, 3), config,
+                    createPageRequest(2, 3));
+            try (ResultSet resultSet = executeQuery(connection, boundSql)) {
+                while (resultSet.next()) ids.add(resultSet.getLong("ITEM_ID"));
+            }
+
+            // then
+            assertThat(boundSql.getSql()).contains(") PAGE_ORIGIN ORDER BY 1 DESC OFFSET ? ROWS");
+            assertThat(ids).containsExactly(20L, 19L, 17L);
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("dialects")
+    void paginatesSetOperationOnCompatibilityMode(Dialect dialect, String mode) throws SQLException {
+        try (Connection connection = connect(mode)) {
+            // given
+            String unionAllSql = "SELECT ID, NAME FROM ITEM WHERE GRP = ? " +
+                    "UNION ALL SELECT ID, NAME FROM ITEM WHERE GRP = 1 ORDER BY ID";
+            String unionSql = "SELECT ID, NAME FROM ITEM WHERE GRP = ? " +
+                    "UNION SELECT ID, NAME FROM ITEM WHERE GRP <> 2 ORDER BY ID";
+
+            for (String sql : Arrays.asList(unionAllSql, unionSql)) {
+                // when
+                List<Long> ids = new ArrayList<>();
+                BoundSql boundSql = dialect.createOffsetLimitBoundSql(createBoundSql(sql, 2, 5), config,
+                        createPageRequest(2, 5));
+                try (ResultSet resultSet = executeQuery(connection, boundSql)) {
+                    while (resultSet.next()) ids.add(resultSet.getLong("ID"));
+                }
+                BoundSql countBoundSql = dialect.createCountBoundSql(createBoundSql(sql, 2, 5), config);
+
+                // then
+                assertThat(ids).as("query: %s", sql).containsExactly(9L, 10L, 12L, 13L, 15L);
+                assertThat(executeCount(connection, countBoundSql)).as("query: %s", sql).isEqualTo(17);
+            }
+        }
+    }
+
+    // -------------------------------------------------------------------------------------------------
+
+    private static Connection connect(String mode) throws SQLException {
+        Connection connection = DriverManager.getConnection("jdbc:h2:mem:compatibility_" + mode + ";MODE=" + mode);
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS ITEM (ID INT PRIMARY KEY, NAME VARCHAR(10), GRP INT)");
+            statement.execute("DELETE FROM ITEM");
+            for (int id = 1; id <= 25; id++) {
+                statement.execute("INSERT INTO ITEM VALUES (" + id + ", 'ITEM-" + id + "', " + id % 3 + ")");
+            }
+
+            // Each item belongs to a group, and has two tags.
+            statement.execute("CREATE TABLE IF NOT EXISTS ITEM_GROUP (ID INT PRIMARY KEY, LABEL VARCHAR(10))");
+            statement.execute("CREATE TABLE IF NOT EXISTS ITEM_TAG (ITEM_ID INT, TAG INT)");
+            statement.execute("DELETE FROM ITEM_GROUP");
+            statement.execute("DELETE FROM ITEM_TAG");
+            for (int id = 0; id < 3; id++) {
+                statement.execute("INSERT INTO ITEM_GROUP VALUES (" + id + ", 'GROUP-" + id + "')");
+            }
+            for (int id = 1; id <= 25; id++) {
+                statement.execute("INSERT INTO ITEM_TAG VALUES (" + id + ", 0), (" + id + ", 1)");
+            }
+        }
+
+        return connection;
+    }
+
+    private static ResultSet executeQuery(Connection connection, BoundSql boundSql) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(boundSql.getSql());
+        statement.closeOnCompletion();
+
+        List<ParameterMapping> mappings = boundSql.getParameterMappings();
+        for (int i = 0; i < mappings.size(); i++) {
+            String property = mappings.get(i).getProperty();
+            Object value = boundSql.hasAdditionalParameter(property) ? boundSql.getAdditionalParameter(property) : 0;
+            statement.setObject(i + 1, value);
+        }
+
+        return statement.executeQuery();
+    }
+
+    private static long executeCount(Connection connection, BoundSql boundSql) throws SQLException {
+        try (ResultSet resultSet = executeQuery(connection, boundSql)) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+
+    private BoundSql createBoundSql(String sql, int page, int size) {
+        ParameterMapping mapping = new ParameterMapping.Builder(config, "query.grp", Object.class).build();
+        return new BoundSql(config, sql, new ArrayList<>(Collections.singletonList(mapping)),
+                createPageRequest(page, size));
+    }
+
+    private static PageRequest createPageRequest(int page, int size) {
+        PageRequest pageRequest = new PageRequest();
+        pageRequest.setPage(page);
+        pageRequest.setSize(size);
+
+        return pageRequest;
+    }
+
+}
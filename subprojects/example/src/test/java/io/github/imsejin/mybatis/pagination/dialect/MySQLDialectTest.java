@@ -0,0 +1,596 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Im Sejin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.imsejin.mybatis.pagination.dialect;
+
+import io.github.imsejin.mybatis.pagination.constant.RewriteMode;
+import io.github.imsejin.mybatis.pagination.model.PageRequest;
+import io.github.imsejin.mybatis.pagination.model.SortKey;
+import io.github.imsejin.mybatis.pagination.support.keyset.CursorCodec;
+import io.github.imsejin.mybatis.pagination.support.keyset.Keyset;
+import org.apache.ibatis.executor.parameter.ParameterHandler;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.session.Configuration;
+import org.h2.tools.SimpleResultSet;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MySQLDialectTest {
+
+    private static final ParameterHandler NO_PARAMETERS = new ParameterHandler() {
+        @Override
+        public Object getParameterObject() {
+            return null;
+        }
+
+        @Override
+        public void setParameters(PreparedStatement ps) {
+        }
+    };
+
+    private final Configuration config = new Configuration();
+
+    @Test
+    void rewritesOnlyOnce() {
+        // given
+        MySQLDialect dialect = new MySQLDialect();
+        String sql = "SELECT ID, NAME FROM AUTHOR WHERE COUNTRY = ? ORDER BY ID";
+
+        // when
+        for (int page = 1; page <= 3; page++) {
+            BoundSql origin = createBoundSql(sql, page, 10, "query.country");
+            dialect.createOffsetLimitBoundSql(origin, config, (PageRequest) origin.getParameterObject());
+            dialect.createCountBoundSql(origin, config);
+        }
+
+        // then
+        assertThat(dialect.getRewriteCacheStats().getMissCount()).isEqualTo(1);
+        assertThat(dialect.getRewriteCacheStats().getHitCount()).isEqualTo(5);
+        assertThat(dialect.getRewriteCacheStats().getSize()).isEqualTo(1);
+    }
+
+    @Test
+    void createsOffsetLimitBoundSql() {
+        // given
+        MySQLDialect dialect = new MySQLDialect();
+        String sql = "SELECT ID, NAME FROM AUTHOR WHERE COUNTRY = ? ORDER BY ID";
+
+        // when
+        BoundSql origin = createBoundSql(sql, 3, 20, "query.country");
+        BoundSql boundSql = dialect.createOffsetLimitBoundSql(origin, config,
+                (PageRequest) origin.getParameterObject());
+
+        // then
+        assertThat(boundSql.getSql())
+                .isEqualTo("SELECT ID, NAME FROM AUTHOR WHERE COUNTRY = ? ORDER BY ID LIMIT ? OFFSET ?");
+        assertThat(boundSql.getParameterMappings().stream().map(ParameterMapping::getProperty).collect(toList()))
+                .containsExactly("query.country", "__page_LIMIT", "__page_OFFSET");
+        assertThat(boundSql.getAdditionalParameter("__page_LIMIT")).isEqualTo(20);
+        assertThat(boundSql.getAdditionalParameter("__page_OFFSET")).isEqualTo(40);
+    }
+
+    @Test
+    void createsCountBoundSql() {
+        // given
+        MySQLDialect dialect = new MySQLDialect();
+        String sql = "SELECT ID, CONCAT(NAME, ?) AS NAME FROM AUTHOR WHERE COUNTRY = ? ORDER BY FIELD(ID, ?)";
+
+        // when
+        BoundSql origin = createBoundSql(sql, 1, 10, "query.suffix", "query.country", "query.id");
+        BoundSql boundSql = dialect.createCountBoundSql(origin, config);
+
+        // then
+        assertThat(boundSql.getSql()).isEqualTo("SELECT COUNT(*) FROM AUTHOR WHERE COUNTRY = ?");
+        assertThat(boundSql.getParameterMappings().stream().map(ParameterMapping::getProperty).collect(toList()))
+                .containsExactly("query.country");
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "SELECT ID, ROW_NUMBER() OVER (ORDER BY ID) AS NO FROM AUTHOR ORDER BY ID" +
+                    " | SELECT COUNT(*) FROM AUTHOR",
+            "SELECT COUNTRY, COUNT(*) AS CNT FROM AUTHOR GROUP BY COUNTRY ORDER BY CNT DESC" +
+                    " | SELECT COUNT(*) FROM (SELECT 1 FROM AUTHOR GROUP BY COUNTRY) COUNT_TARGET",
+            "SELECT COUNTRY, COUNT(*) AS CNT FROM AUTHOR GROUP BY COUNTRY HAVING CNT > 1" +
+                    " | SELECT COUNT(*) FROM (SELECT COUNTRY, COUNT(*) AS CNT FROM AUTHOR GROUP BY COUNTRY" +
+                    " HAVING CNT > 1) COUNT_TARGET",
+            "SELECT COUNTRY, COUNT(*) AS CNT FROM AUTHOR GROUP BY 1" +
+                    " | SELECT COUNT(*) FROM (SELECT COUNTRY, COUNT(*) AS CNT FROM AUTHOR GROUP BY 1) COUNT_TARGET",
+            "SELECT YEAR(BIRTHDATE) AS Y, COUNT(*) AS CNT FROM AUTHOR GROUP BY Y" +
+                    " | SELECT COUNT(*) FROM (SELECT YEAR(BIRTHDATE) AS Y, COUNT(*) AS CNT FROM AUTHOR GROUP BY Y)" +
+                    " COUNT_TARGET",
+            "SELECT DISTINCT COUNTRY FROM AUTHOR ORDER BY COUNTRY" +
+                    " | SELECT COUNT(*) FROM (SELECT DISTINCT COUNTRY FROM AUTHOR) COUNT_TARGET",
+            "SELECT MAX(BIRTHDATE) FROM AUTHOR" +
+                    " | SELECT COUNT(*) FROM (SELECT MAX(BIRTHDATE) FROM AUTHOR) COUNT_TARGET",
+            "SELECT COALESCE(SUM(PRICE), 0) AS TOTAL FROM BOOK WHERE AUTHOR_ID = ?" +
+                    " | SELECT COUNT(*) FROM (SELECT COALESCE(SUM(PRICE), 0) AS TOTAL FROM BOOK" +
+                    " WHERE AUTHOR_ID = ?) COUNT_TARGET",
+            "SELECT ROUND(AVG(PRICE), 2) FROM BOOK" +
+                    " | SELECT COUNT(*) FROM (SELECT ROUND(AVG(PRICE), 2) FROM BOOK) COUNT_TARGET",
+            "SELECT ID, (SELECT COUNT(*) FROM BOOK WHERE AUTHOR_ID = A.ID) AS BOOKS FROM AUTHOR A" +
+                    " | SELECT COUNT(*) FROM AUTHOR A",
+    })
+    void createsCorrectCountSql(String sql, String expected) {
+        // given
+        MySQLDialect dialect = new MySQLDialect();
+
+        // when
+        RewrittenSql rewritten = dialect.rewrite(sql);
+
+        // then
+        assertThat(rewritten.getCountSql()).isEqualTo(expected);
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "SELECT B.NAME, P.NAME FROM BOOK B LEFT JOIN PUBLISHER P ON P.ID = B.PUBLISHER_ID WHERE B.PRICE > 0" +
+                    " | SELECT COUNT(*) FROM BOOK B WHERE B.PRICE > 0",
+            "SELECT B.NAME FROM BOOK B LEFT JOIN PUBLISHER P ON P.ID = B.PUBLISHER_ID WHERE P.COUNTRY = 'KR'" +
+                    " | SELECT COUNT(*) FROM BOOK B LEFT JOIN PUBLISHER P ON P.ID = B.PUBLISHER_ID" +
+                    " WHERE P.COUNTRY = 'KR'",
+            "SELECT B.NAME FROM BOOK B LEFT JOIN PUBLISHER P ON P.COUNTRY = B.NAME" +
+                    " | SELECT COUNT(*) FROM BOOK B LEFT JOIN PUBLISHER P ON P.COUNTRY = B.NAME",
+            "SELECT B.NAME FROM BOOK B LEFT JOIN PUBLISHER P ON P.ID = B.PUBLISHER_ID WHERE PRICE > 0" +
+                    " | SELECT COUNT(*) FROM BOOK B LEFT JOIN PUBLISHER P ON P.ID = B.PUBLISHER_ID WHERE PRICE > 0",
+            "SELECT A.NAME, C.BOOKS FROM AUTHOR A LEFT JOIN (SELECT AUTHOR_ID, COUNT(*) AS BOOKS FROM BOOK" +
+                    " GROUP BY AUTHOR_ID) C ON C.AUTHOR_ID = A.ID" +
+                    " | SELECT COUNT(*) FROM AUTHOR A",
+            "SELECT A.ID FROM (SELECT ID, (SELECT MAX(PRICE) FROM BOOK) AS PRICE FROM AUTHOR ORDER BY NAME) A" +
+                    " | SELECT COUNT(*) FROM (SELECT ID FROM AUTHOR) A",
+            "SELECT A.ID FROM (SELECT ID FROM AUTHOR ORDER BY NAME LIMIT 10) A" +
+                    " | SELECT COUNT(*) FROM (SELECT ID FROM AUTHOR ORDER BY NAME LIMIT 10) A",
+    })
+    void optimizesCountSql(String sql, String expected) {
+        // given
+        MySQLDialect dialect = new MySQLDialect();
+        dialect.setCountSqlOptimizer(new CountSqlOptimizer().addUniqueKey("PUBLISHER", "ID"));
+
+        // when
+        RewrittenSql rewritten = dialect.rewrite(sql);
+
+        // then
+        assertThat(rewritten.getCountSql()).isEqualTo(expected);
+    }
+
+    @Test
+    void keepsParameterMappingsOfSelectItemsInCountSql() {
+        // given
+        MySQLDialect dialect = new MySQLDialect();
+        String sql = "SELECT DISTINCT CONCAT(NAME, ?) AS NAME FROM AUTHOR WHERE COUNTRY = ? ORDER BY FIELD(ID, ?)";
+
+        // when
+        BoundSql origin = createBoundSql(sql, 1, 10, "query.suffix", "query.country", "query.id");
+        BoundSql boundSql = dialect.createCountBoundSql(origin, config);
+
+        // then
+        assertThat(boundSql.getParameterMappings().stream().map(ParameterMapping::getProperty).collect(toList()))
+                .containsExactly("query.suffix", "query.country");
+    }
+
+    @Test
+    void ignoresMappedParameterCharacterInStringLiteral() {
+        // given
+        MySQLDialect dialect = new MySQLDialect();
+        String sql = "SELECT ID, CONCAT(NAME, '?') AS NAME FROM AUTHOR WHERE COUNTRY = ? AND NAME <> '?'" +
+                " ORDER BY FIELD(ID, ?)";
+
+        // when
+        BoundSql origin = createBoundSql(sql, 1, 10, "query.country", "query.id");
+        BoundSql countBoundSql = dialect.createCountBoundSql(origin, config);
+        BoundSql itemsBoundSql = dialect.createOffsetLimitBoundSql(origin, config,
+                (PageRequest) origin.getParameterObject());
+
+        // then
+        assertThat(countBoundSql.getParameterMappings().stream().map(ParameterMapping::getProperty).collect(toList()))
+                .containsExactly("query.country");
+        assertThat(itemsBoundSql.getParameterMappings().stream().map(ParameterMapping::getProperty).collect(toList()))
+                .containsExactly("query.country", "query.id", "__page_LIMIT", "__page_OFFSET");
+    }
+
+    @Test
+    void removesParameterMappingsOfRemovedJoin() {
+        // given
+        MySQLDialect dialect = new MySQLDialect();
+        dialect.setCountSqlOptimizer(new CountSqlOptimizer().addUniqueKey("PUBLISHER", "ID"));
+        String sql = "SELECT B.NAME, P.NAME FROM BOOK B LEFT JOIN PUBLISHER P" +
+                " ON P.ID = B.PUBLISHER_ID AND P.COUNTRY = ? WHERE B.PRICE > ?";
+
+        // when
+        BoundSql origin = createBoundSql(sql, 1, 10, "query.country", "query.price");
+        BoundSql boundSql = dialect.createCountBoundSql(origin, config);
+
+        // then
+        assertThat(boundSql.getSql()).isEqualTo("SELECT COUNT(*) FROM BOOK B WHERE B.PRICE > ?");
+        assertThat(boundSql.getParameterMappings().stream().map(ParameterMapping::getProperty).collect(toList()))
+                .containsExactly("query.price");
+    }
+
+    @Test
+    void rewritesSimpleQueryWithTokenizer() {
+        // given
+        MySQLDialect dialect = new MySQLDialect();
+        dialect.setRewriteMode(RewriteMode.TOKENIZER);
+        String sql = "SELECT ID, CONCAT(NAME, ?) AS NAME FROM AUTHOR WHERE COUNTRY = ? ORDER BY FIELD(ID, ?)";
+
+        // when
+        BoundSql origin = createBoundSql(sql, 2, 10, "query.suffix", "query.country", "query.id");
+        BoundSql countBoundSql = dialect.createCountBoundSql(origin, config);
+        BoundSql itemsBoundSql = dialect.createOffsetLimitBoundSql(origin, config,
+                (PageRequest) origin.getParameterObject());
+
+        // then
+        assertThat(countBoundSql.getSql()).isEqualTo("SELECT COUNT(*) FROM AUTHOR WHERE COUNTRY = ?");
+        assertThat(countBoundSql.getParameterMappings().stream().map(ParameterMapping::getProperty).collect(toList()))
+                .containsExactly("query.country");
+        assertThat(itemsBoundSql.getSql()).isEqualTo(sql + " LIMIT ? OFFSET ?");
+        assertThat(itemsBoundSql.getParameterMappings().stream().map(ParameterMapping::getProperty).collect(toList()))
+                .containsExactly("query.suffix", "query.country", "query.id", "__page_LIMIT", "__page_OFFSET");
+        assertThat(itemsBoundSql.getAdditionalParameter("__page_OFFSET")).isEqualTo(10);
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "SELECT ID, NAME FROM AUTHOR                                         | true",
+            "select id from author where name = 'a, b' -- JOIN, GROUP BY        | true",
+            "SELECT ID FROM AUTHOR WHERE ID IN (SELECT AUTHOR_ID FROM BOOK)     | false",
+            "SELECT B.NAME FROM BOOK B JOIN AUTHOR A ON A.ID = B.AUTHOR_ID      | false",
+            "SELECT B.NAME FROM BOOK B, AUTHOR A WHERE A.ID = B.AUTHOR_ID       | false",
+            "SELECT DISTINCT COUNTRY FROM AUTHOR                                | false",
+            "SELECT COUNTRY, COUNT(*) FROM AUTHOR GROUP BY COUNTRY              | false",
+            "SELECT MAX(BIRTHDATE) FROM AUTHOR                                  | false",
+            "SELECT COALESCE(SUM(PRICE), 0) AS TOTAL FROM BOOK WHERE AUTHOR_ID = ? | false",
+            "SELECT ROUND(AVG(PRICE), 2) FROM BOOK                              | false",
+            "SELECT ID, RANK() OVER (ORDER BY ID) AS NO FROM AUTHOR             | false",
+            "SELECT ID FROM AUTHOR ORDER BY ID LIMIT 10                         | false",
+            "SELECT ID FROM AUTHOR UNION ALL SELECT ID FROM BOOK                | false",
+            "SELECT ID FROM (SELECT ID FROM AUTHOR) A                           | false",
+            "SELECT ID FROM AUTHOR WHERE NAME = 'unclosed                       | false",
+    })
+    void tokenizesOnlySimpleQuery(String sql, boolean expected) {
+        // when
+        SimpleSelect select = SimpleSelect.parse(sql);
+
+        // then
+        assertThat(select != null).isEqualTo(expected);
+    }
+
+    @Test
+    void wrapsQueryThatCannotBeParsed() {
+        // given
+        MySQLDialect dialect = new MySQLDialect();
+        String sql = "SELECT ID, NAME FROM AUTHOR WHERE MATCH (NAME) AGAINST (? IN BOOLEAN MODE) ORDER BY ID";
+
+        // when
+        BoundSql origin = createBoundSql(sql, 1, 10, "query.keyword");
+        BoundSql countBoundSql = dialect.createCountBoundSql(origin, config);
+        BoundSql itemsBoundSql = dialect.createOffsetLimitBoundSql(origin, config,
+                (PageRequest) origin.getParameterObject());
+
+        // then
+        assertThat(countBoundSql.getSql()).isEqualTo("SELECT COUNT(*) FROM (" + sql + ") COUNT_TARGET");
+        assertThat(countBoundSql.getParameterMappings().stream().map(ParameterMapping::getProperty).collect(toList()))
+                .containsExactly("query.keyword");
+        assertThat(itemsBoundSql.getSql()).isEqualTo("SELECT * FROM (" + sql + ") PAGE_ORIGIN LIMIT ? OFFSET ?");
+        assertThat(itemsBoundSql.getParameterMappings().stream().map(ParameterMapping::getProperty).collect(toList()))
+                .containsExactly("query.keyword", "__page_LIMIT", "__page_OFFSET");
+    }
+
+    @Test
+    void keepsAllParametersOfQueryThatCannotBeParsed() {
+        // given
+        MySQLDialect dialect = new MySQLDialect();
+        String sql = "SELECT ID FROM AUTHOR WHERE NAME <> 'it\\'s' AND MATCH (NAME) AGAINST (? IN BOOLEAN MODE)";
+
+        // when
+        BoundSql origin = createBoundSql(sql, 1, 10, "query.keyword");
+        BoundSql countBoundSql = dialect.createCountBoundSql(origin, config);
+
+        // then
+        assertThat(countBoundSql.getSql()).isEqualTo("SELECT COUNT(*) FROM (" + sql + ") COUNT_TARGET");
+        assertThat(countBoundSql.getParameterMappings().stream().map(ParameterMapping::getProperty).collect(toList()))
+                .containsExactly("query.keyword");
+    }
+
+    @Test
+    void failsToRewriteQueryThatCannotBeParsedWithoutFallback() {
+        // given
+        MySQLDialect dialect = new MySQLDialect();
+        dialect.setFallbackEnabled(false);
+        String sql = "SELECT ID, NAME FROM AUTHOR WHERE MATCH (NAME) AGAINST (? IN BOOLEAN MODE) ORDER BY ID";
+
+        // when & then
+        assertThatThrownBy(() -> dialect.rewrite(sql)).isInstanceOf(RuntimeException.class);
+    }
+
+    @Test
+    void createsKeysetBoundSql() {
+        // given
+        MySQLDialect dialect = new MySQLDialect();
+        String sql = "SELECT ID, NAME FROM AUTHOR WHERE COUNTRY = ? GROUP BY ID, NAME HAVING COUNT(*) > ? ORDER BY ?";
+        List<SortKey> sortKeys = Arrays.asList(SortKey.desc("BIRTHDATE", "birthdate").nullable(),
+                SortKey.asc("ID", "id"));
+        LocalDate birthdate = LocalDate.of(1955, 10, 28);
+        String cursor = CursorCodec.encode(sortKeys, new Object[]{birthdate, 2}, false);
+
+        // when
+        BoundSql origin = createBoundSql(sql, 1, 10, "query.country", "query.count", "query.order");
+        Keyset keyset = CursorCodec.decode(cursor, sortKeys);
+        BoundSql boundSql = dialect.createKeysetBoundSql(origin, config, keyset,
+                (PageRequest) origin.getParameterObject());
+
+        // then
+        assertThat(boundSql.getSql()).isEqualTo("SELECT ID, NAME FROM AUTHOR " +
+                "WHERE (COUNTRY = ?) AND ((BIRTHDATE < ?) OR (BIRTHDATE = ? AND ID > ?)) " +
+                "GROUP BY ID, NAME HAVING COUNT(*) > ? " +
+                "ORDER BY BIRTHDATE IS NULL DESC, BIRTHDATE DESC, ID LIMIT ?");
+        assertThat(boundSql.getParameterMappings().stream().map(ParameterMapping::getProperty).collect(toList()))
+                .containsExactly("query.country", "__keyset_0", "__keyset_1", "__keyset_2", "query.count",
+                        "__page_LIMIT");
+        assertThat(boundSql.getAdditionalParameter("__keyset_1")).isEqualTo(birthdate);
+        assertThat(boundSql.getAdditionalParameter("__keyset_2")).isEqualTo(2);
+    }
+
+    @Test
+    void pushesDownRowLimitIntoUnionAllBranches() {
+        // given
+        MySQLDialect dialect = new MySQLDialect();
+        String sql = "SELECT ID, NAME AS TITLE FROM AUTHOR WHERE COUNTRY = ? " +
+                "UNION ALL SELECT ID, NAME FROM BOOK WHERE TITLE LIKE ? ORDER BY TITLE DESC, 1";
+
+        // when
+        BoundSql origin = createBoundSql(sql, 3, 10, "query.country", "query.title");
+        BoundSql itemsBoundSql = dialect.createOffsetLimitBoundSql(origin, config,
+                (PageRequest) origin.getParameterObject());
+        BoundSql countBoundSql = dialect.createCountBoundSql(origin, config);
+
+        // then
+        assertThat(itemsBoundSql.getSql()).isEqualTo("SELECT * FROM (" +
+                "(SELECT ID, NAME AS TITLE FROM AUTHOR WHERE COUNTRY = ? ORDER BY 2 DESC, 1 LIMIT ?) UNION ALL " +
+                "(SELECT ID, NAME FROM BOOK WHERE TITLE LIKE ? ORDER BY 2 DESC, 1 LIMIT ?)) PAGE_ORIGIN " +
+                "ORDER BY TITLE DESC, 1 LIMIT ? OFFSET ?");
+        assertThat(itemsBoundSql.getParameterMappings().stream().map(ParameterMapping::getProperty).collect(toList()))
+                .containsExactly("query.country", "__page_END_ROW_NUM", "query.title", "__page_END_ROW_NUM",
+                        "__page_LIMIT", "__page_OFFSET");
+        assertThat(itemsBoundSql.getAdditionalParameter("__page_END_ROW_NUM")).isEqualTo(30);
+        assertThat(countBoundSql.getSql()).isEqualTo("SELECT SUM(BRANCH_COUNT) FROM (" +
+                "SELECT COUNT(*) AS BRANCH_COUNT FROM AUTHOR WHERE COUNTRY = ? UNION ALL " +
+                "SELECT COUNT(*) AS BRANCH_COUNT FROM BOOK WHERE TITLE LIKE ?) COUNT_TARGET");
+        assertThat(countBoundSql.getParameterMappings().stream().map(ParameterMapping::getProperty).collect(toList()))
+                .containsExactly("query.country", "query.title");
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "SELECT ID FROM AUTHOR UNION SELECT AUTHOR_ID FROM BOOK ORDER BY ID" +
+                    " | SELECT * FROM (SELECT ID FROM AUTHOR UNION SELECT AUTHOR_ID FROM BOOK) PAGE_ORIGIN" +
+                    " ORDER BY ID LIMIT ? OFFSET ?" +
+                    " | SELECT COUNT(*) FROM (SELECT ID FROM AUTHOR UNION SELECT AUTHOR_ID FROM BOOK) COUNT_TARGET",
+            "SELECT ID FROM AUTHOR INTERSECT SELECT AUTHOR_ID FROM BOOK" +
+                    " | SELECT * FROM (SELECT ID FROM AUTHOR INTERSECT SELECT AUTHOR_ID FROM BOOK) PAGE_ORIGIN" +
+                    " LIMIT ? OFFSET ?" +
+                    " | SELECT COUNT(*) FROM (SELECT ID FROM AUTHOR INTERSECT SELECT AUTHOR_ID FROM BOOK) COUNT_TARGET",
+            "SELECT ID FROM AUTHOR UNION ALL SELECT AUTHOR_ID FROM BOOK" +
+                    " | SELECT * FROM ((SELECT ID FROM AUTHOR LIMIT ?) UNION ALL (SELECT AUTHOR_ID FROM BOOK LIMIT ?))" +
+                    " PAGE_ORIGIN LIMIT ? OFFSET ?" +
+                    " | SELECT SUM(BRANCH_COUNT) FROM (SELECT COUNT(*) AS BRANCH_COUNT FROM AUTHOR UNION ALL" +
+                    " SELECT COUNT(*) AS BRANCH_COUNT FROM BOOK) COUNT_TARGET",
+            "SELECT ID FROM AUTHOR UNION ALL SELECT AUTHOR_ID FROM BOOK ORDER BY AUTHOR.ID LIMIT 5" +
+                    " | SELECT * FROM (SELECT ID FROM AUTHOR UNION ALL SELECT AUTHOR_ID FROM BOOK) PAGE_ORIGIN" +
+                    " ORDER BY AUTHOR.ID LIMIT ? OFFSET ?" +
+                    " | SELECT SUM(BRANCH_COUNT) FROM (SELECT COUNT(*) AS BRANCH_COUNT FROM AUTHOR UNION ALL" +
+                    " SELECT COUNT(*) AS BRANCH_COUNT FROM BOOK) COUNT_TARGET",
+            "(SELECT ID FROM AUTHOR ORDER BY ID LIMIT 3) UNION ALL (SELECT AUTHOR_ID FROM BOOK) ORDER BY 1" +
+                    " | SELECT * FROM ((SELECT ID FROM AUTHOR ORDER BY ID LIMIT 3) UNION ALL" +
+                    " (SELECT AUTHOR_ID FROM BOOK ORDER BY 1 LIMIT ?)) PAGE_ORIGIN ORDER BY 1 LIMIT ? OFFSET ?" +
+                    " | SELECT SUM(BRANCH_COUNT) FROM (SELECT COUNT(*) AS BRANCH_COUNT FROM" +
+                    " (SELECT ID FROM AUTHOR ORDER BY ID LIMIT 3) COUNT_TARGET UNION ALL" +
+                    " SELECT COUNT(*) AS BRANCH_COUNT FROM BOOK) COUNT_TARGET",
+    })
+    void rewritesSetOperation(String sql, String expectedItemsSql, String expectedCountSql) {
+        // given
+        MySQLDialect dialect = new MySQLDialect();
+
+        // when
+        RewrittenSql rewritten = dialect.rewrite(sql);
+
+        // then
+        assertThat(rewritten.getItemsSqlTemplate().getSql(new PageRequest())).isEqualTo(expectedItemsSql);
+        assertThat(rewritten.getCountSql()).isEqualTo(expectedCountSql);
+    }
+
+    @Test
+    void createsDeferredJoinBoundSql() {
+        // given
+        MySQLDialect dialect = new MySQLDialect();
+        dialect.setCountSqlOptimizer(new CountSqlOptimizer().addUniqueKey("COUNTRY", "CODE"));
+        String sql = "SELECT A.ID, A.NAME, C.NAME AS COUNTRY_NAME FROM AUTHOR A " +
+                "LEFT JOIN COUNTRY C ON C.CODE = A.COUNTRY " +
+                "WHERE A.NAME LIKE ? AND A.BIRTHDATE > ? ORDER BY A.BIRTHDATE DESC, A.ID";
+
+        // when
+        BoundSql origin = createBoundSql(sql, 5000, 20, "query.name", "query.birthdate");
+        BoundSql boundSql = dialect.createDeferredJoinBoundSql(origin, config,
+                (PageRequest) origin.getParameterObject(), "A.ID");
+
+        // then
+        assertThat(boundSql.getSql()).isEqualTo("SELECT A.ID, A.NAME, C.NAME AS COUNTRY_NAME FROM AUTHOR A " +
+                "LEFT JOIN COUNTRY C ON C.CODE = A.COUNTRY " +
+                "INNER JOIN (SELECT A.ID AS PAGE_KEY FROM AUTHOR A LEFT JOIN COUNTRY C ON C.CODE = A.COUNTRY " +
+                "WHERE A.NAME LIKE ? AND A.BIRTHDATE > ? ORDER BY A.BIRTHDATE DESC, A.ID LIMIT ? OFFSET ?) PAGE_KEYS " +
+                "ON A.ID = PAGE_KEYS.PAGE_KEY ORDER BY A.BIRTHDATE DESC, A.ID");
+        assertThat(boundSql.getParameterMappings().stream().map(ParameterMapping::getProperty).collect(toList()))
+                .containsExactly("query.name", "query.birthdate", "__page_LIMIT", "__page_OFFSET");
+        assertThat(boundSql.getAdditionalParameter("__page_OFFSET")).isEqualTo(99980);
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "SELECT ID, NAME AS N FROM AUTHOR ORDER BY N        | NAME",
+            "SELECT ID, NAME FROM AUTHOR ORDER BY 2             | NAME",
+            "SELECT ID, UPPER(NAME) AS N FROM AUTHOR ORDER BY N | UPPER(NAME)",
+    })
+    void ordersKeysOfDeferredJoinByExpressionOfSelectItem(String sql, String keysOrderBy) {
+        // given
+        MySQLDialect dialect = new MySQLDialect();
+
+        // when
+        BoundSql origin = createBoundSql(sql, 3, 10);
+        BoundSql boundSql = dialect.createDeferredJoinBoundSql(origin, config,
+                (PageRequest) origin.getParameterObject(), "ID");
+
+        // then
+        assertThat(boundSql.getSql()).isEqualTo(sql.substring(0, sql.indexOf(" ORDER BY")) +
+                " INNER JOIN (SELECT ID AS PAGE_KEY FROM AUTHOR ORDER BY " + keysOrderBy + " LIMIT ? OFFSET ?)" +
+                " PAGE_KEYS ON ID = PAGE_KEYS.PAGE_KEY" + sql.substring(sql.indexOf(" ORDER BY")));
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "SELECT A.ID, B.TITLE FROM AUTHOR A INNER JOIN BOOK B ON B.AUTHOR_ID = A.ID" +
+                    " WHERE B.TITLE LIKE 'x%' ORDER BY A.ID | A.ID",
+            "SELECT A.ID, C.NAME FROM AUTHOR A LEFT JOIN COUNTRY C ON C.CODE = A.COUNTRY ORDER BY A.ID | A.ID",
+            "SELECT A.ID, C.NAME FROM AUTHOR A LEFT JOIN COUNTRY C ON C.ID = A.COUNTRY_ID ORDER BY A.ID | C.ID",
+            "SELECT A.ID, P.NAME FROM AUTHOR A, PUBLISHER P WHERE P.ID = A.PUBLISHER_ID ORDER BY A.ID | A.ID",
+    })
+    void paginatesWithOffsetWhenKeyIsJoinedToManyRows(String sql, String keyColumn) {
+        // given
+        MySQLDialect dialect = new MySQLDialect();
+        dialect.setCountSqlOptimizer(new CountSqlOptimizer().addUniqueKey("AUTHOR", "ID")
+                .addUniqueKey("BOOK", "ID").addUniqueKey("COUNTRY", "ID").addUniqueKey("PUBLISHER", "ID"));
+
+        // when
+        BoundSql origin = createBoundSql(sql, 3, 10);
+        PageRequest pageRequest = (PageRequest) origin.getParameterObject();
+        BoundSql boundSql = dialect.createDeferredJoinBoundSql(origin, config, pageRequest, keyColumn);
+
+        // then
+        assertThat(boundSql.getSql()).isEqualTo(dialect.createOffsetLimitBoundSql(origin, config, pageRequest).getSql());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "SELECT COUNTRY, COUNT(*) FROM AUTHOR WHERE NAME LIKE ? GROUP BY COUNTRY",
+            "SELECT ID, ? AS KEYWORD FROM AUTHOR WHERE NAME LIKE ? ORDER BY ID",
+            "SELECT A.ID FROM AUTHOR A JOIN BOOK B ON B.AUTHOR_ID = A.ID AND B.TITLE = ? WHERE A.NAME LIKE ?",
+            "SELECT ID FROM AUTHOR WHERE NAME LIKE ? ORDER BY FIELD(COUNTRY, ?)",
+            "SELECT ID FROM AUTHOR WHERE NAME LIKE ? UNION ALL SELECT ID FROM BOOK WHERE TITLE = ?",
+    })
+    void paginatesWithOffsetWhenJoinCannotBeDeferred(String sql) {
+        // given
+        MySQLDialect dialect = new MySQLDialect();
+
+        // when
+        BoundSql origin = createBoundSql(sql, 3, 10, "query.a", "query.b");
+        PageRequest pageRequest = (PageRequest) origin.getParameterObject();
+        BoundSql boundSql = dialect.createDeferredJoinBoundSql(origin, config, pageRequest, "ID");
+
+        // then
+        assertThat(boundSql.getSql()).isEqualTo(dialect.createOffsetLimitBoundSql(origin, config, pageRequest).getSql());
+    }
+
+    @Test
+    void estimatesCountOnlyOfSingleSelect() throws SQLException {
+        // given
+        MySQLDialect dialect = new MySQLDialect();
+        BoundSql joined = dialect.createCountBoundSql(createBoundSql("SELECT A.ID, C.NAME FROM AUTHOR A " +
+                "INNER JOIN COUNTRY C ON C.ID = A.COUNTRY_ID WHERE A.NAME LIKE ?", 1, 10, "query.name"), config);
+        BoundSql grouped = dialect.createCountBoundSql(createBoundSql(
+                "SELECT COUNTRY, COUNT(*) AS CNT FROM AUTHOR GROUP BY COUNTRY", 1, 10), config);
+        BoundSql union = dialect.createCountBoundSql(createBoundSql(
+                "SELECT ID FROM AUTHOR UNION ALL SELECT AUTHOR_ID FROM BOOK", 1, 10), config);
+
+        // when
+        Long joinedEstimate = dialect.estimateCount(explain(
+                new Object[]{1, "SIMPLE", 200L, 10.0}, new Object[]{1, "SIMPLE", 1L, 100.0}), joined, NO_PARAMETERS);
+        Long groupedEstimate = dialect.estimateCount(explain(
+                new Object[]{1, "PRIMARY", 30L, 100.0}, new Object[]{2, "DERIVED", 1000L, 100.0}),
+                grouped, NO_PARAMETERS);
+        Long unionEstimate = dialect.estimateCount(explain(new Object[]{1, "PRIMARY", 2L, 100.0},
+                new Object[]{2, "DERIVED", 1000L, 100.0}, new Object[]{3, "UNION", 5000L, 100.0}),
+                union, NO_PARAMETERS);
+
+        // then
+        assertThat(joinedEstimate).isEqualTo(20);
+        assertThat(grouped.getSql()).isEqualTo(
+                "SELECT COUNT(*) FROM (SELECT 1 FROM AUTHOR GROUP BY COUNTRY) COUNT_TARGET");
+        assertThat(groupedEstimate).isNull();
+        assertThat(union.getSql()).startsWith("SELECT SUM(BRANCH_COUNT) FROM (");
+        assertThat(unionEstimate).isNull();
+    }
+
+    /**
+     * Returns connection whose "EXPLAIN" has the rows with columns of MySQL.
+     */
+    private static Connection explain(Object[]... rows) {
+        SimpleResultSet resultSet = new SimpleResultSet();
+        resultSet.addColumn("id", Types.INTEGER, 10, 0);
+        resultSet.addColumn("select_type", Types.VARCHAR, 20, 0);
+        resultSet.addColumn("rows", Types.BIGINT, 19, 0);
+        resultSet.addColumn("filtered", Types.DOUBLE, 17, 0);
+        for (Object[] row : rows) {
+            resultSet.addRow(row);
+        }
+
+        PreparedStatement statement = proxy(PreparedStatement.class,
+                (proxy, method, args) -> method.getName().equals("executeQuery") ? resultSet : null);
+        return proxy(Connection.class,
+                (proxy, method, args) -> method.getName().equals("prepareStatement") ? statement : null);
+    }
+
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+
+    private BoundSql createBoundSql(String sql, int page, int size, String... properties) {
+        PageRequest pageRequest = new PageRequest();
+        pageRequest.setPage(page);
+        pageRequest.setSize(size);
+
+        List<ParameterMapping> mappings = Arrays.stream(properties)
+                .map(it -> new ParameterMapping.Builder(config, it, Object.class).build())
+                .collect(toList());
+
+        return new BoundSql(config, sql, new ArrayList<>(mappings), pageRequest);
+    }
+
+}
@@ -0,0 +1,159 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Im Sejin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.imsejin.mybatis.pagination.dialect;
+
+import io.github.imsejin.mybatis.pagination.model.PageRequest;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.ArrayList;
+import java.util.Collections;
+
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OracleDialectTest {
+
+    private final Configuration config = new Configuration();
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "12 | SELECT ID, NAME FROM AUTHOR WHERE COUNTRY = ? ORDER BY ID" +
+                    " | SELECT /*+ FIRST_ROWS(20) */ ID, NAME FROM AUTHOR WHERE COUNTRY = ? ORDER BY ID" +
+                    " OFFSET ? ROWS FETCH NEXT ? ROWS ONLY" +
+                    " | query.country, __page_OFFSET, __page_LIMIT",
+            "11 | SELECT ID, NAME FROM AUTHOR WHERE COUNTRY = ? ORDER BY ID" +
+                    " | SELECT * FROM (SELECT /*+ FIRST_ROWS(20) */ PAGE_ORIGIN.*, ROWNUM AS PAGE_ROWNUM" +
+                    " FROM (SELECT ID, NAME FROM AUTHOR WHERE COUNTRY = ? ORDER BY ID) PAGE_ORIGIN" +
+                    " WHERE ROWNUM <= ?) WHERE PAGE_ROWNUM >= ?" +
+                    " | query.country, __page_END_ROW_NUM, __page_START_ROW_NUM",
+            "11 | SELECT ID, NAME FROM AUTHOR WHERE COUNTRY = ?" +
+                    " | SELECT * FROM (SELECT /*+ FIRST_ROWS(20) */ ID, NAME, ROWNUM AS PAGE_ROWNUM FROM AUTHOR" +
+                    " WHERE (COUNTRY = ?) AND ROWNUM <= ?) WHERE PAGE_ROWNUM >= ?" +
+                    " | query.country, __page_END_ROW_NUM, __page_START_ROW_NUM",
+            "11 | SELECT COUNTRY FROM AUTHOR WHERE COUNTRY <> ? GROUP BY COUNTRY" +
+                    " | SELECT * FROM (SELECT /*+ FIRST_ROWS(20) */ PAGE_ORIGIN.*, ROWNUM AS PAGE_ROWNUM" +
+                    " FROM (SELECT COUNTRY FROM AUTHOR WHERE COUNTRY <> ? GROUP BY COUNTRY) PAGE_ORIGIN" +
+                    " WHERE ROWNUM <= ?) WHERE PAGE_ROWNUM >= ?" +
+                    " | query.country, __page_END_ROW_NUM, __page_START_ROW_NUM",
+    })
+    void createsOffsetLimitBoundSqlByVersion(int majorVersion, String sql, String expected, String properties) {
+        // given
+        OracleDialect dialect = new OracleDialect(majorVersion);
+        PageRequest pageRequest = new PageRequest();
+        pageRequest.setPage(3);
+        pageRequest.setSize(20);
+        ParameterMapping mapping = new ParameterMapping.Builder(config, "query.country", Object.class).build();
+        BoundSql origin = new BoundSql(config, sql, new ArrayList<>(Collections.singletonList(mapping)), pageRequest);
+
+        // when
+        BoundSql boundSql = dialect.createOffsetLimitBoundSql(origin, config, pageRequest);
+
+        // then
+        assertThat(boundSql.getSql()).isEqualTo(expected);
+        assertThat(boundSql.getParameterMappings().stream().map(ParameterMapping::getProperty).collect(toList()))
+                .containsExactly(properties.split(", "));
+        if (majorVersion < OracleDialect.ROW_LIMITING_CLAUSE_VERSION) {
+            assertThat(boundSql.getAdditionalParameter("__page_START_ROW_NUM")).isEqualTo(41);
+            assertThat(boundSql.getAdditionalParameter("__page_END_ROW_NUM")).isEqualTo(60);
+        }
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "12 | SELECT ID, NAME FROM AUTHOR WHERE COUNTRY = ? ORDER BY ID",
+            "11 | SELECT ID, NAME FROM AUTHOR WHERE COUNTRY = ? ORDER BY ID",
+            "11 | SELECT ID, NAME FROM AUTHOR WHERE COUNTRY = ?",
+    })
+    void createsCountSqlWithoutRowLimiting(int majorVersion, String sql) {
+        // given
+        OracleDialect dialect = new OracleDialect(majorVersion);
+
+        // when
+        RewrittenSql rewritten = dialect.rewrite(sql);
+
+        // then
+        assertThat(rewritten.getCountSql()).isEqualTo("SELECT COUNT(*) FROM AUTHOR WHERE COUNTRY = ?");
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "SELECT * FROM ORDERS WHERE CUSTOMER_ID IN (SELECT ID FROM (SELECT ID FROM CUSTOMER" +
+                    " ORDER BY SCORE DESC) WHERE ROWNUM <= 10)" +
+                    " | SELECT COUNT(*) FROM ORDERS WHERE CUSTOMER_ID IN (SELECT ID FROM (SELECT ID FROM CUSTOMER" +
+                    " ORDER BY SCORE DESC) WHERE ROWNUM <= 10)",
+            "SELECT C.ID FROM (SELECT ID FROM CUSTOMER ORDER BY SCORE DESC) C WHERE ROWNUM <= 10" +
+                    " | SELECT COUNT(*) FROM (SELECT ID FROM CUSTOMER ORDER BY SCORE DESC) C WHERE ROWNUM <= 10",
+            "SELECT * FROM ORDERS WHERE CUSTOMER_ID IN (SELECT ID FROM (SELECT ID FROM CUSTOMER" +
+                    " ORDER BY SCORE DESC) WHERE GRADE = 'A')" +
+                    " | SELECT COUNT(*) FROM ORDERS WHERE CUSTOMER_ID IN (SELECT ID FROM (SELECT ID FROM CUSTOMER)" +
+                    " WHERE GRADE = 'A')",
+    })
+    void keepsOrderByOfDerivedTableNumberedByRowNum(String sql, String expected) {
+        // given
+        OracleDialect dialect = new OracleDialect(11);
+        dialect.setCountSqlOptimizer(new CountSqlOptimizer());
+
+        // when
+        RewrittenSql rewritten = dialect.rewrite(sql);
+
+        // then
+        assertThat(rewritten.getCountSql()).isEqualTo(expected);
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "ID | SELECT ID, NAME FROM AUTHOR WHERE COUNTRY = ? ORDER BY NAME" +
+                    " | SELECT ID, NAME FROM AUTHOR INNER JOIN (SELECT AUTHOR.ROWID AS PAGE_KEY FROM AUTHOR" +
+                    " WHERE COUNTRY = ? ORDER BY NAME OFFSET ? ROWS FETCH NEXT ? ROWS ONLY) PAGE_KEYS" +
+                    " ON AUTHOR.ROWID = PAGE_KEYS.PAGE_KEY ORDER BY NAME",
+            "B.ID | SELECT A.NAME, B.TITLE FROM AUTHOR A JOIN BOOK B ON B.AUTHOR_ID = A.ID WHERE A.COUNTRY = ?" +
+                    " | SELECT A.NAME, B.TITLE FROM AUTHOR A JOIN BOOK B ON B.AUTHOR_ID = A.ID" +
+                    " INNER JOIN (SELECT B.ROWID AS PAGE_KEY FROM AUTHOR A JOIN BOOK B ON B.AUTHOR_ID = A.ID" +
+                    " WHERE A.COUNTRY = ? OFFSET ? ROWS FETCH NEXT ? ROWS ONLY) PAGE_KEYS" +
+                    " ON B.ROWID = PAGE_KEYS.PAGE_KEY",
+    })
+    void createsDeferredJoinBoundSqlWithRowId(String keyColumn, String sql, String expected) {
+        // given
+        OracleDialect dialect = new OracleDialect(12);
+        dialect.setCountSqlOptimizer(new CountSqlOptimizer().addUniqueKey("AUTHOR", "ID"));
+        PageRequest pageRequest = new PageRequest();
+        pageRequest.setPage(3);
+        pageRequest.setSize(20);
+        ParameterMapping mapping = new ParameterMapping.Builder(config, "query.country", Object.class).build();
+        BoundSql origin = new BoundSql(config, sql, new ArrayList<>(Collections.singletonList(mapping)), pageRequest);
+
+        // when
+        BoundSql boundSql = dialect.createDeferredJoinBoundSql(origin, config, pageRequest, keyColumn);
+
+        // then
+        assertThat(boundSql.getSql()).isEqualTo(expected);
+        assertThat(boundSql.getParameterMappings().stream().map(ParameterMapping::getProperty).collect(toList()))
+                .containsExactly("query.country", "__page_OFFSET", "__page_LIMIT");
+    }
+
+}
@@ -1,16 +1,29 @@
 package io.github.imsejin.mybatis.pagination.interceptor;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.github.imsejin.mybatis.AbstractControllerTest;
+import io.github.imsejin.mybatis.example.author.mapper.AuthorMapper;
+import io.github.imsejin.mybatis.example.author.model.Author;
+import io.github.imsejin.mybatis.pagination.model.StreamRequest;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.regex.Pattern;
 import java.util.stream.IntStream;
 
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.matchesPattern;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
@@ -20,6 +33,9 @@ class PaginationInterceptorTest extends AbstractControllerTest {
 
     private final ObjectMapper objectMapper = new ObjectMapper();
 
+    @Autowired
+    private SqlSessionFactory sqlSessionFactory;
+
     @Test
     void test0() throws Exception {
         // given
@@ -111,4 +127,144 @@ class PaginationInterceptorTest extends AbstractControllerTest {
                 .andExpect(jsonPath("$.items[-1:]").isArray()); // $.items[(@.length-1)]
     }
 
+    @Test
+    void test3() throws Exception {
+        // given
+        String page = "1";
+        String size = "10";
+
+        // when
+        ResultActions actions = mockMvc.perform(
+                get("/authors/slice")
+                        .param("page", page)
+                        .param("size", size)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andDo(print());
+
+        // then
+        actions
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/json;charset=UTF-8"))
+                .andExpect(jsonPath("$.sliceInfo").isMap())
+                .andExpect(jsonPath("$.sliceInfo.page").value(page))
+                .andExpect(jsonPath("$.sliceInfo.size").value(size))
+                .andExpect(jsonPath("$.sliceInfo.hasNext").value(true))
+                .andExpect(jsonPath("$.sliceInfo.totalItems").doesNotExist())
+                .andExpect(jsonPath("$.items.length()").value(size));
+    }
+
+    @Test
+    void test4() throws Exception {
+        // given
+        String page = "100";
+        String size = "10";
+
+        // when
+        ResultActions actions = mockMvc.perform(
+                get("/authors/slice")
+                        .param("page", page)
+                        .param("size", size)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andDo(print());
+
+        // then
+        actions
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/json;charset=UTF-8"))
+                .andExpect(jsonPath("$.sliceInfo.page").value(page))
+                .andExpect(jsonPath("$.sliceInfo.hasNext").value(false))
+                .andExpect(jsonPath("$.items").isEmpty());
+    }
+
+    @Test
+    void test5() throws Exception {
+        // given
+        String size = "7";
+        int totalItems = objectMapper.readTree(mockMvc.perform(get("/authors").param("page", "1").param("size", "1"))
+                .andReturn().getResponse().getContentAsString()).at("/pageInfo/totalItems").asInt();
+
+        // when
+        List<Long> ids = new ArrayList<>();
+        List<String> previousCursors = new ArrayList<>();
+        String cursor = null;
+        do {
+            MockHttpServletRequestBuilder request = get("/authors/keyset").param("size", size);
+            if (cursor != null) request.param("cursor", cursor);
+
+            JsonNode body = objectMapper.readTree(mockMvc.perform(request.accept(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString());
+            body.at("/items").forEach(it -> ids.add(it.get("id").asLong()));
+            previousCursors.add(body.at("/keysetInfo/previousCursor").textValue());
+
+            cursor = body.at("/keysetInfo/nextCursor").textValue();
+        } while (cursor != null);
+
+        // then
+        assertThat(ids).hasSize(totalItems).doesNotHaveDuplicates();
+        assertThat(previousCursors.get(0)).isNull();
+        mockMvc.perform(get("/authors/keyset")
+                        .param("size", size)
+                        .param("cursor", previousCursors.get(2))
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.keysetInfo.hasNext").value(true))
+                .andExpect(jsonPath("$.keysetInfo.hasPrevious").value(true))
+                .andExpect(jsonPath("$.items[0].id").value(ids.get(7)))
+                .andExpect(jsonPath("$.items[6].id").value(ids.get(13)));
+    }
+
+    @Test
+    void test6() throws Exception {
+        // given
+        int totalItems = objectMapper.readTree(mockMvc.perform(get("/authors").param("page", "1").param("size", "1"))
+                .andReturn().getResponse().getContentAsString()).at("/pageInfo/totalItems").asInt();
+
+        // when
+        ResultActions actions = mockMvc.perform(
+                get("/authors")
+                        .param("page", "1")
+                        .param("size", "10")
+                        .param("countMode", "ESTIMATED")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andDo(print());
+
+        // then: H2 doesn't have row estimate in "EXPLAIN", so it falls back to exact count.
+        actions
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.pageInfo.totalItems").value(totalItems))
+                .andExpect(jsonPath("$.pageInfo.estimated").doesNotExist());
+    }
+
+    @Test
+    void test7() throws Exception {
+        // given
+        StreamRequest request = new StreamRequest();
+        request.setPage(2);
+        request.setSize(5);
+
+        // when
+        List<Author> sliceItems;
+        List<Author> cursorItems = new ArrayList<>();
+        List<Author> handledItems = new ArrayList<>();
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            AuthorMapper mapper = sqlSession.getMapper(AuthorMapper.class);
+            sliceItems = mapper.selectSlice(request);
+            try (Cursor<Author> cursor = mapper.selectCursor(request)) {
+                cursor.forEach(cursorItems::add);
+            }
+            mapper.selectWithHandler(request, context -> handledItems.add(context.getResultObject()));
+        }
+
+        // then
+        assertThat(sliceItems).hasSize(5);
+        assertThat(cursorItems).extracting(Author::getId).containsExactlyElementsOf(
+                sliceItems.stream().map(Author::getId).collect(toList()));
+        assertThat(handledItems).extracting(Author::getId).containsExactlyElementsOf(
+                sliceItems.stream().map(Author::getId).collect(toList()));
+        assertThat(request.getPageInfo()).isNotNull();
+        assertThat(request.getPageInfo().getPage()).isEqualTo(2);
+        assertThat(request.getPageInfo().getTotalItems()).isGreaterThanOrEqualTo(10);
+    }
+
 }
@@ -0,0 +1,130 @@
+package io.github.imsejin.mybatis.pagination.support.cache;
+
+import org.apache.ibatis.cache.CacheKey;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CountCacheTest {
+
+    private static final String COUNT_ID = "io.github.imsejin.mybatis.example.author.mapper.AuthorMapper.selectAll$count";
+
+    private static final String COUNT_SQL = "SELECT COUNT(*) FROM AUTHOR A LEFT JOIN BOOK B ON A.ID = B.AUTHOR_ID";
+
+    @Test
+    void invalidatesByTableOfOtherNamespace() {
+        // given
+        CountCache cache = new CountCache(10, 60_000, 0);
+        CacheKey key = new CacheKey(new Object[]{COUNT_ID, COUNT_SQL});
+        String[] dependencies = cache.getDependencies(COUNT_ID, COUNT_SQL);
+        cache.put(key, dependencies, cache.snapshot(dependencies), 35);
+
+        // when
+        Long cached = cache.get(key, () -> {
+        });
+        String[] writes = cache.getDependencies("io.github.imsejin.mybatis.example.book.mapper.BookMapper.insert",
+                "INSERT INTO BOOK (AUTHOR_ID, PUBLISHER_ID) VALUES (?, ?)");
+        cache.invalidate(Arrays.asList(writes));
+
+        // then
+        assertThat(dependencies).contains("table:AUTHOR", "table:BOOK",
+                "namespace:io.github.imsejin.mybatis.example.author.mapper.AuthorMapper");
+        assertThat(cached).isEqualTo(35);
+        assertThat(cache.get(key, () -> {
+        })).isNull();
+        assertThat(cache.stats().getHitCount()).isEqualTo(1);
+        assertThat(cache.stats().getMissCount()).isEqualTo(1);
+    }
+
+    @Test
+    void discardsTotalItemsLoadedDuringWrite() {
+        // given
+        CountCache cache = new CountCache(10, 60_000, 0);
+        CacheKey key = new CacheKey(new Object[]{COUNT_ID, COUNT_SQL});
+        String[] dependencies = cache.getDependencies(COUNT_ID, COUNT_SQL);
+
+        // when
+        long[] snapshot = cache.snapshot(dependencies);
+        cache.invalidate(Collections.singletonList("table:AUTHOR"));
+        cache.put(key, dependencies, snapshot, 35);
+
+        // then
+        assertThat(cache.get(key, () -> {
+        })).isNull();
+    }
+
+    @Test
+    void refreshesStaleTotalItemsOnlyOnce() throws InterruptedException {
+        // given
+        CountCache cache = new CountCache(10, 1, 60_000);
+        CacheKey key = new CacheKey(new Object[]{COUNT_ID, COUNT_SQL});
+        String[] dependencies = cache.getDependencies(COUNT_ID, COUNT_SQL);
+        cache.put(key, dependencies, cache.snapshot(dependencies), 35);
+        Thread.sleep(5);
+
+        // when
+        AtomicInteger refreshes = new AtomicInteger();
+        Long first = cache.get(key, refreshes::incrementAndGet);
+        Long second = cache.get(key, refreshes::incrementAndGet);
+
+        // then
+        assertThat(first).isEqualTo(35);
+        assertThat(second).isEqualTo(35);
+        assertThat(refreshes).hasValue(1);
+        assertThat(cache.getStaleHitCount()).isEqualTo(2);
+    }
+
+    @Test
+    void runsRefreshAgainWhenItIsRejected() throws InterruptedException {
+        // given
+        CountCache cache = new CountCache(10, 1, 60_000);
+        CacheKey key = new CacheKey(new Object[]{COUNT_ID, COUNT_SQL});
+        String[] dependencies = cache.getDependencies(COUNT_ID, COUNT_SQL);
+        cache.put(key, dependencies, cache.snapshot(dependencies), 35);
+        Thread.sleep(5);
+
+        // when
+        AtomicInteger refreshes = new AtomicInteger();
+        Long first = cache.get(key, () -> {
+            refreshes.incrementAndGet();
+            throw new RejectedExecutionException();
+        });
+        Long second = cache.get(key, refreshes::incrementAndGet);
+        Long third = cache.get(key, refreshes::incrementAndGet);
+
+        // then
+        assertThat(first).isEqualTo(35);
+        assertThat(second).isEqualTo(35);
+        assertThat(third).isEqualTo(35);
+        assertThat(refreshes).hasValue(2);
+    }
+
+    @Test
+    void parsesStatementThatWritesOnlyOnce() {
+        // given
+        CountCache cache = new CountCache(10, 60_000, 0);
+        String statementId = "io.github.imsejin.mybatis.example.book.mapper.BookMapper.insert";
+        AtomicInteger renders = new AtomicInteger();
+        Supplier<String> sql = () -> {
+            renders.incrementAndGet();
+            return "INSERT INTO BOOK (AUTHOR_ID, PUBLISHER_ID) VALUES (?, ?)";
+        };
+
+        // when
+        String[] first = cache.getWriteDependencies(statementId, sql);
+        String[] second = cache.getWriteDependencies(statementId, sql);
+
+        // then
+        assertThat(first).containsExactly("namespace:io.github.imsejin.mybatis.example.book.mapper.BookMapper",
+                "table:BOOK");
+        assertThat(second).isSameAs(first);
+        assertThat(renders).hasValue(1);
+    }
+
+}
@@ -0,0 +1,265 @@
+package io.github.imsejin.mybatis.pagination.support.executor;
+
+import io.github.imsejin.mybatis.pagination.constant.CountExecutorType;
+import io.github.imsejin.mybatis.pagination.dialect.H2Dialect;
+import io.github.imsejin.mybatis.pagination.interceptor.PaginationInterceptor;
+import io.github.imsejin.mybatis.pagination.model.PageRequest;
+import io.github.imsejin.mybatis.pagination.model.Pageable;
+import io.github.imsejin.mybatis.pagination.model.Paginator;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.datasource.unpooled.UnpooledDataSource;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.executor.ExecutorException;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+
+class CountQueryExecutorTest {
+
+    private static final String THREAD_PREFIX = "mybatis-pagination-count-";
+
+    private final CountDownLatch connectionLatch = new CountDownLatch(1);
+
+    private Configuration config;
+
+    private CountQueryExecutor countQueryExecutor;
+
+    @BeforeEach
+    void setup() throws SQLException {
+        // Threads of the bounded pool wait for a connection until the latch is released.
+        UnpooledDataSource dataSource = new UnpooledDataSource("org.h2.Driver",
+                "jdbc:h2:mem:count-query-executor;DB_CLOSE_DELAY=-1", "sa", "") {
+            @Override
+            public Connection getConnection() throws SQLException {
+                if (Thread.currentThread().getName().startsWith(THREAD_PREFIX)) {
+                    try {
+                        connectionLatch.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new SQLException(e);
+                    }
+                }
+                return super.getConnection();
+            }
+        };
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS ITEM (ID INT PRIMARY KEY)");
+            statement.execute("MERGE INTO ITEM KEY (ID) VALUES (1), (2), (3)");
+        }
+
+        this.config = new Configuration(new Environment("test", new JdbcTransactionFactory(), dataSource));
+        this.config.addMapper(TestMapper.class);
+    }
+
+    @AfterEach
+    void close() {
+        this.connectionLatch.countDown();
+        if (this.countQueryExecutor != null) this.countQueryExecutor.close();
+    }
+
+    @Test
+    void rethrowsCauseOfFailureAsItIs() throws Exception {
+        // given
+        this.countQueryExecutor = new CountQueryExecutor(Executors.newSingleThreadExecutor(), 0);
+        SQLException sqlException = new SQLException("count failed");
+        OutOfMemoryError error = new OutOfMemoryError();
+        Throwable throwable = new Throwable();
+
+        // expect
+        assertThat(this.countQueryExecutor.await(CompletableFuture.completedFuture(3L))).isEqualTo(3);
+        assertThatThrownBy(() -> this.countQueryExecutor.await(failed(sqlException))).isSameAs(sqlException);
+        assertThatThrownBy(() -> this.countQueryExecutor.await(failed(error))).isSameAs(error);
+        assertThatThrownBy(() -> this.countQueryExecutor.await(failed(throwable)))
+                .isExactlyInstanceOf(ExecutorException.class)
+                .hasCause(throwable);
+    }
+
+    @Test
+    void cancelsQueryWhenTimedOut() {
+        // given
+        this.countQueryExecutor = new CountQueryExecutor(Executors.newSingleThreadExecutor(), 50);
+        CompletableFuture<Long> future = new CompletableFuture<>();
+
+        // expect
+        assertThatThrownBy(() -> this.countQueryExecutor.await(future))
+                .isExactlyInstanceOf(ExecutorException.class)
+                .hasMessageContaining("Timed out");
+        assertThat(future).isCancelled();
+    }
+
+    @Test
+    void runsQueryOnCallerThreadWhenPoolIsSaturated() throws InterruptedException {
+        // given
+        this.countQueryExecutor = CountQueryExecutor.create(CountExecutorType.POOL, 1, 0);
+        MappedStatement ms = this.config.getMappedStatement(TestMapper.class.getName() + ".count");
+        CountDownLatch pooled = new CountDownLatch(1);
+        AtomicReference<String> pooledThread = new AtomicReference<>();
+        AtomicReference<String> callerThread = new AtomicReference<>();
+        AtomicReference<Long> count = new AtomicReference<>();
+
+        // when
+        this.countQueryExecutor.execute(ms, ms.getBoundSql(null), (totalItems, t) -> {
+            pooledThread.set(Thread.currentThread().getName());
+            pooled.countDown();
+        });
+        this.countQueryExecutor.execute(ms, ms.getBoundSql(null), (totalItems, t) -> {
+            callerThread.set(Thread.currentThread().getName());
+            count.set(totalItems);
+        });
+
+        // then
+        assertThat(callerThread).hasValue(Thread.currentThread().getName());
+        assertThat(count).hasValue(3L);
+        assertThat(pooled.getCount()).isOne();
+        this.connectionLatch.countDown();
+        assertThat(pooled.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(pooledThread.get()).startsWith(THREAD_PREFIX);
+    }
+
+    @Test
+    void fallsBackToBoundedPoolWithoutVirtualThreads() throws InterruptedException {
+        // Virtual threads are supported since JDK 21.
+        assumeFalse(Arrays.stream(Executors.class.getMethods())
+                .anyMatch(method -> method.getName().equals("newVirtualThreadPerTaskExecutor")));
+
+        // given
+        this.connectionLatch.countDown();
+        this.countQueryExecutor = CountQueryExecutor.create(CountExecutorType.VIRTUAL_THREAD, 1, 0);
+        MappedStatement ms = this.config.getMappedStatement(TestMapper.class.getName() + ".count");
+        CountDownLatch executed = new CountDownLatch(1);
+        AtomicReference<String> thread = new AtomicReference<>();
+
+        // when
+        this.countQueryExecutor.execute(ms, ms.getBoundSql(null), (totalItems, t) -> {
+            thread.set(Thread.currentThread().getName());
+            executed.countDown();
+        });
+
+        // then
+        assertThat(executed.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(thread.get()).startsWith(THREAD_PREFIX);
+    }
+
+    @Test
+    void queriesTotalItemsConcurrently() {
+        // given
+        this.connectionLatch.countDown();
+        List<Future<?>> futures = new CopyOnWriteArrayList<>();
+        this.countQueryExecutor = new CountQueryExecutor(recordingExecutor(futures), 0);
+
+        // when
+        Paginator<Integer> paginator;
+        try (SqlSession sqlSession = sqlSessionFactory().openSession()) {
+            paginator = sqlSession.getMapper(TestMapper.class).selectAll(pageRequest());
+        }
+
+        // then
+        assertThat(paginator).containsExactly(1, 2);
+        assertThat(paginator.getPageInfo().getTotalItems()).isEqualTo(3);
+        assertThat(futures).singleElement().matches(Future::isDone);
+    }
+
+    @Test
+    void cancelsQueryForTotalItemsWhenQueryForPaginationFails() throws InterruptedException {
+        // given
+        CountDownLatch blocker = new CountDownLatch(1);
+        List<Future<?>> futures = new CopyOnWriteArrayList<>();
+        ExecutorService executorService = recordingExecutor(futures);
+        // Occupies the only thread, so that query for total items stays in queue.
+        executorService.execute(() -> {
+            try {
+                blocker.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        this.countQueryExecutor = new CountQueryExecutor(executorService, 0);
+
+        // when
+        try (SqlSession sqlSession = sqlSessionFactory().openSession()) {
+            TestMapper mapper = sqlSession.getMapper(TestMapper.class);
+            assertThatThrownBy(() -> mapper.selectFailing(pageRequest()))
+                    .isInstanceOf(PersistenceException.class);
+        } finally {
+            blocker.countDown();
+        }
+
+        // then
+        assertThat(futures).singleElement().matches(Future::isCancelled);
+    }
+
+    private SqlSessionFactory sqlSessionFactory() {
+        PaginationInterceptor interceptor = new PaginationInterceptor(new H2Dialect());
+        interceptor.setProperties(new Properties());
+        interceptor.setCountQueryExecutor(this.countQueryExecutor);
+        this.config.addInterceptor(interceptor);
+
+        return new SqlSessionFactoryBuilder().build(this.config);
+    }
+
+    private static ExecutorService recordingExecutor(List<Future<?>> futures) {
+        return new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>()) {
+            @Override
+            protected <T> RunnableFuture<T> newTaskFor(Callable<T> callable) {
+                RunnableFuture<T> future = super.newTaskFor(callable);
+                futures.add(future);
+                return future;
+            }
+        };
+    }
+
+    private static CompletableFuture<Long> failed(Throwable throwable) {
+        CompletableFuture<Long> future = new CompletableFuture<>();
+        future.completeExceptionally(throwable);
+        return future;
+    }
+
+    private static PageRequest pageRequest() {
+        PageRequest pageRequest = new PageRequest();
+        pageRequest.setPage(1);
+        pageRequest.setSize(2);
+        return pageRequest;
+    }
+
+    interface TestMapper {
+        @Select("SELECT COUNT(*) FROM ITEM")
+        long count();
+
+        @Select("SELECT ID FROM ITEM ORDER BY ID")
+        Paginator<Integer> selectAll(Pageable pageable);
+
+        @Select("SELECT ID FROM ITEM ORDER BY NO_SUCH_COLUMN")
+        Paginator<Integer> selectFailing(Pageable pageable);
+    }
+
+}
@@ -0,0 +1,102 @@
+package io.github.imsejin.mybatis.pagination.support.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.imsejin.mybatis.AbstractControllerTest;
+import io.github.imsejin.mybatis.example.author.mapper.AuthorMapper;
+import io.github.imsejin.mybatis.pagination.constant.ExportFormat;
+import io.github.imsejin.mybatis.pagination.model.KeysetRequest;
+import io.github.imsejin.mybatis.pagination.model.PageRequest;
+import io.github.imsejin.mybatis.pagination.model.SortKey;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KeysetExporterTest extends AbstractControllerTest {
+
+    @Autowired
+    private AuthorMapper authorMapper;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void exportsAllItemsAsNdjson() throws IOException {
+        // given
+        int totalItems = authorMapper.selectAll(createPageRequest()).getPageInfo().getTotalItems();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // when
+        long count;
+        try {
+            count = KeysetExporter.of(authorMapper::selectKeyset, createKeysetRequest(7))
+                    .objectMapper(objectMapper).executor(executor).export(out);
+        } finally {
+            executor.shutdown();
+        }
+
+        // then
+        List<String> lines = lines(out);
+        assertThat(count).isEqualTo(totalItems);
+        assertThat(lines).hasSize(totalItems).allSatisfy(it -> assertThat(it).startsWith("{\"id\":"));
+        assertThat(lines.stream().map(it -> Long.parseLong(it.replaceAll("^\\{\"id\":(\\d+),.*$", "$1")))
+                .collect(toList())).isSorted().doesNotHaveDuplicates();
+    }
+
+    @Test
+    void resumesExportAsCsvFromCheckpoint() throws IOException {
+        // given
+        ByteArrayOutputStream all = new ByteArrayOutputStream();
+        List<String> checkpoints = new ArrayList<>();
+        KeysetExporter.of(authorMapper::selectKeyset, createKeysetRequest(7))
+                .format(ExportFormat.CSV).objectMapper(objectMapper).export(all, checkpoints::add);
+
+        // when
+        KeysetRequest request = createKeysetRequest(7);
+        request.setCursor(checkpoints.get(0));
+        ByteArrayOutputStream resumed = new ByteArrayOutputStream();
+        KeysetExporter.of(authorMapper::selectKeyset, request)
+                .format(ExportFormat.CSV).objectMapper(objectMapper).export(resumed);
+
+        // then: Column "uuid" is generated on every query, so compares only "id".
+        List<String> allLines = lines(all);
+        assertThat(allLines.get(0)).startsWith("id,name,");
+        assertThat(checkpoints).last().isNull();
+        assertThat(ids(lines(resumed))).containsExactlyElementsOf(ids(allLines.subList(1 + 7, allLines.size())));
+    }
+
+    private static PageRequest createPageRequest() {
+        PageRequest request = new PageRequest();
+        request.setPage(1);
+        request.setSize(1);
+        return request;
+    }
+
+    private static KeysetRequest createKeysetRequest(int size) {
+        KeysetRequest request = new KeysetRequest();
+        request.setSize(size);
+        request.setSortKeys(SortKey.asc("ID", "id"));
+        return request;
+    }
+
+    private static List<String> ids(List<String> csvLines) {
+        return csvLines.stream().map(it -> it.substring(0, it.indexOf(','))).collect(toList());
+    }
+
+    private static List<String> lines(ByteArrayOutputStream out) {
+        String content = new String(out.toByteArray(), StandardCharsets.UTF_8);
+        return Arrays.stream(content.split("\r?\n")).filter(it -> !it.isEmpty()).collect(toList());
+    }
+
+}
@@ -0,0 +1,190 @@
+package io.github.imsejin.mybatis.pagination.support.guardrail;
+
+import io.github.imsejin.mybatis.AbstractControllerTest;
+import io.github.imsejin.mybatis.example.author.model.Author;
+import io.github.imsejin.mybatis.example.author.mapper.AuthorMapper;
+import io.github.imsejin.mybatis.pagination.constant.GuardrailPolicy;
+import io.github.imsejin.mybatis.pagination.interceptor.PaginationInterceptor;
+import io.github.imsejin.mybatis.pagination.model.PageRequest;
+import io.github.imsejin.mybatis.pagination.model.Paginator;
+import io.github.imsejin.mybatis.pagination.support.iterator.PageIterator;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GuardrailTest extends AbstractControllerTest {
+
+    private static final String NAMESPACE = "io.github.imsejin.mybatis.example.author.mapper.AuthorMapper";
+
+    private static final String STATEMENT_ID = NAMESPACE + ".selectAll";
+
+    @Autowired
+    private AuthorMapper mapper;
+
+    @Autowired
+    private SqlSessionFactory sqlSessionFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private PaginationInterceptor interceptor;
+
+    @BeforeEach
+    void findInterceptor() {
+        this.interceptor = this.sqlSessionFactory.getConfiguration().getInterceptors().stream()
+                .filter(PaginationInterceptor.class::isInstance).map(PaginationInterceptor.class::cast)
+                .findFirst().orElseThrow(IllegalStateException::new);
+    }
+
+    @AfterEach
+    void removeGuardrails() {
+        this.interceptor.setGuardrails(null);
+    }
+
+    @Test
+    void resolvesGuardrailOfMapper() {
+        // given
+        Properties properties = new Properties();
+        properties.setProperty("guardrail.maxSize", "100");
+        properties.setProperty("guardrail.policy", "REJECT");
+        properties.setProperty("guardrail.mappers." + NAMESPACE + ".maxSize", "20");
+        properties.setProperty("guardrail.mappers." + STATEMENT_ID + ".policy", "DOWNGRADE");
+
+        // when
+        GuardrailRegistry registry = GuardrailRegistry.from(properties);
+
+        // then
+        assertThat(registry.get(STATEMENT_ID).getMaxSize()).isEqualTo(20);
+        assertThat(registry.get(STATEMENT_ID).getPolicy()).isEqualTo(GuardrailPolicy.DOWNGRADE);
+        assertThat(registry.get(NAMESPACE + ".selectSlice").getMaxSize()).isEqualTo(20);
+        assertThat(registry.get(NAMESPACE + ".selectSlice").getPolicy()).isEqualTo(GuardrailPolicy.REJECT);
+        assertThat(registry.get("com.example.BookMapper.selectAll").getMaxSize()).isEqualTo(100);
+    }
+
+    @Test
+    void overridesGuardrailOfMapperByStatement() {
+        // given
+        Properties properties = new Properties();
+        properties.setProperty("guardrail.maxOffset", "10000");
+        properties.setProperty("guardrail.mappers.com.x.Mapper.maxSize", "100");
+        properties.setProperty("guardrail.mappers.com.x.Mapper.selectAll.maxOffset", "500");
+
+        // when
+        GuardrailRegistry registry = GuardrailRegistry.from(properties);
+
+        // then
+        assertThat(registry.get("com.x.Mapper.selectAll").getMaxSize()).isEqualTo(100);
+        assertThat(registry.get("com.x.Mapper.selectAll").getMaxOffset()).isEqualTo(500);
+        assertThat(registry.get("com.x.Mapper.selectOne").getMaxOffset()).isEqualTo(10000);
+        assertThat(registry.get("com.x.OtherMapper.selectAll").getMaxSize()).isZero();
+    }
+
+    @Test
+    void clampsPageSizeAndOffset() {
+        // given
+        this.interceptor.setGuardrails(registry(10, 20, GuardrailPolicy.CLAMP));
+
+        // when
+        Paginator<Author> paginator = this.mapper.selectAll(pageRequest(1, 1000));
+        Paginator<Author> deepPaginator = this.mapper.selectAll(pageRequest(2, 1000));
+
+        // then
+        assertThat(paginator).hasSize(10);
+        assertThat(paginator.getPageInfo().getSize()).isEqualTo(10);
+        assertThat(paginator.getPageInfo().getOffset()).isZero();
+        assertThat(deepPaginator).hasSize(10);
+        assertThat(deepPaginator.getPageInfo().getPage()).isEqualTo(3);
+        assertThat(deepPaginator.getPageInfo().getOffset()).isEqualTo(20);
+    }
+
+    @Test
+    void iteratesEveryItemWithClampedPageSize() {
+        // given
+        List<Long> allIds = this.mapper.selectSlice(pageRequest(1, 1000)).stream()
+                .map(Author::getId).collect(toList());
+        this.interceptor.setGuardrails(registry(10, 0, GuardrailPolicy.CLAMP));
+
+        // when
+        List<Long> ids;
+        try (PageIterator<Author> iterator = PageIterator.of(this.mapper::selectSlice, 1000)) {
+            ids = iterator.stream().map(Author::getId).collect(toList());
+        }
+
+        // then
+        assertThat(allIds).hasSizeGreaterThan(10);
+        assertThat(ids).isEqualTo(allIds);
+    }
+
+    @Test
+    void rejectsDeepOffsetAndCountsViolation() {
+        // given
+        this.interceptor.setGuardrails(registry(0, 20, GuardrailPolicy.REJECT));
+        double violations = violations("offset", "reject");
+
+        // expect
+        assertThatThrownBy(() -> this.mapper.selectAll(pageRequest(100, 10)))
+                .hasRootCauseInstanceOf(IllegalArgumentException.class)
+                .hasStackTraceContaining("must not exceed 20");
+        assertThat(violations("offset", "reject")).isEqualTo(violations + 1);
+    }
+
+    @Test
+    void downgradesDeepOffsetWithoutCountQuery() {
+        // given
+        this.interceptor.setGuardrails(registry(0, 10, GuardrailPolicy.DOWNGRADE));
+
+        // when
+        Paginator<Author> paginator = this.mapper.selectAll(pageRequest(3, 10));
+
+        // then
+        assertThat(paginator).hasSize(10);
+        assertThat(paginator.getPageInfo().getOffset()).isEqualTo(10);
+        assertThat(paginator.getPageInfo().isEstimated()).isTrue();
+        assertThat(paginator.getPageInfo().getTotalItems()).isEqualTo(21);
+    }
+
+    @Test
+    void clampsDeepOffsetWhenDowngradedWithoutDeferredJoin() {
+        // given
+        List<Long> secondPageIds = this.mapper.selectAll(pageRequest(2, 10)).stream()
+                .map(Author::getId).collect(toList());
+        this.interceptor.setGuardrails(registry(0, 10, GuardrailPolicy.DOWNGRADE));
+
+        // when
+        Paginator<Author> paginator = this.mapper.selectAll(pageRequest(30, 10));
+
+        // then
+        assertThat(paginator.stream().map(Author::getId).collect(toList())).isEqualTo(secondPageIds);
+        assertThat(paginator.getPageInfo().getOffset()).isEqualTo(10);
+        assertThat(paginator.getPageInfo().isEstimated()).isTrue();
+    }
+
+    private static GuardrailRegistry registry(int maxSize, int maxOffset, GuardrailPolicy policy) {
+        return new GuardrailRegistry(Guardrail.of(maxSize, maxOffset, 0, policy), Collections.emptyMap());
+    }
+
+    private static PageRequest pageRequest(int page, int size) {
+        PageRequest pageRequest = new PageRequest();
+        pageRequest.setPage(page);
+        pageRequest.setSize(size);
+        return pageRequest;
+    }
+
+    private double violations(String violation, String policy) {
+        return this.meterRegistry.find("mybatis.pagination.guardrail.violations").tag("statement", STATEMENT_ID)
+                .tag("violation", violation).tag("policy", policy).counters().stream().mapToDouble(it -> it.count())
+                .sum();
+    }
+
+}
@@ -0,0 +1,101 @@
+package io.github.imsejin.mybatis.pagination.support.iterator;
+
+import io.github.imsejin.mybatis.pagination.model.PageInfo;
+import io.github.imsejin.mybatis.pagination.model.PageRequest;
+import io.github.imsejin.mybatis.pagination.model.Pageable;
+import io.github.imsejin.mybatis.pagination.model.Paginator;
+import io.github.imsejin.mybatis.pagination.model.Slice;
+import io.github.imsejin.mybatis.pagination.model.SliceInfo;
+import io.github.imsejin.mybatis.pagination.support.CountedPageable;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PageIteratorTest {
+
+    private static final int TOTAL_ITEMS = 25;
+
+    @Test
+    void runsCountQueryOnlyOnFirstPage() {
+        // given
+        List<Pageable> pageables = new ArrayList<>();
+        Function<Pageable, List<Integer>> fetcher = pageable -> {
+            pageables.add(pageable);
+            return new Paginator<>(items(pageable), new PageInfo(TOTAL_ITEMS, pageable));
+        };
+
+        // when
+        List<List<Integer>> pages = new ArrayList<>();
+        PageIterator.of(fetcher, 10).forEachRemaining(pages::add);
+
+        // then
+        assertThat(pages).extracting(List::size).containsExactly(10, 10, 5);
+        assertThat(pageables).hasSize(3);
+        assertThat(pageables.get(0)).isNotInstanceOf(CountedPageable.class);
+        assertThat(pageables.subList(1, 3))
+                .allSatisfy(it -> assertThat(it).isInstanceOf(CountedPageable.class))
+                .extracting(it -> ((CountedPageable) it).getTotalItems())
+                .containsOnly(TOTAL_ITEMS);
+    }
+
+    @Test
+    void followsPageSizeClampedByGuardrail() {
+        // given
+        List<Pageable> pageables = new ArrayList<>();
+        Function<Pageable, List<Integer>> fetcher = pageable -> {
+            pageables.add(pageable);
+
+            // Clamps page size like guardrail does.
+            PageRequest clamped = new PageRequest();
+            clamped.setSize(Math.min(pageable.getLimit(), 10));
+            clamped.setPage(pageable.getOffset() / clamped.getSize() + 1);
+            return new Paginator<>(items(clamped), new PageInfo(TOTAL_ITEMS, clamped));
+        };
+
+        // when
+        List<Integer> items;
+        try (Stream<Integer> stream = PageIterator.of(fetcher, 1000).stream()) {
+            items = stream.collect(Collectors.toList());
+        }
+
+        // then
+        assertThat(items).isEqualTo(IntStream.range(0, TOTAL_ITEMS).boxed().collect(Collectors.toList()));
+        assertThat(pageables).extracting(Pageable::getLimit).containsExactly(1000, 10, 10);
+    }
+
+    @Test
+    void prefetchesNextPageOnExecutor() {
+        // given
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Function<Pageable, List<Integer>> fetcher = pageable -> {
+            boolean hasNext = pageable.getOffset() + pageable.getLimit() < TOTAL_ITEMS;
+            return new Slice<>(items(pageable), new SliceInfo(pageable, hasNext));
+        };
+
+        // when
+        List<Integer> items;
+        try (Stream<Integer> stream = PageIterator.of(fetcher, 10, executor).stream()) {
+            items = stream.collect(Collectors.toList());
+        } finally {
+            executor.shutdown();
+        }
+
+        // then
+        assertThat(items).hasSize(TOTAL_ITEMS).isSorted().doesNotHaveDuplicates();
+    }
+
+    private static List<Integer> items(Pageable pageable) {
+        return IntStream.range(pageable.getOffset(), Math.min(TOTAL_ITEMS, pageable.getOffset() + pageable.getLimit()))
+                .boxed().collect(Collectors.toList());
+    }
+
+}
@@ -0,0 +1,61 @@
+package io.github.imsejin.mybatis.pagination.support.jfr;
+
+import io.github.imsejin.mybatis.AbstractControllerTest;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.MediaType;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class PaginationEventsTest extends AbstractControllerTest {
+
+    private static final String STATEMENT_ID = "io.github.imsejin.mybatis.example.author.mapper.AuthorMapper.selectAll";
+
+    @Test
+    void recordsStagesOfPagination(@TempDir Path directory) throws Exception {
+        // given
+        Path file = directory.resolve("pagination.jfr");
+
+        // when
+        try (Recording recording = new Recording()) {
+            recording.enable("io.github.imsejin.mybatis.pagination.Rewrite").withThreshold(Duration.ZERO);
+            recording.enable("io.github.imsejin.mybatis.pagination.ItemsQuery").withThreshold(Duration.ZERO);
+            recording.enable("io.github.imsejin.mybatis.pagination.CountQuery").withThreshold(Duration.ZERO);
+            recording.start();
+
+            mockMvc.perform(get("/authors")
+                            .param("page", "2")
+                            .param("size", "5")
+                            .accept(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk());
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        // then
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        assertThat(events).filteredOn(it -> STATEMENT_ID.equals(it.getString("statementId")))
+                .extracting(it -> it.getEventType().getName())
+                .contains("io.github.imsejin.mybatis.pagination.Rewrite",
+                        "io.github.imsejin.mybatis.pagination.ItemsQuery",
+                        "io.github.imsejin.mybatis.pagination.CountQuery");
+        assertThat(events).filteredOn(it -> it.getEventType().getName().endsWith(".ItemsQuery"))
+                .filteredOn(it -> STATEMENT_ID.equals(it.getString("statementId")))
+                .allSatisfy(it -> {
+                    assertThat(it.getLong("offset")).isEqualTo(5);
+                    assertThat(it.getLong("limit")).isEqualTo(5);
+                    assertThat(it.getInt("sqlLength")).isPositive();
+                });
+    }
+
+}
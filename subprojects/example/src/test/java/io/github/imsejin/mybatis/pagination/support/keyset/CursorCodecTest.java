@@ -0,0 +1,71 @@
+package io.github.imsejin.mybatis.pagination.support.keyset;
+
+import io.github.imsejin.mybatis.pagination.model.SortKey;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CursorCodecTest {
+
+    private static final List<SortKey> SORT_KEYS = Arrays.asList(SortKey.asc("NAME", "name"), SortKey.asc("ID", "id"));
+
+    @Test
+    void encodesAndDecodesValues() {
+        // given
+        String name = String.join("", Collections.nCopies(0xFFFF, "a"));
+
+        // when
+        String token = CursorCodec.encode(SORT_KEYS, new Object[]{name, 7L}, true);
+        Keyset keyset = CursorCodec.decode(token, SORT_KEYS);
+
+        // then
+        assertThat(keyset.getValue(0)).isEqualTo(name);
+        assertThat(keyset.getValue(1)).isEqualTo(7L);
+        assertThat(keyset.isBackward()).isTrue();
+    }
+
+    @Test
+    void rejectsValueLongerThanLimitOfLength() {
+        // given
+        String name = String.join("", Collections.nCopies(0xFFFF + 1, "a"));
+
+        // expect
+        assertThatThrownBy(() -> CursorCodec.encode(SORT_KEYS, new Object[]{name, 7L}, false))
+                .isExactlyInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("too long");
+    }
+
+    @Test
+    void rejectsValueOutOfRangeAsInvalidCursor() throws IOException {
+        // given
+        List<SortKey> sortKeys = Collections.singletonList(SortKey.asc("BIRTHDATE", "birthdate"));
+        String validToken = CursorCodec.encode(sortKeys, new Object[]{LocalDate.of(1955, 10, 28)}, false);
+        byte[] bytes = Base64.getUrlDecoder().decode(validToken);
+
+        ByteArrayOutputStream tampered = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(tampered)) {
+            // Keeps header and type of value, and replaces epoch day with one out of range.
+            out.write(bytes, 0, bytes.length - Long.BYTES);
+            out.writeLong(Long.MAX_VALUE);
+        }
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(tampered.toByteArray());
+
+        // expect
+        assertThatThrownBy(() -> CursorCodec.decode(token, sortKeys))
+                .isExactlyInstanceOf(IllegalArgumentException.class)
+                .hasMessageStartingWith("Invalid cursor")
+                .hasCauseInstanceOf(DateTimeException.class);
+    }
+
+}
@@ -0,0 +1,48 @@
+package io.github.imsejin.mybatis.pagination.support.metrics;
+
+import io.github.imsejin.mybatis.AbstractControllerTest;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class MicrometerPaginationObserverTest extends AbstractControllerTest {
+
+    private static final String STATEMENT_ID = "io.github.imsejin.mybatis.example.author.mapper.AuthorMapper.selectAll";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void recordsEachStageOfPagination() throws Exception {
+        // given
+        long itemsQueryCount = itemsQueryCount();
+
+        // when
+        mockMvc.perform(get("/authors")
+                        .param("page", "3")
+                        .param("size", "4")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+
+        // then
+        assertThat(itemsQueryCount()).isEqualTo(itemsQueryCount + 1);
+        assertThat(meterRegistry.get("mybatis.pagination.query").tag("statement", STATEMENT_ID)
+                .tag("query", "count").timer().count()).isPositive();
+        assertThat(meterRegistry.get("mybatis.pagination.rewrite").tag("statement", STATEMENT_ID)
+                .tag("outcome", "success").timer().count()).isPositive();
+        assertThat(meterRegistry.get("mybatis.pagination.page.offset").tag("statement", STATEMENT_ID)
+                .summary().max()).isGreaterThanOrEqualTo(8);
+        assertThat(meterRegistry.get("mybatis.pagination.rewrite.fallbacks").functionCounter().count()).isNotNegative();
+    }
+
+    private long itemsQueryCount() {
+        return meterRegistry.find("mybatis.pagination.query").tag("statement", STATEMENT_ID).tag("query", "items")
+                .timers().stream().mapToLong(it -> it.count()).sum();
+    }
+
+}
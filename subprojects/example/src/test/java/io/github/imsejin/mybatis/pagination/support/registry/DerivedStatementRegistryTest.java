@@ -0,0 +1,120 @@
+package io.github.imsejin.mybatis.pagination.support.registry;
+
+import io.github.imsejin.mybatis.pagination.constant.RebuildMode;
+import io.github.imsejin.mybatis.pagination.model.Pageable;
+import io.github.imsejin.mybatis.pagination.model.Paginator;
+import io.github.imsejin.mybatis.pagination.support.rebuilder.Rebuilder;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DerivedStatementRegistryTest {
+
+    private static final String NAMESPACE = TestMapper.class.getName();
+
+    private Configuration config;
+
+    private MapperMethodRegistry methods;
+
+    private DerivedStatementRegistry registry;
+
+    @BeforeEach
+    void setup() {
+        this.config = new Configuration();
+        this.config.addMapper(TestMapper.class);
+        this.methods = new MapperMethodRegistry();
+        this.registry = new DerivedStatementRegistry();
+    }
+
+    @Test
+    void derivesStatementsWithDeterministicIdsOnlyOnce() {
+        // given
+        MappedStatement ms = this.config.getMappedStatement(NAMESPACE + ".selectAll");
+        MapperMethodMetadata metadata = this.methods.get(ms);
+
+        // when
+        MappedStatement itemsMs = this.registry.getItemsStatement(ms, metadata);
+        MappedStatement countMs = this.registry.getCountStatement(ms, metadata);
+
+        // then
+        assertThat(itemsMs.getId()).isEqualTo(ms.getId() + "$items");
+        assertThat(countMs.getId()).isEqualTo(ms.getId() + "$count");
+        assertThat(this.registry.getItemsStatement(ms, metadata)).isSameAs(itemsMs);
+        assertThat(this.registry.getCountStatement(ms, metadata)).isSameAs(countMs);
+        assertThat(this.registry.size()).isEqualTo(2);
+        assertThat(itemsMs.getResultMaps()).isEqualTo(ms.getResultMaps());
+        assertThat(itemsMs.getParameterMap().getType()).isEqualTo(Map.class);
+    }
+
+    @Test
+    void derivesStreamStatementOnlyOnceForEachFetchSize() {
+        // given
+        MappedStatement ms = this.config.getMappedStatement(NAMESPACE + ".selectAll");
+        MapperMethodMetadata metadata = this.methods.get(ms);
+
+        // when
+        MappedStatement streamMs = this.registry.getStreamStatement(ms, metadata, 100);
+        MappedStatement otherStreamMs = this.registry.getStreamStatement(ms, metadata, 20);
+
+        // then
+        assertThat(streamMs.getId()).isEqualTo(ms.getId() + "$stream");
+        assertThat(streamMs.getFetchSize()).isEqualTo(100);
+        assertThat(otherStreamMs.getFetchSize()).isEqualTo(20);
+        assertThat(this.registry.getStreamStatement(ms, metadata, 100)).isSameAs(streamMs);
+        assertThat(this.registry.size()).isEqualTo(2);
+        assertThatThrownBy(() -> streamMs.getBoundSql(null)).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void sharesResultMapOfLongWithAllCountStatements() {
+        // given
+        MappedStatement all = this.config.getMappedStatement(NAMESPACE + ".selectAll");
+        MappedStatement others = this.config.getMappedStatement(NAMESPACE + ".selectOthers");
+
+        // when
+        MappedStatement allCountMs = this.registry.getCountStatement(all, this.methods.get(all));
+        MappedStatement othersCountMs = this.registry.getCountStatement(others, this.methods.get(others));
+
+        // then
+        List<ResultMap> resultMaps = this.registry.getCountResultMaps(this.config);
+        assertThat(resultMaps).singleElement().extracting(ResultMap::getType).isEqualTo(Long.class);
+        assertThat(allCountMs.getResultMaps()).singleElement().isSameAs(resultMaps.get(0));
+        assertThat(othersCountMs.getResultMaps()).singleElement().isSameAs(resultMaps.get(0));
+        assertThat(this.registry.getCountResultMaps(new Configuration())).isNotSameAs(resultMaps);
+    }
+
+    @Test
+    void rebuildsStatementWithDeterministicId() {
+        // given
+        MappedStatement ms = this.config.getMappedStatement(NAMESPACE + ".selectAll");
+
+        // when
+        MappedStatement first = Rebuilder.init(ms, RebuildMode.WRAP).rebuild();
+        MappedStatement second = Rebuilder.init(ms, RebuildMode.WRAP).rebuild();
+        MappedStatement suffixed = Rebuilder.init(ms, RebuildMode.WRAP).suffix("items").rebuild();
+
+        // then
+        assertThat(first.getId()).isEqualTo(second.getId()).startsWith(ms.getId() + '$');
+        assertThat(suffixed.getId()).isEqualTo(ms.getId() + "$items");
+    }
+
+    interface TestMapper {
+
+        @Select("SELECT 1")
+        Paginator<Integer> selectAll(Pageable pageable);
+
+        @Select("SELECT 2")
+        Paginator<Integer> selectOthers(Pageable pageable);
+
+    }
+
+}
@@ -0,0 +1,124 @@
+package io.github.imsejin.mybatis.pagination.support.registry;
+
+import io.github.imsejin.mybatis.pagination.constant.MapperParameterType;
+import io.github.imsejin.mybatis.pagination.constant.PaginationType;
+import io.github.imsejin.mybatis.pagination.model.Pageable;
+import io.github.imsejin.mybatis.pagination.model.Paginator;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.ResultType;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MapperMethodRegistryTest {
+
+    private static final String NAMESPACE = TestMapper.class.getName();
+
+    private Configuration config;
+
+    private MapperMethodRegistry registry;
+
+    @BeforeEach
+    void setup() {
+        this.config = new Configuration();
+        this.config.addMapper(TestMapper.class);
+        this.registry = new MapperMethodRegistry();
+    }
+
+    @Test
+    void registersNegativeEntryForStatementNotPaginated() {
+        // given
+        MappedStatement list = this.config.getMappedStatement(NAMESPACE + ".selectList");
+        MappedStatement orphan = addStatement("io.github.imsejin.NoSuchMapper.select");
+
+        // when
+        MapperMethodMetadata listMetadata = this.registry.get(list);
+        MapperMethodMetadata orphanMetadata = this.registry.get(orphan);
+
+        // then
+        assertThat(listMetadata.isPaginated()).isFalse();
+        assertThat(orphanMetadata.isPaginated()).isFalse();
+        assertThat(listMetadata).isSameAs(MapperMethodMetadata.NOT_PAGINATED).isSameAs(orphanMetadata);
+        assertThat(this.registry.getPaginatedMethods()).doesNotContainKeys(list.getId(), orphan.getId());
+    }
+
+    @Test
+    void findsIndexOfPageableExceptSpecialParameters() {
+        // when
+        MapperMethodMetadata single = this.registry.get(this.config.getMappedStatement(NAMESPACE + ".selectAll"));
+        MapperMethodMetadata multiple = this.registry.get(
+                this.config.getMappedStatement(NAMESPACE + ".selectByName"));
+        MapperMethodMetadata handler = this.registry.get(
+                this.config.getMappedStatement(NAMESPACE + ".selectWithHandler"));
+
+        // then
+        assertThat(single.getPaginationType()).isEqualTo(PaginationType.PAGINATOR);
+        assertThat(single.getPageableIndex()).isZero();
+        assertThat(single.getMapperParameterType()).isEqualTo(MapperParameterType.SINGLE);
+        assertThat(multiple.getPageableIndex()).isEqualTo(1);
+        assertThat(multiple.getMapperParameterType()).isEqualTo(MapperParameterType.MULTIPLE);
+        assertThat(handler.getPaginationType()).isEqualTo(PaginationType.RESULT_HANDLER);
+        assertThat(handler.getPageableIndex()).isEqualTo(1);
+        assertThat(handler.getMapperParameterType()).isEqualTo(MapperParameterType.MULTIPLE);
+    }
+
+    @Test
+    void resolvesStatementAddedAfterFirstLookup() {
+        // given
+        this.registry.get(this.config.getMappedStatement(NAMESPACE + ".selectAll"));
+        int size = this.registry.size();
+        MappedStatement added = addStatement(NAMESPACE + ".selectAdded");
+
+        // when
+        MapperMethodMetadata metadata = this.registry.get(added);
+
+        // then
+        assertThat(this.registry.size()).isEqualTo(size + 1);
+        assertThat(metadata.isPaginated()).isTrue();
+        assertThat(metadata.getStatementId()).isEqualTo(added.getId());
+        assertThat(this.registry.get(added)).isSameAs(metadata);
+        assertThat(this.registry.getPaginatedMethods()).containsKeys(NAMESPACE + ".selectAll", added.getId());
+    }
+
+    private MappedStatement addStatement(String id) {
+        MappedStatement ms = new MappedStatement.Builder(this.config, id,
+                new StaticSqlSource(this.config, "SELECT 1"), SqlCommandType.SELECT).build();
+        this.config.addMappedStatement(ms);
+        return ms;
+    }
+
+    interface TestMapper {
+
+        @Select("SELECT 1")
+        Paginator<Integer> selectAll(Pageable pageable);
+
+        @Select("SELECT 1")
+        Paginator<Integer> selectByName(@Param("name") String name, RowBounds rowBounds,
+                                        @Param("pageable") Pageable pageable);
+
+        @Select("SELECT 1")
+        @ResultType(Integer.class)
+        void selectWithHandler(@Param("name") String name, ResultHandler<Integer> resultHandler,
+                               @Param("pageable") Pageable pageable);
+
+        @Select("SELECT 1")
+        List<Integer> selectList();
+
+        /**
+         * Method of mapped statement added after the first lookup.
+         */
+        Paginator<Integer> selectAdded(Pageable pageable);
+
+    }
+
+}
@@ -0,0 +1,185 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Im Sejin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.imsejin.mybatis.pagination.actuate;
+
+import io.github.imsejin.mybatis.pagination.constant.CountMode;
+import io.github.imsejin.mybatis.pagination.constant.PaginationType;
+import io.github.imsejin.mybatis.pagination.dialect.AbstractDialect;
+import io.github.imsejin.mybatis.pagination.interceptor.PaginationInterceptor;
+import io.github.imsejin.mybatis.pagination.support.cache.CacheStats;
+import io.github.imsejin.mybatis.pagination.support.cache.CountCache;
+import io.github.imsejin.mybatis.pagination.support.diagnostics.LatencyWindow;
+import io.github.imsejin.mybatis.pagination.support.diagnostics.PaginationDiagnostics;
+import io.github.imsejin.mybatis.pagination.support.diagnostics.PaginationDiagnostics.StatementDiagnostics;
+import io.github.imsejin.mybatis.pagination.support.diagnostics.RewriteFailure;
+import io.github.imsejin.mybatis.pagination.support.registry.MapperMethodMetadata;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Actuator endpoint that exposes paginated mapped statements and diagnostics of their rewriting.
+ *
+ * <ul>
+ *     <li>{@code /actuator/pagination}: all paginated mapped statements</li>
+ *     <li>{@code /actuator/pagination/{statementId}}: a paginated mapped statement</li>
+ * </ul>
+ *
+ * <p> Queries and latencies of a mapped statement are empty until it is paginated at least once.
+ */
+@Endpoint(id = "pagination")
+@RequiredArgsConstructor
+public class PaginationEndpoint {
+
+    private final PaginationInterceptor interceptor;
+
+    private final PaginationDiagnostics diagnostics;
+
+    @ReadOperation
+    public PaginationReport pagination() {
+        Map<String, StatementDescriptor> statements = new LinkedHashMap<>();
+        this.interceptor.getRegistry().getPaginatedMethods()
+                .forEach((id, metadata) -> statements.put(id, describe(metadata)));
+
+        AbstractDialect dialect = this.interceptor.getDialect() instanceof AbstractDialect
+                ? (AbstractDialect) this.interceptor.getDialect() : null;
+        CountCache countCache = this.interceptor.getCountCache();
+
+        List<RewriteFailure> failures = new ArrayList<>(this.diagnostics.getRecentFailures());
+        if (dialect != null) failures.addAll(dialect.getRecentFallbacks());
+        failures.sort(Comparator.comparing(RewriteFailure::getTimestamp).reversed());
+
+        return new PaginationReport(getDialectName(), dialect == null ? null : dialect.getRewriteCacheStats(),
+                dialect == null ? 0 : dialect.getFallbackCount(), countCache == null ? null : countCache.stats(),
+                countCache == null ? 0 : countCache.getStaleHitCount(), Collections.unmodifiableList(failures),
+                Collections.unmodifiableMap(statements));
+    }
+
+    @ReadOperation
+    public StatementDescriptor statement(@Selector String statementId) {
+        MapperMethodMetadata metadata = this.interceptor.getRegistry().getPaginatedMethods().get(statementId);
+        return metadata == null ? null : describe(metadata);
+    }
+
+    private StatementDescriptor describe(MapperMethodMetadata metadata) {
+        StatementDiagnostics statement = this.diagnostics.get(metadata.getStatementId());
+        if (statement == null) {
+            return new StatementDescriptor(getDialectName(), metadata.getPaginationType(), metadata.getCountMode(),
+                    metadata.getDeferredJoinKey(), null, null, null, null, null);
+        }
+
+        long hitCount = statement.getCountCacheHitCount();
+        long requestCount = hitCount + statement.getCountCacheMissCount();
+        Double countCacheHitRatio = requestCount == 0 ? null : (double) hitCount / requestCount;
+
+        return new StatementDescriptor(getDialectName(), metadata.getPaginationType(), metadata.getCountMode(),
+                metadata.getDeferredJoinKey(), statement.getItemsSql(), statement.getCountSql(),
+                countCacheHitRatio, statement.getItemsLatency(), statement.getCountLatency());
+    }
+
+    private String getDialectName() {
+        return this.interceptor.getDialect().getClass().getName();
+    }
+
+    /**
+     * Descriptor of pagination of the application.
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static final class PaginationReport {
+
+        private final String dialect;
+
+        /**
+         * Statistics of cache for rewritten queries, which is shared by all mapped statements.
+         */
+        private final CacheStats rewriteCache;
+
+        /**
+         * Number of queries that failed to be parsed and are wrapped as a subquery.
+         */
+        private final long rewriteFallbackCount;
+
+        /**
+         * Statistics of cache for total items or null if it is disabled.
+         */
+        private final CacheStats countCache;
+
+        private final long countCacheStaleHitCount;
+
+        /**
+         * Recent failures of rewriting and fallbacks of parsing, from the most recent one.
+         */
+        private final List<RewriteFailure> recentRewriteFailures;
+
+        private final Map<String, StatementDescriptor> statements;
+
+    }
+
+    /**
+     * Descriptor of a paginated mapped statement.
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static final class StatementDescriptor {
+
+        private final String dialect;
+
+        private final PaginationType paginationType;
+
+        private final CountMode countMode;
+
+        private final String deferredJoinKey;
+
+        /**
+         * The latest query for pagination.
+         */
+        private final String itemsSql;
+
+        /**
+         * The latest query for total items.
+         */
+        private final String countSql;
+
+        /**
+         * Ratio of hits of cache for total items or null if it has never been looked up.
+         */
+        private final Double countCacheHitRatio;
+
+        private final LatencyWindow.Snapshot itemsLatency;
+
+        private final LatencyWindow.Snapshot countLatency;
+
+    }
+
+}
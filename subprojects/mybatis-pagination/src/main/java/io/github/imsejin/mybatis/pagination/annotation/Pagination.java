@@ -0,0 +1,92 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Im Sejin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.imsejin.mybatis.pagination.annotation;
+
+import io.github.imsejin.mybatis.pagination.constant.CountMode;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Options of pagination for mapper method.
+ *
+ * <pre>{@code
+ *     @Pagination(countMode = CountMode.ESTIMATED)
+ *     Paginator<T> selectItems(Pageable pageable);
+ * }</pre>
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Pagination {
+
+    /**
+     * Mode of getting total items, which is overridden by {@link
+     * io.github.imsejin.mybatis.pagination.model.Pageable#getCountMode()}.
+     *
+     * @return count mode
+     */
+    CountMode countMode() default CountMode.EXACT;
+
+    /**
+     * Key column for deferred join, which identifies a row of the query.
+     * If this is empty, deferred join is not used.
+     *
+     * <p> With deferred join, only keys of the page are selected with offset, which can be read from
+     * covering index, and then the rows of the keys are fetched by joining them back.
+     * So the rows skipped by offset are not read.
+     *
+     * <pre>{@code
+     *     @Pagination(deferredJoinKey = "A.ID", deferredJoinOffset = 10000)
+     *     Paginator<Author> selectAll(Pageable pageable);
+     *
+     *     SELECT A.ID, A.NAME, ... FROM AUTHOR A
+     *     INNER JOIN (SELECT A.ID AS PAGE_KEY FROM AUTHOR A WHERE ... ORDER BY ... LIMIT ? OFFSET ?) PAGE_KEYS
+     *     ON A.ID = PAGE_KEYS.PAGE_KEY ORDER BY ...
+     * }</pre>
+     *
+     * <p> {@link io.github.imsejin.mybatis.pagination.dialect.OracleDialect} uses "ROWID" of the table
+     * that has the key column instead of it.
+     *
+     * <p> Query with joins uses deferred join only if each row of the table that has the key column
+     * matches at most one row of the joined tables, which is proven by unique keys of
+     * {@code count.optimization.uniqueKeys}. Otherwise, it is paginated with offset.
+     *
+     * @return key column, or empty string if deferred join is not used
+     * @see io.github.imsejin.mybatis.pagination.dialect.Dialect#createDeferredJoinBoundSql
+     */
+    String deferredJoinKey() default "";
+
+    /**
+     * Minimum offset from which deferred join is used, because it is slower for the first pages.
+     *
+     * @return minimum offset of deferred join
+     * @see #deferredJoinKey()
+     */
+    int deferredJoinOffset() default 0;
+
+}
@@ -24,9 +24,13 @@
 
 package io.github.imsejin.mybatis.pagination.autoconfigure;
 
+import io.github.imsejin.mybatis.pagination.actuate.PaginationEndpoint;
 import io.github.imsejin.mybatis.pagination.dialect.Dialect;
 import io.github.imsejin.mybatis.pagination.interceptor.PaginationInterceptor;
 import io.github.imsejin.mybatis.pagination.properties.MybatisPaginationProperties;
+import io.github.imsejin.mybatis.pagination.support.diagnostics.PaginationDiagnostics;
+import io.github.imsejin.mybatis.pagination.support.metrics.MicrometerPaginationObserver;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import org.apache.ibatis.plugin.Interceptor;
 import org.apache.ibatis.session.Configuration;
@@ -34,10 +38,16 @@ import org.apache.ibatis.session.SqlSessionFactory;
 import org.mybatis.spring.boot.autoconfigure.MybatisAutoConfiguration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.actuate.autoconfigure.endpoint.condition.ConditionalOnAvailableEndpoint;
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
 
 import java.util.List;
 
@@ -46,10 +56,11 @@ import java.util.List;
  */
 @org.springframework.context.annotation.Configuration
 @ConditionalOnBean(SqlSessionFactory.class)
-@AutoConfigureAfter(MybatisAutoConfiguration.class)
+@AutoConfigureAfter(value = MybatisAutoConfiguration.class,
+        name = "org.springframework.boot.actuate.autoconfigure.metrics.CompositeMeterRegistryAutoConfiguration")
 @EnableConfigurationProperties(MybatisPaginationProperties.class)
 @RequiredArgsConstructor
-public class MybatisPaginationAutoConfiguration implements InitializingBean {
+public class MybatisPaginationAutoConfiguration implements InitializingBean, DisposableBean {
 
     private static final Logger logger = LoggerFactory.getLogger(MybatisPaginationAutoConfiguration.class);
 
@@ -59,6 +70,8 @@ public class MybatisPaginationAutoConfiguration implements InitializingBean {
 
     private final MybatisPaginationProperties properties;
 
+    private PaginationInterceptor interceptor;
+
     private static boolean hasInterceptor(Configuration configuration) {
         for (Interceptor interceptor : configuration.getInterceptors()) {
             if (INTERCEPTOR_CLASS.isAssignableFrom(interceptor.getClass())) return true;
@@ -79,16 +92,64 @@ public class MybatisPaginationAutoConfiguration implements InitializingBean {
                     this.properties.getDialectClass()), e);
         }
 
-        Interceptor interceptor = new PaginationInterceptor(dialect);
+        PaginationInterceptor interceptor = new PaginationInterceptor(dialect);
         interceptor.setProperties(this.properties.getProperties());
+        this.interceptor = interceptor;
 
         for (SqlSessionFactory sqlSessionFactory : this.sqlSessionFactories) {
             Configuration configuration = sqlSessionFactory.getConfiguration();
             if (hasInterceptor(configuration)) continue;
 
             configuration.addInterceptor(interceptor);
+            interceptor.getRegistry().registerAll(configuration);
             logger.debug("Plugin '{}' is registered with '{}'", INTERCEPTOR_CLASS.getSimpleName(), sqlSessionFactory);
         }
     }
 
+    @Override
+    public void destroy() {
+        if (this.interceptor != null) this.interceptor.close();
+    }
+
+    /**
+     * Registers metrics of the interceptor when {@link MeterRegistry} bean exists.
+     */
+    @org.springframework.context.annotation.Configuration
+    @ConditionalOnClass(name = "io.micrometer.core.instrument.MeterRegistry")
+    @ConditionalOnBean(type = "io.micrometer.core.instrument.MeterRegistry")
+    @ConditionalOnProperty(prefix = MybatisPaginationProperties.PREFIX + ".metrics", name = "enabled",
+            matchIfMissing = true)
+    static class MetricsConfiguration {
+
+        MetricsConfiguration(MybatisPaginationAutoConfiguration configuration, MeterRegistry meterRegistry) {
+            PaginationInterceptor interceptor = configuration.interceptor;
+            if (interceptor == null) return;
+
+            new MicrometerPaginationObserver(meterRegistry).bindTo(interceptor);
+            logger.debug("Metrics of '{}' are registered with '{}'", INTERCEPTOR_CLASS.getSimpleName(),
+                    meterRegistry.getClass().getSimpleName());
+        }
+
+    }
+
+    /**
+     * Registers actuator endpoint of the interceptor when it is enabled and exposed.
+     */
+    @org.springframework.context.annotation.Configuration
+    @ConditionalOnClass(name = "org.springframework.boot.actuate.endpoint.annotation.Endpoint")
+    @ConditionalOnAvailableEndpoint(endpoint = PaginationEndpoint.class)
+    @ConditionalOnProperty(prefix = MybatisPaginationProperties.PREFIX + ".auto-configure", name = "enabled")
+    static class EndpointConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        PaginationEndpoint paginationEndpoint(MybatisPaginationAutoConfiguration configuration) {
+            PaginationDiagnostics diagnostics = new PaginationDiagnostics();
+            diagnostics.bindTo(configuration.interceptor);
+
+            return new PaginationEndpoint(configuration.interceptor, diagnostics);
+        }
+
+    }
+
 }
@@ -0,0 +1,55 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Im Sejin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.imsejin.mybatis.pagination.constant;
+
+/**
+ * Policy applied when a request for pagination exceeds a guardrail.
+ *
+ * @see GuardrailViolation
+ */
+public enum GuardrailPolicy {
+
+    /**
+     * Clamps page size and offset to their maximums,
+     * and uses row estimate of optimizer instead of the expensive query for total items.
+     */
+    CLAMP,
+
+    /**
+     * Rejects the request with {@link IllegalArgumentException}.
+     */
+    REJECT,
+
+    /**
+     * Switches the request to a cheaper strategy.
+     *
+     * <p> Deep offset is paginated with deferred join if the mapper method declares its key,
+     * or else clamped as {@link #CLAMP} and paginated by fetching one more row without query for total items
+     * like {@code Slice}.
+     * Expensive query for total items is replaced with fetching one more row as well.
+     * When there is no cheaper strategy, like for page size, falls back to {@link #CLAMP}.
+     */
+    DOWNGRADE
+
+}
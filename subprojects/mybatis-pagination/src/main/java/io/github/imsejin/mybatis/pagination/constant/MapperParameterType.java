@@ -2,13 +2,15 @@ package io.github.imsejin.mybatis.pagination.constant;
 
 import io.github.imsejin.mybatis.pagination.support.InterceptorSupport;
 import io.github.imsejin.mybatis.pagination.support.rebuilder.Rebuilder;
+import io.github.imsejin.mybatis.pagination.support.registry.MapperMethodRegistry;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.binding.MapperMethod;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
 
 import java.lang.reflect.Method;
-import java.lang.reflect.Parameter;
 import java.util.Arrays;
 
 /**
@@ -47,20 +49,40 @@ public enum MapperParameterType {
         }
     }
 
+    /**
+     * Returns parameter type of the mapper method of mapped statement.
+     *
+     * @param ms mapped statement
+     * @return parameter type of mapper method
+     * @see MapperMethodRegistry
+     */
     public static MapperParameterType from(MappedStatement ms) {
-        Method mapperMethod = InterceptorSupport.findMethod(ms);
+        return from(InterceptorSupport.findMethod(ms));
+    }
 
+    public static MapperParameterType from(Method mapperMethod) {
         if (Arrays.stream(mapperMethod.getParameterAnnotations()).flatMap(Arrays::stream)
                 .anyMatch(it -> it.annotationType() == Param.class)) return MULTIPLE;
 
-        Parameter[] parameters = mapperMethod.getParameters();
-        if (parameters.length > 1) {
+        // MyBatis doesn't put RowBounds and ResultHandler into parameter object.
+        long count = Arrays.stream(mapperMethod.getParameterTypes()).filter(it -> !isSpecialParameter(it)).count();
+        if (count > 1) {
             return MULTIPLE;
-        } else if (parameters.length == 1) {
+        } else if (count == 1) {
             return SINGLE;
         } else {
             return NONE;
         }
     }
 
+    /**
+     * Returns whether the parameter type is handled by MyBatis instead of being bound to query.
+     *
+     * @param parameterType parameter type of mapper method
+     * @return whether it is {@link RowBounds} or {@link ResultHandler}
+     */
+    public static boolean isSpecialParameter(Class<?> parameterType) {
+        return RowBounds.class.isAssignableFrom(parameterType) || ResultHandler.class.isAssignableFrom(parameterType);
+    }
+
 }
@@ -0,0 +1,85 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Im Sejin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.imsejin.mybatis.pagination.constant;
+
+import io.github.imsejin.mybatis.pagination.dialect.SqlTemplate;
+import io.github.imsejin.mybatis.pagination.model.Pageable;
+
+/**
+ * Value of {@link Pageable} that is bound to a parameter of query for pagination.
+ *
+ * @see SqlTemplate
+ */
+public enum PageParameter {
+
+    /**
+     * @see Pageable#getOffset()
+     */
+    OFFSET {
+        @Override
+        public int valueOf(Pageable pageable) {
+            return pageable.getOffset();
+        }
+    },
+
+    /**
+     * @see Pageable#getLimit()
+     */
+    LIMIT {
+        @Override
+        public int valueOf(Pageable pageable) {
+            return pageable.getLimit();
+        }
+    },
+
+    /**
+     * @see Pageable#getStartRowNum()
+     */
+    START_ROW_NUM {
+        @Override
+        public int valueOf(Pageable pageable) {
+            return pageable.getStartRowNum();
+        }
+    },
+
+    /**
+     * @see Pageable#getEndRowNum()
+     */
+    END_ROW_NUM {
+        @Override
+        public int valueOf(Pageable pageable) {
+            return pageable.getEndRowNum();
+        }
+    };
+
+    /**
+     * Returns the value of this parameter from pageable.
+     *
+     * @param pageable pageable
+     * @return value of this parameter
+     */
+    public abstract int valueOf(Pageable pageable);
+
+}
@@ -0,0 +1,86 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Im Sejin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.imsejin.mybatis.pagination.constant;
+
+import io.github.imsejin.mybatis.pagination.model.KeysetPaginator;
+import io.github.imsejin.mybatis.pagination.model.Paginator;
+import io.github.imsejin.mybatis.pagination.model.Slice;
+import org.apache.ibatis.cursor.Cursor;
+
+/**
+ * Type of paginated result, which is determined by return type of mapper method.
+ */
+public enum PaginationType {
+
+    /**
+     * Executes query for pagination and query for total items.
+     */
+    PAGINATOR(Paginator.class),
+
+    /**
+     * Executes only query for pagination with one more row, to know whether the next page exists.
+     */
+    SLICE(Slice.class),
+
+    /**
+     * Executes only query for keyset pagination with one more row, which seeks the position of page with cursor.
+     */
+    KEYSET(KeysetPaginator.class),
+
+    /**
+     * Streams items of the page through {@link Cursor} without materializing them into list.
+     *
+     * @see io.github.imsejin.mybatis.pagination.model.PageInfoAware
+     */
+    CURSOR(Cursor.class),
+
+    /**
+     * Streams items of the page to {@link org.apache.ibatis.session.ResultHandler} in the parameters
+     * without materializing them into list.
+     *
+     * @see io.github.imsejin.mybatis.pagination.model.PageInfoAware
+     */
+    RESULT_HANDLER(void.class);
+
+    private final Class<?> returnType;
+
+    PaginationType(Class<?> returnType) {
+        this.returnType = returnType;
+    }
+
+    /**
+     * Returns pagination type of the return type.
+     *
+     * @param returnType return type of mapper method
+     * @return pagination type or null if it is not paginated
+     */
+    public static PaginationType from(Class<?> returnType) {
+        for (PaginationType type : values()) {
+            if (type.returnType == returnType) return type;
+        }
+
+        return null;
+    }
+
+}
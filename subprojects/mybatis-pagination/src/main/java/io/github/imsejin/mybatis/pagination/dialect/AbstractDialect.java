@@ -0,0 +1,1274 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Im Sejin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.imsejin.mybatis.pagination.dialect;
+
+import io.github.imsejin.mybatis.pagination.constant.PageParameter;
+import io.github.imsejin.mybatis.pagination.constant.PaginationStage;
+import io.github.imsejin.mybatis.pagination.constant.RebuildMode;
+import io.github.imsejin.mybatis.pagination.constant.RewriteMode;
+import io.github.imsejin.mybatis.pagination.constant.SortDirection;
+import io.github.imsejin.mybatis.pagination.model.Pageable;
+import io.github.imsejin.mybatis.pagination.model.SortKey;
+import io.github.imsejin.mybatis.pagination.support.InterceptorSupport;
+import io.github.imsejin.mybatis.pagination.support.cache.BoundedCache;
+import io.github.imsejin.mybatis.pagination.support.cache.CacheStats;
+import io.github.imsejin.mybatis.pagination.support.diagnostics.RewriteFailure;
+import io.github.imsejin.mybatis.pagination.support.diagnostics.RewriteFailureLog;
+import io.github.imsejin.mybatis.pagination.support.jfr.PaginationEventScope;
+import io.github.imsejin.mybatis.pagination.support.jfr.PaginationEvents;
+import io.github.imsejin.mybatis.pagination.support.keyset.Keyset;
+import io.github.imsejin.mybatis.pagination.support.rebuilder.Rebuilder;
+import net.sf.jsqlparser.JSQLParserException;
+import net.sf.jsqlparser.expression.Alias;
+import net.sf.jsqlparser.expression.AnalyticExpression;
+import net.sf.jsqlparser.expression.Expression;
+import net.sf.jsqlparser.expression.ExpressionVisitorAdapter;
+import net.sf.jsqlparser.expression.Function;
+import net.sf.jsqlparser.expression.JdbcParameter;
+import net.sf.jsqlparser.expression.LongValue;
+import net.sf.jsqlparser.expression.Parenthesis;
+import net.sf.jsqlparser.expression.operators.conditional.AndExpression;
+import net.sf.jsqlparser.expression.operators.conditional.OrExpression;
+import net.sf.jsqlparser.expression.operators.relational.ComparisonOperator;
+import net.sf.jsqlparser.expression.operators.relational.EqualsTo;
+import net.sf.jsqlparser.expression.operators.relational.ExpressionList;
+import net.sf.jsqlparser.expression.operators.relational.GreaterThan;
+import net.sf.jsqlparser.expression.operators.relational.IsNullExpression;
+import net.sf.jsqlparser.expression.operators.relational.MinorThan;
+import net.sf.jsqlparser.parser.CCJSqlParserUtil;
+import net.sf.jsqlparser.schema.Column;
+import net.sf.jsqlparser.schema.Table;
+import net.sf.jsqlparser.statement.select.AllColumns;
+import net.sf.jsqlparser.statement.select.FromItem;
+import net.sf.jsqlparser.statement.select.OrderByElement;
+import net.sf.jsqlparser.statement.select.PlainSelect;
+import net.sf.jsqlparser.statement.select.SelectBody;
+import net.sf.jsqlparser.statement.select.SelectExpressionItem;
+import net.sf.jsqlparser.statement.select.SelectItem;
+import net.sf.jsqlparser.statement.select.SetOperationList;
+import net.sf.jsqlparser.statement.select.SubSelect;
+import net.sf.jsqlparser.statement.select.UnionOp;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.session.Configuration;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Base implementation of {@link Dialect} that caches rewritten queries.
+ *
+ * <p> Parsing a query and serializing its AST are the most expensive parts of pagination.
+ * This rewrites an original query only once and keeps the query for total items and
+ * the template of query for pagination in a bounded cache, keyed by original query.
+ * Each dialect instance owns its cache, so the key is implicitly qualified with dialect.
+ *
+ * <p> With {@link RewriteMode#TOKENIZER}, simple single-table query is rewritten by tokenizer
+ * without building AST. If a query cannot be parsed, this wraps it as a subquery without parsing it,
+ * unless fallback is disabled.
+ *
+ * <p> Set operation such as "UNION ALL" is paginated as a subquery, and dialect can limit rows
+ * of each branch of "UNION ALL" by {@link #limitUnionAllBranch(PlainSelect)}.
+ *
+ * @see RewrittenSql
+ * @see SqlTemplate
+ */
+public abstract class AbstractDialect implements Dialect {
+
+    /**
+     * Default maximum number of rewritten queries.
+     */
+    public static final int DEFAULT_REWRITE_CACHE_SIZE = 1024;
+
+    /**
+     * Prefix of additional parameters that have values of sort keys.
+     */
+    protected static final String KEYSET_PARAMETER_PREFIX = "__keyset_";
+
+    /**
+     * Prefix of additional parameters that have values of {@link PageParameter}.
+     */
+    protected static final String PAGE_PARAMETER_PREFIX = "__page_";
+
+    /**
+     * Names of aggregate functions, which change the number of rows.
+     */
+    static final Set<String> AGGREGATE_FUNCTION_NAMES = new HashSet<>(Arrays.asList(
+            "COUNT", "SUM", "AVG", "MIN", "MAX", "GROUP_CONCAT", "LISTAGG", "STRING_AGG", "ARRAY_AGG",
+            "BIT_AND", "BIT_OR", "BIT_XOR", "BOOL_AND", "BOOL_OR", "EVERY", "STDDEV", "STDDEV_POP",
+            "STDDEV_SAMP", "VARIANCE", "VAR_POP", "VAR_SAMP", "MEDIAN", "JSON_ARRAYAGG", "JSON_OBJECTAGG",
+            "XMLAGG", "COLLECT"));
+
+    private static final Log log = LogFactory.getLog(AbstractDialect.class);
+
+    private final BoundedCache<String, RewrittenSql> rewriteCache;
+
+    private final BoundedCache<String, KeysetSql> keysetCache;
+
+    private final BoundedCache<String, SqlTemplate> deferredJoinCache;
+
+    /**
+     * If this is null, query for total items is not optimized.
+     */
+    private CountSqlOptimizer countSqlOptimizer = new CountSqlOptimizer();
+
+    private RewriteMode rewriteMode = RewriteMode.PARSER;
+
+    private boolean fallbackEnabled = true;
+
+    /**
+     * Number of queries that failed to be parsed and are wrapped as a subquery.
+     */
+    private final LongAdder fallbackCount = new LongAdder();
+
+    /**
+     * Recent queries that failed to be parsed and are wrapped as a subquery.
+     */
+    private final RewriteFailureLog fallbackLog = new RewriteFailureLog();
+
+    protected AbstractDialect() {
+        this(DEFAULT_REWRITE_CACHE_SIZE);
+    }
+
+    protected AbstractDialect(int rewriteCacheSize) {
+        this.rewriteCache = new BoundedCache<>(rewriteCacheSize);
+        this.keysetCache = new BoundedCache<>(rewriteCacheSize);
+        this.deferredJoinCache = new BoundedCache<>(rewriteCacheSize);
+    }
+
+    @Override
+    public BoundSql createCountBoundSql(BoundSql origin, Configuration config) {
+        RewrittenSql rewritten = rewrite(origin.getSql());
+        List<ParameterMapping> parameterMappings = rewritten.getCountParameterMappings(origin.getParameterMappings());
+
+        return Rebuilder.init(origin, RebuildMode.WRAP).config(config)
+                .sql(rewritten.getCountSql()).parameterMappings(parameterMappings).rebuild();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p> Values of pageable are bound to parameters, so all the pages of a query share the same SQL.
+     */
+    @Override
+    public BoundSql createOffsetLimitBoundSql(BoundSql origin, Configuration config, Pageable pageable) {
+        RewrittenSql rewritten = rewrite(origin.getSql());
+        return createItemsBoundSql(origin, config, rewritten.getItemsSqlTemplate(), pageable);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p> Query for pagination with deferred join is cached by original query and key column.
+     * If the query cannot be rewritten with deferred join, this paginates it with offset.
+     *
+     * @see #createDeferredJoinSqlTemplate(String, String)
+     */
+    @Override
+    public BoundSql createDeferredJoinBoundSql(BoundSql origin, Configuration config, Pageable pageable,
+                                               String keyColumn) {
+        String sql = origin.getSql();
+        SqlTemplate template = this.deferredJoinCache.get(sql + '\u0000' + keyColumn,
+                key -> createDeferredJoinSqlTemplate(sql, keyColumn));
+
+        return createItemsBoundSql(origin, config, template, pageable);
+    }
+
+    /**
+     * Creates bound SQL for pagination whose parameters of original query are in the same order.
+     */
+    private static BoundSql createItemsBoundSql(BoundSql origin, Configuration config, SqlTemplate template,
+                                                Pageable pageable) {
+        List<ParameterMapping> parameterMappings = insertPageParameterMappings(
+                new ArrayList<>(origin.getParameterMappings()), template, config);
+        BoundSql boundSql = Rebuilder.init(origin, RebuildMode.WRAP).config(config)
+                .sql(template.getSql(pageable)).parameterMappings(parameterMappings).rebuild();
+
+        setPageParameters(boundSql, template, pageable);
+
+        return boundSql;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p> Query differs by sort keys, direction and nullity of values of cursor,
+     * so it is cached by them with original query. Values of cursor are bound to parameters.
+     */
+    @Override
+    public BoundSql createKeysetBoundSql(BoundSql origin, Configuration config, Keyset keyset, Pageable pageable) {
+        String sql = origin.getSql();
+        KeysetSql keysetSql = this.keysetCache.get(sql + '\u0000' + keyset.getSignature(),
+                key -> createKeysetSql(sql, keyset));
+
+        int[] keyIndexes = keysetSql.getParameterKeyIndexes();
+        List<ParameterMapping> keysetMappings = new ArrayList<>(keyIndexes.length);
+        for (int i = 0; i < keyIndexes.length; i++) {
+            Object value = keyset.getValue(keyIndexes[i]);
+            keysetMappings.add(new ParameterMapping.Builder(config, KEYSET_PARAMETER_PREFIX + i, value.getClass())
+                    .build());
+        }
+
+        SqlTemplate template = keysetSql.getItemsSqlTemplate();
+        List<ParameterMapping> parameterMappings = insertPageParameterMappings(
+                keysetSql.getParameterMappings(origin.getParameterMappings(), keysetMappings), template, config);
+        BoundSql boundSql = Rebuilder.init(origin, RebuildMode.WRAP).config(config)
+                .sql(template.getSql(pageable)).parameterMappings(parameterMappings).rebuild();
+
+        for (int i = 0; i < keyIndexes.length; i++) {
+            boundSql.setAdditionalParameter(KEYSET_PARAMETER_PREFIX + i, keyset.getValue(keyIndexes[i]));
+        }
+        setPageParameters(boundSql, template, pageable);
+
+        return boundSql;
+    }
+
+    /**
+     * Inserts parameter mappings of page parameters at their indexes.
+     *
+     * @param parameterMappings parameter mappings of the query except page parameters
+     * @param template          template of the query
+     * @param config            configuration
+     * @return parameter mappings of the query
+     */
+    private static List<ParameterMapping> insertPageParameterMappings(List<ParameterMapping> parameterMappings,
+                                                                      SqlTemplate template, Configuration config) {
+        for (int i = 0; i < template.getNumOfBindParameters(); i++) {
+            String property = PAGE_PARAMETER_PREFIX + template.getBindParameter(i).name();
+            int index = Math.min(template.getBindParameterIndex(i), parameterMappings.size());
+
+            parameterMappings.add(index, new ParameterMapping.Builder(config, property, Integer.class).build());
+        }
+
+        return parameterMappings;
+    }
+
+    private static void setPageParameters(BoundSql boundSql, SqlTemplate template, Pageable pageable) {
+        for (int i = 0; i < template.getNumOfBindParameters(); i++) {
+            PageParameter parameter = template.getBindParameter(i);
+            boundSql.setAdditionalParameter(PAGE_PARAMETER_PREFIX + parameter.name(), parameter.valueOf(pageable));
+        }
+    }
+
+    /**
+     * Returns rewritten query from cache, rewriting it on the first call.
+     *
+     * @param sql original query
+     * @return rewritten query
+     */
+    public RewrittenSql rewrite(String sql) {
+        return this.rewriteCache.get(sql, it -> {
+            PaginationEventScope event = PaginationEvents.begin(PaginationStage.PARSE);
+            try {
+                return createRewrittenSql(it);
+            } finally {
+                event.commit(null, it, null);
+            }
+        });
+    }
+
+    /**
+     * Returns statistics of the cache for rewritten queries.
+     *
+     * @return cache statistics
+     */
+    public CacheStats getRewriteCacheStats() {
+        return this.rewriteCache.stats();
+    }
+
+    /**
+     * Returns the number of queries that failed to be parsed and are wrapped as a subquery.
+     * Each query is rewritten only once until it is evicted from cache,
+     * so this is not the number of executions.
+     *
+     * @return number of fallbacks
+     */
+    public long getFallbackCount() {
+        return this.fallbackCount.sum();
+    }
+
+    /**
+     * Returns the recent queries that failed to be parsed and are wrapped as a subquery, from the most recent one.
+     *
+     * @return recent fallbacks
+     */
+    public List<RewriteFailure> getRecentFallbacks() {
+        return this.fallbackLog.getRecent();
+    }
+
+    /**
+     * Clears the cache for rewritten queries.
+     */
+    public void clearRewriteCache() {
+        this.rewriteCache.invalidateAll();
+        this.keysetCache.invalidateAll();
+        this.deferredJoinCache.invalidateAll();
+    }
+
+    /**
+     * Returns optimizer of query for total items.
+     *
+     * @return count SQL optimizer or null
+     */
+    public CountSqlOptimizer getCountSqlOptimizer() {
+        return this.countSqlOptimizer;
+    }
+
+    /**
+     * Sets optimizer of query for total items, and clears the cache for rewritten queries.
+     *
+     * @param countSqlOptimizer count SQL optimizer, or null not to optimize
+     */
+    public void setCountSqlOptimizer(CountSqlOptimizer countSqlOptimizer) {
+        this.countSqlOptimizer = countSqlOptimizer;
+        clearRewriteCache();
+    }
+
+    /**
+     * Returns mode of rewriting original query.
+     *
+     * @return rewrite mode
+     */
+    public RewriteMode getRewriteMode() {
+        return this.rewriteMode;
+    }
+
+    /**
+     * Sets mode of rewriting original query, and clears the cache for rewritten queries.
+     *
+     * @param rewriteMode rewrite mode
+     */
+    public void setRewriteMode(RewriteMode rewriteMode) {
+        this.rewriteMode = rewriteMode;
+        clearRewriteCache();
+    }
+
+    /**
+     * Returns whether to wrap original query without parsing it, if the query cannot be parsed.
+     *
+     * @return whether fallback is enabled
+     */
+    public boolean isFallbackEnabled() {
+        return this.fallbackEnabled;
+    }
+
+    /**
+     * Sets whether to wrap original query without parsing it, if the query cannot be parsed,
+     * and clears the cache for rewritten queries.
+     *
+     * @param fallbackEnabled whether fallback is enabled
+     */
+    public void setFallbackEnabled(boolean fallbackEnabled) {
+        this.fallbackEnabled = fallbackEnabled;
+        clearRewriteCache();
+    }
+
+    /**
+     * Parses original query only once and rewrites it as queries for pagination and total items.
+     *
+     * <p> Both {@link #createItemsSqlTemplate(PlainSelect)} and {@link #createCountSelect(PlainSelect)}
+     * change the given select, so they are invoked in order. Parameters of query for total items are found
+     * in its AST by their positions in original query, so the rest of them are removed from parameter mappings.
+     *
+     * @param sql original query
+     * @return rewritten query
+     * @see #createSimpleRewrittenSql(SimpleSelect)
+     * @see #createSetOperationRewrittenSql(SetOperationList)
+     * @see #createFallbackRewrittenSql(String)
+     */
+    protected RewrittenSql createRewrittenSql(String sql) {
+        if (this.rewriteMode == RewriteMode.TOKENIZER) {
+            SimpleSelect simpleSelect = SimpleSelect.parse(sql);
+            if (simpleSelect != null) return createSimpleRewrittenSql(simpleSelect);
+        }
+
+        SelectBody selectBody;
+        try {
+            selectBody = InterceptorSupport.parseSelectBody(sql);
+        } catch (RuntimeException e) {
+            if (!this.fallbackEnabled) throw e;
+
+            this.fallbackCount.increment();
+            this.fallbackLog.add(RewriteFailure.of(null, sql, e));
+            if (log.isDebugEnabled()) {
+                log.debug("Failed to parse query, so it is wrapped as a subquery: " + e.getMessage());
+            }
+            return createFallbackRewrittenSql(sql);
+        }
+
+        if (selectBody instanceof SetOperationList) {
+            return createSetOperationRewrittenSql((SetOperationList) selectBody);
+        }
+
+        PlainSelect select = (PlainSelect) selectBody;
+        SqlTemplate itemsSqlTemplate = createItemsSqlTemplate(select);
+        PlainSelect countSelect = createCountSelect(select);
+
+        return new RewrittenSql(countSelect.toString(), JdbcParameterFinder.findIndexes(countSelect),
+                itemsSqlTemplate);
+    }
+
+    /**
+     * Rewrites simple query by text, without parsing it.
+     *
+     * <pre>{@code
+     *     SELECT COUNT(*) FROM ... WHERE ...
+     * }</pre>
+     *
+     * @param select simple select split by tokenizer
+     * @return rewritten query
+     */
+    private RewrittenSql createSimpleRewrittenSql(SimpleSelect select) {
+        String itemsSql = appendRowLimitingClause(select.getSql(), select.isOrdered());
+
+        return new RewrittenSql(select.getCountSql(), select.getCountParameterIndexes(),
+                SqlTemplate.compile(itemsSql));
+    }
+
+    /**
+     * Rewrites set operation such as "UNION ALL", "UNION", "INTERSECT" and "EXCEPT".
+     *
+     * <p> Set operation is wrapped as a subquery to be paginated, and its "ORDER BY" statement is moved
+     * to the wrapper. If all the operations are "UNION ALL", rows of each branch are limited to the last row
+     * of the page in the same order, so that each branch stops early. The first {@code offset + limit} rows
+     * of the set operation are always in the first {@code offset + limit} rows of their branches.
+     *
+     * <pre>{@code
+     *     SELECT * FROM ((SELECT ... ORDER BY 2 LIMIT ?) UNION ALL (SELECT ... ORDER BY 2 LIMIT ?)) PAGE_ORIGIN
+     *     ORDER BY NAME LIMIT ? OFFSET ?
+     * }</pre>
+     *
+     * <p> Query for total items of "UNION ALL" is the sum of counts of each branch, so that each branch
+     * is counted in the fastest way. The others count rows of the set operation,
+     * because they deduplicate rows across branches.
+     *
+     * <pre>{@code
+     *     SELECT SUM(BRANCH_COUNT) FROM (SELECT COUNT(*) AS BRANCH_COUNT FROM ... UNION ALL
+     *     SELECT COUNT(*) AS BRANCH_COUNT FROM ...) COUNT_TARGET
+     * }</pre>
+     *
+     * @param setOperation original set operation
+     * @return rewritten query
+     * @see #limitUnionAllBranch(PlainSelect)
+     */
+    protected RewrittenSql createSetOperationRewrittenSql(SetOperationList setOperation) {
+        List<SelectBody> branches = setOperation.getSelects();
+        List<OrderByElement> orderBy = setOperation.getOrderByElements();
+        PlainSelect select = wrapSetOperation(setOperation);
+
+        // Branch that has its own row limiting is neither limited by page nor counted in its own way.
+        boolean[] rowLimited = new boolean[branches.size()];
+        for (int i = 0; i < branches.size(); i++) {
+            SelectBody branch = branches.get(i);
+            rowLimited[i] = !(branch instanceof PlainSelect) || hasRowLimiting((PlainSelect) branch);
+        }
+
+        boolean unionAll = isUnionAll(setOperation);
+        if (unionAll) pushDownRowLimit(setOperation, orderBy, rowLimited);
+
+        SqlTemplate itemsSqlTemplate = createItemsSqlTemplate(select);
+        PlainSelect countSelect = unionAll
+                ? createUnionAllCountSelect(setOperation, rowLimited)
+                : createCountTargetSelect(setOperation);
+
+        return new RewrittenSql(countSelect.toString(), JdbcParameterFinder.findIndexes(countSelect),
+                itemsSqlTemplate);
+    }
+
+    /**
+     * Limits rows of branch of "UNION ALL" to the last row of the page.
+     *
+     * <p> After this, the branch is ordered in the same order as the set operation.
+     * Dialect that cannot limit rows of branch returns false, then the branch is not changed.
+     *
+     * @param branch branch of "UNION ALL" without row limiting
+     * @return whether rows of the branch are limited
+     * @see PageParameter#END_ROW_NUM
+     */
+    protected boolean limitUnionAllBranch(PlainSelect branch) {
+        return false;
+    }
+
+    /**
+     * Wraps set operation as a subquery, moving its "ORDER BY" statement to the wrapper.
+     *
+     * <p> Row limiting clause of set operation is removed like that of plain select.
+     * Parser attaches the clause to the last branch unless it is in brackets, so it is removed from there.
+     *
+     * @param setOperation set operation
+     * @return wrapper of the set operation
+     */
+    private static PlainSelect wrapSetOperation(SetOperationList setOperation) {
+        List<OrderByElement> orderBy = setOperation.getOrderByElements();
+        setOperation.setOrderByElements(null);
+        setOperation.setLimit(null);
+        setOperation.setOffset(null);
+        setOperation.setFetch(null);
+
+        List<SelectBody> branches = setOperation.getSelects();
+        int lastIndex = branches.size() - 1;
+        if (branches.get(lastIndex) instanceof PlainSelect && !isBracketed(setOperation, lastIndex)) {
+            PlainSelect last = (PlainSelect) branches.get(lastIndex);
+            last.setLimit(null);
+            last.setOffset(null);
+            last.setFetch(null);
+        }
+
+        SubSelect subSelect = new SubSelect();
+        subSelect.setSelectBody(setOperation);
+        subSelect.setAlias(new Alias("PAGE_ORIGIN", false));
+
+        PlainSelect select = new PlainSelect();
+        select.addSelectItems(new AllColumns());
+        select.setFromItem(subSelect);
+        select.setOrderByElements(orderBy);
+
+        return select;
+    }
+
+    /**
+     * Limits rows of each branch of "UNION ALL", if order of the set operation can be applied to them.
+     *
+     * <p> "ORDER BY" statement of set operation refers to columns of its result,
+     * so the branches are ordered by positions of the columns.
+     */
+    private void pushDownRowLimit(SetOperationList setOperation, List<OrderByElement> orderBy, boolean[] rowLimited) {
+        List<SelectBody> branches = setOperation.getSelects();
+
+        List<OrderByElement> branchOrderBy = null;
+        if (orderBy != null && !orderBy.isEmpty()) {
+            branchOrderBy = createBranchOrderByElements(orderBy, branches.get(0));
+            if (branchOrderBy == null) return;
+        }
+
+        List<Boolean> brackets = setOperation.getBrackets() == null
+                ? new ArrayList<>(Collections.nCopies(branches.size(), false))
+                : new ArrayList<>(setOperation.getBrackets());
+        for (int i = 0; i < branches.size(); i++) {
+            if (rowLimited[i]) continue;
+
+            PlainSelect branch = (PlainSelect) branches.get(i);
+            if (!limitUnionAllBranch(branch)) continue;
+
+            branch.setOrderByElements(branchOrderBy);
+            brackets.set(i, true);
+        }
+        setOperation.setBrackets(brackets);
+    }
+
+    /**
+     * Creates elements of "ORDER BY" statement that order each branch by positions of the columns.
+     *
+     * @param orderBy     elements of "ORDER BY" statement of set operation
+     * @param firstBranch first branch, which names columns of set operation
+     * @return elements of "ORDER BY" statement, or null if some of the columns are not found
+     */
+    private static List<OrderByElement> createBranchOrderByElements(List<OrderByElement> orderBy,
+                                                                    SelectBody firstBranch) {
+        if (!(firstBranch instanceof PlainSelect)) return null;
+
+        return createPositionalOrderByElements(orderBy, ((PlainSelect) firstBranch).getSelectItems());
+    }
+
+    /**
+     * Creates elements of "ORDER BY" statement that order rows by positions of the columns in select items.
+     *
+     * @param orderBy     elements of "ORDER BY" statement
+     * @param selectItems select items, which name columns
+     * @return elements of "ORDER BY" statement, or null if some of the columns are not found
+     */
+    protected static List<OrderByElement> createPositionalOrderByElements(List<OrderByElement> orderBy,
+                                                                          List<SelectItem> selectItems) {
+        List<OrderByElement> elements = new ArrayList<>(orderBy.size());
+        for (OrderByElement origin : orderBy) {
+            long position = findColumnPosition(origin.getExpression(), selectItems);
+            if (position < 1) return null;
+
+            OrderByElement element = new OrderByElement();
+            element.setExpression(new LongValue(position));
+            element.setAsc(origin.isAsc());
+            element.setAscDescPresent(origin.isAscDescPresent());
+            element.setNullOrdering(origin.getNullOrdering());
+            elements.add(element);
+        }
+
+        return elements;
+    }
+
+    /**
+     * Returns 1-based position of the column in select items, or 0 if it is not found.
+     */
+    private static long findColumnPosition(Expression expression, List<SelectItem> selectItems) {
+        if (expression instanceof LongValue) {
+            long position = ((LongValue) expression).getValue();
+            return position <= selectItems.size() ? position : 0;
+        }
+
+        // Positions after all columns are unknown.
+        int numOfItems = 0;
+        while (numOfItems < selectItems.size() && selectItems.get(numOfItems) instanceof SelectExpressionItem) {
+            numOfItems++;
+        }
+
+        if (expression instanceof Column && ((Column) expression).getTable() == null) {
+            String columnName = ((Column) expression).getColumnName();
+            for (int i = 0; i < numOfItems; i++) {
+                SelectExpressionItem item = (SelectExpressionItem) selectItems.get(i);
+                String name = item.getAlias() != null ? item.getAlias().getName()
+                        : item.getExpression() instanceof Column
+                        ? ((Column) item.getExpression()).getColumnName() : null;
+                if (columnName.equalsIgnoreCase(name)) return i + 1;
+            }
+        }
+
+        // Expression that is the same as select item, e.g. "ORDER BY A.NAME" for "SELECT A.NAME".
+        for (int i = 0; i < numOfItems; i++) {
+            SelectExpressionItem item = (SelectExpressionItem) selectItems.get(i);
+            if (item.getExpression().toString().equalsIgnoreCase(expression.toString())) return i + 1;
+        }
+
+        return 0;
+    }
+
+    /**
+     * Creates query for total items of "UNION ALL", which sums counts of each branch.
+     */
+    private PlainSelect createUnionAllCountSelect(SetOperationList setOperation, boolean[] rowLimited) {
+        List<SelectBody> branches = setOperation.getSelects();
+
+        List<SelectBody> countSelects = new ArrayList<>(branches.size());
+        for (int i = 0; i < branches.size(); i++) {
+            SelectBody branch = branches.get(i);
+            PlainSelect countSelect = rowLimited[i]
+                    ? createCountTargetSelect(branch)
+                    : createCountSelect((PlainSelect) branch);
+
+            SelectExpressionItem countItem = (SelectExpressionItem) countSelect.getSelectItems().get(0);
+            countItem.setAlias(new Alias("BRANCH_COUNT", true));
+            countSelects.add(countSelect);
+        }
+
+        SetOperationList counts = new SetOperationList();
+        counts.setBracketsOpsAndSelects(new ArrayList<>(Collections.nCopies(countSelects.size(), false)),
+                countSelects, setOperation.getOperations());
+
+        Function sumFunc = new Function();
+        sumFunc.setName("SUM");
+        sumFunc.setParameters(new ExpressionList(new Column("BRANCH_COUNT")));
+
+        SubSelect subSelect = new SubSelect();
+        subSelect.setSelectBody(counts);
+        subSelect.setAlias(new Alias("COUNT_TARGET", false));
+
+        PlainSelect countSelect = new PlainSelect();
+        countSelect.addSelectItems(new SelectExpressionItem(sumFunc));
+        countSelect.setFromItem(subSelect);
+
+        return countSelect;
+    }
+
+    private static boolean isUnionAll(SetOperationList setOperation) {
+        return setOperation.getOperations().stream()
+                .allMatch(operation -> operation instanceof UnionOp && ((UnionOp) operation).isAll());
+    }
+
+    private static boolean isBracketed(SetOperationList setOperation, int index) {
+        List<Boolean> brackets = setOperation.getBrackets();
+        return brackets != null && Boolean.TRUE.equals(brackets.get(index));
+    }
+
+    private static boolean hasRowLimiting(PlainSelect select) {
+        return select.getLimit() != null || select.getOffset() != null || select.getFetch() != null
+                || select.getTop() != null || select.getFirst() != null;
+    }
+
+    /**
+     * Rewrites query that cannot be parsed by wrapping it as a subquery.
+     *
+     * <p> All the parameters of original query are kept in both of the rewritten queries.
+     *
+     * <pre>{@code
+     *     SELECT COUNT(*) FROM (...) COUNT_TARGET
+     *     SELECT * FROM (...) PAGE_ORIGIN LIMIT ? OFFSET ?
+     * }</pre>
+     *
+     * @param sql original query
+     * @return rewritten query
+     */
+    protected RewrittenSql createFallbackRewrittenSql(String sql) {
+        String origin = sql.trim();
+        if (origin.endsWith(";")) origin = origin.substring(0, origin.length() - 1).trim();
+
+        String countSql = "SELECT COUNT(*) FROM (" + origin + ") COUNT_TARGET";
+        String itemsSql = appendRowLimitingClause("SELECT * FROM (" + origin + ") PAGE_ORIGIN", false);
+
+        // Query for total items wraps original query as it is, so it has all the parameters.
+        return new RewrittenSql(countSql, null, SqlTemplate.compile(itemsSql));
+    }
+
+    /**
+     * Parses original query and rewrites it as query for pagination with deferred join.
+     *
+     * <p> Only keys of the page are selected with offset, and the rows of them are fetched by joining them back
+     * to the tables of original query. Keys are selected by original query whose select items are replaced with
+     * the key column, so the database can read them from covering index without reading the rows skipped by offset.
+     *
+     * <pre>{@code
+     *     SELECT ... FROM ... INNER JOIN (SELECT key AS PAGE_KEY FROM ... WHERE ... ORDER BY ... LIMIT ? OFFSET ?)
+     *     PAGE_KEYS ON key = PAGE_KEYS.PAGE_KEY ORDER BY ...
+     * }</pre>
+     *
+     * <p> Only plain select is rewritten, whose mapped parameters are all in "WHERE" statement.
+     * The others are tables and "ORDER BY" statement, which are written in both the query for keys and its wrapper,
+     * so the parameters of original query are kept in the same order.
+     *
+     * <p> The wrapper has the joins of original query without its "WHERE" statement, so a key must be joined
+     * to only one row. A query with joins is rewritten only if {@link CountSqlOptimizer} proves that
+     * the table of the key column matches at most one row of each joined table by their unique keys.
+     * If the key column is not qualified, the table is that of "FROM" statement.
+     *
+     * @param sql       original query
+     * @param keyColumn key column that identifies a row of the query
+     * @return template of query for pagination
+     */
+    protected SqlTemplate createDeferredJoinSqlTemplate(String sql, String keyColumn) {
+        PlainSelect select;
+        try {
+            select = InterceptorSupport.parseSelect(sql);
+        } catch (RuntimeException e) {
+            return rewrite(sql).getItemsSqlTemplate();
+        }
+
+        Expression key = createDeferredJoinKey(select, keyColumn);
+        Expression where = select.getWhere();
+        int numOfWhereMappings = where == null ? 0 : JdbcParameterFinder.findIndexes(where).length;
+        if (!isPlain(select) || hasRowLimiting(select)
+                || JdbcParameterFinder.findIndexes(select).length != numOfWhereMappings
+                || !identifiesRow(select, key)) {
+            if (log.isDebugEnabled()) {
+                log.debug("Query cannot be paginated with deferred join, so it is paginated with offset: " + sql);
+            }
+            return rewrite(sql).getItemsSqlTemplate();
+        }
+
+        List<SelectItem> selectItems = select.getSelectItems();
+        List<OrderByElement> orderBy = select.getOrderByElements();
+        boolean ordered = orderBy != null && !orderBy.isEmpty();
+
+        // Query for keys doesn't have the select items, so it cannot be ordered by their aliases or positions.
+        List<OrderByElement> keysOrderBy = ordered ? createExpandedOrderByElements(orderBy, selectItems) : null;
+        if (ordered && keysOrderBy == null) {
+            if (log.isDebugEnabled()) {
+                log.debug("Query cannot be paginated with deferred join, so it is paginated with offset: " + sql);
+            }
+            return rewrite(sql).getItemsSqlTemplate();
+        }
+
+        // Makes query for keys of the page.
+        SelectExpressionItem keyItem = new SelectExpressionItem(key);
+        keyItem.setAlias(new Alias("PAGE_KEY", true));
+        select.setSelectItems(Collections.singletonList(keyItem));
+        select.setOrderByElements(keysOrderBy);
+        String keysSql = appendRowLimitingClause(select.toString(), ordered);
+
+        // Makes wrapper that fetches the rows of the keys.
+        select.setSelectItems(selectItems);
+        select.setWhere(null);
+        select.setOrderByElements(null);
+
+        return SqlTemplate.compile(select + " INNER JOIN (" + keysSql + ") PAGE_KEYS ON " + key
+                + " = PAGE_KEYS.PAGE_KEY" + PlainSelect.orderByToString(orderBy));
+    }
+
+    /**
+     * Creates elements of "ORDER BY" statement whose references to select items by alias or position
+     * are replaced with the expressions of the select items.
+     *
+     * @param orderBy     elements of "ORDER BY" statement
+     * @param selectItems select items
+     * @return elements of "ORDER BY" statement, or null if some of them refer to all columns
+     */
+    private static List<OrderByElement> createExpandedOrderByElements(List<OrderByElement> orderBy,
+                                                                      List<SelectItem> selectItems) {
+        List<OrderByElement> elements = new ArrayList<>(orderBy.size());
+        for (OrderByElement origin : orderBy) {
+            Expression expression = origin.getExpression();
+
+            if (expression instanceof LongValue) {
+                long position = ((LongValue) expression).getValue();
+                if (position < 1 || position > selectItems.size()) return null;
+
+                SelectItem selectItem = selectItems.get((int) position - 1);
+                if (!(selectItem instanceof SelectExpressionItem)) return null;
+                expression = ((SelectExpressionItem) selectItem).getExpression();
+            } else if (expression instanceof Column && ((Column) expression).getTable() == null) {
+                String name = CountSqlOptimizer.normalize(((Column) expression).getColumnName());
+                for (SelectItem selectItem : selectItems) {
+                    if (!(selectItem instanceof SelectExpressionItem)) continue;
+
+                    Alias alias = ((SelectExpressionItem) selectItem).getAlias();
+                    if (alias != null && name.equals(CountSqlOptimizer.normalize(alias.getName()))) {
+                        expression = ((SelectExpressionItem) selectItem).getExpression();
+                        break;
+                    }
+                }
+            }
+
+            OrderByElement element = new OrderByElement();
+            element.setExpression(expression);
+            element.setAsc(origin.isAsc());
+            element.setAscDescPresent(origin.isAscDescPresent());
+            element.setNullOrdering(origin.getNullOrdering());
+            elements.add(element);
+        }
+
+        return elements;
+    }
+
+    /**
+     * Returns whether the key identifies a row of the select, which is joined to at most one row of each table.
+     */
+    private boolean identifiesRow(PlainSelect select, Expression key) {
+        if (select.getJoins() == null || select.getJoins().isEmpty()) return true;
+        if (this.countSqlOptimizer == null || !(key instanceof Column)) return false;
+
+        Table table = ((Column) key).getTable();
+        String alias;
+        if (table != null && table.getName() != null) {
+            alias = table.getName();
+        } else {
+            FromItem fromItem = select.getFromItem();
+            if (fromItem.getAlias() != null) {
+                alias = fromItem.getAlias().getName();
+            } else if (fromItem instanceof Table) {
+                alias = ((Table) fromItem).getName();
+            } else {
+                return false;
+            }
+        }
+
+        return this.countSqlOptimizer.identifiesRow(select, alias);
+    }
+
+    /**
+     * Creates key column for deferred join.
+     *
+     * @param select    original select
+     * @param keyColumn key column configured on mapper method
+     * @return key column
+     */
+    protected Expression createDeferredJoinKey(PlainSelect select, String keyColumn) {
+        try {
+            return CCJSqlParserUtil.parseExpression(keyColumn);
+        } catch (JSQLParserException e) {
+            throw new IllegalArgumentException("Invalid key column of deferred join: " + keyColumn, e);
+        }
+    }
+
+    /**
+     * Parses original query and rewrites it as query for keyset pagination.
+     *
+     * <p> Set operation is wrapped as a subquery, so sort keys refer to columns of its result.
+     *
+     * @param sql    original query
+     * @param keyset position of page
+     * @return rewritten query
+     */
+    protected KeysetSql createKeysetSql(String sql, Keyset keyset) {
+        SelectBody selectBody = InterceptorSupport.parseSelectBody(sql);
+        PlainSelect select = selectBody instanceof SetOperationList
+                ? wrapSetOperation((SetOperationList) selectBody)
+                : (PlainSelect) selectBody;
+
+        List<SortKey> seekKeys = keyset.getSeekKeys();
+        List<Integer> parameterKeyIndexes = new ArrayList<>();
+        if (keyset.hasCursor()) {
+            Expression predicate = createKeysetPredicate(seekKeys, keyset, parameterKeyIndexes);
+            Expression where = select.getWhere();
+            select.setWhere(where == null ? predicate : new AndExpression(new Parenthesis(where), predicate));
+        }
+
+        List<OrderByElement> orderBy = new ArrayList<>();
+        for (SortKey seekKey : seekKeys) {
+            orderBy.addAll(createKeysetOrderByElements(seekKey));
+        }
+        select.setOrderByElements(orderBy);
+
+        // Parameters of "ORDER BY", "LIMIT", ... statements are replaced, so they are not found in the select.
+        SqlTemplate itemsSqlTemplate = createLimitSqlTemplate(select);
+        int[] parameterIndexes = JdbcParameterFinder.findIndexes(select);
+
+        return new KeysetSql(itemsSqlTemplate, parameterIndexes,
+                parameterKeyIndexes.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    /**
+     * Creates elements of "ORDER BY" statement for the sort key.
+     *
+     * <p> NULL is regarded as greater than any other value in keyset pagination,
+     * so this orders it last in ascending order and first in descending order.
+     *
+     * @param sortKey sort key
+     * @return elements of "ORDER BY" statement
+     */
+    protected List<OrderByElement> createKeysetOrderByElements(SortKey sortKey) {
+        OrderByElement element = new OrderByElement();
+        element.setExpression(parseColumn(sortKey));
+        element.setAsc(sortKey.getDirection() == SortDirection.ASC);
+
+        if (sortKey.isNullable()) {
+            element.setNullOrdering(sortKey.getDirection() == SortDirection.ASC
+                    ? OrderByElement.NullOrdering.NULLS_LAST : OrderByElement.NullOrdering.NULLS_FIRST);
+        }
+
+        return Collections.singletonList(element);
+    }
+
+    /**
+     * Creates predicate that selects rows after the cursor in order of the sort keys.
+     *
+     * <p> For sort keys {@code (a ASC, b DESC)}, this creates the following predicate.
+     * Instead of row value comparison, this expands it, because directions of sort keys can be different
+     * and some databases don't support it.
+     *
+     * <pre>{@code
+     *     (a > ?) OR (a = ? AND b < ?)
+     * }</pre>
+     *
+     * @param seekKeys            sort keys in order of seeking rows
+     * @param keyset              position of page
+     * @param parameterKeyIndexes indexes of sort keys whose values are bound to parameters
+     * @return predicate
+     */
+    protected static Expression createKeysetPredicate(List<SortKey> seekKeys, Keyset keyset,
+                                                      List<Integer> parameterKeyIndexes) {
+        Expression predicate = null;
+
+        for (int i = 0; i < seekKeys.size(); i++) {
+            SortKey seekKey = seekKeys.get(i);
+            Object value = keyset.getValue(i);
+
+            // Nothing is greater than NULL.
+            if (value == null && seekKey.getDirection() == SortDirection.ASC) continue;
+
+            Expression term = null;
+            for (int j = 0; j < i; j++) {
+                term = and(term, createKeysetEquality(seekKeys.get(j), keyset.getValue(j), j, parameterKeyIndexes));
+            }
+            term = and(term, createKeysetInequality(seekKey, value, i, parameterKeyIndexes));
+
+            predicate = predicate == null ? new Parenthesis(term) : new OrExpression(predicate, new Parenthesis(term));
+        }
+
+        // When cursor is located at the last row, there is no row after it.
+        if (predicate == null) {
+            EqualsTo alwaysFalse = new EqualsTo();
+            alwaysFalse.setLeftExpression(new LongValue(1));
+            alwaysFalse.setRightExpression(new LongValue(0));
+            return alwaysFalse;
+        }
+
+        return new Parenthesis(predicate);
+    }
+
+    private static Expression createKeysetEquality(SortKey sortKey, Object value, int keyIndex,
+                                                   List<Integer> parameterKeyIndexes) {
+        if (value == null) {
+            IsNullExpression isNull = new IsNullExpression();
+            isNull.setLeftExpression(parseColumn(sortKey));
+            return isNull;
+        }
+
+        parameterKeyIndexes.add(keyIndex);
+        EqualsTo equalsTo = new EqualsTo();
+        equalsTo.setLeftExpression(parseColumn(sortKey));
+        equalsTo.setRightExpression(new JdbcParameter());
+        return equalsTo;
+    }
+
+    private static Expression createKeysetInequality(SortKey sortKey, Object value, int keyIndex,
+                                                     List<Integer> parameterKeyIndexes) {
+        Expression column = parseColumn(sortKey);
+
+        // In descending order, rows that are not NULL come after NULL.
+        if (value == null) {
+            IsNullExpression isNotNull = new IsNullExpression();
+            isNotNull.setLeftExpression(column);
+            isNotNull.setNot(true);
+            return isNotNull;
+        }
+
+        parameterKeyIndexes.add(keyIndex);
+        ComparisonOperator comparison = sortKey.getDirection() == SortDirection.ASC
+                ? new GreaterThan() : new MinorThan();
+        comparison.setLeftExpression(column);
+        comparison.setRightExpression(new JdbcParameter());
+
+        if (!sortKey.isNullable() || sortKey.getDirection() == SortDirection.DESC) return comparison;
+
+        // In ascending order, NULL comes after all values.
+        IsNullExpression isNull = new IsNullExpression();
+        isNull.setLeftExpression(parseColumn(sortKey));
+        return new Parenthesis(new OrExpression(comparison, isNull));
+    }
+
+    private static Expression and(Expression left, Expression right) {
+        return left == null ? right : new AndExpression(left, right);
+    }
+
+    /**
+     * Parses column of the sort key as expression.
+     *
+     * @param sortKey sort key
+     * @return column expression
+     */
+    protected static Expression parseColumn(SortKey sortKey) {
+        try {
+            return CCJSqlParserUtil.parseExpression(sortKey.getColumn());
+        } catch (JSQLParserException e) {
+            throw new IllegalArgumentException("Invalid column of sort key: " + sortKey.getColumn(), e);
+        }
+    }
+
+    /**
+     * Creates template of query for pagination.
+     *
+     * @param select original select
+     * @return template of query for pagination
+     * @see SqlTemplate#placeholderOf(PageParameter)
+     */
+    protected abstract SqlTemplate createItemsSqlTemplate(PlainSelect select);
+
+    /**
+     * Creates template of query that selects only the first rows up to {@link PageParameter#LIMIT},
+     * which is used for keyset pagination that never skips rows.
+     *
+     * <p> By default, this creates template of query for pagination, whose offset is bound to 0.
+     *
+     * @param select select ordered by sort keys
+     * @return template of query for keyset pagination
+     * @see SqlTemplate#placeholderOf(PageParameter)
+     */
+    protected SqlTemplate createLimitSqlTemplate(PlainSelect select) {
+        return createItemsSqlTemplate(select);
+    }
+
+    /**
+     * Appends row limiting clause to the query by text, without parsing it.
+     *
+     * <p> Query is simple or wrapped as a subquery, so the clause can be appended to its end.
+     *
+     * @param sql     query without row limiting clause
+     * @param ordered whether query has "ORDER BY" statement
+     * @return query for pagination written with placeholders
+     * @see SqlTemplate#placeholderOf(PageParameter)
+     */
+    protected abstract String appendRowLimitingClause(String sql, boolean ordered);
+
+    /**
+     * Creates query for total items.
+     *
+     * <p> For a plain query, this replaces select items with "COUNT(*)", which is the fastest.
+     * Window functions don't change the number of rows, so a query with them is also plain.
+     * But "DISTINCT", "GROUP BY", "HAVING" and aggregate functions change it,
+     * so this wraps the query as a subquery and counts its rows.
+     *
+     * <pre>{@code
+     *     -- GROUP BY without HAVING and DISTINCT: select items are irrelevant to the number of groups.
+     *     SELECT COUNT(*) FROM (SELECT 1 FROM ... GROUP BY ...) COUNT_TARGET
+     *
+     *     -- DISTINCT, HAVING or aggregate functions: select items are kept,
+     *     -- because they determine distinct rows and can be referenced by HAVING.
+     *     SELECT COUNT(*) FROM (SELECT DISTINCT ... FROM ...) COUNT_TARGET
+     * }</pre>
+     *
+     * <p> "COUNT(DISTINCT ...)" is not used, because it ignores NULL unlike "DISTINCT".
+     * After select items are decided, {@link CountSqlOptimizer} removes joins, nested "ORDER BY" statements
+     * and scalar subqueries that don't change the number of rows.
+     *
+     * @param select original select
+     * @return select for total items
+     * @see #keepsSelectItems(PlainSelect)
+     */
+    protected PlainSelect createCountSelect(PlainSelect select) {
+        boolean plain = isPlain(select);
+        boolean keepsSelectItems = keepsSelectItems(select);
+
+        // Removes statements "ORDER BY", "LIMIT", "OFFSET", "FETCH", "FIRST".
+        select.setOrderByElements(null);
+        select.setLimit(null);
+        select.setOffset(null);
+        select.setFetch(null);
+        select.setFirst(null);
+
+        if (plain) {
+            // Add "COUNT(*)" as select item into root select.
+            select.setSelectItems(createCountItems());
+            optimizeCountSql(select);
+            return select;
+        }
+
+        if (!keepsSelectItems) {
+            select.setSelectItems(Collections.singletonList(new SelectExpressionItem(new LongValue(1))));
+        }
+        optimizeCountSql(select);
+
+        return createCountTargetSelect(select);
+    }
+
+    /**
+     * Creates query that counts rows of the select as a subquery.
+     *
+     * @param selectBody select to be counted
+     * @return select for total items
+     */
+    protected static PlainSelect createCountTargetSelect(SelectBody selectBody) {
+        SubSelect subSelect = new SubSelect();
+        subSelect.setSelectBody(selectBody);
+        subSelect.setAlias(new Alias("COUNT_TARGET", false));
+
+        PlainSelect countSelect = new PlainSelect();
+        countSelect.setSelectItems(createCountItems());
+        countSelect.setFromItem(subSelect);
+
+        return countSelect;
+    }
+
+    private void optimizeCountSql(PlainSelect select) {
+        if (this.countSqlOptimizer != null) this.countSqlOptimizer.optimize(select);
+    }
+
+    /**
+     * Returns whether select items are kept in query for total items.
+     *
+     * @param select original select
+     * @return whether select items are kept
+     */
+    protected static boolean keepsSelectItems(PlainSelect select) {
+        if (isPlain(select)) return false;
+
+        return select.getGroupBy() == null || select.getHaving() != null || select.getDistinct() != null
+                || refersToSelectItems(select);
+    }
+
+    /**
+     * Returns whether "GROUP BY" statement refers to select items by position like "GROUP BY 1"
+     * or by alias like "SELECT YEAR(BIRTHDATE) AS Y ... GROUP BY Y".
+     *
+     * @param select original select
+     * @return whether grouping depends on select items
+     */
+    private static boolean refersToSelectItems(PlainSelect select) {
+        List<Expression> expressions = select.getGroupBy().getGroupByExpressions();
+        if (expressions == null) return false;
+
+        Set<String> aliases = new HashSet<>();
+        for (SelectItem selectItem : select.getSelectItems()) {
+            if (!(selectItem instanceof SelectExpressionItem)) continue;
+
+            Alias alias = ((SelectExpressionItem) selectItem).getAlias();
+            if (alias != null) aliases.add(CountSqlOptimizer.normalize(alias.getName()));
+        }
+
+        for (Expression expression : expressions) {
+            if (expression instanceof LongValue) return true;
+
+            if (expression instanceof Column && ((Column) expression).getTable() == null) {
+                String name = CountSqlOptimizer.normalize(((Column) expression).getColumnName());
+                if (aliases.contains(name)) return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns whether the number of rows is not changed by select items.
+     *
+     * @param select original select
+     * @return whether the query is plain
+     */
+    protected static boolean isPlain(PlainSelect select) {
+        return select.getDistinct() == null && select.getGroupBy() == null && select.getHaving() == null
+                && !hasAggregateFunction(select.getSelectItems());
+    }
+
+    private static List<SelectItem> createCountItems() {
+        Function countFunc = new Function();
+        countFunc.setName("COUNT");
+        countFunc.setAllColumns(true);
+
+        return Collections.singletonList(new SelectExpressionItem(countFunc));
+    }
+
+    private static boolean hasAggregateFunction(List<SelectItem> selectItems) {
+        AggregateFunctionFinder finder = new AggregateFunctionFinder();
+
+        for (SelectItem selectItem : selectItems) {
+            if (!(selectItem instanceof SelectExpressionItem)) continue;
+
+            ((SelectExpressionItem) selectItem).getExpression().accept(finder);
+            if (finder.found) return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Finds aggregate function in expression, except for ones in window function and subquery.
+     */
+    private static class AggregateFunctionFinder extends ExpressionVisitorAdapter {
+        private boolean found;
+
+        @Override
+        public void visit(Function function) {
+            if (AGGREGATE_FUNCTION_NAMES.contains(function.getName().toUpperCase(Locale.ROOT))) {
+                this.found = true;
+                return;
+            }
+
+            super.visit(function);
+        }
+
+        @Override
+        public void visit(AnalyticExpression expression) {
+            // Window function doesn't change the number of rows.
+        }
+
+        @Override
+        public void visit(SubSelect subSelect) {
+            // Scalar subquery doesn't change the number of rows.
+        }
+    }
+
+}
@@ -0,0 +1,719 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Im Sejin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.imsejin.mybatis.pagination.dialect;
+
+import net.sf.jsqlparser.expression.Expression;
+import net.sf.jsqlparser.expression.ExpressionVisitorAdapter;
+import net.sf.jsqlparser.expression.Parenthesis;
+import net.sf.jsqlparser.expression.operators.conditional.AndExpression;
+import net.sf.jsqlparser.expression.operators.relational.EqualsTo;
+import net.sf.jsqlparser.schema.Column;
+import net.sf.jsqlparser.schema.Table;
+import net.sf.jsqlparser.statement.select.AllColumns;
+import net.sf.jsqlparser.statement.select.AllTableColumns;
+import net.sf.jsqlparser.statement.select.FromItem;
+import net.sf.jsqlparser.statement.select.Join;
+import net.sf.jsqlparser.statement.select.OrderByElement;
+import net.sf.jsqlparser.statement.select.PlainSelect;
+import net.sf.jsqlparser.statement.select.SelectBody;
+import net.sf.jsqlparser.statement.select.SelectExpressionItem;
+import net.sf.jsqlparser.statement.select.SelectItem;
+import net.sf.jsqlparser.statement.select.SetOperationList;
+import net.sf.jsqlparser.statement.select.SubJoin;
+import net.sf.jsqlparser.statement.select.SubSelect;
+import org.springframework.util.CollectionUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Optimizer that removes parts of query for total items, which don't change the number of rows.
+ *
+ * <ol>
+ *     <li>"ORDER BY" statement of subquery without "LIMIT", "OFFSET", "FETCH" and "TOP",
+ *     which is not a derived table of select that references "ROWNUM"</li>
+ *     <li>"LEFT JOIN" that matches at most one row and is not referenced by the rest of query</li>
+ *     <li>scalar subquery in select items of derived table, which is not referenced by outer query</li>
+ * </ol>
+ *
+ * <p> A joined table matches at most one row, if its columns bound by equality in "ON" statement
+ * cover one of its unique keys. Unique keys of tables are given as metadata, because query doesn't have them.
+ * A derived table is unique by columns of its "GROUP BY" statement or its "DISTINCT" select items,
+ * and a derived table that has aggregate functions without "GROUP BY" statement returns at most one row.
+ *
+ * <p> This is conservative, so it doesn't remove what it can't prove irrelevant.
+ * Unqualified column in the rest of query could belong to the joined table, so it prevents the join
+ * from being removed. Part of query that has parameter mappings can be removed, because parameter mappings
+ * of query for total items are found in its AST after optimization.
+ *
+ * <pre>{@code
+ *     -- Original query
+ *     SELECT b.*, p.NAME FROM BOOK b LEFT JOIN PUBLISHER p ON p.ID = b.PUBLISHER_ID WHERE b.PRICE > ?
+ *
+ *     -- Query for total items, when unique key of "PUBLISHER" is "ID"
+ *     SELECT COUNT(*) FROM BOOK b WHERE b.PRICE > ?
+ * }</pre>
+ */
+public class CountSqlOptimizer {
+
+    /**
+     * Unique keys by normalized table name.
+     */
+    private final Map<String, List<Set<String>>> uniqueKeys = new ConcurrentHashMap<>();
+
+    /**
+     * Adds unique key of the table, such as primary key or columns of unique index.
+     *
+     * @param table   table name, which can be qualified with schema
+     * @param columns columns of unique key
+     * @return this optimizer
+     */
+    public CountSqlOptimizer addUniqueKey(String table, Collection<String> columns) {
+        if (CollectionUtils.isEmpty(columns)) {
+            throw new IllegalArgumentException("Unique key of table '" + table + "' has no columns");
+        }
+
+        Set<String> key = new HashSet<>();
+        for (String column : columns) {
+            key.add(normalize(column));
+        }
+
+        this.uniqueKeys.computeIfAbsent(normalize(table), k -> new ArrayList<>()).add(key);
+        return this;
+    }
+
+    /**
+     * Adds unique key of the table, such as primary key or columns of unique index.
+     *
+     * @param table   table name, which can be qualified with schema
+     * @param columns columns of unique key
+     * @return this optimizer
+     */
+    public CountSqlOptimizer addUniqueKey(String table, String... columns) {
+        return addUniqueKey(table, Arrays.asList(columns));
+    }
+
+    /**
+     * Optimizes select for total items whose select items are already decided.
+     *
+     * @param select select for total items
+     */
+    public void optimize(PlainSelect select) {
+        SubSelectFinder finder = new SubSelectFinder();
+        finder.visitClauses(select);
+
+        for (SelectBody subSelect : finder.selectBodies) {
+            // ROWNUM of the enclosing select numbers rows in the order of its derived table.
+            if (!finder.orderedByRowNum.contains(subSelect)) removeOrderBy(subSelect);
+        }
+
+        pruneJoins(select);
+        pruneDerivedTableItems(select);
+    }
+
+    // -------------------------------------------------------------------------------------------------
+
+    private static void removeOrderBy(SelectBody selectBody) {
+        if (selectBody instanceof SetOperationList) {
+            SetOperationList setOperation = (SetOperationList) selectBody;
+            if (setOperation.getLimit() == null && setOperation.getOffset() == null
+                    && setOperation.getFetch() == null) {
+                setOperation.setOrderByElements(null);
+            }
+
+            return;
+        }
+
+        if (!(selectBody instanceof PlainSelect)) return;
+
+        PlainSelect select = (PlainSelect) selectBody;
+        if (select.getLimit() != null || select.getOffset() != null || select.getFetch() != null
+                || select.getTop() != null || select.getFirst() != null) return;
+
+        select.setOrderByElements(null);
+    }
+
+    private static boolean referencesRowNum(PlainSelect select) {
+        boolean[] found = {false};
+        ExpressionVisitorAdapter visitor = new ExpressionVisitorAdapter() {
+            @Override
+            public void visit(Column column) {
+                if (column.getTable() == null && "ROWNUM".equalsIgnoreCase(column.getColumnName())) found[0] = true;
+            }
+        };
+
+        for (SelectItem selectItem : select.getSelectItems()) {
+            selectItem.accept(visitor);
+        }
+        if (select.getWhere() != null) select.getWhere().accept(visitor);
+        if (select.getHaving() != null) select.getHaving().accept(visitor);
+
+        return found[0];
+    }
+
+    /**
+     * Returns whether each row of the table matches at most one row of the other tables in the select,
+     * so that the table identifies a row of the select.
+     *
+     * <p> A table is proven to match at most one row, when its columns bound by equality in "ON" statements
+     * to the tables already proven cover one of its unique keys. This starts from the given table,
+     * and repeats until no more table is proven.
+     *
+     * <pre>{@code
+     *     -- "AUTHOR" identifies a row, when unique key of "COUNTRY" is "ID"
+     *     SELECT A.*, C.NAME FROM AUTHOR A LEFT JOIN COUNTRY C ON C.ID = A.COUNTRY_ID
+     *
+     *     -- "AUTHOR" doesn't identify a row, because an author has many books
+     *     SELECT A.*, B.TITLE FROM AUTHOR A INNER JOIN BOOK B ON B.AUTHOR_ID = A.ID
+     * }</pre>
+     *
+     * @param select select
+     * @param alias  alias or name of the table
+     * @return whether the table identifies a row of the select
+     */
+    boolean identifiesRow(PlainSelect select, String alias) {
+        List<FromItem> fromItems = new ArrayList<>();
+        fromItems.add(select.getFromItem());
+
+        List<Expression> conditions = new ArrayList<>();
+        if (select.getJoins() != null) {
+            for (Join join : select.getJoins()) {
+                if (join.isNatural() || join.isApply() || join.isWindowJoin() || join.isRight() || join.isFull()
+                        || !CollectionUtils.isEmpty(join.getUsingColumns())) return false;
+
+                fromItems.add(join.getRightItem());
+                conditions.addAll(splitConjunction(join.getOnExpression()));
+            }
+        }
+
+        Map<String, FromItem> unproven = new HashMap<>();
+        for (FromItem fromItem : fromItems) {
+            String name = getAliasName(fromItem);
+            if (name == null || !(fromItem instanceof Table) && !(fromItem instanceof SubSelect)) return false;
+            unproven.put(name, fromItem);
+        }
+
+        Set<String> proven = new HashSet<>();
+        if (unproven.remove(normalize(alias)) == null) return false;
+        proven.add(normalize(alias));
+
+        boolean changed = true;
+        while (changed && !unproven.isEmpty()) {
+            changed = false;
+            for (Iterator<Map.Entry<String, FromItem>> it = unproven.entrySet().iterator(); it.hasNext(); ) {
+                Map.Entry<String, FromItem> entry = it.next();
+                if (!matchesAtMostOneRow(entry.getValue(), getBoundColumns(conditions, entry.getKey(), proven))) {
+                    continue;
+                }
+
+                proven.add(entry.getKey());
+                it.remove();
+                changed = true;
+            }
+        }
+
+        return unproven.isEmpty();
+    }
+
+    /**
+     * Returns columns of the table, which are bound by equality to expression
+     * that depends only on the proven tables.
+     */
+    private static Set<String> getBoundColumns(List<Expression> conditions, String alias, Set<String> proven) {
+        Set<String> boundColumns = new HashSet<>();
+
+        for (Expression condition : conditions) {
+            if (!(condition instanceof EqualsTo)) continue;
+
+            EqualsTo equalsTo = (EqualsTo) condition;
+            String column = getBoundColumn(equalsTo.getLeftExpression(), equalsTo.getRightExpression(), alias);
+            Expression other = equalsTo.getRightExpression();
+            if (column == null) {
+                column = getBoundColumn(equalsTo.getRightExpression(), equalsTo.getLeftExpression(), alias);
+                other = equalsTo.getLeftExpression();
+            }
+            if (column == null) continue;
+
+            ColumnReferenceFinder finder = new ColumnReferenceFinder();
+            finder.visitExpression(other);
+            if (!finder.allColumns && proven.containsAll(finder.tables)) boundColumns.add(column);
+        }
+
+        return boundColumns;
+    }
+
+    // -------------------------------------------------------------------------------------------------
+
+    private void pruneJoins(PlainSelect select) {
+        List<Join> joins = select.getJoins();
+        if (CollectionUtils.isEmpty(joins)) return;
+
+        // Later join can reference earlier one, so this removes joins from the last.
+        for (int i = joins.size() - 1; i >= 0; i--) {
+            if (isPrunable(select, joins.get(i))) joins.remove(i);
+        }
+
+        if (joins.isEmpty()) select.setJoins(null);
+    }
+
+    private boolean isPrunable(PlainSelect select, Join join) {
+        if (!join.isLeft() || join.isNatural() || join.isApply() || join.isWindowJoin()) return false;
+        if (join.getOnExpression() == null || !CollectionUtils.isEmpty(join.getUsingColumns())) return false;
+
+        FromItem rightItem = join.getRightItem();
+        if (!(rightItem instanceof Table) && !(rightItem instanceof SubSelect)) return false;
+
+        String alias = getAliasName(rightItem);
+        if (alias == null) return false;
+
+        // Join cannot be removed, if the rest of query references it.
+        ColumnReferenceFinder finder = new ColumnReferenceFinder();
+        for (SelectItem selectItem : select.getSelectItems()) {
+            selectItem.accept(finder);
+        }
+        for (Join other : select.getJoins()) {
+            if (other == join) continue;
+
+            // Lateral subquery and table function can reference the joined table.
+            if (!(other.getRightItem() instanceof Table) && !(other.getRightItem() instanceof SubSelect)) return false;
+            finder.visitExpression(other.getOnExpression());
+        }
+        finder.visitExpression(select.getWhere());
+        finder.visitGroupBy(select);
+        finder.visitExpression(select.getHaving());
+
+        if (finder.allColumns || finder.hasUnqualifiedColumn || finder.tables.contains(alias)) return false;
+
+        return matchesAtMostOneRow(rightItem, getBoundColumns(join.getOnExpression(), alias));
+    }
+
+    /**
+     * Returns columns of the joined table, which are bound by equality to expression
+     * that doesn't depend on the joined table.
+     */
+    private static Set<String> getBoundColumns(Expression onExpression, String alias) {
+        Set<String> boundColumns = new HashSet<>();
+
+        for (Expression condition : splitConjunction(onExpression)) {
+            if (!(condition instanceof EqualsTo)) continue;
+
+            EqualsTo equalsTo = (EqualsTo) condition;
+            String column = getBoundColumn(equalsTo.getLeftExpression(), equalsTo.getRightExpression(), alias);
+            if (column == null) {
+                column = getBoundColumn(equalsTo.getRightExpression(), equalsTo.getLeftExpression(), alias);
+            }
+
+            if (column != null) boundColumns.add(column);
+        }
+
+        return boundColumns;
+    }
+
+    private static String getBoundColumn(Expression expression, Expression other, String alias) {
+        if (!(expression instanceof Column)) return null;
+
+        Column column = (Column) expression;
+        if (column.getTable() == null || !alias.equals(normalize(column.getTable().getName()))) return null;
+
+        ColumnReferenceFinder finder = new ColumnReferenceFinder();
+        finder.visitExpression(other);
+        if (finder.hasUnqualifiedColumn || finder.tables.contains(alias)) return null;
+
+        return normalize(column.getColumnName());
+    }
+
+    private static List<Expression> splitConjunction(Expression expression) {
+        if (expression instanceof Parenthesis) {
+            return splitConjunction(((Parenthesis) expression).getExpression());
+        }
+
+        if (expression instanceof AndExpression) {
+            AndExpression and = (AndExpression) expression;
+            List<Expression> conditions = new ArrayList<>(splitConjunction(and.getLeftExpression()));
+            conditions.addAll(splitConjunction(and.getRightExpression()));
+            return conditions;
+        }
+
+        return Collections.singletonList(expression);
+    }
+
+    private boolean matchesAtMostOneRow(FromItem rightItem, Set<String> boundColumns) {
+        if (rightItem instanceof Table) {
+            Table table = (Table) rightItem;
+            List<Set<String>> keys = this.uniqueKeys.get(normalize(table.getFullyQualifiedName()));
+            if (keys == null) keys = this.uniqueKeys.get(normalize(table.getName()));
+            if (keys == null) return false;
+
+            return keys.stream().anyMatch(boundColumns::containsAll);
+        }
+
+        SelectBody selectBody = ((SubSelect) rightItem).getSelectBody();
+        if (!(selectBody instanceof PlainSelect)) return false;
+
+        PlainSelect select = (PlainSelect) selectBody;
+        if (select.getGroupBy() != null) {
+            if (!CollectionUtils.isEmpty(select.getGroupBy().getGroupingSets())) return false;
+
+            // Each group is unique by grouping columns.
+            Set<String> groupingColumns = new HashSet<>();
+            for (Expression expression : select.getGroupBy().getGroupByExpressions()) {
+                String outputName = getOutputName(select, expression);
+                if (outputName == null) return false;
+                groupingColumns.add(outputName);
+            }
+
+            return boundColumns.containsAll(groupingColumns);
+        }
+
+        if (select.getDistinct() != null) {
+            if (select.getDistinct().getOnSelectItems() != null) return false;
+
+            Set<String> distinctColumns = new HashSet<>();
+            for (SelectItem selectItem : select.getSelectItems()) {
+                if (!(selectItem instanceof SelectExpressionItem)) return false;
+
+                String outputName = getOutputName((SelectExpressionItem) selectItem);
+                if (outputName == null) return false;
+                distinctColumns.add(outputName);
+            }
+
+            return boundColumns.containsAll(distinctColumns);
+        }
+
+        // Aggregate functions without "GROUP BY" statement return only one row.
+        return !AbstractDialect.isPlain(select);
+    }
+
+    /**
+     * Returns output name of select item that is the same as the grouping expression.
+     */
+    private static String getOutputName(PlainSelect select, Expression expression) {
+        if (!(expression instanceof Column)) return null;
+
+        String grouping = expression.toString();
+        for (SelectItem selectItem : select.getSelectItems()) {
+            if (!(selectItem instanceof SelectExpressionItem)) continue;
+
+            SelectExpressionItem item = (SelectExpressionItem) selectItem;
+            if (item.getExpression().toString().equals(grouping)) return getOutputName(item);
+        }
+
+        return null;
+    }
+
+    private static String getOutputName(SelectExpressionItem item) {
+        if (item.getAlias() != null) return normalize(item.getAlias().getName());
+        if (item.getExpression() instanceof Column) return normalize(((Column) item.getExpression()).getColumnName());
+
+        return null;
+    }
+
+    // -------------------------------------------------------------------------------------------------
+
+    private static void pruneDerivedTableItems(PlainSelect select) {
+        List<FromItem> fromItems = new ArrayList<>();
+        fromItems.add(select.getFromItem());
+        if (select.getJoins() != null) {
+            for (Join join : select.getJoins()) {
+                fromItems.add(join.getRightItem());
+            }
+        }
+
+        // Column of derived table can be referenced without qualifier, so this compares only names of columns.
+        ColumnReferenceFinder finder = new ColumnReferenceFinder();
+        for (SelectItem selectItem : select.getSelectItems()) {
+            selectItem.accept(finder);
+        }
+        if (select.getJoins() != null) {
+            for (Join join : select.getJoins()) {
+                finder.visitExpression(join.getOnExpression());
+            }
+        }
+        finder.visitExpression(select.getWhere());
+        finder.visitGroupBy(select);
+        finder.visitExpression(select.getHaving());
+
+        for (FromItem fromItem : fromItems) {
+            if (!(fromItem instanceof SubSelect) || finder.allColumns) continue;
+            if (finder.allTableColumns.contains(getAliasName(fromItem))) continue;
+
+            SelectBody selectBody = ((SubSelect) fromItem).getSelectBody();
+            if (!(selectBody instanceof PlainSelect)) continue;
+
+            PlainSelect derived = (PlainSelect) selectBody;
+            if (derived.getDistinct() != null) continue;
+
+            // Alias of select item can be referenced in "GROUP BY", "HAVING" and "ORDER BY" statements.
+            ColumnReferenceFinder derivedFinder = new ColumnReferenceFinder();
+            derivedFinder.visitGroupBy(derived);
+            derivedFinder.visitExpression(derived.getHaving());
+            if (derived.getOrderByElements() != null) {
+                for (OrderByElement element : derived.getOrderByElements()) {
+                    derivedFinder.visitExpression(element.getExpression());
+                }
+            }
+
+            List<SelectItem> selectItems = new ArrayList<>(derived.getSelectItems());
+            selectItems.removeIf(it -> isUnusedSubSelectItem(it, finder.columns, derivedFinder.columns));
+
+            if (!selectItems.isEmpty() && selectItems.size() < derived.getSelectItems().size()) {
+                derived.setSelectItems(selectItems);
+            }
+        }
+    }
+
+    private static boolean isUnusedSubSelectItem(SelectItem selectItem, Set<String> outerColumns,
+                                                 Set<String> innerColumns) {
+        if (!(selectItem instanceof SelectExpressionItem)) return false;
+
+        SelectExpressionItem item = (SelectExpressionItem) selectItem;
+        if (!(item.getExpression() instanceof SubSelect)) return false;
+
+        // Scalar subquery without alias cannot be referenced by name.
+        if (item.getAlias() == null) return true;
+
+        String name = normalize(item.getAlias().getName());
+        return !outerColumns.contains(name) && !innerColumns.contains(name);
+    }
+
+    // -------------------------------------------------------------------------------------------------
+
+    private static String getAliasName(FromItem fromItem) {
+        if (fromItem.getAlias() != null) return normalize(fromItem.getAlias().getName());
+        if (fromItem instanceof Table) return normalize(((Table) fromItem).getName());
+
+        return null;
+    }
+
+    /**
+     * Removes quotes and surrounding whitespaces of identifier and converts it to upper case.
+     */
+    static String normalize(String identifier) {
+        if (identifier == null) return null;
+
+        StringBuilder sb = new StringBuilder(identifier.length());
+        for (char c : identifier.trim().toCharArray()) {
+            if (c == '"' || c == '`' || c == '[' || c == ']') continue;
+            sb.append(c);
+        }
+
+        return sb.toString().toUpperCase(Locale.ROOT);
+    }
+
+    // -------------------------------------------------------------------------------------------------
+
+    /**
+     * Finds all the selects in subqueries, including nested ones.
+     */
+    private static class SubSelectFinder extends ExpressionVisitorAdapter {
+        private final List<SelectBody> selectBodies = new ArrayList<>();
+
+        /**
+         * Derived tables of select that references "ROWNUM".
+         */
+        private final Set<SelectBody> orderedByRowNum = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        @Override
+        public void visit(SubSelect subSelect) {
+            visitSelectBody(subSelect.getSelectBody());
+        }
+
+        private void visitSelectBody(SelectBody selectBody) {
+            this.selectBodies.add(selectBody);
+
+            if (selectBody instanceof PlainSelect) {
+                visitClauses((PlainSelect) selectBody);
+            } else if (selectBody instanceof SetOperationList) {
+                for (SelectBody body : ((SetOperationList) selectBody).getSelects()) {
+                    visitSelectBody(body);
+                }
+            }
+        }
+
+        private void visitClauses(PlainSelect select) {
+            for (SelectItem selectItem : select.getSelectItems()) {
+                selectItem.accept(this);
+            }
+
+            boolean rowNum = referencesRowNum(select);
+            visitFromItem(select.getFromItem(), rowNum);
+            if (select.getJoins() != null) {
+                for (Join join : select.getJoins()) {
+                    visitFromItem(join.getRightItem(), rowNum);
+                    if (join.getOnExpression() != null) join.getOnExpression().accept(this);
+                }
+            }
+
+            if (select.getWhere() != null) select.getWhere().accept(this);
+            if (select.getHaving() != null) select.getHaving().accept(this);
+        }
+
+        private void visitFromItem(FromItem fromItem, boolean rowNum) {
+            if (fromItem instanceof SubSelect) {
+                SubSelect subSelect = (SubSelect) fromItem;
+                if (rowNum) this.orderedByRowNum.add(subSelect.getSelectBody());
+                visit(subSelect);
+            } else if (fromItem instanceof SubJoin) {
+                SubJoin subJoin = (SubJoin) fromItem;
+                visitFromItem(subJoin.getLeft(), rowNum);
+                for (Join join : subJoin.getJoinList()) {
+                    visitFromItem(join.getRightItem(), rowNum);
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds columns referenced by expressions.
+     *
+     * <p> Unqualified column in subquery is regarded as column of table in the subquery,
+     * so it is not regarded as unqualified column of outer query.
+     */
+    private static class ColumnReferenceFinder extends ExpressionVisitorAdapter {
+        /**
+         * Names of tables, which qualify referenced columns.
+         */
+        private final Set<String> tables = new HashSet<>();
+
+        /**
+         * Names of referenced columns.
+         */
+        private final Set<String> columns = new HashSet<>();
+
+        /**
+         * Names of tables, whose all the columns are referenced.
+         */
+        private final Set<String> allTableColumns = new HashSet<>();
+
+        private boolean allColumns;
+
+        private boolean hasUnqualifiedColumn;
+
+        private int depth;
+
+        @Override
+        public void visit(Column column) {
+            this.columns.add(normalize(column.getColumnName()));
+
+            if (column.getTable() != null && column.getTable().getName() != null) {
+                this.tables.add(normalize(column.getTable().getName()));
+            } else if (this.depth == 0) {
+                this.hasUnqualifiedColumn = true;
+            }
+        }
+
+        @Override
+        public void visit(AllColumns allColumns) {
+            if (this.depth == 0) this.allColumns = true;
+        }
+
+        @Override
+        public void visit(AllTableColumns allTableColumns) {
+            String table = normalize(allTableColumns.getTable().getName());
+            this.tables.add(table);
+            this.allTableColumns.add(table);
+        }
+
+        @Override
+        public void visit(SubSelect subSelect) {
+            this.depth++;
+            visitSelectBody(subSelect.getSelectBody());
+            this.depth--;
+        }
+
+        private void visitSelectBody(SelectBody selectBody) {
+            if (selectBody instanceof SetOperationList) {
+                for (SelectBody body : ((SetOperationList) selectBody).getSelects()) {
+                    visitSelectBody(body);
+                }
+            }
+
+            if (!(selectBody instanceof PlainSelect)) return;
+
+            PlainSelect select = (PlainSelect) selectBody;
+            for (SelectItem selectItem : select.getSelectItems()) {
+                selectItem.accept(this);
+            }
+
+            visitFromItem(select.getFromItem());
+            if (select.getJoins() != null) {
+                for (Join join : select.getJoins()) {
+                    visitFromItem(join.getRightItem());
+                    visitExpression(join.getOnExpression());
+                }
+            }
+
+            visitExpression(select.getWhere());
+            visitGroupBy(select);
+            visitExpression(select.getHaving());
+
+            if (select.getOrderByElements() != null) {
+                for (OrderByElement element : select.getOrderByElements()) {
+                    visitExpression(element.getExpression());
+                }
+            }
+        }
+
+        private void visitFromItem(FromItem fromItem) {
+            if (fromItem instanceof SubSelect) {
+                // Derived table cannot reference other tables in the same "FROM" statement, except lateral one.
+                int depth = this.depth;
+                this.depth = Math.max(depth, 1);
+                visitSelectBody(((SubSelect) fromItem).getSelectBody());
+                this.depth = depth;
+            } else if (fromItem instanceof SubJoin) {
+                SubJoin subJoin = (SubJoin) fromItem;
+                visitFromItem(subJoin.getLeft());
+                for (Join join : subJoin.getJoinList()) {
+                    visitFromItem(join.getRightItem());
+                    visitExpression(join.getOnExpression());
+                }
+            }
+        }
+
+        private void visitGroupBy(PlainSelect select) {
+            if (select.getGroupBy() == null) return;
+
+            for (Expression expression : select.getGroupBy().getGroupByExpressions()) {
+                visitExpression(expression);
+            }
+        }
+
+        private void visitExpression(Expression expression) {
+            if (expression != null) expression.accept(this);
+        }
+    }
+
+}
@@ -1,9 +1,15 @@
 package io.github.imsejin.mybatis.pagination.dialect;
 
 import io.github.imsejin.mybatis.pagination.model.Pageable;
+import io.github.imsejin.mybatis.pagination.support.keyset.Keyset;
+import org.apache.ibatis.executor.parameter.ParameterHandler;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.session.Configuration;
 
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+
 public interface Dialect {
 
     String MAPPED_PARAMETER_CHARACTER = "?";
@@ -27,4 +33,65 @@ public interface Dialect {
      */
     BoundSql createOffsetLimitBoundSql(BoundSql origin, Configuration config, Pageable pageable);
 
+    /**
+     * Creates bound SQL for pagination with deferred join, which selects keys of the page with offset
+     * and then fetches the rows of them.
+     *
+     * <p> Dialect that doesn't support deferred join creates bound SQL for pagination with offset.
+     *
+     * @param origin    original bound SQL
+     * @param config    configuration
+     * @param pageable  pageable
+     * @param keyColumn key column that identifies a row of the query
+     * @return bound SQL for pagination
+     * @see io.github.imsejin.mybatis.pagination.annotation.Pagination#deferredJoinKey()
+     */
+    default BoundSql createDeferredJoinBoundSql(BoundSql origin, Configuration config, Pageable pageable,
+                                                String keyColumn) {
+        return createOffsetLimitBoundSql(origin, config, pageable);
+    }
+
+    /**
+     * Creates bound SQL for keyset pagination.
+     *
+     * <p> This seeks the position of page with predicate of sort keys instead of offset,
+     * and orders rows by the sort keys.
+     *
+     * @param origin   original bound SQL
+     * @param config   configuration
+     * @param keyset   position of page
+     * @param pageable pageable, whose offset is ignored
+     * @return bound SQL for keyset pagination
+     * @throws UnsupportedOperationException if dialect doesn't support keyset pagination
+     */
+    default BoundSql createKeysetBoundSql(BoundSql origin, Configuration config, Keyset keyset, Pageable pageable) {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " doesn't support keyset pagination");
+    }
+
+    /**
+     * Initializes this dialect with metadata of database, before the first query is paginated.
+     *
+     * <p> Dialect can choose the fastest form of query for the version of database.
+     *
+     * @param metaData metadata of database
+     * @throws SQLException if failed to read metadata
+     */
+    default void initialize(DatabaseMetaData metaData) throws SQLException {
+    }
+
+    /**
+     * Estimates total items from row estimate of optimizer without executing query for total items.
+     *
+     * @param connection       connection of the current session
+     * @param countBoundSql    bound SQL for total items
+     * @param parameterHandler parameter handler of bound SQL for total items
+     * @return estimated total items, or null if dialect cannot estimate it
+     * @throws SQLException if failed to read the estimate
+     * @see io.github.imsejin.mybatis.pagination.constant.CountMode#ESTIMATED
+     */
+    default Long estimateCount(Connection connection, BoundSql countBoundSql, ParameterHandler parameterHandler)
+            throws SQLException {
+        return null;
+    }
+
 }
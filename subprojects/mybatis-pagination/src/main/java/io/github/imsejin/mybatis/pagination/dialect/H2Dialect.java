@@ -0,0 +1,78 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Im Sejin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.imsejin.mybatis.pagination.dialect;
+
+import io.github.imsejin.mybatis.pagination.constant.PageParameter;
+import net.sf.jsqlparser.expression.LongValue;
+import net.sf.jsqlparser.statement.select.Limit;
+import net.sf.jsqlparser.statement.select.Offset;
+import net.sf.jsqlparser.statement.select.PlainSelect;
+
+/**
+ * Dialect for H2.
+ *
+ * <p> This limits rows with {@code LIMIT ? OFFSET ?}, which H2 supports in all the compatibility modes.
+ * H2 supports "NULLS FIRST" and "NULLS LAST", so sort keys of keyset pagination are ordered natively.
+ */
+public class H2Dialect extends AbstractDialect {
+
+    @Override
+    protected SqlTemplate createItemsSqlTemplate(PlainSelect select) {
+        Limit limit = new Limit();
+        limit.setRowCount(new LongValue(SqlTemplate.placeholderOf(PageParameter.LIMIT)));
+        select.setLimit(limit);
+
+        Offset offset = new Offset();
+        offset.setOffset(SqlTemplate.placeholderOf(PageParameter.OFFSET));
+        select.setOffset(offset);
+
+        return SqlTemplate.compile(select.toString());
+    }
+
+    @Override
+    protected SqlTemplate createLimitSqlTemplate(PlainSelect select) {
+        Limit limit = new Limit();
+        limit.setRowCount(new LongValue(SqlTemplate.placeholderOf(PageParameter.LIMIT)));
+        select.setLimit(limit);
+        select.setOffset(null);
+
+        return SqlTemplate.compile(select.toString());
+    }
+
+    @Override
+    protected String appendRowLimitingClause(String sql, boolean ordered) {
+        return sql + " LIMIT " + SqlTemplate.placeholderOf(PageParameter.LIMIT)
+                + " OFFSET " + SqlTemplate.placeholderOf(PageParameter.OFFSET);
+    }
+
+    @Override
+    protected boolean limitUnionAllBranch(PlainSelect branch) {
+        Limit limit = new Limit();
+        limit.setRowCount(new LongValue(SqlTemplate.placeholderOf(PageParameter.END_ROW_NUM)));
+        branch.setLimit(limit);
+
+        return true;
+    }
+
+}
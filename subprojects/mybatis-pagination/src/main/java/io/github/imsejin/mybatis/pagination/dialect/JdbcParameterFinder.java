@@ -0,0 +1,169 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Im Sejin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.imsejin.mybatis.pagination.dialect;
+
+import net.sf.jsqlparser.expression.Expression;
+import net.sf.jsqlparser.expression.JdbcParameter;
+import net.sf.jsqlparser.statement.select.Fetch;
+import net.sf.jsqlparser.statement.select.First;
+import net.sf.jsqlparser.statement.select.Limit;
+import net.sf.jsqlparser.statement.select.Offset;
+import net.sf.jsqlparser.statement.select.PlainSelect;
+import net.sf.jsqlparser.statement.select.SelectBody;
+import net.sf.jsqlparser.statement.select.SetOperationList;
+import net.sf.jsqlparser.statement.select.Top;
+import net.sf.jsqlparser.util.deparser.ExpressionDeParser;
+import net.sf.jsqlparser.util.deparser.SelectDeParser;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * Finder of positional indexes of mapped parameters in select, which walks its AST in a single pass.
+ *
+ * <p> Parser numbers every {@link JdbcParameter} by its position in original query, so the index is kept
+ * even if the other parts of the select are removed or the select is wrapped as a subquery.
+ * Unlike counting {@value Dialect#MAPPED_PARAMETER_CHARACTER} in string of the select,
+ * this doesn't count the character in string literals and comments.
+ *
+ * <p> Parameter added by dialect such as predicate of keyset pagination has no index,
+ * so its index is {@value #NEW_PARAMETER_INDEX}.
+ */
+final class JdbcParameterFinder {
+
+    /**
+     * Index of parameter that is not in original query.
+     */
+    static final int NEW_PARAMETER_INDEX = -1;
+
+    private final List<Integer> indexes = new ArrayList<>();
+
+    private final Set<JdbcParameter> found = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    private JdbcParameterFinder() {
+    }
+
+    /**
+     * Returns positional indexes of mapped parameters in order of appearance.
+     *
+     * @param selectBody select
+     * @return zero-based positional indexes in original query, or {@value #NEW_PARAMETER_INDEX}
+     */
+    static int[] findIndexes(SelectBody selectBody) {
+        return find((selectDeParser, expressionDeParser) -> selectBody.accept(selectDeParser));
+    }
+
+    /**
+     * Returns positional indexes of mapped parameters in the expression, including ones in its subqueries.
+     *
+     * @param expression expression
+     * @return zero-based positional indexes in original query, or {@value #NEW_PARAMETER_INDEX}
+     */
+    static int[] findIndexes(Expression expression) {
+        return find((selectDeParser, expressionDeParser) -> expression.accept(expressionDeParser));
+    }
+
+    private static int[] find(BiConsumer<SelectDeParser, ExpressionDeParser> deparse) {
+        JdbcParameterFinder finder = new JdbcParameterFinder();
+        StringBuilder buffer = new StringBuilder();
+
+        ExpressionDeParser expressionDeParser = new ExpressionDeParser() {
+            @Override
+            public void visit(JdbcParameter parameter) {
+                finder.add(parameter);
+                super.visit(parameter);
+            }
+        };
+        SelectDeParser selectDeParser = new SelectDeParser(expressionDeParser, buffer) {
+            @Override
+            public void visit(PlainSelect plainSelect) {
+                // Deparser writes these clauses as string without visiting their parameters.
+                Top top = plainSelect.getTop();
+                if (top != null) finder.add(top.getExpression());
+                First first = plainSelect.getFirst();
+                if (first != null) finder.add(first.getJdbcParameter());
+
+                super.visit(plainSelect);
+
+                finder.addTrailing(plainSelect.getLimit(), plainSelect.getOffset(), plainSelect.getFetch());
+            }
+
+            @Override
+            public void visit(SetOperationList list) {
+                super.visit(list);
+
+                finder.addTrailing(list.getLimit(), list.getOffset(), list.getFetch());
+            }
+        };
+        expressionDeParser.setSelectVisitor(selectDeParser);
+        expressionDeParser.setBuffer(buffer);
+
+        deparse.accept(selectDeParser, expressionDeParser);
+
+        return finder.toArray();
+    }
+
+    private void add(Expression expression) {
+        if (!(expression instanceof JdbcParameter)) return;
+
+        JdbcParameter parameter = (JdbcParameter) expression;
+        if (!this.found.add(parameter)) return;
+
+        Integer index = parameter.getIndex();
+        this.indexes.add(index == null ? NEW_PARAMETER_INDEX : index - 1);
+    }
+
+    private void addTrailing(Limit limit, Offset offset, Fetch fetch) {
+        if (limit != null) {
+            add(limit.getOffset());
+            add(limit.getRowCount());
+        }
+        if (offset != null) add(offset.getOffsetJdbcParameter());
+        if (fetch != null) add(fetch.getFetchJdbcParameter());
+    }
+
+    /**
+     * Returns indexes in order of appearance.
+     *
+     * <p> Parameters of clauses written as string are found out of order, so indexes of parameters
+     * in original query are sorted, keeping the positions of new parameters among them.
+     */
+    private int[] toArray() {
+        int[] sorted = this.indexes.stream().filter(it -> it != NEW_PARAMETER_INDEX)
+                .mapToInt(Integer::intValue).sorted().toArray();
+
+        int[] indexes = new int[this.indexes.size()];
+        int cursor = 0;
+        for (int i = 0; i < indexes.length; i++) {
+            indexes[i] = this.indexes.get(i) == NEW_PARAMETER_INDEX ? NEW_PARAMETER_INDEX : sorted[cursor++];
+        }
+
+        return indexes;
+    }
+
+}
@@ -0,0 +1,86 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Im Sejin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.imsejin.mybatis.pagination.dialect;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+import org.apache.ibatis.mapping.ParameterMapping;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Result of rewriting an original query for keyset pagination, which is cached by {@link AbstractDialect}.
+ *
+ * <p> Predicate of sort keys is appended to "WHERE" statement, so its parameter mappings are inserted
+ * before ones of "GROUP BY" and "HAVING" statements. Parameter mappings of "ORDER BY", "LIMIT", ...
+ * statements are removed, because they are replaced with ones for keyset pagination.
+ * Both are done by positional indexes of parameters, which are found in AST of the query.
+ */
+@Getter
+@ToString
+@RequiredArgsConstructor
+public class KeysetSql {
+
+    /**
+     * Template of query for keyset pagination.
+     */
+    private final SqlTemplate itemsSqlTemplate;
+
+    /**
+     * Positional indexes of parameter mappings of original query in order of appearance,
+     * which has -1 for parameter of predicate.
+     */
+    private final int[] parameterIndexes;
+
+    /**
+     * Indexes of sort keys whose values are bound to parameters of predicate, in order of appearance.
+     */
+    private final int[] parameterKeyIndexes;
+
+    /**
+     * Returns parameter mappings of original query with ones of predicate inserted.
+     *
+     * @param parameterMappings       parameter mappings of original query
+     * @param keysetParameterMappings parameter mappings of predicate
+     * @return parameter mappings for query for keyset pagination
+     */
+    public List<ParameterMapping> getParameterMappings(List<ParameterMapping> parameterMappings,
+                                                       List<ParameterMapping> keysetParameterMappings) {
+        List<ParameterMapping> mappings = new ArrayList<>(this.parameterIndexes.length);
+
+        int cursor = 0;
+        for (int index : this.parameterIndexes) {
+            if (index == JdbcParameterFinder.NEW_PARAMETER_INDEX) {
+                mappings.add(keysetParameterMappings.get(cursor++));
+            } else if (index < parameterMappings.size()) {
+                mappings.add(parameterMappings.get(index));
+            }
+        }
+
+        return mappings;
+    }
+
+}
@@ -1,99 +1,149 @@
 package io.github.imsejin.mybatis.pagination.dialect;
 
-import io.github.imsejin.mybatis.pagination.constant.RebuildMode;
-import io.github.imsejin.mybatis.pagination.model.Pageable;
-import io.github.imsejin.mybatis.pagination.support.InterceptorSupport;
-import io.github.imsejin.mybatis.pagination.support.rebuilder.Rebuilder;
-import net.sf.jsqlparser.expression.Function;
+import io.github.imsejin.mybatis.pagination.constant.PageParameter;
+import io.github.imsejin.mybatis.pagination.constant.SortDirection;
+import io.github.imsejin.mybatis.pagination.model.SortKey;
 import net.sf.jsqlparser.expression.LongValue;
-import net.sf.jsqlparser.statement.select.*;
+import net.sf.jsqlparser.expression.operators.relational.IsNullExpression;
+import net.sf.jsqlparser.statement.select.Limit;
+import net.sf.jsqlparser.statement.select.Offset;
+import net.sf.jsqlparser.statement.select.OrderByElement;
+import net.sf.jsqlparser.statement.select.PlainSelect;
+import org.apache.ibatis.executor.parameter.ParameterHandler;
 import org.apache.ibatis.mapping.BoundSql;
-import org.apache.ibatis.mapping.ParameterMapping;
-import org.apache.ibatis.session.Configuration;
-import org.springframework.util.CollectionUtils;
-import org.springframework.util.StringUtils;
 
-import java.util.ArrayList;
-import java.util.Collections;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
-import java.util.Objects;
-import java.util.stream.IntStream;
+import java.util.Locale;
 
-import static java.util.stream.Collectors.toList;
+public class MySQLDialect extends AbstractDialect {
 
-public class MySQLDialect implements Dialect {
+    /**
+     * Types of select in "EXPLAIN", whose tables are joined in a single select.
+     */
+    private static final Collection<String> SINGLE_SELECT_TYPES = Arrays.asList("SIMPLE", "PRIMARY");
 
     @Override
-    public BoundSql createCountBoundSql(BoundSql origin, Configuration config) {
-        PlainSelect select = InterceptorSupport.parseSelect(origin.getSql());
+    protected SqlTemplate createItemsSqlTemplate(PlainSelect select) {
+        Limit limit = new Limit();
+        limit.setRowCount(new LongValue(SqlTemplate.placeholderOf(PageParameter.LIMIT)));
+        select.setLimit(limit);
 
-        List<ParameterMapping> parameterMappings = getFilteredParameterMappings(origin, select);
+        Offset offset = new Offset();
+        offset.setOffset(SqlTemplate.placeholderOf(PageParameter.OFFSET));
+        select.setOffset(offset);
 
-        // Add "COUNT(*)" as select item into root select.
-        Function countFunc = new Function();
-        countFunc.setName("COUNT");
-        countFunc.setAllColumns(true);
-        List<SelectItem> selectItems = Collections.singletonList(new SelectExpressionItem(countFunc));
-        select.setSelectItems(selectItems);
+        return SqlTemplate.compile(select.toString());
+    }
 
-        // Removes statements "ORDER BY", "LIMIT", "OFFSET".
-        select.setOrderByElements(null);
-        select.setLimit(null);
+    @Override
+    protected SqlTemplate createLimitSqlTemplate(PlainSelect select) {
+        Limit limit = new Limit();
+        limit.setRowCount(new LongValue(SqlTemplate.placeholderOf(PageParameter.LIMIT)));
+        select.setLimit(limit);
         select.setOffset(null);
 
-        return Rebuilder.init(origin, RebuildMode.WRAP).config(config)
-                .sql(select.toString()).parameterMappings(parameterMappings).rebuild();
+        return SqlTemplate.compile(select.toString());
     }
 
     @Override
-    public BoundSql createOffsetLimitBoundSql(BoundSql origin, Configuration config, Pageable pageable) {
-        PlainSelect select = InterceptorSupport.parseSelect(origin.getSql());
+    protected String appendRowLimitingClause(String sql, boolean ordered) {
+        return sql + " LIMIT " + SqlTemplate.placeholderOf(PageParameter.LIMIT)
+                + " OFFSET " + SqlTemplate.placeholderOf(PageParameter.OFFSET);
+    }
 
+    @Override
+    protected boolean limitUnionAllBranch(PlainSelect branch) {
         Limit limit = new Limit();
-        limit.setRowCount(new LongValue(pageable.getLimit()));
-        select.setLimit(limit);
+        limit.setRowCount(new LongValue(SqlTemplate.placeholderOf(PageParameter.END_ROW_NUM)));
+        branch.setLimit(limit);
 
-        Offset offset = new Offset();
-        offset.setOffset(pageable.getOffset());
-        select.setOffset(offset);
-
-        return Rebuilder.init(origin, RebuildMode.WRAP).config(config).sql(select.toString()).rebuild();
+        return true;
     }
 
-    private static List<ParameterMapping> getFilteredParameterMappings(BoundSql boundSql, PlainSelect select) {
-        List<ParameterMapping> mappings = new ArrayList<>(boundSql.getParameterMappings());
-
-        // Indexes of parameter mappings in "SELECT" statement.
-        List<Integer> indexes = IntStream.range(0, select.getSelectItems().stream().map(Object::toString)
-                .mapToInt(it -> StringUtils.countOccurrencesOf(it, MAPPED_PARAMETER_CHARACTER)).sum())
-                .boxed().collect(toList());
+    /**
+     * {@inheritDoc}
+     *
+     * <p> MySQL doesn't support "NULLS FIRST" and "NULLS LAST", and orders NULL first in ascending order.
+     * So this orders nullable sort key by whether it is NULL, before ordering by itself.
+     */
+    @Override
+    protected List<OrderByElement> createKeysetOrderByElements(SortKey sortKey) {
+        List<OrderByElement> elements = super.createKeysetOrderByElements(sortKey);
+        if (!sortKey.isNullable()) return elements;
 
-        int count = 0;
+        OrderByElement element = elements.get(0);
+        element.setNullOrdering(null);
 
-        Offset offset = select.getOffset();
-        if (offset != null) {
-            count += StringUtils.countOccurrencesOf(offset.toString(), MAPPED_PARAMETER_CHARACTER);
-        }
+        IsNullExpression isNull = new IsNullExpression();
+        isNull.setLeftExpression(parseColumn(sortKey));
+        OrderByElement nullOrdering = new OrderByElement();
+        nullOrdering.setExpression(isNull);
+        nullOrdering.setAsc(sortKey.getDirection() == SortDirection.ASC);
 
-        Limit limit = select.getLimit();
-        if (limit != null) {
-            count += StringUtils.countOccurrencesOf(limit.toString(), MAPPED_PARAMETER_CHARACTER);
-        }
+        return Arrays.asList(nullOrdering, element);
+    }
 
-        List<OrderByElement> orderBy = select.getOrderByElements();
-        if (!CollectionUtils.isEmpty(orderBy)) {
-            for (OrderByElement order : orderBy) {
-                count += StringUtils.countOccurrencesOf(order.toString(), MAPPED_PARAMETER_CHARACTER);
+    /**
+     * {@inheritDoc}
+     *
+     * <p> This multiplies estimated rows of each table in "EXPLAIN" by ratio of rows filtered by condition.
+     * If the database doesn't have column "filtered" in "EXPLAIN" like MariaDB, all the rows are regarded
+     * as filtered. If it doesn't have column "rows" like H2, this fails.
+     *
+     * <p> Rows of derived tables, unions and subqueries are not multiplied by rows of the outer query,
+     * and rows of derived table in the outer query is the number of its rows, not total items.
+     * For example, count query that wraps {@code GROUP BY} or sums counts of {@code UNION ALL} has them.
+     * So this estimates only a query whose tables are all joined in a single select, and returns null
+     * if it has any other type of select.
+     */
+    @Override
+    public Long estimateCount(Connection connection, BoundSql countBoundSql, ParameterHandler parameterHandler)
+            throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + countBoundSql.getSql())) {
+            parameterHandler.setParameters(statement);
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+                int rowsIndex = resultSet.findColumn("rows");
+                int filteredIndex = findColumn(resultSet, "filtered");
+                int selectTypeIndex = findColumn(resultSet, "select_type");
+
+                double estimate = 1;
+                boolean estimated = false;
+                while (resultSet.next()) {
+                    String selectType = selectTypeIndex > 0 ? resultSet.getString(selectTypeIndex) : null;
+                    if (selectType != null && !SINGLE_SELECT_TYPES.contains(selectType.toUpperCase(Locale.ROOT))) {
+                        return null;
+                    }
+
+                    long rows = resultSet.getLong(rowsIndex);
+                    if (resultSet.wasNull()) continue;
+
+                    double filtered = filteredIndex > 0 ? resultSet.getDouble(filteredIndex) : 100;
+                    if (resultSet.wasNull()) filtered = 100;
+
+                    estimate *= rows * filtered / 100;
+                    estimated = true;
+                }
+
+                return estimated ? (long) Math.ceil(estimate) : null;
             }
         }
+    }
 
-        // Adds indexes of parameter mappings in "OFFSET", "LIMIT", "ORDER BY" statements.
-        int lastIndex = mappings.size() - 1;
-        indexes.addAll(IntStream.range(lastIndex - count, lastIndex).boxed().collect(toList()));
+    private static int findColumn(ResultSet resultSet, String label) throws SQLException {
+        ResultSetMetaData metaData = resultSet.getMetaData();
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+            if (label.equalsIgnoreCase(metaData.getColumnLabel(i))) return i;
+        }
 
-        // Removes parameter mappings in that statements.
-        indexes.forEach(i -> mappings.set(i, null));
-        return mappings.stream().filter(Objects::nonNull).collect(toList());
+        return 0;
     }
 
 }
@@ -1,175 +1,384 @@
 package io.github.imsejin.mybatis.pagination.dialect;
 
-import io.github.imsejin.mybatis.pagination.constant.RebuildMode;
-import io.github.imsejin.mybatis.pagination.model.Pageable;
-import io.github.imsejin.mybatis.pagination.support.InterceptorSupport;
-import io.github.imsejin.mybatis.pagination.support.rebuilder.Rebuilder;
+import io.github.imsejin.mybatis.pagination.constant.PageParameter;
 import net.sf.jsqlparser.expression.Alias;
-import net.sf.jsqlparser.expression.Function;
+import net.sf.jsqlparser.expression.Expression;
 import net.sf.jsqlparser.expression.LongValue;
+import net.sf.jsqlparser.expression.OracleHint;
+import net.sf.jsqlparser.expression.Parenthesis;
+import net.sf.jsqlparser.expression.operators.conditional.AndExpression;
 import net.sf.jsqlparser.expression.operators.relational.GreaterThanEquals;
 import net.sf.jsqlparser.expression.operators.relational.MinorThanEquals;
 import net.sf.jsqlparser.schema.Column;
 import net.sf.jsqlparser.schema.Table;
 import net.sf.jsqlparser.statement.select.*;
+import org.apache.ibatis.executor.parameter.ParameterHandler;
 import org.apache.ibatis.mapping.BoundSql;
-import org.apache.ibatis.mapping.ParameterMapping;
-import org.apache.ibatis.session.Configuration;
 import org.springframework.util.CollectionUtils;
-import org.springframework.util.StringUtils;
 
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
-import java.util.Objects;
-import java.util.stream.IntStream;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Dialect for Oracle.
+ *
+ * <p> Oracle 12c or later supports row limiting clause, so this appends it to original query.
+ * On the older versions, this limits rows with "ROWNUM", which stops scanning rows
+ * as soon as it reaches the last row of the page (COUNT STOPKEY).
+ * Both forms have hint "FIRST_ROWS(n)" with size of page, so optimizer prefers plan
+ * that returns the first rows fast, such as scanning index in order instead of sorting all the rows.
+ *
+ * <pre>{@code
+ *     -- 12c or later
+ *     SELECT /*+ FIRST_ROWS(10) *\/ ... ORDER BY ... OFFSET ? ROWS FETCH NEXT ? ROWS ONLY
+ *
+ *     -- Older versions, when original query has "ORDER BY" statement
+ *     SELECT * FROM (SELECT /*+ FIRST_ROWS(10) *\/ PAGE_ORIGIN.*, ROWNUM AS PAGE_ROWNUM
+ *         FROM (SELECT ... ORDER BY ...) PAGE_ORIGIN WHERE ROWNUM <= ?) WHERE PAGE_ROWNUM >= ?
+ *
+ *     -- Older versions, when original query is plain and doesn't have "ORDER BY" statement
+ *     SELECT * FROM (SELECT /*+ FIRST_ROWS(10) *\/ ..., ROWNUM AS PAGE_ROWNUM
+ *         FROM ... WHERE (...) AND ROWNUM <= ?) WHERE PAGE_ROWNUM >= ?
+ * }</pre>
+ *
+ * <p> Version of database is detected by {@link #initialize(DatabaseMetaData)}.
+ * If it is unknown, this uses "ROWNUM", which works on all the versions.
+ */
+public class OracleDialect extends AbstractDialect {
+
+    /**
+     * Major version of Oracle that introduces row limiting clause.
+     */
+    public static final int ROW_LIMITING_CLAUSE_VERSION = 12;
+
+    private static final String ORIGIN_ALIAS = "PAGE_ORIGIN";
+
+    private static final String ROWNUM_ALIAS = "PAGE_ROWNUM";
+
+    /**
+     * Major version of database, or 0 if it is unknown.
+     */
+    private volatile int majorVersion;
+
+    /**
+     * Whether version is given by user, which is not overridden by detected version.
+     */
+    private final boolean versionFixed;
+
+    public OracleDialect() {
+        this.versionFixed = false;
+    }
 
-import static java.util.stream.Collectors.toList;
+    /**
+     * Creates dialect for the given version of database, without detecting it.
+     *
+     * @param majorVersion major version of Oracle
+     */
+    public OracleDialect(int majorVersion) {
+        this.majorVersion = majorVersion;
+        this.versionFixed = true;
+    }
 
-public class OracleDialect implements Dialect {
+    /**
+     * Returns major version of database.
+     *
+     * @return major version, or 0 if it is unknown
+     */
+    public int getMajorVersion() {
+        return this.majorVersion;
+    }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p> This detects major version of database, and clears the cache for rewritten queries
+     * if the version is changed.
+     */
     @Override
-    public BoundSql createCountBoundSql(BoundSql origin, Configuration config) {
-        PlainSelect select = InterceptorSupport.parseSelect(origin.getSql());
+    public void initialize(DatabaseMetaData metaData) throws SQLException {
+        if (this.versionFixed) return;
+
+        int majorVersion = metaData.getDatabaseMajorVersion();
+        if (this.majorVersion == majorVersion) return;
 
-        List<ParameterMapping> parameterMappings = getFilteredParameterMappings(origin, select);
+        this.majorVersion = majorVersion;
+        clearRewriteCache();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p> Hint and "ROWNUM" added to the select are removed after compiling it,
+     * because the select is rewritten as query for total items after this.
+     */
+    @Override
+    protected SqlTemplate createItemsSqlTemplate(PlainSelect select) {
+        OracleHint hint = select.getOracleHint();
 
-        // Add "COUNT(*)" as select item into root select.
-        Function countFunc = new Function();
-        countFunc.setName("COUNT");
-        countFunc.setAllColumns(true);
-        List<SelectItem> selectItems = Collections.singletonList(new SelectExpressionItem(countFunc));
-        select.setSelectItems(selectItems);
+        if (this.majorVersion >= ROW_LIMITING_CLAUSE_VERSION) {
+            addFirstRowsHint(select);
+            addRowLimitingClause(select);
+            SqlTemplate template = SqlTemplate.compile(select.toString());
 
-        // Removes statements "ORDER BY", "OFFSET", "FETCH", "FIRST".
-        select.setOrderByElements(null);
-        select.setOffset(null);
-        select.setFetch(null);
-        select.setFirst(null);
+            select.setOracleHint(hint);
+            return template;
+        }
 
-        return Rebuilder.init(origin, RebuildMode.WRAP).config(config)
-                .sql(select.toString()).parameterMappings(parameterMappings).rebuild();
+        // Query that doesn't have ORDER BY statement can limit rows without wrapping,
+        // if "ROWNUM" is assigned to rows before they are grouped or deduplicated.
+        if (CollectionUtils.isEmpty(select.getOrderByElements()) && isPlain(select) && select.getFetch() == null
+                && select.getSelectItems().stream().noneMatch(AllColumns.class::isInstance)) {
+            List<SelectItem> selectItems = new ArrayList<>(select.getSelectItems());
+            Expression where = select.getWhere();
+            SqlTemplate template = SqlTemplate.compile(wrapWithMinRowNum(limitMaxRowNum(select)).toString());
+
+            select.setOracleHint(hint);
+            select.setSelectItems(selectItems);
+            select.setWhere(where);
+            return template;
+        }
+
+        return SqlTemplate.compile(wrapWithMinRowNum(wrapWithMaxRowNum(select)).toString());
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p> This limits rows with {@code FETCH FIRST ? ROWS ONLY} in Oracle 12c or later.
+     * Otherwise, this wraps the select and stops at the last row with "ROWNUM".
+     */
     @Override
-    public BoundSql createOffsetLimitBoundSql(BoundSql origin, Configuration config, Pageable pageable) {
-        PlainSelect select = InterceptorSupport.parseSelect(origin.getSql());
-
-        // Creates BoundSql differently for improving performance.
-        String sql;
-        if (CollectionUtils.isEmpty(select.getOrderByElements())) {
-            // When original query doesn't have ORDER BY statement.
-            addRowLimitingClause(select, pageable);
-            sql = select.toString();
-
-        } else {
-            // When original query has ORDER BY statement.
-            SelectBody wrappedSelectBody = wrapSelectBodyWithMaxRowNum(select, pageable);
-            SelectBody selectBody = wrapSelectBodyWithMinRowNum(wrappedSelectBody, pageable);
-            sql = selectBody.toString();
+    protected SqlTemplate createLimitSqlTemplate(PlainSelect select) {
+        if (this.majorVersion >= ROW_LIMITING_CLAUSE_VERSION) {
+            addFirstRowsHint(select);
+
+            Fetch fetch = new Fetch();
+            fetch.setFetchParamFirst(true);
+            fetch.setRowCount(SqlTemplate.placeholderOf(PageParameter.LIMIT));
+            fetch.setFetchParam("ROWS");
+            select.setOffset(null);
+            select.setFetch(fetch);
+
+            return SqlTemplate.compile(select.toString());
         }
 
-        return Rebuilder.init(origin, RebuildMode.WRAP).config(config).sql(sql).rebuild();
-    }
+        PlainSelect wrapper = new PlainSelect();
+        addFirstRowsHint(wrapper);
+        wrapper.addSelectItems(new AllColumns());
 
-    private static List<ParameterMapping> getFilteredParameterMappings(BoundSql boundSql, PlainSelect select) {
-        List<ParameterMapping> mappings = new ArrayList<>(boundSql.getParameterMappings());
+        // Oracle doesn't allow keyword "AS" for alias of table.
+        SubSelect subSelect = new SubSelect();
+        subSelect.setSelectBody(select);
+        subSelect.setAlias(new Alias(ORIGIN_ALIAS, false));
+        wrapper.setFromItem(subSelect);
 
-        // Indexes of parameter mappings in "SELECT" statement.
-        List<Integer> indexes = IntStream.range(0, select.getSelectItems().stream().map(Object::toString)
-                        .mapToInt(it -> StringUtils.countOccurrencesOf(it, MAPPED_PARAMETER_CHARACTER)).sum())
-                .boxed().collect(toList());
+        MinorThanEquals mte = new MinorThanEquals();
+        mte.setLeftExpression(new Column("ROWNUM"));
+        mte.setRightExpression(new LongValue(SqlTemplate.placeholderOf(PageParameter.LIMIT)));
+        wrapper.setWhere(mte);
 
-        int count = 0;
+        return SqlTemplate.compile(wrapper.toString());
+    }
 
-        // OFFSET 0 ROWS FETCH FIRST 10 ROWS ONLY
-        Offset offset = select.getOffset();
-        if (offset != null) {
-            count += StringUtils.countOccurrencesOf(offset.toString(), MAPPED_PARAMETER_CHARACTER);
+    @Override
+    protected String appendRowLimitingClause(String sql, boolean ordered) {
+        if (this.majorVersion >= ROW_LIMITING_CLAUSE_VERSION) {
+            return sql + " OFFSET " + SqlTemplate.placeholderOf(PageParameter.OFFSET) + " ROWS FETCH NEXT "
+                    + SqlTemplate.placeholderOf(PageParameter.LIMIT) + " ROWS ONLY";
         }
 
-        Fetch fetch = select.getFetch();
-        if (fetch != null) {
-            count += StringUtils.countOccurrencesOf(fetch.toString(), MAPPED_PARAMETER_CHARACTER);
+        return "SELECT * FROM (SELECT /*+ FIRST_ROWS(" + SqlTemplate.inlinePlaceholderOf(PageParameter.LIMIT) + ") */ "
+                + ORIGIN_ALIAS + ".*, ROWNUM AS " + ROWNUM_ALIAS + " FROM (" + sql + ") " + ORIGIN_ALIAS
+                + " WHERE ROWNUM <= " + SqlTemplate.placeholderOf(PageParameter.END_ROW_NUM) + ") WHERE "
+                + ROWNUM_ALIAS + " >= " + SqlTemplate.placeholderOf(PageParameter.START_ROW_NUM);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p> Oracle 11g or older doesn't have row limiting clause, and branch of compound query cannot have
+     * "ORDER BY" statement. So rows of the branch are limited only in Oracle 12c or later.
+     */
+    @Override
+    protected boolean limitUnionAllBranch(PlainSelect branch) {
+        if (this.majorVersion < ROW_LIMITING_CLAUSE_VERSION) return false;
+
+        Fetch fetch = new Fetch();
+        fetch.setFetchParamFirst(true);
+        fetch.setRowCount(SqlTemplate.placeholderOf(PageParameter.END_ROW_NUM));
+        fetch.setFetchParam("ROWS");
+        branch.setFetch(fetch);
+
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p> "ROWID" is the fastest access path to a row, so this uses "ROWID" of the table that has the key column.
+     * If the key column is not qualified, the table is that of "FROM" statement.
+     */
+    @Override
+    protected Expression createDeferredJoinKey(PlainSelect select, String keyColumn) {
+        Expression key = super.createDeferredJoinKey(select, keyColumn);
+        if (!(key instanceof Column)) return key;
+
+        Table table = ((Column) key).getTable();
+        if (table == null || table.getName() == null) {
+            FromItem fromItem = select.getFromItem();
+            if (fromItem.getAlias() != null) {
+                table = new Table(fromItem.getAlias().getName());
+            } else if (fromItem instanceof Table) {
+                table = (Table) fromItem;
+            } else {
+                // Inline view without alias doesn't have "ROWID" that can be referred.
+                return key;
+            }
         }
 
-        First first = select.getFirst();
-        if (first != null) {
-            count += StringUtils.countOccurrencesOf(first.toString(), MAPPED_PARAMETER_CHARACTER);
+        return new Column(table, "ROWID");
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p> This explains query for total items into "PLAN_TABLE" and reads cardinality of the row source
+     * aggregated by "COUNT(*)". Bind variables don't need values to be explained,
+     * so mapped parameters are replaced with bind variables without binding.
+     */
+    @Override
+    public Long estimateCount(Connection connection, BoundSql countBoundSql, ParameterHandler parameterHandler)
+            throws SQLException {
+        String statementId = "MP" + Long.toHexString(ThreadLocalRandom.current().nextLong());
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("EXPLAIN PLAN SET STATEMENT_ID = '" + statementId + "' FOR "
+                    + toBindVariables(countBoundSql.getSql()));
+
+            try (ResultSet resultSet = statement.executeQuery("SELECT MAX(CARDINALITY) FROM PLAN_TABLE " +
+                    "WHERE STATEMENT_ID = '" + statementId + "' AND PARENT_ID = 1")) {
+                if (!resultSet.next()) return null;
+
+                long cardinality = resultSet.getLong(1);
+                return resultSet.wasNull() ? null : cardinality;
+            } finally {
+                statement.executeUpdate("DELETE FROM PLAN_TABLE WHERE STATEMENT_ID = '" + statementId + "'");
+            }
         }
+    }
+
+    private static String toBindVariables(String sql) {
+        StringBuilder sb = new StringBuilder(sql.length() + 16);
 
-        List<OrderByElement> orderBy = select.getOrderByElements();
-        if (!CollectionUtils.isEmpty(orderBy)) {
-            for (OrderByElement order : orderBy) {
-                count += StringUtils.countOccurrencesOf(order.toString(), MAPPED_PARAMETER_CHARACTER);
+        boolean quoted = false;
+        int index = 0;
+        for (char c : sql.toCharArray()) {
+            if (c == '\'') quoted = !quoted;
+
+            if (c == '?' && !quoted) {
+                sb.append(":").append(++index);
+            } else {
+                sb.append(c);
             }
         }
 
-        // Adds indexes of parameter mappings in "OFFSET", "LIMIT", "ORDER BY" statements.
-        int lastIndex = mappings.size() - 1;
-        indexes.addAll(IntStream.range(lastIndex - count, lastIndex).boxed().collect(toList()));
+        return sb.toString();
+    }
+
+    private static void addFirstRowsHint(PlainSelect select) {
+        // Doesn't override hint written by user.
+        if (select.getOracleHint() != null) return;
 
-        // Removes parameter mappings in that statements.
-        indexes.forEach(i -> mappings.set(i, null));
-        return mappings.stream().filter(Objects::nonNull).collect(toList());
+        OracleHint hint = new OracleHint();
+        hint.setValue("FIRST_ROWS(" + SqlTemplate.inlinePlaceholderOf(PageParameter.LIMIT) + ")");
+        select.setOracleHint(hint);
     }
 
-    private static void addRowLimitingClause(PlainSelect select, Pageable pageable) {
+    private static void addRowLimitingClause(PlainSelect select) {
         Offset offset = new Offset();
-        offset.setOffset(pageable.getOffset());
+        offset.setOffset(SqlTemplate.placeholderOf(PageParameter.OFFSET));
         offset.setOffsetParam("ROWS");
         select.setOffset(offset);
 
         Fetch fetch = new Fetch();
-        fetch.setFetchParamFirst(true);
-        fetch.setRowCount(pageable.getLimit());
+        fetch.setRowCount(SqlTemplate.placeholderOf(PageParameter.LIMIT));
         fetch.setFetchParam("ROWS");
         select.setFetch(fetch);
     }
 
-    private static SelectBody wrapSelectBodyWithMinRowNum(SelectBody wrappedSelectBody, Pageable pageable) {
+    /**
+     * Assigns "ROWNUM" to rows of the select and stops at the last row of the page.
+     */
+    private static PlainSelect limitMaxRowNum(PlainSelect select) {
+        addFirstRowsHint(select);
+
+        SelectExpressionItem rowNum = new SelectExpressionItem(new Column("ROWNUM"));
+        rowNum.setAlias(new Alias(ROWNUM_ALIAS, true));
+        select.addSelectItems(rowNum);
+
+        MinorThanEquals mte = new MinorThanEquals();
+        mte.setLeftExpression(new Column("ROWNUM"));
+        mte.setRightExpression(new LongValue(SqlTemplate.placeholderOf(PageParameter.END_ROW_NUM)));
+
+        Expression where = select.getWhere();
+        select.setWhere(where == null ? mte : new AndExpression(new Parenthesis(where), mte));
+
+        return select;
+    }
+
+    /**
+     * Wraps the select ordered rows, and assigns "ROWNUM" to them and stops at the last row of the page.
+     */
+    private static PlainSelect wrapWithMaxRowNum(PlainSelect originSelect) {
         PlainSelect body = new PlainSelect();
+        addFirstRowsHint(body);
 
-        // Makes FROM statement.
+        // Makes FROM statement. Oracle doesn't allow keyword "AS" for alias of table.
         SubSelect subSelect = new SubSelect();
-        subSelect.setSelectBody(wrappedSelectBody);
-        subSelect.setAlias(new Alias("_$WRAPPER", true));
+        subSelect.setSelectBody(originSelect);
+        subSelect.setAlias(new Alias(ORIGIN_ALIAS, false));
         body.setFromItem(subSelect);
 
         // Makes SELECT statement.
-        AllTableColumns allColumns = new AllTableColumns(new Table("_$WRAPPER"));
-        body.addSelectItems(allColumns);
+        AllTableColumns originColumns = new AllTableColumns(new Table(ORIGIN_ALIAS));
+        SelectExpressionItem rowNum = new SelectExpressionItem(new Column("ROWNUM"));
+        rowNum.setAlias(new Alias(ROWNUM_ALIAS, true));
+        body.addSelectItems(originColumns, rowNum);
 
         // Makes WHERE statement.
-        GreaterThanEquals gte = new GreaterThanEquals();
-        Column rowNum = new Column("_$ROWNUM").withTable(new Table("_$WRAPPER"));
-        gte.setLeftExpression(rowNum);
-        gte.setRightExpression(new LongValue(pageable.getStartRowNum()));
-        body.setWhere(gte);
+        MinorThanEquals mte = new MinorThanEquals();
+        mte.setLeftExpression(new Column("ROWNUM"));
+        mte.setRightExpression(new LongValue(SqlTemplate.placeholderOf(PageParameter.END_ROW_NUM)));
+        body.setWhere(mte);
 
         return body;
     }
 
-    private static SelectBody wrapSelectBodyWithMaxRowNum(SelectBody originSelectBody, Pageable pageable) {
+    /**
+     * Wraps the select and skips rows before the first row of the page.
+     */
+    private static PlainSelect wrapWithMinRowNum(PlainSelect select) {
         PlainSelect body = new PlainSelect();
 
         // Makes FROM statement.
         SubSelect subSelect = new SubSelect();
-        subSelect.setSelectBody(originSelectBody);
-        subSelect.setAlias(new Alias("_$ORIGIN", true));
+        subSelect.setSelectBody(select);
         body.setFromItem(subSelect);
 
         // Makes SELECT statement.
-        SelectExpressionItem rowNum = new SelectExpressionItem(new Column("ROWNUM"));
-        rowNum.setAlias(new Alias("_$ROWNUM", true));
-        AllTableColumns originColumns = new AllTableColumns(new Table("_$ORIGIN"));
-        body.addSelectItems(rowNum, originColumns);
+        body.addSelectItems(new AllColumns());
 
         // Makes WHERE statement.
-        MinorThanEquals mte = new MinorThanEquals();
-        mte.setLeftExpression(new Column("ROWNUM"));
-        mte.setRightExpression(new LongValue(pageable.getEndRowNum()));
-        body.setWhere(mte);
+        GreaterThanEquals gte = new GreaterThanEquals();
+        gte.setLeftExpression(new Column(ROWNUM_ALIAS));
+        gte.setRightExpression(new LongValue(SqlTemplate.placeholderOf(PageParameter.START_ROW_NUM)));
+        body.setWhere(gte);
 
         return body;
     }
@@ -0,0 +1,76 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Im Sejin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.imsejin.mybatis.pagination.dialect;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+import org.apache.ibatis.mapping.ParameterMapping;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Result of rewriting an original query, which is cached by {@link AbstractDialect}.
+ */
+@Getter
+@ToString
+@RequiredArgsConstructor
+public class RewrittenSql {
+
+    /**
+     * Query for total items.
+     */
+    private final String countSql;
+
+    /**
+     * Positional indexes of parameter mappings of original query, which remain in query for total items.
+     * If it is null, all of them remain as they are.
+     */
+    private final int[] countParameterIndexes;
+
+    /**
+     * Template of query for pagination.
+     */
+    private final SqlTemplate itemsSqlTemplate;
+
+    /**
+     * Returns parameter mappings of original query without ones removed from query for total items.
+     *
+     * @param parameterMappings parameter mappings of original query
+     * @return parameter mappings for query for total items
+     */
+    public List<ParameterMapping> getCountParameterMappings(List<ParameterMapping> parameterMappings) {
+        if (this.countParameterIndexes == null) return new ArrayList<>(parameterMappings);
+
+        List<ParameterMapping> mappings = new ArrayList<>(this.countParameterIndexes.length);
+        for (int index : this.countParameterIndexes) {
+            if (index < parameterMappings.size()) mappings.add(parameterMappings.get(index));
+        }
+
+        return mappings;
+    }
+
+}
@@ -0,0 +1,179 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Im Sejin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.imsejin.mybatis.pagination.dialect;
+
+import io.github.imsejin.mybatis.pagination.constant.PageParameter;
+import io.github.imsejin.mybatis.pagination.constant.SortDirection;
+import io.github.imsejin.mybatis.pagination.model.SortKey;
+import net.sf.jsqlparser.expression.Alias;
+import net.sf.jsqlparser.expression.CaseExpression;
+import net.sf.jsqlparser.expression.LongValue;
+import net.sf.jsqlparser.expression.NullValue;
+import net.sf.jsqlparser.expression.WhenClause;
+import net.sf.jsqlparser.expression.operators.relational.IsNullExpression;
+import net.sf.jsqlparser.statement.select.AllColumns;
+import net.sf.jsqlparser.statement.select.Fetch;
+import net.sf.jsqlparser.statement.select.Offset;
+import net.sf.jsqlparser.statement.select.OrderByElement;
+import net.sf.jsqlparser.statement.select.PlainSelect;
+import net.sf.jsqlparser.statement.select.SelectExpressionItem;
+import net.sf.jsqlparser.statement.select.SubSelect;
+import net.sf.jsqlparser.statement.select.Top;
+import org.springframework.util.CollectionUtils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Dialect for SQL Server 2012 or later.
+ *
+ * <p> This limits rows with {@code OFFSET ? ROWS FETCH NEXT ? ROWS ONLY}, which requires "ORDER BY" statement.
+ * If original query doesn't have it, this orders rows by {@code (SELECT NULL)}, which doesn't sort them.
+ * If original query has "TOP", which cannot be used with "OFFSET", this wraps the query, orders the wrapper
+ * by positions of the columns in its "ORDER BY" statement and counts its rows as a subquery.
+ *
+ * <pre>{@code
+ *     SELECT ... ORDER BY (SELECT NULL) OFFSET ? ROWS FETCH NEXT ? ROWS ONLY
+ * }</pre>
+ */
+public class SQLServerDialect extends AbstractDialect {
+
+    private static final String ORIGIN_ALIAS = "PAGE_ORIGIN";
+
+    @Override
+    protected SqlTemplate createItemsSqlTemplate(PlainSelect select) {
+        if (select.getTop() != null) {
+            PlainSelect wrapper = new PlainSelect();
+            wrapper.addSelectItems(new AllColumns());
+
+            SubSelect subSelect = new SubSelect();
+            subSelect.setSelectBody(select);
+            subSelect.setAlias(new Alias(ORIGIN_ALIAS, false));
+            wrapper.setFromItem(subSelect);
+
+            // Subquery doesn't keep its order in the wrapper, so the wrapper is ordered by the same columns.
+            // If some of them are not selected, rows of the wrapper are not sorted.
+            if (!CollectionUtils.isEmpty(select.getOrderByElements())) {
+                wrapper.setOrderByElements(createPositionalOrderByElements(select.getOrderByElements(),
+                        select.getSelectItems()));
+            }
+
+            select = wrapper;
+        }
+
+        if (CollectionUtils.isEmpty(select.getOrderByElements())) {
+            PlainSelect nullSelect = new PlainSelect();
+            nullSelect.addSelectItems(new SelectExpressionItem(new NullValue()));
+            SubSelect subSelect = new SubSelect();
+            subSelect.setSelectBody(nullSelect);
+
+            OrderByElement element = new OrderByElement();
+            element.setExpression(subSelect);
+            select.setOrderByElements(Collections.singletonList(element));
+        }
+
+        Offset offset = new Offset();
+        offset.setOffset(SqlTemplate.placeholderOf(PageParameter.OFFSET));
+        offset.setOffsetParam("ROWS");
+        select.setOffset(offset);
+
+        Fetch fetch = new Fetch();
+        fetch.setRowCount(SqlTemplate.placeholderOf(PageParameter.LIMIT));
+        fetch.setFetchParam("ROWS");
+        select.setFetch(fetch);
+
+        return SqlTemplate.compile(select.toString());
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p> This limits rows with {@code TOP (?)}, because "FETCH" cannot be used without "OFFSET".
+     */
+    @Override
+    protected SqlTemplate createLimitSqlTemplate(PlainSelect select) {
+        // Query that already has "TOP" is wrapped.
+        if (select.getTop() != null) return super.createLimitSqlTemplate(select);
+
+        Top top = new Top();
+        top.setExpression(new LongValue(SqlTemplate.placeholderOf(PageParameter.LIMIT)));
+        top.setParenthesis(true);
+        select.setTop(top);
+        select.setOffset(null);
+        select.setFetch(null);
+
+        return SqlTemplate.compile(select.toString());
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p> "TOP" limits rows to be counted, so query with it is counted as a subquery as it is.
+     */
+    @Override
+    protected PlainSelect createCountSelect(PlainSelect select) {
+        if (select.getTop() != null) return createCountTargetSelect(select);
+
+        return super.createCountSelect(select);
+    }
+
+    @Override
+    protected String appendRowLimitingClause(String sql, boolean ordered) {
+        return sql + (ordered ? "" : " ORDER BY (SELECT NULL)")
+                + " OFFSET " + SqlTemplate.placeholderOf(PageParameter.OFFSET) + " ROWS FETCH NEXT "
+                + SqlTemplate.placeholderOf(PageParameter.LIMIT) + " ROWS ONLY";
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p> SQL Server doesn't support "NULLS FIRST" and "NULLS LAST", and orders NULL first in ascending order.
+     * So this orders nullable sort key by whether it is NULL with "CASE", before ordering by itself.
+     */
+    @Override
+    protected List<OrderByElement> createKeysetOrderByElements(SortKey sortKey) {
+        List<OrderByElement> elements = super.createKeysetOrderByElements(sortKey);
+        if (!sortKey.isNullable()) return elements;
+
+        OrderByElement element = elements.get(0);
+        element.setNullOrdering(null);
+
+        IsNullExpression isNull = new IsNullExpression();
+        isNull.setLeftExpression(parseColumn(sortKey));
+        WhenClause whenNull = new WhenClause();
+        whenNull.setWhenExpression(isNull);
+        whenNull.setThenExpression(new LongValue(1));
+        CaseExpression nullity = new CaseExpression();
+        nullity.setWhenClauses(Collections.singletonList(whenNull));
+        nullity.setElseExpression(new LongValue(0));
+
+        OrderByElement nullOrdering = new OrderByElement();
+        nullOrdering.setExpression(nullity);
+        nullOrdering.setAsc(sortKey.getDirection() == SortDirection.ASC);
+
+        return Arrays.asList(nullOrdering, element);
+    }
+
+}
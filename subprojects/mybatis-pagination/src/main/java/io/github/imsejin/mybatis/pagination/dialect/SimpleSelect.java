@@ -0,0 +1,338 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Im Sejin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.imsejin.mybatis.pagination.dialect;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Simple single-table select, which is split by tokenizer without building AST.
+ *
+ * <p> Query is simple, if it consists of only "SELECT", "FROM", "WHERE" and "ORDER BY" statements,
+ * and doesn't have "DISTINCT", aggregate functions, window functions, subqueries and joins. The number of rows
+ * of such a query is not changed by its select items, so query for total items is derived
+ * by replacing them with "COUNT(*)" and removing "ORDER BY" statement.
+ *
+ * <p> Tokenizer skips string literals, quoted identifiers and comments, so parameter in them is not counted.
+ * If tokenizer is not sure that query is simple, {@link #parse(String)} returns null
+ * and the query is parsed into AST.
+ *
+ * <pre>{@code
+ *     SELECT ID, NAME FROM AUTHOR WHERE COUNTRY = ? ORDER BY ID
+ *     |select items  |body                         |order by   |
+ * }</pre>
+ */
+final class SimpleSelect {
+
+    /**
+     * Keywords that make query not simple when they appear outside parentheses.
+     */
+    private static final Set<String> UNSUPPORTED_KEYWORDS = new HashSet<>(Arrays.asList(
+            "DISTINCT", "UNIQUE", "ALL", "TOP", "INTO", "JOIN", "UNION", "INTERSECT", "EXCEPT", "MINUS",
+            "GROUP", "HAVING", "LIMIT", "OFFSET", "FETCH", "FOR", "WINDOW", "CONNECT", "START", "QUALIFY",
+            "PIVOT", "UNPIVOT", "LATERAL", "APPLY", "MODEL", "LOCK", "PROCEDURE", "SQL_CALC_FOUND_ROWS"));
+
+    private final String sql;
+
+    private final int bodyStart;
+
+    private final int bodyEnd;
+
+    private final int[] countParameterIndexes;
+
+    private final boolean ordered;
+
+    private SimpleSelect(String sql, int bodyStart, int bodyEnd, int[] countParameterIndexes, boolean ordered) {
+        this.sql = sql;
+        this.bodyStart = bodyStart;
+        this.bodyEnd = bodyEnd;
+        this.countParameterIndexes = countParameterIndexes;
+        this.ordered = ordered;
+    }
+
+    /**
+     * Splits query with tokenizer.
+     *
+     * @param sql original query
+     * @return simple select, or null if query is not simple
+     */
+    static SimpleSelect parse(String sql) {
+        String trimmed = sql.trim();
+        Tokenizer tokenizer = new Tokenizer(trimmed);
+
+        // Query must start with "SELECT".
+        if (!"SELECT".equals(tokenizer.nextWord()) || tokenizer.depth > 0) return null;
+
+        int bodyStart = -1;
+        int orderByStart = -1;
+        int numOfLeadingMappings = 0;
+        int numOfMappingsBeforeOrderBy = 0;
+
+        String word;
+        while ((word = tokenizer.nextWord()) != null) {
+            // Window function numbers rows instead of keeping them as they are.
+            if (word.equals("OVER")) return null;
+
+            // Aggregate function returns one row, even if it is nested in another function like "COALESCE(SUM(...))".
+            if (bodyStart < 0 && AbstractDialect.AGGREGATE_FUNCTION_NAMES.contains(word)
+                    && tokenizer.peek() == '(') {
+                return null;
+            }
+
+            if (tokenizer.depth > 0) {
+                // Subquery is not simple.
+                if (word.equals("SELECT")) return null;
+                continue;
+            }
+
+            if (UNSUPPORTED_KEYWORDS.contains(word)) return null;
+
+            if (bodyStart < 0) {
+                if (word.equals("FROM")) {
+                    bodyStart = tokenizer.wordStart;
+                    numOfLeadingMappings = tokenizer.numOfMappings;
+
+                    // Derived table and table function are not simple.
+                    if (tokenizer.peek() == '(') return null;
+                }
+            } else if (orderByStart < 0 && word.equals("ORDER")) {
+                orderByStart = tokenizer.wordStart;
+                numOfMappingsBeforeOrderBy = tokenizer.numOfMappings;
+                if (!"BY".equals(tokenizer.nextWord())) return null;
+            }
+        }
+
+        // Unclosed quote, comment, parenthesis or statement delimiter.
+        if (tokenizer.broken || bodyStart < 0) return null;
+
+        int bodyEnd = orderByStart < 0 ? trimmed.length() : orderByStart;
+
+        // Comma in body means multiple tables.
+        int lastComma = tokenizer.lastTopLevelComma;
+        if (lastComma > bodyStart && lastComma < bodyEnd) return null;
+
+        // Parameters in select items and "ORDER BY" statement are removed from query for total items.
+        int numOfBodyMappings = orderByStart < 0 ? tokenizer.numOfMappings : numOfMappingsBeforeOrderBy;
+        int[] countParameterIndexes = IntStream.range(numOfLeadingMappings, numOfBodyMappings).toArray();
+
+        return new SimpleSelect(trimmed, bodyStart, bodyEnd, countParameterIndexes, orderByStart >= 0);
+    }
+
+    /**
+     * Returns original query without surrounding whitespaces.
+     *
+     * @return original query
+     */
+    String getSql() {
+        return this.sql;
+    }
+
+    /**
+     * Returns query for total items.
+     *
+     * @return query for total items
+     */
+    String getCountSql() {
+        return "SELECT COUNT(*) " + this.sql.substring(this.bodyStart, this.bodyEnd).trim();
+    }
+
+    /**
+     * Returns positional indexes of parameters of original query, which remain in query for total items.
+     *
+     * @return positional indexes of parameters
+     */
+    int[] getCountParameterIndexes() {
+        return this.countParameterIndexes;
+    }
+
+    /**
+     * Returns whether query has "ORDER BY" statement.
+     *
+     * @return whether query is ordered
+     */
+    boolean isOrdered() {
+        return this.ordered;
+    }
+
+    // -------------------------------------------------------------------------------------------------
+
+    /**
+     * Tokenizer that reads words of query, skipping string literals, quoted identifiers and comments.
+     */
+    private static class Tokenizer {
+        private final String sql;
+
+        private int position;
+
+        private int depth;
+
+        private int wordStart;
+
+        private int numOfMappings;
+
+        /**
+         * Position of the last comma outside parentheses.
+         */
+        private int lastTopLevelComma = -1;
+
+        private boolean broken;
+
+        private Tokenizer(String sql) {
+            this.sql = sql;
+        }
+
+        /**
+         * Returns the next word in upper case, or null if there is no more word.
+         */
+        private String nextWord() {
+            while (this.position < this.sql.length()) {
+                char c = this.sql.charAt(this.position);
+
+                if (Character.isLetter(c) || c == '_') {
+                    this.wordStart = this.position;
+                    while (this.position < this.sql.length() && isWordPart(this.sql.charAt(this.position))) {
+                        this.position++;
+                    }
+
+                    return this.sql.substring(this.wordStart, this.position).toUpperCase(Locale.ROOT);
+                }
+
+                switch (c) {
+                    case '\'':
+                    case '"':
+                    case '`':
+                        skipQuoted(c);
+                        break;
+                    case '[':
+                        // Brackets that have parameter are not quoted identifier, but subscript of array.
+                        int end = this.sql.indexOf(']', this.position);
+                        if (end > 0 && this.sql.lastIndexOf('?', end) < this.position) {
+                            this.position = end + 1;
+                        } else {
+                            this.position++;
+                        }
+                        break;
+                    case '-':
+                        if (this.sql.startsWith("--", this.position)) {
+                            skipUntil("\n", false);
+                        } else {
+                            this.position++;
+                        }
+                        break;
+                    case '/':
+                        if (this.sql.startsWith("/*", this.position)) {
+                            skipUntil("*/", true);
+                        } else {
+                            this.position++;
+                        }
+                        break;
+                    case '(':
+                        this.depth++;
+                        this.position++;
+                        break;
+                    case ')':
+                        if (--this.depth < 0) this.broken = true;
+                        this.position++;
+                        break;
+                    case ',':
+                        if (this.depth == 0) this.lastTopLevelComma = this.position;
+                        this.position++;
+                        break;
+                    case ';':
+                        this.broken = true;
+                        this.position++;
+                        break;
+                    case '?':
+                        this.numOfMappings++;
+                        this.position++;
+                        break;
+                    default:
+                        // Skips digits of number and the rest of the word like "1E10".
+                        if (Character.isDigit(c)) {
+                            while (this.position < this.sql.length() && isWordPart(this.sql.charAt(this.position))) {
+                                this.position++;
+                            }
+                        } else {
+                            this.position++;
+                        }
+                        break;
+                }
+            }
+
+            if (this.depth != 0) this.broken = true;
+            return null;
+        }
+
+        /**
+         * Returns the next character that is not whitespace.
+         */
+        private char peek() {
+            for (int i = this.position; i < this.sql.length(); i++) {
+                char c = this.sql.charAt(i);
+                if (!Character.isWhitespace(c)) return c;
+            }
+
+            return '\0';
+        }
+
+        private void skipQuoted(char quote) {
+            // Quote is escaped by doubling it.
+            int index = this.position + 1;
+            while (true) {
+                index = this.sql.indexOf(quote, index);
+                if (index < 0) {
+                    this.broken = true;
+                    this.position = this.sql.length();
+                    return;
+                }
+                if (index + 1 < this.sql.length() && this.sql.charAt(index + 1) == quote) {
+                    index += 2;
+                    continue;
+                }
+
+                this.position = index + 1;
+                return;
+            }
+        }
+
+        private void skipUntil(String end, boolean required) {
+            int index = this.sql.indexOf(end, this.position + 2);
+            if (index < 0) {
+                if (required) this.broken = true;
+                this.position = this.sql.length();
+                return;
+            }
+
+            this.position = index + end.length();
+        }
+
+        private static boolean isWordPart(char c) {
+            return Character.isLetterOrDigit(c) || c == '_' || c == '$' || c == '#';
+        }
+    }
+
+}
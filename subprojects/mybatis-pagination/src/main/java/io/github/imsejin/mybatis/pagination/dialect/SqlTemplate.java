@@ -0,0 +1,246 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Im Sejin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.imsejin.mybatis.pagination.dialect;
+
+import io.github.imsejin.mybatis.pagination.constant.PageParameter;
+import io.github.imsejin.mybatis.pagination.model.Pageable;
+import io.github.imsejin.mybatis.pagination.support.InterceptorSupport;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Precompiled SQL for pagination that has bind parameters for values of {@link Pageable}.
+ *
+ * <p> Dialect writes a placeholder of {@link PageParameter} as a numeric literal
+ * into the query and compiles its string with {@link #compile(String)}.
+ * The placeholders are replaced with {@value Dialect#MAPPED_PARAMETER_CHARACTER},
+ * so all the pages of a query share the same SQL, which is reused by prepared statement cache
+ * of driver and plan cache of database. The values are bound to the parameters at their indexes.
+ *
+ * <pre>{@code
+ *     Limit limit = new Limit();
+ *     limit.setRowCount(new LongValue(SqlTemplate.placeholderOf(PageParameter.LIMIT)));
+ *     select.setLimit(limit);
+ *
+ *     SqlTemplate template = SqlTemplate.compile(select.toString());
+ *     String sql = template.getSql(pageable); // ... LIMIT ?
+ * }</pre>
+ *
+ * <p> Where bind parameter is not allowed such as optimizer hint, dialect writes
+ * {@link #inlinePlaceholderOf(PageParameter)} instead, whose value is inlined into the query.
+ */
+public final class SqlTemplate {
+
+    private static final String PLACEHOLDER_PREFIX = String.valueOf(Long.MAX_VALUE).substring(0, 18);
+
+    private final String[] fragments;
+
+    private final PageParameter[] parameters;
+
+    private final boolean[] inlined;
+
+    private final PageParameter[] bindParameters;
+
+    /**
+     * Indexes of {@link #bindParameters} among all the bind parameters in the query.
+     */
+    private final int[] bindParameterIndexes;
+
+    /**
+     * SQL for pagination, if it doesn't have inlined parameters.
+     */
+    private final String sql;
+
+    private SqlTemplate(List<String> fragments, List<PageParameter> parameters, List<Boolean> inlined,
+                        List<Integer> numsOfPrecedingMappings) {
+        this.fragments = fragments.toArray(new String[0]);
+        this.parameters = parameters.toArray(new PageParameter[0]);
+        this.inlined = new boolean[this.parameters.length];
+
+        List<PageParameter> bindParameters = new ArrayList<>();
+        List<Integer> bindParameterIndexes = new ArrayList<>();
+        for (int i = 0; i < this.parameters.length; i++) {
+            this.inlined[i] = inlined.get(i);
+            if (this.inlined[i]) continue;
+
+            // Preceding page parameters are also bound to parameters.
+            bindParameterIndexes.add(numsOfPrecedingMappings.get(i) + bindParameters.size());
+            bindParameters.add(this.parameters[i]);
+        }
+
+        this.bindParameters = bindParameters.toArray(new PageParameter[0]);
+        this.bindParameterIndexes = bindParameterIndexes.stream().mapToInt(Integer::intValue).toArray();
+        this.sql = inlined.contains(true) ? null : render(null);
+    }
+
+    /**
+     * Returns the numeric literal that marks a bind parameter of the parameter.
+     *
+     * <p> These literals are never written by hand in a query,
+     * because they are near {@link Long#MAX_VALUE}.
+     *
+     * @param parameter page parameter
+     * @return placeholder literal
+     */
+    public static long placeholderOf(PageParameter parameter) {
+        return Long.MAX_VALUE - parameter.ordinal();
+    }
+
+    /**
+     * Returns the numeric literal that marks a splice point of the parameter, whose value is inlined.
+     *
+     * <p> Inlined value makes SQL differ by the value, so use this only where bind parameter is not allowed.
+     *
+     * @param parameter page parameter
+     * @return placeholder literal
+     */
+    public static long inlinePlaceholderOf(PageParameter parameter) {
+        return Long.MAX_VALUE - PageParameter.values().length - parameter.ordinal();
+    }
+
+    /**
+     * Compiles SQL that has placeholders into template.
+     *
+     * @param sql SQL written with placeholders
+     * @return SQL template
+     * @see #placeholderOf(PageParameter)
+     * @see #inlinePlaceholderOf(PageParameter)
+     */
+    public static SqlTemplate compile(String sql) {
+        List<String> fragments = new ArrayList<>();
+        List<PageParameter> parameters = new ArrayList<>();
+        List<Boolean> inlined = new ArrayList<>();
+        List<Integer> numsOfPrecedingMappings = new ArrayList<>();
+
+        int[] mappingPositions = InterceptorSupport.getPositionsOfMapping(sql);
+        int numOfMappings = 0;
+        int start = 0;
+        int index = sql.indexOf(PLACEHOLDER_PREFIX);
+        while (index >= 0) {
+            PageParameter parameter = findParameter(sql, index, false);
+            boolean inline = parameter == null;
+            if (inline) parameter = findParameter(sql, index, true);
+
+            if (parameter == null) {
+                index = sql.indexOf(PLACEHOLDER_PREFIX, index + 1);
+                continue;
+            }
+
+            while (numOfMappings < mappingPositions.length && mappingPositions[numOfMappings] < index) {
+                numOfMappings++;
+            }
+
+            fragments.add(sql.substring(start, index));
+            parameters.add(parameter);
+            inlined.add(inline);
+            numsOfPrecedingMappings.add(numOfMappings);
+
+            start = index + PLACEHOLDER_PREFIX.length() + 1;
+            index = sql.indexOf(PLACEHOLDER_PREFIX, start);
+        }
+
+        fragments.add(sql.substring(start));
+
+        return new SqlTemplate(fragments, parameters, inlined, numsOfPrecedingMappings);
+    }
+
+    private static PageParameter findParameter(String sql, int index, boolean inline) {
+        for (PageParameter parameter : PageParameter.values()) {
+            long placeholder = inline ? inlinePlaceholderOf(parameter) : placeholderOf(parameter);
+            if (sql.startsWith(String.valueOf(placeholder), index)) return parameter;
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns SQL for pagination, whose placeholders are replaced with bind parameters
+     * and inline placeholders are replaced with values of pageable.
+     *
+     * @param pageable pageable
+     * @return SQL for pagination
+     */
+    public String getSql(Pageable pageable) {
+        return this.sql != null ? this.sql : render(pageable);
+    }
+
+    private String render(Pageable pageable) {
+        StringBuilder sb = new StringBuilder(this.fragments.length * 64);
+
+        for (int i = 0; i < this.parameters.length; i++) {
+            sb.append(this.fragments[i]);
+
+            if (this.inlined[i]) {
+                sb.append(this.parameters[i].valueOf(pageable));
+            } else {
+                sb.append(Dialect.MAPPED_PARAMETER_CHARACTER);
+            }
+        }
+
+        return sb.append(this.fragments[this.fragments.length - 1]).toString();
+    }
+
+    /**
+     * Returns the number of bind parameters of page parameters.
+     *
+     * @return the number of bind parameters
+     */
+    public int getNumOfBindParameters() {
+        return this.bindParameters.length;
+    }
+
+    /**
+     * Returns the page parameter bound to parameter in order of appearance.
+     *
+     * @param i index of bind parameter of page parameter
+     * @return page parameter
+     */
+    public PageParameter getBindParameter(int i) {
+        return this.bindParameters[i];
+    }
+
+    /**
+     * Returns index of the bind parameter of page parameter among all the bind parameters in the query.
+     *
+     * @param i index of bind parameter of page parameter
+     * @return index among all the bind parameters
+     */
+    public int getBindParameterIndex(int i) {
+        return this.bindParameterIndexes[i];
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(this.fragments.length * 64);
+
+        for (int i = 0; i < this.parameters.length; i++) {
+            sb.append(this.fragments[i]).append('{').append(this.parameters[i]).append('}');
+        }
+
+        return sb.append(this.fragments[this.fragments.length - 1]).toString();
+    }
+
+}
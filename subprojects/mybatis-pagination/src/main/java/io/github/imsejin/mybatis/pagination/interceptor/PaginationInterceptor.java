@@ -1,30 +1,70 @@
 package io.github.imsejin.mybatis.pagination.interceptor;
 
-import io.github.imsejin.mybatis.pagination.constant.RebuildMode;
+import io.github.imsejin.mybatis.pagination.constant.CountExecutorType;
+import io.github.imsejin.mybatis.pagination.constant.CountMode;
+import io.github.imsejin.mybatis.pagination.constant.GuardrailPolicy;
+import io.github.imsejin.mybatis.pagination.constant.GuardrailViolation;
+import io.github.imsejin.mybatis.pagination.constant.PaginationStage;
+import io.github.imsejin.mybatis.pagination.constant.PaginationType;
+import io.github.imsejin.mybatis.pagination.constant.RewriteMode;
+import io.github.imsejin.mybatis.pagination.dialect.AbstractDialect;
+import io.github.imsejin.mybatis.pagination.dialect.CountSqlOptimizer;
 import io.github.imsejin.mybatis.pagination.dialect.Dialect;
+import io.github.imsejin.mybatis.pagination.model.KeysetInfo;
+import io.github.imsejin.mybatis.pagination.model.KeysetPageable;
+import io.github.imsejin.mybatis.pagination.model.KeysetPaginator;
 import io.github.imsejin.mybatis.pagination.model.PageInfo;
+import io.github.imsejin.mybatis.pagination.model.PageInfoAware;
 import io.github.imsejin.mybatis.pagination.model.Pageable;
 import io.github.imsejin.mybatis.pagination.model.Paginator;
-import io.github.imsejin.mybatis.pagination.support.InterceptorSupport;
-import io.github.imsejin.mybatis.pagination.support.rebuilder.Rebuilder;
+import io.github.imsejin.mybatis.pagination.model.Slice;
+import io.github.imsejin.mybatis.pagination.model.SliceInfo;
+import io.github.imsejin.mybatis.pagination.model.SortKey;
+import io.github.imsejin.mybatis.pagination.support.CountedPageable;
+import io.github.imsejin.mybatis.pagination.support.LookAheadPageable;
+import io.github.imsejin.mybatis.pagination.support.cache.CountCache;
+import io.github.imsejin.mybatis.pagination.support.executor.CountQueryExecutor;
+import io.github.imsejin.mybatis.pagination.support.guardrail.GuardedPageable;
+import io.github.imsejin.mybatis.pagination.support.guardrail.Guardrail;
+import io.github.imsejin.mybatis.pagination.support.guardrail.GuardrailRegistry;
+import io.github.imsejin.mybatis.pagination.support.jfr.PaginationEventScope;
+import io.github.imsejin.mybatis.pagination.support.jfr.PaginationEvents;
+import io.github.imsejin.mybatis.pagination.support.keyset.CursorCodec;
+import io.github.imsejin.mybatis.pagination.support.keyset.Keyset;
+import io.github.imsejin.mybatis.pagination.support.metrics.PaginationObserver;
+import io.github.imsejin.mybatis.pagination.support.registry.DerivedStatementRegistry;
+import io.github.imsejin.mybatis.pagination.support.registry.MapperMethodMetadata;
+import io.github.imsejin.mybatis.pagination.support.registry.MapperMethodRegistry;
 import lombok.RequiredArgsConstructor;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.executor.Executor;
 import org.apache.ibatis.executor.parameter.ParameterHandler;
 import org.apache.ibatis.executor.resultset.ResultSetHandler;
 import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
-import org.apache.ibatis.mapping.ResultMap;
-import org.apache.ibatis.mapping.SqlSource;
 import org.apache.ibatis.plugin.*;
+import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
 
-import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
 
 /**
  * MyBatis interceptor for auto pagination
@@ -70,15 +110,39 @@ import java.util.Properties;
  * </ul>
  * <p>
  * This interceptor handle this {@link Executor#query(MappedStatement, Object, RowBounds, ResultHandler)}.
- * That method is invoked on SELECT query.
+ * That method is invoked on SELECT query. For mapper method returning {@link Cursor},
+ * this also handles {@link Executor#queryCursor(MappedStatement, Object, RowBounds)}.
+ * When cache for total items is enabled, this also handles {@link Executor#update(MappedStatement, Object)},
+ * {@link Executor#commit(boolean)} and {@link Executor#rollback(boolean)} to invalidate it.
  */
 @Intercepts({
         @Signature(type = Executor.class, method = "query", args = {
                 MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class
-        })
+        }),
+        @Signature(type = Executor.class, method = "queryCursor", args = {
+                MappedStatement.class, Object.class, RowBounds.class
+        }),
+        @Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class}),
+        @Signature(type = Executor.class, method = "commit", args = boolean.class),
+        @Signature(type = Executor.class, method = "rollback", args = boolean.class)
 })
 @RequiredArgsConstructor
-public class PaginationInterceptor implements Interceptor {
+public class PaginationInterceptor implements Interceptor, AutoCloseable {
+
+    private static final Log log = LogFactory.getLog(PaginationInterceptor.class);
+
+    public static final long DEFAULT_ESTIMATE_THRESHOLD = 1000;
+
+    /**
+     * Maximum fetch size for streaming items of the page,
+     * which keeps the rows buffered by JDBC driver bounded for large page.
+     */
+    public static final int MAX_STREAM_FETCH_SIZE = 1000;
+
+    /**
+     * Maximum number of stale total items waiting for refresh.
+     */
+    private static final int REFRESH_QUEUE_CAPACITY = 100;
 
     private static final int MAPPED_STATEMENT_INDEX = 0;
     private static final int PARAMETER_INDEX = 1;
@@ -87,20 +151,230 @@ public class PaginationInterceptor implements Interceptor {
 
     private final Dialect dialect;
 
+    /**
+     * Whether dialect is initialized with metadata of database.
+     */
+    private volatile boolean dialectInitialized;
+
+    private final MapperMethodRegistry registry = new MapperMethodRegistry();
+
+    private final DerivedStatementRegistry derivedStatements = new DerivedStatementRegistry();
+
     private Properties properties;
 
+    /**
+     * If this is null, query for total items is executed after query for pagination.
+     */
+    private CountQueryExecutor countQueryExecutor;
+
+    /**
+     * If this is null, total items are not cached.
+     */
+    private CountCache countCache;
+
+    /**
+     * Estimated total items below this are replaced with exact total items.
+     *
+     * @see CountMode#ESTIMATED
+     */
+    private long estimateThreshold = DEFAULT_ESTIMATE_THRESHOLD;
+
+    /**
+     * Executor that refreshes stale total items in background.
+     */
+    private CountQueryExecutor refreshExecutor;
+
+    /**
+     * Observer of each stage of pagination.
+     */
+    private PaginationObserver observer = PaginationObserver.NONE;
+
+    /**
+     * Limits of page size, offset and cost of query for total items by mapped statement.
+     */
+    private GuardrailRegistry guardrails = GuardrailRegistry.NONE;
+
+    /**
+     * Dependencies written by each executor(session), which are invalidated again on commit or rollback.
+     */
+    private final Map<Object, Set<String>> pendingInvalidations = new WeakHashMap<>();
+
+    public Dialect getDialect() {
+        return this.dialect;
+    }
+
+    /**
+     * Returns registry of mapper method metadata.
+     *
+     * @return registry of mapper method metadata
+     */
+    public MapperMethodRegistry getRegistry() {
+        return this.registry;
+    }
+
     @Override
     public Object plugin(Object target) {
         return Plugin.wrap(target, this);
     }
 
+    /**
+     * Returns executor for query for total items.
+     *
+     * @return count query executor or null
+     */
+    public CountQueryExecutor getCountQueryExecutor() {
+        return this.countQueryExecutor;
+    }
+
+    /**
+     * Sets executor for query for total items.
+     * If this is set, query for total items is executed concurrently with query for pagination.
+     *
+     * @param countQueryExecutor count query executor
+     */
+    public void setCountQueryExecutor(CountQueryExecutor countQueryExecutor) {
+        this.countQueryExecutor = countQueryExecutor;
+    }
+
+    public PaginationObserver getObserver() {
+        return this.observer;
+    }
+
+    /**
+     * Sets observer of each stage of pagination.
+     *
+     * @param observer pagination observer or null
+     */
+    public void setObserver(PaginationObserver observer) {
+        this.observer = observer == null ? PaginationObserver.NONE : observer;
+    }
+
+    public GuardrailRegistry getGuardrails() {
+        return this.guardrails;
+    }
+
+    /**
+     * Sets guardrails of requests for pagination.
+     *
+     * @param guardrails registry of guardrails or null
+     */
+    public void setGuardrails(GuardrailRegistry guardrails) {
+        this.guardrails = guardrails == null ? GuardrailRegistry.NONE : guardrails;
+    }
+
     @Override
     public void setProperties(Properties properties) {
         this.properties = properties;
+        setGuardrails(GuardrailRegistry.from(properties));
+
+        if (Boolean.parseBoolean(properties.getProperty("count.concurrent"))) {
+            CountExecutorType type = CountExecutorType.valueOf(
+                    properties.getProperty("count.executorType", CountExecutorType.POOL.name()));
+            int poolSize = Integer.parseInt(properties.getProperty("count.poolSize",
+                    String.valueOf(CountQueryExecutor.DEFAULT_POOL_SIZE)));
+            long timeoutMillis = Long.parseLong(properties.getProperty("count.timeoutMillis",
+                    String.valueOf(CountQueryExecutor.DEFAULT_TIMEOUT_MILLIS)));
+
+            setCountQueryExecutor(CountQueryExecutor.create(type, poolSize, timeoutMillis));
+        }
+
+        this.estimateThreshold = Long.parseLong(properties.getProperty("count.estimateThreshold",
+                String.valueOf(DEFAULT_ESTIMATE_THRESHOLD)));
+
+        if (Boolean.parseBoolean(properties.getProperty("count.cache.enabled"))) {
+            int maximumSize = Integer.parseInt(properties.getProperty("count.cache.maximumSize",
+                    String.valueOf(CountCache.DEFAULT_MAXIMUM_SIZE)));
+            long ttlMillis = Long.parseLong(properties.getProperty("count.cache.ttlMillis", "60000"));
+            long staleMillis = Long.parseLong(properties.getProperty("count.cache.staleMillis", "0"));
+
+            setCountCache(new CountCache(maximumSize, ttlMillis, staleMillis));
+        }
+
+        if (this.dialect instanceof AbstractDialect) {
+            AbstractDialect abstractDialect = (AbstractDialect) this.dialect;
+            abstractDialect.setCountSqlOptimizer(createCountSqlOptimizer(properties));
+            abstractDialect.setRewriteMode(RewriteMode.valueOf(
+                    properties.getProperty("rewrite.mode", RewriteMode.PARSER.name())));
+            abstractDialect.setFallbackEnabled(
+                    Boolean.parseBoolean(properties.getProperty("rewrite.fallback", "true")));
+        }
+    }
+
+    /**
+     * Creates optimizer of query for total items with unique keys of tables.
+     *
+     * <p> Unique keys are given as {@code count.optimization.uniqueKeys.<table>}. Columns of a composite key
+     * are separated by comma, and unique keys of the same table are separated by semicolon,
+     * such as {@code "ID;CATEGORY_ID,CODE"}.
+     *
+     * @param properties properties
+     * @return count SQL optimizer, or null if optimization is disabled
+     */
+    private static CountSqlOptimizer createCountSqlOptimizer(Properties properties) {
+        if (!Boolean.parseBoolean(properties.getProperty("count.optimization.enabled", "true"))) return null;
+
+        String prefix = "count.optimization.uniqueKeys.";
+        CountSqlOptimizer optimizer = new CountSqlOptimizer();
+        for (String name : properties.stringPropertyNames()) {
+            if (!name.startsWith(prefix)) continue;
+
+            String table = name.substring(prefix.length());
+            for (String uniqueKey : properties.getProperty(name).split(";")) {
+                if (uniqueKey.trim().isEmpty()) continue;
+                optimizer.addUniqueKey(table, uniqueKey.split(","));
+            }
+        }
+
+        return optimizer;
+    }
+
+    /**
+     * Returns cache for total items.
+     *
+     * @return count cache or null
+     */
+    public CountCache getCountCache() {
+        return this.countCache;
+    }
+
+    /**
+     * Sets cache for total items.
+     * Stale total items are refreshed in background by a dedicated thread, never on the thread of request.
+     * When too many refreshes are waiting, a refresh is discarded and a later request tries it again.
+     *
+     * @param countCache count cache
+     */
+    public void setCountCache(CountCache countCache) {
+        this.countCache = countCache;
+
+        if (countCache != null && this.refreshExecutor == null) {
+            this.refreshExecutor = CountQueryExecutor.createBackground(REFRESH_QUEUE_CAPACITY);
+        }
+    }
+
+    /**
+     * Shuts down executors for query for total items.
+     */
+    @Override
+    public void close() {
+        if (this.countQueryExecutor != null) this.countQueryExecutor.close();
+        if (this.refreshExecutor != null) this.refreshExecutor.close();
     }
 
     @Override
     public Object intercept(Invocation invocation) throws Throwable {
+        switch (invocation.getMethod().getName()) {
+            case "queryCursor":
+                return cursor(invocation);
+            case "update":
+                return update(invocation);
+            case "commit":
+            case "rollback":
+                return complete(invocation);
+            default:
+                break;
+        }
+
         Executor executor = (Executor) invocation.getTarget();
         MappedStatement ms = (MappedStatement) invocation.getArgs()[MAPPED_STATEMENT_INDEX];
         Object param = invocation.getArgs()[PARAMETER_INDEX];
@@ -108,48 +382,728 @@ public class PaginationInterceptor implements Interceptor {
         ResultHandler<?> resultHandler = (ResultHandler<?>) invocation.getArgs()[RESULT_HANDLER_INDEX];
 
         // Checks if the mapper method will be paginated.
-        Method mapperMethod = InterceptorSupport.findMethod(ms);
-        if (mapperMethod == null) return invocation.proceed();
+        MapperMethodMetadata metadata = this.registry.get(ms);
+        if (!metadata.isPaginated()) return invocation.proceed();
 
+        initializeDialect(executor);
         BoundSql boundSql = ms.getBoundSql(param);
         Configuration config = ms.getConfiguration();
 
+        Pageable pageable = guard(metadata, metadata.getPageable(param));
+        if (metadata.getPaginationType() == PaginationType.RESULT_HANDLER) {
+            BoundSql streamBoundSql = createStreamBoundSql(executor, ms, metadata, boundSql, pageable);
+            return queryItems(metadata, executor, getStreamStatement(ms, metadata, pageable), streamBoundSql,
+                    pageable, rowBounds, resultHandler);
+        }
+        if (metadata.getPaginationType() == PaginationType.SLICE) {
+            return slice(executor, ms, metadata, boundSql, pageable, rowBounds, resultHandler);
+        }
+        if (metadata.getPaginationType() == PaginationType.KEYSET) {
+            return keyset(executor, ms, metadata, boundSql, pageable, rowBounds, resultHandler);
+        }
+
+        // Paginates deep offset without query for total items, if it cannot be paginated with deferred join.
+        if (GuardedPageable.isDowngraded(pageable) && metadata.getDeferredJoinKey() == null) {
+            return lookAhead(executor, ms, metadata, boundSql, pageable, rowBounds, resultHandler);
+        }
+
         // Creates pagination query.
-        Pageable pageable = InterceptorSupport.getPageableFromParam(param);
-        BoundSql itemsBoundSql = this.dialect.createOffsetLimitBoundSql(boundSql, config, pageable);
+        BoundSql itemsBoundSql = createItemsBoundSql(metadata, boundSql, config, pageable);
 
-        // Executes pagination query.
-        MappedStatement itemsMs = wrap(ms, itemsBoundSql, ms.getResultMaps(), "items");
-        List<?> items = executor.query(itemsMs, itemsBoundSql.getParameterObject(), rowBounds, resultHandler);
+        MappedStatement itemsMs = this.derivedStatements.getItemsStatement(ms, metadata);
+
+        // Skips total count query when the caller already knows total items.
+        if (pageable instanceof CountedPageable) {
+            CountedPageable counted = (CountedPageable) pageable;
+            List<?> items = queryItems(metadata, executor, itemsMs, itemsBoundSql, pageable, rowBounds, resultHandler);
+            return new Paginator<>(items, new PageInfo(counted.getTotalItems(), pageable, counted.isEstimated()));
+        }
 
         // Creates total count query.
-        BoundSql countBoundSql = this.dialect.createCountBoundSql(boundSql, config);
+        BoundSql countBoundSql = createCountBoundSql(metadata, boundSql, config);
+        MappedStatement countMs = this.derivedStatements.getCountStatement(ms, metadata);
+
+        // Reads estimate of optimizer instead of executing total count query.
+        Long estimate = null;
+        if (metadata.getCountMode(pageable) == CountMode.ESTIMATED) {
+            estimate = estimateCount(executor, countMs, countBoundSql);
 
-        // Executes total count query.
-        ResultMap countResultMap = new ResultMap.Builder(config, "", Long.class, Collections.emptyList()).build();
-        List<ResultMap> countResultMaps = Collections.singletonList(countResultMap);
-        MappedStatement countMs = wrap(ms, countBoundSql, countResultMaps, "count");
-        long totalItems = (Long) executor.query(countMs, countBoundSql.getParameterObject(), rowBounds, resultHandler)
-                .get(0);
+            if (estimate != null && estimate >= this.estimateThreshold) {
+                List<?> items = queryItems(metadata, executor, itemsMs, itemsBoundSql,
+                        pageable, rowBounds, resultHandler);
+                int totalItems = (int) Math.min(estimate, Integer.MAX_VALUE);
+                return new Paginator<>(items, new PageInfo(totalItems, pageable, true));
+            }
+        }
+
+        // Finds total items in cache.
+        CacheKey countKey = null;
+        String[] dependencies = null;
+        Long cachedTotalItems = null;
+        if (this.countCache != null) {
+            countKey = executor.createCacheKey(countMs, countBoundSql.getParameterObject(), RowBounds.DEFAULT,
+                    countBoundSql);
+            dependencies = this.countCache.getDependencies(ms.getId(), countBoundSql.getSql());
+
+            CacheKey key = countKey;
+            String[] deps = dependencies;
+            cachedTotalItems = this.countCache.get(countKey, () -> refreshCount(countMs, countBoundSql, key, deps));
+            this.observer.onCountCacheLookup(ms.getId(), cachedTotalItems != null);
+        }
+
+        List<?> items;
+        long totalItems;
+        if (cachedTotalItems != null) {
+            // Executes only pagination query.
+            items = queryItems(metadata, executor, itemsMs, itemsBoundSql, pageable, rowBounds, resultHandler);
+            totalItems = cachedTotalItems;
+
+        } else {
+            // Estimates cost of total count query before executing it.
+            Guardrail guardrail = this.guardrails.get(ms.getId());
+            if (guardrail.limitsCountCost()) {
+                if (metadata.getCountMode(pageable) != CountMode.ESTIMATED) {
+                    estimate = estimateCount(executor, countMs, countBoundSql);
+                }
+
+                if (estimate != null && exceedsCountCost(ms.getId(), guardrail, estimate)) {
+                    if (guardrail.getPolicy() == GuardrailPolicy.DOWNGRADE) {
+                        return lookAhead(executor, ms, metadata, boundSql, pageable, rowBounds, resultHandler);
+                    }
+
+                    items = queryItems(metadata, executor, itemsMs, itemsBoundSql, pageable, rowBounds,
+                            resultHandler);
+                    return new Paginator<>(items, new PageInfo((int) Math.min(estimate, Integer.MAX_VALUE),
+                            pageable, true));
+                }
+            }
+
+            long[] snapshot = this.countCache == null ? null : this.countCache.snapshot(dependencies);
+
+            if (this.countQueryExecutor == null) {
+                // Executes pagination query and then total count query.
+                items = queryItems(metadata, executor, itemsMs, itemsBoundSql, pageable, rowBounds, resultHandler);
+                totalItems = queryCount(metadata, executor, countMs, countBoundSql);
+
+            } else {
+                // Executes total count query on another connection while executing pagination query.
+                PaginationEventScope event = PaginationEvents.begin(PaginationStage.COUNT_QUERY);
+                long startTime = System.nanoTime();
+                Future<Long> future = this.countQueryExecutor.submit(countMs, countBoundSql);
+                try {
+                    items = queryItems(metadata, executor, itemsMs, itemsBoundSql, pageable, rowBounds, resultHandler);
+                } catch (Throwable t) {
+                    future.cancel(true);
+                    throw t;
+                }
+                totalItems = this.countQueryExecutor.await(future);
+                this.observer.onCountQuery(ms.getId(), System.nanoTime() - startTime);
+                event.commit(ms.getId(), countBoundSql.getSql(), null);
+            }
+
+            if (this.countCache != null) this.countCache.put(countKey, dependencies, snapshot, totalItems);
+        }
 
         return new Paginator<>(items, new PageInfo((int) totalItems, pageable));
     }
 
     /**
-     * Returns new {@link MappedStatement} instance.
+     * Streams items of the page through cursor.
+     *
+     * @param invocation invocation of {@link Executor#queryCursor(MappedStatement, Object, RowBounds)}
+     * @return cursor
+     * @throws Throwable if failed to execute query
+     */
+    private Object cursor(Invocation invocation) throws Throwable {
+        Executor executor = (Executor) invocation.getTarget();
+        MappedStatement ms = (MappedStatement) invocation.getArgs()[MAPPED_STATEMENT_INDEX];
+        Object param = invocation.getArgs()[PARAMETER_INDEX];
+        RowBounds rowBounds = (RowBounds) invocation.getArgs()[ROW_BOUNDS_INDEX];
+
+        MapperMethodMetadata metadata = this.registry.get(ms);
+        if (metadata.getPaginationType() != PaginationType.CURSOR) return invocation.proceed();
+
+        initializeDialect(executor);
+        BoundSql boundSql = ms.getBoundSql(param);
+        Pageable pageable = guard(metadata, metadata.getPageable(param));
+
+        BoundSql streamBoundSql = createStreamBoundSql(executor, ms, metadata, boundSql, pageable);
+        MappedStatement streamMs = getStreamStatement(ms, metadata, pageable);
+        PaginationEventScope event = PaginationEvents.begin(PaginationStage.ITEMS_QUERY);
+        long startTime = System.nanoTime();
+        try {
+            return this.derivedStatements.queryCursor(executor, streamMs, streamBoundSql, rowBounds);
+        } finally {
+            this.observer.onItemsQuery(ms.getId(), pageable, System.nanoTime() - startTime);
+            event.commit(ms.getId(), streamBoundSql.getSql(), pageable);
+        }
+    }
+
+    /**
+     * Creates bound SQL that streams items of the page.
+     *
+     * <p> Query for total items is executed before that only if pageable is {@link PageInfoAware},
+     * because mapper method that streams items cannot return page information.
+     *
+     * @param executor executor
+     * @param ms       original mapped statement
+     * @param metadata metadata of mapper method
+     * @param boundSql original bound SQL
+     * @param pageable pageable
+     * @return bound SQL for streaming
+     * @throws SQLException if failed to execute query for total items
+     */
+    private BoundSql createStreamBoundSql(Executor executor, MappedStatement ms, MapperMethodMetadata metadata,
+                                          BoundSql boundSql, Pageable pageable) throws SQLException {
+        Pageable origin = GuardedPageable.unwrap(pageable);
+        if (origin instanceof PageInfoAware) {
+            ((PageInfoAware) origin).setPageInfo(createPageInfo(executor, ms, metadata, boundSql, pageable));
+        }
+
+        return createItemsBoundSql(metadata, boundSql, ms.getConfiguration(), pageable);
+    }
+
+    /**
+     * Returns mapped statement that streams items of the page with fetch size tuned to the page.
+     *
+     * @param ms       original mapped statement
+     * @param metadata metadata of mapper method
+     * @param pageable pageable
+     * @return mapped statement for streaming
+     */
+    private MappedStatement getStreamStatement(MappedStatement ms, MapperMethodMetadata metadata, Pageable pageable) {
+        // Fetch size declared on the statement takes precedence.
+        int fetchSize = ms.getFetchSize() != null ? ms.getFetchSize()
+                : Math.min(pageable.getLimit(), MAX_STREAM_FETCH_SIZE);
+
+        return this.derivedStatements.getStreamStatement(ms, metadata, fetchSize);
+    }
+
+    /**
+     * Creates page information with total items, without query for pagination.
+     *
+     * @param executor executor
+     * @param ms       original mapped statement
+     * @param metadata metadata of mapper method
+     * @param boundSql original bound SQL
+     * @param pageable pageable
+     * @return page information
+     * @throws SQLException if failed to execute query for total items
+     */
+    private PageInfo createPageInfo(Executor executor, MappedStatement ms, MapperMethodMetadata metadata,
+                                    BoundSql boundSql, Pageable pageable) throws SQLException {
+        if (pageable instanceof CountedPageable) {
+            CountedPageable counted = (CountedPageable) pageable;
+            return new PageInfo(counted.getTotalItems(), pageable, counted.isEstimated());
+        }
+
+        BoundSql countBoundSql = createCountBoundSql(metadata, boundSql, ms.getConfiguration());
+        MappedStatement countMs = this.derivedStatements.getCountStatement(ms, metadata);
+
+        Long estimate = null;
+        if (metadata.getCountMode(pageable) == CountMode.ESTIMATED) {
+            estimate = estimateCount(executor, countMs, countBoundSql);
+            if (estimate != null && estimate >= this.estimateThreshold) {
+                return new PageInfo((int) Math.min(estimate, Integer.MAX_VALUE), pageable, true);
+            }
+        }
+
+        CacheKey countKey = null;
+        String[] dependencies = null;
+        if (this.countCache != null) {
+            CacheKey key = executor.createCacheKey(countMs, countBoundSql.getParameterObject(), RowBounds.DEFAULT,
+                    countBoundSql);
+            String[] deps = this.countCache.getDependencies(ms.getId(), countBoundSql.getSql());
+            Long cachedTotalItems = this.countCache.get(key, () -> refreshCount(countMs, countBoundSql, key, deps));
+            this.observer.onCountCacheLookup(ms.getId(), cachedTotalItems != null);
+            if (cachedTotalItems != null) return new PageInfo(cachedTotalItems.intValue(), pageable);
+
+            countKey = key;
+            dependencies = deps;
+        }
+
+        // Streamed items cannot tell whether the next page exists, so estimate replaces expensive count.
+        Guardrail guardrail = this.guardrails.get(ms.getId());
+        if (guardrail.limitsCountCost()) {
+            if (metadata.getCountMode(pageable) != CountMode.ESTIMATED) {
+                estimate = estimateCount(executor, countMs, countBoundSql);
+            }
+            if (estimate != null && exceedsCountCost(ms.getId(), guardrail, estimate)) {
+                return new PageInfo((int) Math.min(estimate, Integer.MAX_VALUE), pageable, true);
+            }
+        }
+
+        if (this.countCache == null) {
+            long totalItems = queryCount(metadata, executor, countMs, countBoundSql);
+            return new PageInfo((int) totalItems, pageable);
+        }
+
+        long[] snapshot = this.countCache.snapshot(dependencies);
+        long totalItems = queryCount(metadata, executor, countMs, countBoundSql);
+        this.countCache.put(countKey, dependencies, snapshot, totalItems);
+
+        return new PageInfo((int) totalItems, pageable);
+    }
+
+    /**
+     * Initializes dialect with metadata of database on the connection of the current session,
+     * only once before the first query is paginated.
+     *
+     * @param executor executor
+     */
+    private void initializeDialect(Executor executor) {
+        if (this.dialectInitialized) return;
+
+        synchronized (this.dialect) {
+            if (this.dialectInitialized) return;
+
+            try {
+                this.dialect.initialize(executor.getTransaction().getConnection().getMetaData());
+            } catch (SQLException e) {
+                log.warn("Failed to initialize dialect with metadata of database: " + e);
+            }
+
+            this.dialectInitialized = true;
+        }
+    }
+
+    /**
+     * Estimates total items with dialect on the connection of the current session.
+     *
+     * @param executor      executor
+     * @param countMs       mapped statement for total items
+     * @param countBoundSql bound SQL for total items
+     * @return estimated total items, or null if dialect cannot estimate it
+     */
+    private Long estimateCount(Executor executor, MappedStatement countMs, BoundSql countBoundSql) {
+        try {
+            Connection connection = executor.getTransaction().getConnection();
+            ParameterHandler parameterHandler = countMs.getConfiguration().newParameterHandler(
+                    countMs, countBoundSql.getParameterObject(), countBoundSql);
+
+            return this.dialect.estimateCount(connection, countBoundSql, parameterHandler);
+        } catch (SQLException | RuntimeException e) {
+            if (log.isDebugEnabled()) {
+                log.debug("Failed to estimate total items of " + countMs.getId()
+                        + "; falls back to exact count: " + e);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Reloads stale total items in background and puts it into cache.
+     *
+     * @param countMs       mapped statement for total items
+     * @param countBoundSql bound SQL for total items
+     * @param countKey      cache key of query for total items
+     * @param dependencies  dependencies of query for total items
+     */
+    private void refreshCount(MappedStatement countMs, BoundSql countBoundSql, CacheKey countKey,
+                              String[] dependencies) {
+        long[] snapshot = this.countCache.snapshot(dependencies);
+
+        this.refreshExecutor.execute(countMs, countBoundSql, (totalItems, failure) -> {
+            if (failure == null) {
+                this.countCache.put(countKey, dependencies, snapshot, totalItems);
+            } else {
+                log.warn("Failed to refresh total items of " + countMs.getId() + ": " + failure);
+                this.countCache.invalidate(countKey);
+            }
+        });
+    }
+
+    /**
+     * Invalidates cached total items that depend on namespace or tables of the statement that writes.
+     *
+     * <p> Changes are visible to other sessions after commit, so this invalidates them again on commit.
+     *
+     * @param invocation invocation of {@link Executor#update(MappedStatement, Object)}
+     * @return the number of affected rows
+     * @throws Throwable if failed to execute statement
+     */
+    private Object update(Invocation invocation) throws Throwable {
+        if (this.countCache == null) return invocation.proceed();
+
+        MappedStatement ms = (MappedStatement) invocation.getArgs()[MAPPED_STATEMENT_INDEX];
+        Object param = invocation.getArgs()[PARAMETER_INDEX];
+        String[] dependencies = this.countCache.getWriteDependencies(ms.getId(),
+                () -> ms.getBoundSql(param).getSql());
+
+        try {
+            return invocation.proceed();
+        } finally {
+            List<String> deps = Arrays.asList(dependencies);
+            this.countCache.invalidate(deps);
+
+            synchronized (this.pendingInvalidations) {
+                this.pendingInvalidations.computeIfAbsent(invocation.getTarget(), key -> new HashSet<>())
+                        .addAll(deps);
+            }
+        }
+    }
+
+    /**
+     * Invalidates cached total items again, which depend on statements written in the transaction.
+     *
+     * @param invocation invocation of {@link Executor#commit(boolean)} or {@link Executor#rollback(boolean)}
+     * @return null
+     * @throws Throwable if failed to complete transaction
+     */
+    private Object complete(Invocation invocation) throws Throwable {
+        if (this.countCache == null) return invocation.proceed();
+
+        try {
+            return invocation.proceed();
+        } finally {
+            Set<String> dependencies;
+            synchronized (this.pendingInvalidations) {
+                dependencies = this.pendingInvalidations.remove(invocation.getTarget());
+            }
+            if (dependencies != null) this.countCache.invalidate(dependencies);
+        }
+    }
+
+    /**
+     * Applies guardrail of the mapped statement to the pageable.
+     *
+     * <p> Pageable of {@link io.github.imsejin.mybatis.pagination.support.iterator.PageIterator}
+     * after its first page is not guarded, because it walks every page on the server side.
+     *
+     * @param metadata metadata of mapper method
+     * @param pageable pageable
+     * @return pageable within the guardrail
+     * @throws IllegalArgumentException if pageable exceeds the guardrail with {@link GuardrailPolicy#REJECT}
+     */
+    private Pageable guard(MapperMethodMetadata metadata, Pageable pageable) {
+        // Next pages of PageIterator continue the first page, whose size is already guarded.
+        if (pageable instanceof CountedPageable) return pageable;
+
+        String statementId = metadata.getStatementId();
+        Guardrail guardrail = this.guardrails.get(statementId);
+        if (guardrail == Guardrail.NONE) return pageable;
+
+        GuardrailPolicy policy = guardrail.getPolicy();
+        int limit = pageable.getLimit();
+        int offset = pageable.getOffset();
+        boolean downgraded = false;
+
+        if (guardrail.isSizeExceeded(limit)) {
+            this.observer.onGuardrailViolation(statementId, GuardrailViolation.SIZE, policy);
+            if (policy == GuardrailPolicy.REJECT) {
+                throw new IllegalArgumentException(String.format("Page size of '%s' must not exceed %d, but it is %d",
+                        statementId, guardrail.getMaxSize(), limit));
+            }
+
+            // Aligns offset with the clamped size, so that the page starts at a multiple of the size.
+            limit = guardrail.getMaxSize();
+            offset = offset / limit * limit;
+        }
+
+        if (guardrail.isOffsetExceeded(offset)) {
+            this.observer.onGuardrailViolation(statementId, GuardrailViolation.OFFSET, policy);
+            if (policy == GuardrailPolicy.REJECT) {
+                throw new IllegalArgumentException(String.format("Offset of '%s' must not exceed %d, but it is %d",
+                        statementId, guardrail.getMaxOffset(), offset));
+            }
+
+            if (policy == GuardrailPolicy.DOWNGRADE && (metadata.getDeferredJoinKey() != null
+                    || metadata.getPaginationType() == PaginationType.PAGINATOR)) {
+                downgraded = true;
+            }
+
+            // Without deferred join, deep offset still reads all the rows skipped, even if count is skipped.
+            if (!downgraded || metadata.getDeferredJoinKey() == null) {
+                // Moves to the last page that starts within the maximum offset.
+                offset = guardrail.getMaxOffset() / limit * limit;
+            }
+        }
+
+        if (!downgraded && limit == pageable.getLimit() && offset == pageable.getOffset()) return pageable;
+
+        return GuardedPageable.of(pageable, offset, limit, downgraded);
+    }
+
+    /**
+     * Checks if estimated cost of query for total items exceeds the guardrail.
+     *
+     * @param statementId id of mapped statement
+     * @param guardrail   guardrail of mapped statement
+     * @param estimate    row estimate of query for total items
+     * @return whether the cost exceeds the guardrail
+     * @throws IllegalArgumentException if it exceeds the guardrail with {@link GuardrailPolicy#REJECT}
+     */
+    private boolean exceedsCountCost(String statementId, Guardrail guardrail, long estimate) {
+        if (!guardrail.isCountCostExceeded(estimate)) return false;
+
+        this.observer.onGuardrailViolation(statementId, GuardrailViolation.COUNT_COST, guardrail.getPolicy());
+        if (guardrail.getPolicy() == GuardrailPolicy.REJECT) {
+            throw new IllegalArgumentException(String.format(
+                    "Query for total items of '%s' must not be estimated over %d rows, but it is %d",
+                    statementId, guardrail.getMaxCountCost(), estimate));
+        }
+
+        return true;
+    }
+
+    /**
+     * Creates bound SQL for pagination, with deferred join if mapper method declares it.
+     * When guardrail downgrades deep offset, deferred join is used regardless of its minimum offset.
+     *
+     * @param metadata metadata of mapper method
+     * @param boundSql original bound SQL
+     * @param config   configuration
+     * @param pageable pageable
+     * @return bound SQL for pagination
+     * @see io.github.imsejin.mybatis.pagination.annotation.Pagination#deferredJoinKey()
+     */
+    private BoundSql createItemsBoundSql(MapperMethodMetadata metadata, BoundSql boundSql, Configuration config,
+                                         Pageable pageable) {
+        boolean downgraded = GuardedPageable.isDowngraded(pageable) && metadata.getDeferredJoinKey() != null;
+        if (metadata.isDeferredJoin(pageable) || downgraded) {
+            return rewrite(metadata, boundSql, pageable, () -> this.dialect.createDeferredJoinBoundSql(boundSql,
+                    config, pageable, metadata.getDeferredJoinKey()));
+        }
+
+        return rewrite(metadata, boundSql, pageable,
+                () -> this.dialect.createOffsetLimitBoundSql(boundSql, config, pageable));
+    }
+
+    /**
+     * Creates bound SQL for total items.
+     *
+     * @param metadata metadata of mapper method
+     * @param boundSql original bound SQL
+     * @param config   configuration
+     * @return bound SQL for total items
+     */
+    private BoundSql createCountBoundSql(MapperMethodMetadata metadata, BoundSql boundSql, Configuration config) {
+        return rewrite(metadata, boundSql, null, () -> this.dialect.createCountBoundSql(boundSql, config));
+    }
+
+    /**
+     * Rewrites original query with dialect, notifying observer of its elapsed time and result.
+     *
+     * @param metadata metadata of mapper method
+     * @param boundSql original bound SQL
+     * @param pageable pageable or null if query is rewritten for total items
+     * @param rewriter rewriter of original bound SQL
+     * @return rewritten bound SQL
+     */
+    private BoundSql rewrite(MapperMethodMetadata metadata, BoundSql boundSql, Pageable pageable,
+                             Supplier<BoundSql> rewriter) {
+        PaginationEventScope event = PaginationEvents.begin(PaginationStage.REWRITE);
+        long startTime = System.nanoTime();
+        BoundSql rewritten = null;
+        try {
+            rewritten = rewriter.get();
+            return rewritten;
+        } catch (RuntimeException e) {
+            this.observer.onRewriteFailure(metadata.getStatementId(), boundSql.getSql(), e);
+            throw e;
+        } finally {
+            String statementId = metadata.getStatementId();
+            this.observer.onRewrite(statementId, System.nanoTime() - startTime, rewritten == null);
+            if (rewritten != null) this.observer.onRewritten(statementId, pageable == null, rewritten.getSql());
+            event.commit(statementId, rewritten == null ? null : rewritten.getSql(), pageable);
+        }
+    }
+
+    /**
+     * Executes query for pagination with one more row instead of query for total items.
+     *
+     * @param executor      executor
+     * @param ms            original mapped statement
+     * @param metadata      metadata of mapper method
+     * @param boundSql      original bound SQL
+     * @param pageable      pageable
+     * @param rowBounds     row bounds
+     * @param resultHandler result handler
+     * @return slice
+     * @throws SQLException if failed to execute query
+     */
+    private Slice<?> slice(Executor executor, MappedStatement ms, MapperMethodMetadata metadata, BoundSql boundSql,
+                           Pageable pageable, RowBounds rowBounds, ResultHandler<?> resultHandler)
+            throws SQLException {
+        BoundSql itemsBoundSql = createItemsBoundSql(metadata, boundSql, ms.getConfiguration(),
+                LookAheadPageable.from(pageable));
+        MappedStatement itemsMs = this.derivedStatements.getItemsStatement(ms, metadata);
+
+        List<?> items = queryItems(metadata, executor, itemsMs, itemsBoundSql, pageable, rowBounds, resultHandler);
+
+        // Drops the extra row, which only tells whether the next page exists.
+        boolean hasNext = items.size() > pageable.getLimit();
+        if (hasNext) items = items.subList(0, pageable.getLimit());
+
+        return new Slice<>(items, new SliceInfo(pageable, hasNext));
+    }
+
+    /**
+     * Executes query for pagination with one more row instead of query for total items,
+     * whose total items are estimated as far as the rows fetched.
+     *
+     * @param executor      executor
+     * @param ms            original mapped statement
+     * @param metadata      metadata of mapper method
+     * @param boundSql      original bound SQL
+     * @param pageable      pageable
+     * @param rowBounds     row bounds
+     * @param resultHandler result handler
+     * @return paginator with estimated total items
+     * @throws SQLException if failed to execute query
+     * @see GuardrailPolicy#DOWNGRADE
+     */
+    private Paginator<?> lookAhead(Executor executor, MappedStatement ms, MapperMethodMetadata metadata,
+                                   BoundSql boundSql, Pageable pageable, RowBounds rowBounds,
+                                   ResultHandler<?> resultHandler) throws SQLException {
+        BoundSql itemsBoundSql = createItemsBoundSql(metadata, boundSql, ms.getConfiguration(),
+                LookAheadPageable.from(pageable));
+        MappedStatement itemsMs = this.derivedStatements.getItemsStatement(ms, metadata);
+
+        List<?> items = queryItems(metadata, executor, itemsMs, itemsBoundSql, pageable, rowBounds, resultHandler);
+
+        // The extra row only tells that the next page exists, so it is counted but dropped.
+        int totalItems = pageable.getOffset() + items.size();
+        if (items.size() > pageable.getLimit()) items = items.subList(0, pageable.getLimit());
+
+        return new Paginator<>(items, new PageInfo(totalItems, pageable, true));
+    }
+
+    /**
+     * Executes query for keyset pagination with one more row instead of query for total items.
+     *
+     * <p> Previous page is fetched in the opposite order, so its items are reversed.
+     *
+     * @param executor      executor
+     * @param ms            original mapped statement
+     * @param metadata      metadata of mapper method
+     * @param boundSql      original bound SQL
+     * @param pageable      keyset pageable
+     * @param rowBounds     row bounds
+     * @param resultHandler result handler
+     * @return keyset paginator
+     * @throws SQLException if failed to execute query
+     */
+    private KeysetPaginator<?> keyset(Executor executor, MappedStatement ms, MapperMethodMetadata metadata,
+                                      BoundSql boundSql, Pageable pageable, RowBounds rowBounds,
+                                      ResultHandler<?> resultHandler) throws SQLException {
+        if (!(pageable instanceof KeysetPageable)) {
+            throw new IllegalArgumentException(String.format("Parameter of '%s' must be %s, but it is %s",
+                    ms.getId(), KeysetPageable.class.getSimpleName(), pageable.getClass().getName()));
+        }
+
+        KeysetPageable keysetPageable = (KeysetPageable) pageable;
+        List<SortKey> sortKeys = keysetPageable.getSortKeys();
+        Keyset keyset = CursorCodec.decode(keysetPageable.getCursor(), sortKeys);
+
+        Configuration config = ms.getConfiguration();
+        BoundSql itemsBoundSql = rewrite(metadata, boundSql, pageable, () -> this.dialect.createKeysetBoundSql(
+                boundSql, config, keyset, LookAheadPageable.from(pageable)));
+        MappedStatement itemsMs = this.derivedStatements.getItemsStatement(ms, metadata);
+
+        List<Object> items = new ArrayList<>(queryItems(metadata, executor, itemsMs, itemsBoundSql,
+                pageable, rowBounds, resultHandler));
+
+        // Drops the extra row, which only tells whether the page after this in order of seeking exists.
+        boolean hasMore = items.size() > pageable.getLimit();
+        if (hasMore) items = items.subList(0, pageable.getLimit());
+        if (keyset.isBackward()) Collections.reverse(items);
+
+        // Page before the cursor in order of seeking exists, because the row of cursor exists.
+        boolean hasNext = keyset.isBackward() || hasMore;
+        boolean hasPrevious = keyset.isBackward() ? hasMore : keyset.hasCursor();
+
+        String nextCursor = null;
+        String previousCursor = null;
+        if (!items.isEmpty()) {
+            Object last = items.get(items.size() - 1);
+            Object first = items.get(0);
+            if (hasNext) nextCursor = CursorCodec.encode(sortKeys, getValues(config, sortKeys, last), false);
+            if (hasPrevious) previousCursor = CursorCodec.encode(sortKeys, getValues(config, sortKeys, first), true);
+        }
+
+        return new KeysetPaginator<>(items, new KeysetInfo(pageable.getLimit(), nextCursor, previousCursor));
+    }
+
+    private static Object[] getValues(Configuration config, List<SortKey> sortKeys, Object item) {
+        MetaObject metaObject = config.newMetaObject(item);
+
+        Object[] values = new Object[sortKeys.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = metaObject.getValue(sortKeys.get(i).getProperty());
+        }
+
+        return values;
+    }
+
+    /**
+     * Executes query for pagination, notifying observer of its elapsed time.
+     *
+     * @param metadata      metadata of mapper method
+     * @param executor      executor
+     * @param ms            derived mapped statement
+     * @param boundSql      bound SQL
+     * @param pageable      pageable
+     * @param rowBounds     row bounds
+     * @param resultHandler result handler
+     * @return items
+     * @throws SQLException if failed to execute query
+     */
+    private <E> List<E> queryItems(MapperMethodMetadata metadata, Executor executor, MappedStatement ms,
+                                   BoundSql boundSql, Pageable pageable, RowBounds rowBounds,
+                                   ResultHandler<?> resultHandler) throws SQLException {
+        PaginationEventScope event = PaginationEvents.begin(PaginationStage.ITEMS_QUERY);
+        long startTime = System.nanoTime();
+        try {
+            return query(executor, ms, boundSql, rowBounds, resultHandler);
+        } finally {
+            this.observer.onItemsQuery(metadata.getStatementId(), pageable, System.nanoTime() - startTime);
+            event.commit(metadata.getStatementId(), boundSql.getSql(), pageable);
+        }
+    }
+
+    /**
+     * Executes query for total items, notifying observer of its elapsed time.
+     *
+     * @param metadata metadata of mapper method
+     * @param executor executor
+     * @param ms       derived mapped statement
+     * @param boundSql bound SQL
+     * @return total items
+     * @throws SQLException if failed to execute query
+     */
+    private long queryCount(MapperMethodMetadata metadata, Executor executor, MappedStatement ms, BoundSql boundSql)
+            throws SQLException {
+        PaginationEventScope event = PaginationEvents.begin(PaginationStage.COUNT_QUERY);
+        long startTime = System.nanoTime();
+        try {
+            return (Long) query(executor, ms, boundSql, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER).get(0);
+        } finally {
+            this.observer.onCountQuery(metadata.getStatementId(), System.nanoTime() - startTime);
+            event.commit(metadata.getStatementId(), boundSql.getSql(), null);
+        }
+    }
+
+    /**
+     * Executes query with the bound SQL.
+     *
+     * <p> Derived mapped statement is reused for all queries of its original statement,
+     * so this passes bound SQL to executor instead of getting it from the statement.
      *
-     * @param ms         mapped statement
-     * @param boundSql   bound SQL
-     * @param resultMaps result maps
-     * @param suffix     suffix for id
-     * @return new {@link MappedStatement} instance
+     * @param executor      executor
+     * @param ms            derived mapped statement
+     * @param boundSql      bound SQL
+     * @param rowBounds     row bounds
+     * @param resultHandler result handler
+     * @return query result
+     * @throws SQLException if failed to execute query
      */
-    private static MappedStatement wrap(MappedStatement ms, BoundSql boundSql, List<ResultMap> resultMaps,
-                                        String suffix) {
-        SqlSource sqlSource = Rebuilder.init(ms.getConfiguration()).boundSql(boundSql).rebuild();
+    private static <E> List<E> query(Executor executor, MappedStatement ms, BoundSql boundSql, RowBounds rowBounds,
+                                     ResultHandler<?> resultHandler) throws SQLException {
+        Object parameterObject = boundSql.getParameterObject();
+        CacheKey cacheKey = executor.createCacheKey(ms, parameterObject, rowBounds, boundSql);
 
-        return Rebuilder.init(ms, RebuildMode.WRAP).sqlSource(sqlSource)
-                .resultMaps(resultMaps).suffix(suffix).rebuild();
+        return executor.query(ms, parameterObject, rowBounds, resultHandler, cacheKey, boundSql);
     }
 
 }
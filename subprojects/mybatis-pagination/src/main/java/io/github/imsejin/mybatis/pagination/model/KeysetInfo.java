@@ -0,0 +1,92 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Im Sejin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.imsejin.mybatis.pagination.model;
+
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString
+@EqualsAndHashCode
+public class KeysetInfo {
+
+    /**
+     * Number of contents per page.
+     * Minimum value is 1.
+     */
+    private final int size;
+
+    /**
+     * Whether the next page exists.
+     */
+    @Getter(AccessLevel.NONE)
+    private final boolean hasNext;
+
+    /**
+     * Whether the previous page exists.
+     */
+    @Getter(AccessLevel.NONE)
+    private final boolean hasPrevious;
+
+    /**
+     * Cursor token of the next page. This is null, if the next page doesn't exist.
+     */
+    private final String nextCursor;
+
+    /**
+     * Cursor token of the previous page. This is null, if the previous page doesn't exist.
+     */
+    private final String previousCursor;
+
+    public KeysetInfo(int size, String nextCursor, String previousCursor) {
+        if (size < 1) throw new IllegalArgumentException("KeysetInfo.size must be positive: " + size);
+
+        this.size = size;
+        this.hasNext = nextCursor != null;
+        this.hasPrevious = previousCursor != null;
+        this.nextCursor = nextCursor;
+        this.previousCursor = previousCursor;
+    }
+
+    /**
+     * Returns whether the next page exists.
+     *
+     * @return whether the next page exists
+     */
+    public boolean hasNext() {
+        return this.hasNext;
+    }
+
+    /**
+     * Returns whether the previous page exists.
+     *
+     * @return whether the previous page exists
+     */
+    public boolean hasPrevious() {
+        return this.hasPrevious;
+    }
+
+}
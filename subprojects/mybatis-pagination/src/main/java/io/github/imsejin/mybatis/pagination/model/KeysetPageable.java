@@ -0,0 +1,55 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Im Sejin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.imsejin.mybatis.pagination.model;
+
+import java.util.List;
+
+/**
+ * Pageable for keyset pagination.
+ *
+ * <p> Keyset pagination seeks the position of page with predicate of sort keys
+ * instead of skipping rows with offset, so deep pages cost the same as the first page.
+ * Offset of this must be 0.
+ *
+ * @see KeysetPaginator
+ */
+public interface KeysetPageable extends Pageable {
+
+    /**
+     * Returns sort keys, which must identify a row uniquely.
+     *
+     * @return sort keys
+     */
+    List<SortKey> getSortKeys();
+
+    /**
+     * Returns cursor token of page to fetch, which is null for the first page.
+     *
+     * @return cursor token
+     * @see KeysetInfo#getNextCursor()
+     * @see KeysetInfo#getPreviousCursor()
+     */
+    String getCursor();
+
+}
@@ -0,0 +1,58 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Im Sejin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.imsejin.mybatis.pagination.model;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import io.github.imsejin.mybatis.pagination.serializer.KeysetPaginatorSerializer;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import lombok.experimental.Delegate;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Paginator for keyset paginated query result.
+ *
+ * @param <T> type
+ * @see KeysetPageable
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+@JsonSerialize(using = KeysetPaginatorSerializer.class)
+public class KeysetPaginator<T> implements List<T> {
+
+    @Delegate
+    private final List<T> items;
+
+    private final KeysetInfo keysetInfo;
+
+    public KeysetPaginator(List<T> items, KeysetInfo keysetInfo) {
+        this.items = items == null ? Collections.emptyList() : Collections.unmodifiableList(items);
+        this.keysetInfo = keysetInfo;
+    }
+
+}
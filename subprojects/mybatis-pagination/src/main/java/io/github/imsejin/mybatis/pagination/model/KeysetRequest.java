@@ -0,0 +1,86 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Im Sejin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.imsejin.mybatis.pagination.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Request for keyset pagination.
+ *
+ * <p> Sort keys are not resolved from request parameters,
+ * because their columns are written into query.
+ *
+ * <pre><code>
+ *     request.setSortKeys(SortKey.desc("BIRTHDATE", "birthdate").nullable(), SortKey.asc("ID", "id"));
+ * </code></pre>
+ */
+@ToString(callSuper = true)
+public class KeysetRequest extends PageRequest implements KeysetPageable {
+
+    @Getter
+    @Setter
+    @JsonProperty("cursor")
+    private String cursor;
+
+    @JsonIgnore
+    private List<SortKey> sortKeys = Collections.emptyList();
+
+    @Override
+    public int getOffset() {
+        return 0;
+    }
+
+    @Override
+    public int getStartRowNum() {
+        return 1;
+    }
+
+    @Override
+    public int getEndRowNum() {
+        return getSize();
+    }
+
+    @Override
+    public List<SortKey> getSortKeys() {
+        return this.sortKeys;
+    }
+
+    public void setSortKeys(List<SortKey> sortKeys) {
+        this.sortKeys = Collections.unmodifiableList(new ArrayList<>(sortKeys));
+    }
+
+    public void setSortKeys(SortKey... sortKeys) {
+        setSortKeys(Arrays.asList(sortKeys));
+    }
+
+}
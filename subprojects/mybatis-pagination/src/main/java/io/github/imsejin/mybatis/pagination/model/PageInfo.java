@@ -1,6 +1,7 @@
 package io.github.imsejin.mybatis.pagination.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.ToString;
@@ -36,6 +37,12 @@ public class PageInfo implements Pageable {
      */
     private final int totalPages;
 
+    /**
+     * Whether total items is estimated by optimizer.
+     */
+    @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+    private final boolean estimated;
+
     @JsonIgnore
     private final int offset;
 
@@ -49,6 +56,10 @@ public class PageInfo implements Pageable {
     private final int endRowNum;
 
     public PageInfo(int totalItems, int page, int size) {
+        this(totalItems, page, size, false);
+    }
+
+    public PageInfo(int totalItems, int page, int size, boolean estimated) {
         if (page < 1) throw new IllegalArgumentException("PageInfo.page must be positive: " + page);
         if (size < 1) throw new IllegalArgumentException("PageInfo.size must be positive: " + size);
         if (totalItems < 0) {
@@ -60,6 +71,7 @@ public class PageInfo implements Pageable {
 
         this.page = Math.min(this.totalPages, page);
         this.size = size;
+        this.estimated = estimated;
 
         this.offset = Math.max(0, page - 1) * size;
         this.limit = size;
@@ -69,7 +81,11 @@ public class PageInfo implements Pageable {
     }
 
     public PageInfo(int totalItems, Pageable pageable) {
-        this(totalItems, Math.max(0, pageable.getOffset() / pageable.getLimit()) + 1, pageable.getLimit());
+        this(totalItems, pageable, false);
+    }
+
+    public PageInfo(int totalItems, Pageable pageable, boolean estimated) {
+        this(totalItems, Math.max(0, pageable.getOffset() / pageable.getLimit()) + 1, pageable.getLimit(), estimated);
     }
 
 }
@@ -0,0 +1,46 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Im Sejin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.imsejin.mybatis.pagination.model;
+
+/**
+ * Pageable that receives page information from interceptor.
+ *
+ * <p> Mapper method that streams items of the page, returning {@link org.apache.ibatis.cursor.Cursor}
+ * or taking {@link org.apache.ibatis.session.ResultHandler}, cannot return page information with them.
+ * Query for total items is executed only if the parameter of that method is this type,
+ * and its result is delivered before the items are streamed.
+ *
+ * @see io.github.imsejin.mybatis.pagination.constant.PaginationType#CURSOR
+ * @see io.github.imsejin.mybatis.pagination.constant.PaginationType#RESULT_HANDLER
+ */
+public interface PageInfoAware extends Pageable {
+
+    /**
+     * Receives page information of the page being streamed.
+     *
+     * @param pageInfo page information
+     */
+    void setPageInfo(PageInfo pageInfo);
+
+}
@@ -1,6 +1,7 @@
 package io.github.imsejin.mybatis.pagination.model;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import io.github.imsejin.mybatis.pagination.constant.CountMode;
 import io.github.imsejin.mybatis.pagination.resolver.PageRequestResolver;
 import lombok.Getter;
 import lombok.Setter;
@@ -29,6 +30,11 @@ public class PageRequest implements Pageable {
     @JsonProperty(QUERY_PROPERTY_NAME)
     private Map<String, Object> query;
 
+    @Getter
+    @Setter
+    @JsonProperty("countMode")
+    private CountMode countMode;
+
     @Override
     public int getOffset() {
         return Math.max(0, this.page - 1) * this.size;
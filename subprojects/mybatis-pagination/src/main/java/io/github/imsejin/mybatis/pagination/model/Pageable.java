@@ -1,5 +1,7 @@
 package io.github.imsejin.mybatis.pagination.model;
 
+import io.github.imsejin.mybatis.pagination.constant.CountMode;
+
 public interface Pageable {
 
     /**
@@ -30,4 +32,14 @@ public interface Pageable {
      */
     int getEndRowNum();
 
+    /**
+     * Returns mode of getting total items, which overrides one of mapper method.
+     *
+     * @return count mode or null
+     * @see io.github.imsejin.mybatis.pagination.annotation.Pagination#countMode()
+     */
+    default CountMode getCountMode() {
+        return null;
+    }
+
 }
@@ -0,0 +1,61 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Im Sejin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.imsejin.mybatis.pagination.model;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import io.github.imsejin.mybatis.pagination.serializer.SliceSerializer;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import lombok.experimental.Delegate;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Slice for paginated query result without total items.
+ * <p>
+ * This doesn't execute query for total items, so it only knows
+ * whether the next page exists, not how many pages exist.
+ *
+ * @param <T> type
+ * @see Paginator
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+@JsonSerialize(using = SliceSerializer.class)
+public class Slice<T> implements List<T> {
+
+    @Delegate
+    private final List<T> items;
+
+    private final SliceInfo sliceInfo;
+
+    public Slice(List<T> items, SliceInfo sliceInfo) {
+        this.items = items == null ? Collections.emptyList() : Collections.unmodifiableList(items);
+        this.sliceInfo = sliceInfo;
+    }
+
+}
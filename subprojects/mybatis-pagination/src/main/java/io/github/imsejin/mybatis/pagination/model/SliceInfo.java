@@ -0,0 +1,94 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Im Sejin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.imsejin.mybatis.pagination.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString
+@EqualsAndHashCode(callSuper = false)
+public class SliceInfo implements Pageable {
+
+    /**
+     * Current page number.
+     * Minimum value is 1.
+     */
+    private final int page;
+
+    /**
+     * Number of contents per page.
+     * Minimum value is 1.
+     */
+    private final int size;
+
+    /**
+     * Whether the next page exists.
+     */
+    @Getter(AccessLevel.NONE)
+    private final boolean hasNext;
+
+    @JsonIgnore
+    private final int offset;
+
+    @JsonIgnore
+    private final int limit;
+
+    @JsonIgnore
+    private final int startRowNum;
+
+    @JsonIgnore
+    private final int endRowNum;
+
+    public SliceInfo(int page, int size, boolean hasNext) {
+        if (page < 1) throw new IllegalArgumentException("SliceInfo.page must be positive: " + page);
+        if (size < 1) throw new IllegalArgumentException("SliceInfo.size must be positive: " + size);
+
+        this.page = page;
+        this.size = size;
+        this.hasNext = hasNext;
+
+        this.offset = (page - 1) * size;
+        this.limit = size;
+        this.startRowNum = ((page - 1) * size) + 1;
+        this.endRowNum = page * size;
+    }
+
+    public SliceInfo(Pageable pageable, boolean hasNext) {
+        this(Math.max(0, pageable.getOffset() / pageable.getLimit()) + 1, pageable.getLimit(), hasNext);
+    }
+
+    /**
+     * Returns whether the next page exists.
+     *
+     * @return whether the next page exists
+     */
+    public boolean hasNext() {
+        return this.hasNext;
+    }
+
+}
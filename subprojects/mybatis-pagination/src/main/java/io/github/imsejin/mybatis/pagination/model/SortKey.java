@@ -0,0 +1,101 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Im Sejin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.imsejin.mybatis.pagination.model;
+
+import io.github.imsejin.mybatis.pagination.constant.SortDirection;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Sort key for keyset pagination.
+ *
+ * <p> Column is written into query as it is, so it must not come from user input.
+ * It must be an expression that can be used in "WHERE" statement, not an alias of select item.
+ * Property is a name of the property of result object, from which cursor reads the value.
+ *
+ * <pre><code>
+ *     SortKey.asc("CREATED_AT", "createdAt").nullable();
+ *     SortKey.asc("ID", "id");
+ * </code></pre>
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+public final class SortKey {
+
+    private final String column;
+
+    private final String property;
+
+    private final SortDirection direction;
+
+    private final boolean nullable;
+
+    private SortKey(String column, String property, SortDirection direction, boolean nullable) {
+        if (column == null || column.trim().isEmpty()) {
+            throw new IllegalArgumentException("SortKey.column must have text: " + column);
+        }
+        if (direction == null) throw new IllegalArgumentException("SortKey.direction is not allowed to be null");
+
+        this.column = column;
+        this.property = property == null ? column : property;
+        this.direction = direction;
+        this.nullable = nullable;
+    }
+
+    public static SortKey of(String column, String property, SortDirection direction) {
+        return new SortKey(column, property, direction, false);
+    }
+
+    public static SortKey asc(String column, String property) {
+        return of(column, property, SortDirection.ASC);
+    }
+
+    public static SortKey desc(String column, String property) {
+        return of(column, property, SortDirection.DESC);
+    }
+
+    /**
+     * Returns sort key whose column can have NULL.
+     * <p>
+     * Predicate and order of nullable key have additional conditions for NULL,
+     * so declare it only when the column is nullable.
+     *
+     * @return nullable sort key
+     */
+    public SortKey nullable() {
+        return new SortKey(this.column, this.property, this.direction, true);
+    }
+
+    /**
+     * Returns sort key with the opposite direction.
+     *
+     * @return reversed sort key
+     */
+    public SortKey reverse() {
+        return new SortKey(this.column, this.property, this.direction.reverse(), this.nullable);
+    }
+
+}
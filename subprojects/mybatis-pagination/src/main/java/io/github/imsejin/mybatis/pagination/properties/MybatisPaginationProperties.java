@@ -24,11 +24,21 @@
 
 package io.github.imsejin.mybatis.pagination.properties;
 
+import io.github.imsejin.mybatis.pagination.constant.CountExecutorType;
+import io.github.imsejin.mybatis.pagination.constant.GuardrailPolicy;
+import io.github.imsejin.mybatis.pagination.constant.RewriteMode;
 import io.github.imsejin.mybatis.pagination.dialect.Dialect;
+import io.github.imsejin.mybatis.pagination.interceptor.PaginationInterceptor;
+import io.github.imsejin.mybatis.pagination.support.cache.CountCache;
+import io.github.imsejin.mybatis.pagination.support.executor.CountQueryExecutor;
 import lombok.Getter;
+import lombok.Setter;
 import lombok.ToString;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Properties;
 
 /**
@@ -45,6 +55,14 @@ public class MybatisPaginationProperties {
 
     private final AutoConfigure autoConfigure = new AutoConfigure();
 
+    private final Count count = new Count();
+
+    private final Rewrite rewrite = new Rewrite();
+
+    private final Metrics metrics = new Metrics();
+
+    private final Guardrail guardrail = new Guardrail();
+
     private Class<? extends Dialect> dialectClass;
 
     public void setDialectClass(Class<? extends Dialect> dialectClass) {
@@ -63,4 +81,262 @@ public class MybatisPaginationProperties {
         }
     }
 
+    @Getter
+    @ToString
+    public class Count {
+        /**
+         * Whether to execute query for total items concurrently with query for pagination.
+         * Query for total items is executed on another connection,
+         * so it doesn't see uncommitted changes in the current transaction.
+         */
+        private boolean concurrent;
+
+        /**
+         * Type of threads that execute query for total items.
+         */
+        private CountExecutorType executorType = CountExecutorType.POOL;
+
+        /**
+         * Maximum number of threads in the pool.
+         */
+        private int poolSize = CountQueryExecutor.DEFAULT_POOL_SIZE;
+
+        /**
+         * Timeout for waiting for total items. Not positive value means no timeout.
+         * The caller holds a connection while waiting, so connection pool needs headroom
+         * for {@link #poolSize} more connections; without it, this bounds the wait for a connection.
+         */
+        private Duration timeout = Duration.ofMillis(CountQueryExecutor.DEFAULT_TIMEOUT_MILLIS);
+
+        /**
+         * Estimated total items below this are replaced with exact total items.
+         */
+        private long estimateThreshold = PaginationInterceptor.DEFAULT_ESTIMATE_THRESHOLD;
+
+        private final Cache cache = new Cache();
+
+        private final Optimization optimization = new Optimization();
+
+        public void setConcurrent(boolean concurrent) {
+            this.concurrent = concurrent;
+            properties.setProperty("count.concurrent", String.valueOf(concurrent));
+        }
+
+        public void setExecutorType(CountExecutorType executorType) {
+            this.executorType = executorType;
+            properties.setProperty("count.executorType", executorType.name());
+        }
+
+        public void setPoolSize(int poolSize) {
+            this.poolSize = poolSize;
+            properties.setProperty("count.poolSize", String.valueOf(poolSize));
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+            properties.setProperty("count.timeoutMillis", String.valueOf(timeout.toMillis()));
+        }
+
+        public void setEstimateThreshold(long estimateThreshold) {
+            this.estimateThreshold = estimateThreshold;
+            properties.setProperty("count.estimateThreshold", String.valueOf(estimateThreshold));
+        }
+
+        @Getter
+        @ToString
+        public class Cache {
+            /**
+             * Whether to cache total items by query and values of its parameters.
+             * Cached total items are invalidated when a statement in the same mapper namespace
+             * or on the same tables is executed.
+             */
+            private boolean enabled;
+
+            /**
+             * Maximum number of cached total items.
+             */
+            private int maximumSize = CountCache.DEFAULT_MAXIMUM_SIZE;
+
+            /**
+             * Duration for which cached total items are fresh.
+             */
+            private Duration ttl = Duration.ofMinutes(1);
+
+            /**
+             * Duration for which cached total items are served after TTL while being refreshed in background.
+             */
+            private Duration stale = Duration.ZERO;
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+                properties.setProperty("count.cache.enabled", String.valueOf(enabled));
+            }
+
+            public void setMaximumSize(int maximumSize) {
+                this.maximumSize = maximumSize;
+                properties.setProperty("count.cache.maximumSize", String.valueOf(maximumSize));
+            }
+
+            public void setTtl(Duration ttl) {
+                this.ttl = ttl;
+                properties.setProperty("count.cache.ttlMillis", String.valueOf(ttl.toMillis()));
+            }
+
+            public void setStale(Duration stale) {
+                this.stale = stale;
+                properties.setProperty("count.cache.staleMillis", String.valueOf(stale.toMillis()));
+            }
+        }
+
+        @Getter
+        @ToString
+        public class Optimization {
+            /**
+             * Whether to remove joins, nested "ORDER BY" statements and scalar subqueries
+             * that don't change the number of rows from query for total items.
+             */
+            private boolean enabled = true;
+
+            /**
+             * Unique keys by table, which are used to prove that "LEFT JOIN" matches at most one row.
+             * Columns of a composite key are separated by comma, and unique keys of the same table
+             * are separated by semicolon, such as {@code "ID;CATEGORY_ID,CODE"}.
+             */
+            private Map<String, String> uniqueKeys = new LinkedHashMap<>();
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+                properties.setProperty("count.optimization.enabled", String.valueOf(enabled));
+            }
+
+            public void setUniqueKeys(Map<String, String> uniqueKeys) {
+                this.uniqueKeys = uniqueKeys;
+                uniqueKeys.forEach((table, columns) ->
+                        properties.setProperty("count.optimization.uniqueKeys." + table, columns));
+            }
+        }
+    }
+
+    @Getter
+    @ToString
+    public class Rewrite {
+        /**
+         * Mode of rewriting original query as queries for pagination and total items.
+         */
+        private RewriteMode mode = RewriteMode.PARSER;
+
+        /**
+         * Whether to wrap original query as a subquery without parsing it, if the query cannot be parsed.
+         */
+        private boolean fallback = true;
+
+        public void setMode(RewriteMode mode) {
+            this.mode = mode;
+            properties.setProperty("rewrite.mode", mode.name());
+        }
+
+        public void setFallback(boolean fallback) {
+            this.fallback = fallback;
+            properties.setProperty("rewrite.fallback", String.valueOf(fallback));
+        }
+    }
+
+    @Getter
+    @ToString
+    public class Metrics {
+        /**
+         * Whether to record metrics of each stage of pagination, when {@code MeterRegistry} bean exists.
+         */
+        private boolean enabled = true;
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+            properties.setProperty("metrics.enabled", String.valueOf(enabled));
+        }
+    }
+
+    @Getter
+    @ToString
+    public class Guardrail {
+        /**
+         * Maximum number of items per page. 0 means no limit.
+         */
+        private int maxSize;
+
+        /**
+         * Maximum number of rows skipped before the page. 0 means no limit.
+         */
+        private int maxOffset;
+
+        /**
+         * Maximum row estimate of query for total items, which is read from optimizer before executing it.
+         * 0 means no limit. This is ignored when dialect cannot estimate it.
+         */
+        private long maxCountCost;
+
+        /**
+         * Policy applied when a request exceeds any of the maximums.
+         */
+        private GuardrailPolicy policy = GuardrailPolicy.CLAMP;
+
+        /**
+         * Guardrails by namespace of mapper or id of mapped statement, which override the above ones.
+         * Keys with dots need to be bracketed, such as {@code "[com.example.mapper.BookMapper]"}.
+         */
+        private Map<String, MapperGuardrail> mappers = new LinkedHashMap<>();
+
+        public void setMaxSize(int maxSize) {
+            this.maxSize = maxSize;
+            properties.setProperty("guardrail.maxSize", String.valueOf(maxSize));
+        }
+
+        public void setMaxOffset(int maxOffset) {
+            this.maxOffset = maxOffset;
+            properties.setProperty("guardrail.maxOffset", String.valueOf(maxOffset));
+        }
+
+        public void setMaxCountCost(long maxCountCost) {
+            this.maxCountCost = maxCountCost;
+            properties.setProperty("guardrail.maxCountCost", String.valueOf(maxCountCost));
+        }
+
+        public void setPolicy(GuardrailPolicy policy) {
+            this.policy = policy;
+            properties.setProperty("guardrail.policy", policy.name());
+        }
+
+        public void setMappers(Map<String, MapperGuardrail> mappers) {
+            this.mappers = mappers;
+            mappers.forEach((key, mapper) -> {
+                String prefix = "guardrail.mappers." + key + ".";
+                if (mapper.maxSize != null) properties.setProperty(prefix + "maxSize", mapper.maxSize.toString());
+                if (mapper.maxOffset != null) {
+                    properties.setProperty(prefix + "maxOffset", mapper.maxOffset.toString());
+                }
+                if (mapper.maxCountCost != null) {
+                    properties.setProperty(prefix + "maxCountCost", mapper.maxCountCost.toString());
+                }
+                if (mapper.policy != null) properties.setProperty(prefix + "policy", mapper.policy.name());
+            });
+        }
+    }
+
+    /**
+     * Guardrail of a mapper, whose unset properties are inherited from the global one.
+     * <p>
+     * This is bound as a value of map, so it is not an inner class.
+     */
+    @Getter
+    @Setter
+    @ToString
+    public static class MapperGuardrail {
+        private Integer maxSize;
+
+        private Integer maxOffset;
+
+        private Long maxCountCost;
+
+        private GuardrailPolicy policy;
+    }
+
 }
@@ -50,8 +50,9 @@ public class PageRequestResolver implements HandlerMethodArgumentResolver {
         String query = paramMap.get(PageRequest.QUERY_PROPERTY_NAME);
         paramMap.remove(PageRequest.QUERY_PROPERTY_NAME);
 
-        // Converts "Map" instance to "PageRequest" instance.
-        PageRequest pageRequest = objectMapper.convertValue(paramMap, RESOLUTION_CLASS);
+        // Converts "Map" instance to "PageRequest" instance or instance of its subclass.
+        Class<? extends PageRequest> type = parameter.getParameterType().asSubclass(RESOLUTION_CLASS);
+        PageRequest pageRequest = objectMapper.convertValue(paramMap, type);
 
         // Converts JSON format object to "Map" instance.
         if (StringUtils.hasText(query)) {
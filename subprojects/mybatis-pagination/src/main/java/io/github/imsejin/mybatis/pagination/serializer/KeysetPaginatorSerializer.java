@@ -0,0 +1,67 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Im Sejin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.imsejin.mybatis.pagination.serializer;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import io.github.imsejin.mybatis.pagination.model.KeysetInfo;
+import io.github.imsejin.mybatis.pagination.model.KeysetPaginator;
+
+import java.io.IOException;
+
+/**
+ * Serializer for {@link KeysetPaginator}, which has the same structure as {@link PaginatorSerializer}.
+ */
+public class KeysetPaginatorSerializer extends StdSerializer<KeysetPaginator<?>> {
+
+    /**
+     * Prevent {@link org.springframework.web.HttpMediaTypeNotAcceptableException} from occurring.
+     */
+    public KeysetPaginatorSerializer() {
+        this(null);
+    }
+
+    public KeysetPaginatorSerializer(Class<KeysetPaginator<?>> type) {
+        super(type);
+    }
+
+    @Override
+    public void serialize(KeysetPaginator<?> paginator, JsonGenerator gen, SerializerProvider provider)
+            throws IOException {
+        KeysetInfo keysetInfo = paginator.getKeysetInfo();
+
+        gen.writeStartObject();
+        gen.writeObjectFieldStart("keysetInfo");
+        gen.writeNumberField("size", keysetInfo.getSize());
+        gen.writeBooleanField("hasNext", keysetInfo.hasNext());
+        gen.writeBooleanField("hasPrevious", keysetInfo.hasPrevious());
+        gen.writeStringField("nextCursor", keysetInfo.getNextCursor());
+        gen.writeStringField("previousCursor", keysetInfo.getPreviousCursor());
+        gen.writeEndObject();
+        gen.writeObjectField("items", paginator.getItems());
+        gen.writeEndObject();
+    }
+
+}
@@ -0,0 +1,65 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Im Sejin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.imsejin.mybatis.pagination.serializer;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import io.github.imsejin.mybatis.pagination.model.Slice;
+import io.github.imsejin.mybatis.pagination.model.SliceInfo;
+
+import java.io.IOException;
+
+/**
+ * Serializer for {@link Slice}, which has the same structure as {@link PaginatorSerializer}.
+ */
+public class SliceSerializer extends StdSerializer<Slice<?>> {
+
+    /**
+     * Prevent {@link org.springframework.web.HttpMediaTypeNotAcceptableException} from occurring.
+     */
+    public SliceSerializer() {
+        this(null);
+    }
+
+    public SliceSerializer(Class<Slice<?>> type) {
+        super(type);
+    }
+
+    @Override
+    public void serialize(Slice<?> slice, JsonGenerator gen, SerializerProvider provider)
+            throws IOException {
+        SliceInfo sliceInfo = slice.getSliceInfo();
+
+        gen.writeStartObject();
+        gen.writeObjectFieldStart("sliceInfo");
+        gen.writeNumberField("page", sliceInfo.getPage());
+        gen.writeNumberField("size", sliceInfo.getSize());
+        gen.writeBooleanField("hasNext", sliceInfo.hasNext());
+        gen.writeEndObject();
+        gen.writeObjectField("items", slice.getItems());
+        gen.writeEndObject();
+    }
+
+}
@@ -0,0 +1,102 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Im Sejin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.imsejin.mybatis.pagination.support;
+
+import io.github.imsejin.mybatis.pagination.model.Pageable;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Pageable whose total items are already known by the caller.
+ * <p>
+ * If the query with this is paginated, query for total items is skipped
+ * and the known total items are used instead.
+ *
+ * @see io.github.imsejin.mybatis.pagination.support.iterator.PageIterator
+ */
+@Getter
+@ToString
+public final class CountedPageable implements Pageable {
+
+    /**
+     * Current page number.
+     * Minimum value is 1.
+     */
+    private final int page;
+
+    /**
+     * Number of contents per page.
+     * Minimum value is 1.
+     */
+    private final int size;
+
+    /**
+     * Known total items.
+     * Minimum value is 0.
+     */
+    private final int totalItems;
+
+    /**
+     * Whether the known total items is estimated by optimizer.
+     */
+    private final boolean estimated;
+
+    private CountedPageable(int page, int size, int totalItems, boolean estimated) {
+        if (page < 1) throw new IllegalArgumentException("CountedPageable.page must be positive: " + page);
+        if (size < 1) throw new IllegalArgumentException("CountedPageable.size must be positive: " + size);
+        if (totalItems < 0) {
+            throw new IllegalArgumentException("CountedPageable.totalItems should not be negative: " + totalItems);
+        }
+
+        this.page = page;
+        this.size = size;
+        this.totalItems = totalItems;
+        this.estimated = estimated;
+    }
+
+    public static CountedPageable of(int page, int size, int totalItems, boolean estimated) {
+        return new CountedPageable(page, size, totalItems, estimated);
+    }
+
+    @Override
+    public int getOffset() {
+        return (this.page - 1) * this.size;
+    }
+
+    @Override
+    public int getLimit() {
+        return this.size;
+    }
+
+    @Override
+    public int getStartRowNum() {
+        return ((this.page - 1) * this.size) + 1;
+    }
+
+    @Override
+    public int getEndRowNum() {
+        return this.page * this.size;
+    }
+
+}
@@ -2,11 +2,14 @@ package io.github.imsejin.mybatis.pagination.support;
 
 import io.github.imsejin.mybatis.pagination.model.Pageable;
 import io.github.imsejin.mybatis.pagination.model.Paginator;
+import io.github.imsejin.mybatis.pagination.support.registry.MapperMethodRegistry;
 import net.sf.jsqlparser.JSQLParserException;
 import net.sf.jsqlparser.parser.CCJSqlParserUtil;
 import net.sf.jsqlparser.statement.Statement;
 import net.sf.jsqlparser.statement.select.PlainSelect;
 import net.sf.jsqlparser.statement.select.Select;
+import net.sf.jsqlparser.statement.select.SelectBody;
+import net.sf.jsqlparser.statement.select.SetOperationList;
 import org.apache.ibatis.binding.MapperMethod;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
@@ -59,6 +62,7 @@ public final class InterceptorSupport {
      * @param fullName fully qualified method name
      * @return mapper method
      * @throws ClassNotFoundException if full name is undefined
+     * @see MapperMethodRegistry
      */
     public static Method findMethod(String fullName) {
         final int index = fullName.lastIndexOf('.');
@@ -126,10 +130,29 @@ public final class InterceptorSupport {
      * @param selectSql select SQL query
      * @return {@link PlainSelect} instance
      * @throws JSQLParserException if failed to parse query
+     * @throws TypeException       if query is not plain select query
+     * @see #parseSelectBody(String)
+     */
+    public static PlainSelect parseSelect(String selectSql) {
+        SelectBody selectBody = parseSelectBody(selectSql);
+        if (!(selectBody instanceof PlainSelect)) {
+            throw new TypeException("Not plain SELECT statement: " + selectBody);
+        }
+
+        return (PlainSelect) selectBody;
+    }
+
+    /**
+     * Parses select SQL query, which is plain select or set operation
+     * such as "UNION ALL", "UNION", "INTERSECT" and "EXCEPT".
+     *
+     * @param selectSql select SQL query
+     * @return {@link PlainSelect} or {@link SetOperationList} instance
+     * @throws JSQLParserException if failed to parse query
      * @throws TypeException       if query is not select query
      * @see net.sf.jsqlparser.parser.CCJSqlParser
      */
-    public static PlainSelect parseSelect(String selectSql) {
+    public static SelectBody parseSelectBody(String selectSql) {
         Statement statement;
         try {
             statement = CCJSqlParserUtil.parse(selectSql);
@@ -141,29 +164,82 @@ public final class InterceptorSupport {
             throw new TypeException("Not SELECT statement: " + statement);
         }
 
-        Select select = (Select) statement;
-        if (!(select.getSelectBody() instanceof PlainSelect)) {
-            throw new TypeException("Not SELECT statement: " + select);
+        SelectBody selectBody = ((Select) statement).getSelectBody();
+        if (!(selectBody instanceof PlainSelect) && !(selectBody instanceof SetOperationList)) {
+            throw new TypeException("Not SELECT statement: " + statement);
         }
 
-        return select.getSelectBody(PlainSelect.class);
+        return selectBody;
     }
 
+    /**
+     * Returns the number of mapped parameters in query.
+     *
+     * @param sql SQL query
+     * @return the number of mapped parameters
+     * @see #getPositionsOfMapping(String)
+     */
     public static int getNumOfMappings(String sql) {
-        int frequency = 0;
-
-        for (int i = 0; i < sql.length(); i++) {
-            if (sql.charAt(i) == '?') frequency++;
-        }
-
-        return frequency;
+        return getPositionsOfMapping(sql).length;
     }
 
+    /**
+     * Returns positions of mapped parameters in query.
+     *
+     * <p> Character '?' in string literals, quoted identifiers and comments is not a mapped parameter.
+     * Brackets are regarded as quoted identifier of SQL Server, unless they have '?' like subscript of array.
+     *
+     * @param sql SQL query
+     * @return character indexes of mapped parameters
+     */
     public static int[] getPositionsOfMapping(String sql) {
-        int numOfMappings = getNumOfMappings(sql);
-        if (numOfMappings == 0) return new int[0];
+        IntStream.Builder positions = IntStream.builder();
+
+        int i = 0;
+        while (i < sql.length()) {
+            char c = sql.charAt(i);
+            int end;
+
+            switch (c) {
+                case '?':
+                    positions.add(i);
+                    end = i;
+                    break;
+                case '\'':
+                case '"':
+                case '`':
+                    // Quote is escaped by doubling it.
+                    end = sql.indexOf(c, i + 1);
+                    while (end > 0 && end + 1 < sql.length() && sql.charAt(end + 1) == c) {
+                        end = sql.indexOf(c, end + 2);
+                    }
+                    break;
+                case '[':
+                    end = sql.indexOf(']', i);
+                    if (end < 0 || sql.lastIndexOf('?', end) > i) end = i;
+                    break;
+                case '-':
+                    end = sql.startsWith("--", i) ? sql.indexOf('\n', i) : i;
+                    break;
+                case '/':
+                    if (!sql.startsWith("/*", i)) {
+                        end = i;
+                        break;
+                    }
+
+                    end = sql.indexOf("*/", i + 2);
+                    if (end > 0) end++;
+                    break;
+                default:
+                    end = i;
+                    break;
+            }
+
+            // Unclosed quote or comment continues to the end of query.
+            i = end < 0 ? sql.length() : end + 1;
+        }
 
-        return IntStream.range(0, numOfMappings).toArray();
+        return positions.build().toArray();
     }
 
 }
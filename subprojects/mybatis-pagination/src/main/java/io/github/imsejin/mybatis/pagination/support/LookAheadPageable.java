@@ -0,0 +1,79 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Im Sejin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.imsejin.mybatis.pagination.support;
+
+import io.github.imsejin.mybatis.pagination.model.Pageable;
+import lombok.ToString;
+
+/**
+ * Pageable that has one more row than the original one.
+ * <p>
+ * If the query with this returns more rows than the original limit,
+ * the next page exists. This makes query for total items unnecessary.
+ *
+ * @see io.github.imsejin.mybatis.pagination.model.Slice
+ */
+@ToString
+public final class LookAheadPageable implements Pageable {
+
+    private final Pageable pageable;
+
+    private LookAheadPageable(Pageable pageable) {
+        this.pageable = pageable;
+    }
+
+    public static LookAheadPageable from(Pageable pageable) {
+        return new LookAheadPageable(pageable);
+    }
+
+    /**
+     * Returns the original pageable.
+     *
+     * @return original pageable
+     */
+    public Pageable getPageable() {
+        return this.pageable;
+    }
+
+    @Override
+    public int getOffset() {
+        return this.pageable.getOffset();
+    }
+
+    @Override
+    public int getLimit() {
+        return this.pageable.getLimit() + 1;
+    }
+
+    @Override
+    public int getStartRowNum() {
+        return this.pageable.getStartRowNum();
+    }
+
+    @Override
+    public int getEndRowNum() {
+        return this.pageable.getEndRowNum() + 1;
+    }
+
+}
@@ -0,0 +1,158 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Im Sejin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.imsejin.mybatis.pagination.support.cache;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Concurrent cache that holds entries up to the maximum size.
+ *
+ * <p> When the number of entries exceeds the maximum size, this evicts
+ * entries in iteration order of the internal hash table until it fits.
+ * That is cheaper than keeping access order and good enough for the values
+ * this cache holds, which are expensive to compute but cheap to recompute
+ * once in a while.
+ *
+ * @param <K> type of key
+ * @param <V> type of value
+ */
+public class BoundedCache<K, V> {
+
+    private final int maximumSize;
+
+    private final Map<K, V> map;
+
+    private final LongAdder hitCount = new LongAdder();
+
+    private final LongAdder missCount = new LongAdder();
+
+    private final LongAdder evictionCount = new LongAdder();
+
+    public BoundedCache(int maximumSize) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("BoundedCache.maximumSize must be positive: " + maximumSize);
+        }
+
+        this.maximumSize = maximumSize;
+        this.map = new ConcurrentHashMap<>(Math.min(maximumSize, 256));
+    }
+
+    /**
+     * Returns the value associated with the key,
+     * computing and storing it when it is absent.
+     *
+     * @param key             key
+     * @param mappingFunction function to compute a value
+     * @return cached or computed value
+     */
+    public V get(K key, Function<? super K, ? extends V> mappingFunction) {
+        V value = this.map.get(key);
+        if (value != null) {
+            this.hitCount.increment();
+            return value;
+        }
+
+        this.missCount.increment();
+        value = this.map.computeIfAbsent(key, Objects.requireNonNull(mappingFunction));
+
+        evictIfNecessary();
+
+        return value;
+    }
+
+    /**
+     * Returns the value associated with the key or null.
+     *
+     * <p> This doesn't affect the statistics.
+     *
+     * @param key key
+     * @return cached value or null
+     */
+    public V getIfPresent(K key) {
+        return this.map.get(key);
+    }
+
+    /**
+     * Associates the value with the key, replacing the old one.
+     *
+     * @param key   key
+     * @param value value
+     */
+    public void put(K key, V value) {
+        this.map.put(key, Objects.requireNonNull(value));
+        evictIfNecessary();
+    }
+
+    public void invalidate(K key) {
+        this.map.remove(key);
+    }
+
+    public void invalidateAll() {
+        this.map.clear();
+    }
+
+    public int size() {
+        return this.map.size();
+    }
+
+    public int getMaximumSize() {
+        return this.maximumSize;
+    }
+
+    /**
+     * Returns a read-only view of the cached entries.
+     *
+     * @return cached entries
+     */
+    public Map<K, V> asMap() {
+        return Collections.unmodifiableMap(this.map);
+    }
+
+    /**
+     * Returns a snapshot of the statistics.
+     *
+     * @return statistics
+     */
+    public CacheStats stats() {
+        return new CacheStats(this.hitCount.sum(), this.missCount.sum(), this.evictionCount.sum(), this.map.size());
+    }
+
+    private void evictIfNecessary() {
+        if (this.map.size() <= this.maximumSize) return;
+
+        for (Iterator<K> iter = this.map.keySet().iterator(); iter.hasNext() && this.map.size() > this.maximumSize; ) {
+            iter.next();
+            iter.remove();
+            this.evictionCount.increment();
+        }
+    }
+
+}
@@ -0,0 +1,297 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Im Sejin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.imsejin.mybatis.pagination.support.cache;
+
+import net.sf.jsqlparser.JSQLParserException;
+import net.sf.jsqlparser.parser.CCJSqlParserUtil;
+import net.sf.jsqlparser.util.TablesNamesFinder;
+import org.apache.ibatis.cache.CacheKey;
+
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Cache for total items, which is keyed by {@link CacheKey} of query for total items.
+ *
+ * <p> {@link CacheKey} consists of statement id, SQL and values of bound parameters,
+ * so the same filter combination hits the same entry.
+ *
+ * <p> Entry depends on the mapper namespace and tables of its query. Each dependency has
+ * a version, which is increased whenever a statement that writes it is executed.
+ * Entry keeps the versions at the time when its query started, and is discarded
+ * when any of them has changed. So a write during the query never leaves a stale entry.
+ *
+ * <p> Entry is fresh for TTL. After that, it is served as stale for a while,
+ * during which the first request triggers refresh in background.
+ */
+public class CountCache {
+
+    public static final int DEFAULT_MAXIMUM_SIZE = 10_000;
+
+    private static final String NAMESPACE_PREFIX = "namespace:";
+
+    private static final String TABLE_PREFIX = "table:";
+
+    private final BoundedCache<CacheKey, Entry> cache;
+
+    private final long ttlNanos;
+
+    private final long staleNanos;
+
+    private final Map<String, AtomicLong> versions = new ConcurrentHashMap<>();
+
+    /**
+     * Dependencies of query keyed by namespace and SQL, and dependencies of statement that writes
+     * keyed by its id.
+     */
+    private final BoundedCache<String, String[]> dependencies;
+
+    private final LongAdder hitCount = new LongAdder();
+
+    private final LongAdder staleHitCount = new LongAdder();
+
+    private final LongAdder missCount = new LongAdder();
+
+    /**
+     * @param maximumSize maximum number of entries
+     * @param ttlMillis   duration for which entry is fresh
+     * @param staleMillis duration for which entry is served as stale after TTL while it is being refreshed
+     */
+    public CountCache(int maximumSize, long ttlMillis, long staleMillis) {
+        if (ttlMillis < 1) throw new IllegalArgumentException("CountCache.ttlMillis must be positive: " + ttlMillis);
+        if (staleMillis < 0) {
+            throw new IllegalArgumentException("CountCache.staleMillis should not be negative: " + staleMillis);
+        }
+
+        this.cache = new BoundedCache<>(maximumSize);
+        this.dependencies = new BoundedCache<>(maximumSize);
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.staleNanos = TimeUnit.MILLISECONDS.toNanos(staleMillis);
+    }
+
+    /**
+     * Returns dependencies of the statement, which are its namespace and tables in the SQL.
+     *
+     * <p> If the SQL cannot be parsed, the statement depends only on its namespace.
+     *
+     * @param statementId id of mapped statement
+     * @param sql         SQL
+     * @return dependencies
+     */
+    public String[] getDependencies(String statementId, String sql) {
+        String namespace = namespaceOf(statementId);
+        return this.dependencies.get(namespace + '\u0000' + sql, key -> findDependencies(namespace, sql));
+    }
+
+    /**
+     * Returns dependencies of the statement that writes, which are its namespace and tables in the SQL.
+     *
+     * <p> This is keyed by statement id, so SQL is rendered and parsed only once per statement.
+     * Tables written by dynamic SQL should not vary by parameters.
+     *
+     * @param statementId id of mapped statement
+     * @param sql         supplier of SQL, which is called only when the statement is not cached
+     * @return dependencies
+     */
+    public String[] getWriteDependencies(String statementId, Supplier<String> sql) {
+        return this.dependencies.get(statementId, key -> findDependencies(namespaceOf(statementId), sql.get()));
+    }
+
+    /**
+     * Takes versions of the dependencies. This must be called before executing query for total items.
+     *
+     * @param dependencies dependencies
+     * @return versions of the dependencies
+     */
+    public long[] snapshot(String[] dependencies) {
+        long[] snapshot = new long[dependencies.length];
+        for (int i = 0; i < dependencies.length; i++) {
+            snapshot[i] = versionOf(dependencies[i]).get();
+        }
+
+        return snapshot;
+    }
+
+    /**
+     * Returns total items, or null if it is absent, expired or invalidated.
+     *
+     * <p> When the entry is stale, this returns it and runs the refresh only for the first request.
+     * If the refresh is rejected by saturated executor, a later request runs it again.
+     *
+     * @param key     cache key of query for total items
+     * @param refresh refresh that loads total items and puts it into this cache
+     * @return total items or null
+     */
+    public Long get(CacheKey key, Runnable refresh) {
+        Entry entry = this.cache.getIfPresent(key);
+        if (entry == null) {
+            this.missCount.increment();
+            return null;
+        }
+
+        long age = System.nanoTime() - entry.loadedAt;
+        if (!isCurrent(entry) || age >= this.ttlNanos + this.staleNanos) {
+            this.cache.invalidate(key);
+            this.missCount.increment();
+            return null;
+        }
+
+        if (age < this.ttlNanos) {
+            this.hitCount.increment();
+        } else {
+            this.staleHitCount.increment();
+            if (entry.refreshing.compareAndSet(false, true)) {
+                try {
+                    refresh.run();
+                } catch (RejectedExecutionException e) {
+                    entry.refreshing.set(false);
+                }
+            }
+        }
+
+        return entry.count;
+    }
+
+    /**
+     * Puts total items with the versions taken before executing its query.
+     *
+     * @param key          cache key of query for total items
+     * @param dependencies dependencies
+     * @param snapshot     versions of the dependencies
+     * @param count        total items
+     */
+    public void put(CacheKey key, String[] dependencies, long[] snapshot, long count) {
+        Entry entry = new Entry(count, System.nanoTime(), dependencies, snapshot);
+        if (isCurrent(entry)) this.cache.put(key, entry);
+    }
+
+    /**
+     * Discards entry whose refresh failed, so that the next request loads it again.
+     *
+     * @param key cache key of query for total items
+     */
+    public void invalidate(CacheKey key) {
+        this.cache.invalidate(key);
+    }
+
+    /**
+     * Increases versions of the dependencies, which invalidates entries depending on them.
+     *
+     * @param dependencies dependencies of statement that writes
+     */
+    public void invalidate(Collection<String> dependencies) {
+        for (String dependency : dependencies) {
+            versionOf(dependency).incrementAndGet();
+        }
+    }
+
+    public void invalidateAll() {
+        this.cache.invalidateAll();
+    }
+
+    /**
+     * Returns a snapshot of the statistics. Stale hits are counted as hits.
+     *
+     * @return statistics
+     */
+    public CacheStats stats() {
+        CacheStats stats = this.cache.stats();
+        return new CacheStats(this.hitCount.sum() + this.staleHitCount.sum(), this.missCount.sum(),
+                stats.getEvictionCount(), stats.getSize());
+    }
+
+    public long getStaleHitCount() {
+        return this.staleHitCount.sum();
+    }
+
+    private boolean isCurrent(Entry entry) {
+        for (int i = 0; i < entry.dependencies.length; i++) {
+            if (versionOf(entry.dependencies[i]).get() != entry.versions[i]) return false;
+        }
+
+        return true;
+    }
+
+    private AtomicLong versionOf(String dependency) {
+        AtomicLong version = this.versions.get(dependency);
+        return version != null ? version : this.versions.computeIfAbsent(dependency, key -> new AtomicLong());
+    }
+
+    private static String namespaceOf(String statementId) {
+        int index = statementId.lastIndexOf('.');
+        return index < 0 ? "" : statementId.substring(0, index);
+    }
+
+    private static String[] findDependencies(String namespace, String sql) {
+        Set<String> deps = new TreeSet<>();
+        deps.add(NAMESPACE_PREFIX + namespace);
+        for (String table : findTables(sql)) {
+            deps.add(TABLE_PREFIX + table);
+        }
+
+        return deps.toArray(new String[0]);
+    }
+
+    private static Set<String> findTables(String sql) {
+        Set<String> tables = new TreeSet<>();
+
+        try {
+            for (String name : new TablesNamesFinder().getTableList(CCJSqlParserUtil.parse(sql))) {
+                // Normalizes "schema"."table" and `table` into TABLE.
+                String table = name.substring(name.lastIndexOf('.') + 1).replaceAll("[\"`\\[\\]]", "");
+                tables.add(table.toUpperCase(Locale.ROOT));
+            }
+        } catch (JSQLParserException | UnsupportedOperationException ignored) {
+            // Depends only on namespace.
+        }
+
+        return tables;
+    }
+
+    private static final class Entry {
+        private final long count;
+        private final long loadedAt;
+        private final String[] dependencies;
+        private final long[] versions;
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+
+        private Entry(long count, long loadedAt, String[] dependencies, long[] versions) {
+            this.count = count;
+            this.loadedAt = loadedAt;
+            this.dependencies = dependencies;
+            this.versions = versions;
+        }
+    }
+
+}
@@ -0,0 +1,131 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Im Sejin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.imsejin.mybatis.pagination.support.diagnostics;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rolling window of latencies, which keeps only the most recent samples up to its size.
+ *
+ * <p> Recording a sample is just a write into a ring buffer. Sorting the samples for percentiles
+ * is deferred to {@link #snapshot()}, which is invoked only when someone looks at them.
+ */
+public class LatencyWindow {
+
+    public static final int DEFAULT_SIZE = 1024;
+
+    private final long[] samples;
+
+    /**
+     * Total number of recorded samples, including the ones overwritten.
+     */
+    private long count;
+
+    public LatencyWindow() {
+        this(DEFAULT_SIZE);
+    }
+
+    public LatencyWindow(int size) {
+        if (size < 1) throw new IllegalArgumentException("LatencyWindow.size must be positive, but it isn't: " + size);
+
+        this.samples = new long[size];
+    }
+
+    /**
+     * Records a latency, overwriting the oldest one when this is full.
+     *
+     * @param nanos latency in nanoseconds
+     */
+    public synchronized void record(long nanos) {
+        this.samples[(int) (this.count % this.samples.length)] = nanos;
+        this.count++;
+    }
+
+    /**
+     * Returns percentiles of the samples in this window.
+     *
+     * @return snapshot of this window
+     */
+    public Snapshot snapshot() {
+        long[] sorted;
+        long count;
+        synchronized (this) {
+            count = this.count;
+            sorted = Arrays.copyOf(this.samples, (int) Math.min(count, this.samples.length));
+        }
+        Arrays.sort(sorted);
+
+        return new Snapshot(count, sorted.length, toMillis(percentile(sorted, 0.5)),
+                toMillis(percentile(sorted, 0.9)), toMillis(percentile(sorted, 0.99)),
+                toMillis(sorted.length == 0 ? 0 : sorted[sorted.length - 1]));
+    }
+
+    /**
+     * Returns the sample of the percentile with nearest-rank method.
+     */
+    private static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) return 0;
+
+        int rank = (int) Math.ceil(percentile * sorted.length);
+        return sorted[Math.max(rank, 1) - 1];
+    }
+
+    private static double toMillis(long nanos) {
+        return (double) nanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * Percentiles of latencies in milliseconds.
+     */
+    @Getter
+    @ToString
+    @RequiredArgsConstructor
+    public static class Snapshot {
+
+        /**
+         * Total number of recorded samples.
+         */
+        private final long count;
+
+        /**
+         * Number of samples that percentiles are computed from.
+         */
+        private final int samples;
+
+        private final double p50;
+
+        private final double p90;
+
+        private final double p99;
+
+        private final double max;
+
+    }
+
+}
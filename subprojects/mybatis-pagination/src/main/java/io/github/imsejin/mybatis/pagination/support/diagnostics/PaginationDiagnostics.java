@@ -0,0 +1,186 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Im Sejin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.imsejin.mybatis.pagination.support.diagnostics;
+
+import io.github.imsejin.mybatis.pagination.interceptor.PaginationInterceptor;
+import io.github.imsejin.mybatis.pagination.model.Pageable;
+import io.github.imsejin.mybatis.pagination.support.metrics.PaginationObserver;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Observer that keeps diagnostics of each paginated mapped statement in memory,
+ * such as the latest rewritten queries and rolling latencies of the queries.
+ *
+ * <p> Unlike {@link io.github.imsejin.mybatis.pagination.support.metrics.MicrometerPaginationObserver},
+ * this keeps the queries themselves, so that they can be inspected without enabling debug logging.
+ *
+ * @see #bindTo(PaginationInterceptor)
+ */
+public class PaginationDiagnostics implements PaginationObserver {
+
+    private final int windowSize;
+
+    private final Map<String, StatementDiagnostics> statements = new ConcurrentHashMap<>();
+
+    private final RewriteFailureLog failureLog;
+
+    public PaginationDiagnostics() {
+        this(LatencyWindow.DEFAULT_SIZE, RewriteFailureLog.DEFAULT_CAPACITY);
+    }
+
+    public PaginationDiagnostics(int windowSize, int failureCapacity) {
+        this.windowSize = windowSize;
+        this.failureLog = new RewriteFailureLog(failureCapacity);
+    }
+
+    @Override
+    public void onRewritten(String statementId, boolean count, String sql) {
+        StatementDiagnostics statement = getOrCreate(statementId);
+        if (count) {
+            statement.countSql = sql;
+        } else {
+            statement.itemsSql = sql;
+        }
+    }
+
+    @Override
+    public void onRewriteFailure(String statementId, String sql, Throwable cause) {
+        this.failureLog.add(RewriteFailure.of(statementId, sql, cause));
+    }
+
+    @Override
+    public void onItemsQuery(String statementId, Pageable pageable, long elapsedNanos) {
+        getOrCreate(statementId).itemsLatency.record(elapsedNanos);
+    }
+
+    @Override
+    public void onCountQuery(String statementId, long elapsedNanos) {
+        getOrCreate(statementId).countLatency.record(elapsedNanos);
+    }
+
+    @Override
+    public void onCountCacheLookup(String statementId, boolean hit) {
+        StatementDiagnostics statement = getOrCreate(statementId);
+        (hit ? statement.countCacheHitCount : statement.countCacheMissCount).increment();
+    }
+
+    /**
+     * Adds this to observers of the interceptor.
+     *
+     * @param interceptor pagination interceptor
+     */
+    public void bindTo(PaginationInterceptor interceptor) {
+        interceptor.setObserver(interceptor.getObserver().andThen(this));
+    }
+
+    /**
+     * Returns diagnostics of the mapped statement.
+     *
+     * @param statementId id of mapped statement
+     * @return diagnostics or null if the mapped statement has not been paginated yet
+     */
+    public StatementDiagnostics get(String statementId) {
+        return this.statements.get(statementId);
+    }
+
+    /**
+     * Returns the failures of rewriting, from the most recent one.
+     *
+     * @return recent failures of rewriting
+     */
+    public List<RewriteFailure> getRecentFailures() {
+        return this.failureLog.getRecent();
+    }
+
+    private StatementDiagnostics getOrCreate(String statementId) {
+        StatementDiagnostics statement = this.statements.get(statementId);
+        if (statement != null) return statement;
+
+        return this.statements.computeIfAbsent(statementId, it -> new StatementDiagnostics(this.windowSize));
+    }
+
+    /**
+     * Diagnostics of a mapped statement.
+     */
+    public static final class StatementDiagnostics {
+
+        private final LatencyWindow itemsLatency;
+
+        private final LatencyWindow countLatency;
+
+        private final LongAdder countCacheHitCount = new LongAdder();
+
+        private final LongAdder countCacheMissCount = new LongAdder();
+
+        private volatile String itemsSql;
+
+        private volatile String countSql;
+
+        private StatementDiagnostics(int windowSize) {
+            this.itemsLatency = new LatencyWindow(windowSize);
+            this.countLatency = new LatencyWindow(windowSize);
+        }
+
+        /**
+         * Returns the latest query for pagination.
+         * Dynamic SQL can be rewritten differently by its parameters, so this is not always the same.
+         *
+         * @return query for pagination or null
+         */
+        public String getItemsSql() {
+            return this.itemsSql;
+        }
+
+        /**
+         * Returns the latest query for total items.
+         *
+         * @return query for total items or null
+         */
+        public String getCountSql() {
+            return this.countSql;
+        }
+
+        public LatencyWindow.Snapshot getItemsLatency() {
+            return this.itemsLatency.snapshot();
+        }
+
+        public LatencyWindow.Snapshot getCountLatency() {
+            return this.countLatency.snapshot();
+        }
+
+        public long getCountCacheHitCount() {
+            return this.countCacheHitCount.sum();
+        }
+
+        public long getCountCacheMissCount() {
+            return this.countCacheMissCount.sum();
+        }
+
+    }
+
+}
@@ -0,0 +1,71 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Im Sejin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.imsejin.mybatis.pagination.support.diagnostics;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+import java.time.Instant;
+
+/**
+ * Failure of rewriting original query, which is kept by {@link RewriteFailureLog}.
+ */
+@Getter
+@ToString
+@RequiredArgsConstructor
+public class RewriteFailure {
+
+    /**
+     * Id of mapped statement or null if it is not known, like a query that dialect failed to parse.
+     */
+    private final String statementId;
+
+    /**
+     * Original query or null if it is not known.
+     */
+    private final String sql;
+
+    /**
+     * Class name and message of the cause.
+     */
+    private final String reason;
+
+    private final Instant timestamp;
+
+    /**
+     * Creates failure of rewriting original query at the moment.
+     *
+     * @param statementId id of mapped statement or null
+     * @param sql         original query or null
+     * @param cause       cause of failure
+     * @return failure of rewriting
+     */
+    public static RewriteFailure of(String statementId, String sql, Throwable cause) {
+        String reason = cause.getMessage() == null
+                ? cause.getClass().getName() : cause.getClass().getName() + ": " + cause.getMessage();
+        return new RewriteFailure(statementId, sql, reason, Instant.now());
+    }
+
+}
@@ -0,0 +1,92 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Im Sejin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.imsejin.mybatis.pagination.support.diagnostics;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Log that keeps only the most recent failures of rewriting up to its capacity.
+ *
+ * <p> Failures are rare and mostly happen once for each query, because rewritten queries are cached.
+ * So this is guarded by a lock instead of lock-free structures.
+ */
+public class RewriteFailureLog {
+
+    public static final int DEFAULT_CAPACITY = 32;
+
+    private final int capacity;
+
+    private final Deque<RewriteFailure> failures;
+
+    public RewriteFailureLog() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public RewriteFailureLog(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException(
+                    "RewriteFailureLog.capacity must be positive, but it isn't: " + capacity);
+        }
+
+        this.capacity = capacity;
+        this.failures = new ArrayDeque<>(capacity);
+    }
+
+    /**
+     * Adds a failure, discarding the oldest one when this is full.
+     *
+     * @param failure failure of rewriting
+     */
+    public void add(RewriteFailure failure) {
+        synchronized (this.failures) {
+            if (this.failures.size() == this.capacity) this.failures.removeFirst();
+            this.failures.addLast(failure);
+        }
+    }
+
+    /**
+     * Returns the failures in this, from the most recent one.
+     *
+     * @return recent failures
+     */
+    public List<RewriteFailure> getRecent() {
+        synchronized (this.failures) {
+            List<RewriteFailure> recent = new ArrayList<>(this.failures.size());
+            for (Iterator<RewriteFailure> it = this.failures.descendingIterator(); it.hasNext(); ) {
+                recent.add(it.next());
+            }
+
+            return recent;
+        }
+    }
+
+    public int getCapacity() {
+        return this.capacity;
+    }
+
+}
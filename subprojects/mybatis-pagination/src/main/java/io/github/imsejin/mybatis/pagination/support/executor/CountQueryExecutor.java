@@ -0,0 +1,238 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Im Sejin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.imsejin.mybatis.pagination.support.executor;
+
+import io.github.imsejin.mybatis.pagination.constant.CountExecutorType;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.executor.ExecutorException;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.transaction.Transaction;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+/**
+ * Executor for query for total items, which runs it concurrently with query for pagination.
+ *
+ * <p> The query is executed on a separate connection, which is obtained from the
+ * same {@link Environment} as the original session. So it doesn't see uncommitted
+ * changes in transaction of the original session. Don't use this, if you read
+ * total items that are changed in the same transaction.
+ *
+ * <p> While the query is executed, the caller still holds its connection for query for pagination,
+ * so a request needs two connections from the same pool at the same time. Size the connection pool
+ * with headroom for the threads of this, or else requests holding all the connections
+ * can wait for their queries for total items until the timeout.
+ */
+public class CountQueryExecutor implements AutoCloseable {
+
+    private static final Log log = LogFactory.getLog(CountQueryExecutor.class);
+
+    public static final int DEFAULT_POOL_SIZE = 4;
+
+    /**
+     * Default timeout for waiting for total items, which bounds the wait for a connection
+     * when the connection pool is exhausted by the callers.
+     */
+    public static final long DEFAULT_TIMEOUT_MILLIS = 10_000;
+
+    private final ExecutorService executorService;
+
+    private final long timeoutMillis;
+
+    /**
+     * @param executorService executor service that executes query
+     * @param timeoutMillis   timeout for waiting for total items. If it is not positive, waits indefinitely.
+     */
+    public CountQueryExecutor(ExecutorService executorService, long timeoutMillis) {
+        this.executorService = Objects.requireNonNull(executorService, "ExecutorService should not be null");
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Creates an instance with the type of threads.
+     *
+     * @param type          type of threads
+     * @param poolSize      maximum number of threads for {@link CountExecutorType#POOL}
+     * @param timeoutMillis timeout for waiting for total items
+     * @return count query executor
+     */
+    public static CountQueryExecutor create(CountExecutorType type, int poolSize, long timeoutMillis) {
+        ExecutorService executorService = type == CountExecutorType.VIRTUAL_THREAD
+                ? newVirtualThreadExecutor()
+                : null;
+        if (executorService == null) executorService = newBoundedPool(poolSize);
+
+        return new CountQueryExecutor(executorService, timeoutMillis);
+    }
+
+    /**
+     * Creates an instance that executes queries in background on a single thread.
+     *
+     * <p> Unlike {@link #create(CountExecutorType, int, long)}, this never runs query on the caller thread.
+     * When its queue is full, {@link #execute(MappedStatement, BoundSql, BiConsumer)} throws
+     * {@link RejectedExecutionException} and the query is discarded.
+     *
+     * @param queueCapacity maximum number of queries waiting for the thread
+     * @return count query executor
+     */
+    public static CountQueryExecutor createBackground(int queueCapacity) {
+        ExecutorService executorService = new ThreadPoolExecutor(1, 1, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), newThreadFactory("mybatis-pagination-count-refresh-"),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        return new CountQueryExecutor(executorService, 0);
+    }
+
+    /**
+     * Submits query for total items.
+     *
+     * @param ms       mapped statement for total items
+     * @param boundSql bound SQL for total items
+     * @return future of total items
+     */
+    public Future<Long> submit(MappedStatement ms, BoundSql boundSql) {
+        return this.executorService.submit(() -> query(ms, boundSql));
+    }
+
+    /**
+     * Executes query for total items in background and passes the result to the callback.
+     *
+     * @param ms       mapped statement for total items
+     * @param boundSql bound SQL for total items
+     * @param callback callback that receives total items or failure
+     * @throws RejectedExecutionException if executor is saturated and discards the query
+     */
+    public void execute(MappedStatement ms, BoundSql boundSql, BiConsumer<Long, Throwable> callback) {
+        this.executorService.execute(() -> {
+            Long count;
+            try {
+                count = query(ms, boundSql);
+            } catch (Throwable t) {
+                callback.accept(null, t);
+                return;
+            }
+            callback.accept(count, null);
+        });
+    }
+
+    /**
+     * Waits for total items.
+     *
+     * <p> If it fails, the cause is thrown as it is.
+     * If it times out or the current thread is interrupted,
+     * this cancels the query and throws {@link ExecutorException}.
+     *
+     * @param future future of total items
+     * @return total items
+     * @throws Exception if failed to execute query
+     */
+    public long await(Future<Long> future) throws Exception {
+        try {
+            return this.timeoutMillis > 0
+                    ? future.get(this.timeoutMillis, TimeUnit.MILLISECONDS)
+                    : future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) throw (Exception) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new ExecutorException("Failed to execute query for total items", cause);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new ExecutorException("Timed out waiting for total items after " + this.timeoutMillis + "ms", e);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ExecutorException("Interrupted while waiting for total items", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        this.executorService.shutdown();
+    }
+
+    private static Long query(MappedStatement ms, BoundSql boundSql) throws Exception {
+        Configuration config = ms.getConfiguration();
+        Environment environment = config.getEnvironment();
+        if (environment == null) throw new ExecutorException("Environment was not configured: " + ms.getId());
+
+        // Opens a new connection in the same way as SqlSessionFactory.
+        Transaction tx = environment.getTransactionFactory()
+                .newTransaction(environment.getDataSource(), null, false);
+        Executor executor = config.newExecutor(tx, ExecutorType.SIMPLE);
+
+        try {
+            Object parameterObject = boundSql.getParameterObject();
+            CacheKey cacheKey = executor.createCacheKey(ms, parameterObject, RowBounds.DEFAULT, boundSql);
+            List<Long> result = executor.query(ms, parameterObject, RowBounds.DEFAULT,
+                    Executor.NO_RESULT_HANDLER, cacheKey, boundSql);
+
+            return result.get(0);
+        } finally {
+            executor.close(false);
+        }
+    }
+
+    private static ExecutorService newBoundedPool(int poolSize) {
+        int size = poolSize > 0 ? poolSize : DEFAULT_POOL_SIZE;
+
+        // When the pool is saturated, runs query on the caller thread instead of queueing it.
+        return new ThreadPoolExecutor(size, size, 60L, TimeUnit.SECONDS, new SynchronousQueue<>(),
+                newThreadFactory("mybatis-pagination-count-"), new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    private static ThreadFactory newThreadFactory(String prefix) {
+        AtomicInteger sequence = new AtomicInteger();
+
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            // Source of this library is compatible with JDK 8, so invokes this reflectively.
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            log.warn("Virtual threads are not supported on this JVM; falls back to a bounded pool.");
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,323 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Im Sejin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.imsejin.mybatis.pagination.support.export;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.github.imsejin.mybatis.pagination.constant.ExportFormat;
+import io.github.imsejin.mybatis.pagination.model.KeysetPaginator;
+import io.github.imsejin.mybatis.pagination.model.KeysetRequest;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Exporter that walks a query in chunks of keyset pagination and writes its items to {@link OutputStream}.
+ *
+ * <p> Each chunk is fetched with the cursor token of the previous chunk, so deep chunks cost the same
+ * as the first chunk. Items are written directly to the output stream and released after each chunk,
+ * and the next chunk is fetched only after the current one is taken. So this holds at most two chunks
+ * whatever the export size is, and a slow output stream slows down fetching.
+ *
+ * <p> After each chunk is flushed, its cursor token is passed to the checkpoint. If the export is
+ * interrupted, it can be resumed by setting the last token to {@link KeysetRequest#setCursor(String)}.
+ * Header of {@link ExportFormat#CSV} is not written again when resuming.
+ *
+ * <pre>{@code
+ *     KeysetRequest request = new KeysetRequest();
+ *     request.setSize(1000);
+ *     request.setSortKeys(SortKey.asc("ID", "id"));
+ *     request.setCursor(checkpoint.load());
+ *
+ *     KeysetExporter.of(authorMapper::selectKeyset, request)
+ *             .format(ExportFormat.CSV)
+ *             .executor(executor)
+ *             .export(outputStream, checkpoint::save);
+ * }</pre>
+ *
+ * @param <T> type of item
+ */
+public final class KeysetExporter<T> {
+
+    private final Function<KeysetRequest, KeysetPaginator<T>> fetcher;
+
+    /**
+     * Request whose cursor is moved forward by each chunk.
+     */
+    private final KeysetRequest request;
+
+    private ExportFormat format = ExportFormat.NDJSON;
+
+    private ObjectMapper objectMapper;
+
+    /**
+     * Executor for prefetch or null.
+     */
+    private Executor executor;
+
+    private KeysetExporter(Function<KeysetRequest, KeysetPaginator<T>> fetcher, KeysetRequest request) {
+        if (fetcher == null) throw new IllegalArgumentException("KeysetExporter.fetcher is not allowed to be null");
+        if (request == null) throw new IllegalArgumentException("KeysetExporter.request is not allowed to be null");
+
+        this.fetcher = fetcher;
+        this.request = request;
+    }
+
+    /**
+     * Returns exporter of the keyset paginated mapper method.
+     *
+     * @param fetcher keyset paginated mapper method
+     * @param request request that has chunk size, sort keys and cursor token to resume from
+     * @param <T>     type of item
+     * @return exporter
+     */
+    public static <T> KeysetExporter<T> of(Function<KeysetRequest, KeysetPaginator<T>> fetcher,
+                                           KeysetRequest request) {
+        return new KeysetExporter<>(fetcher, request);
+    }
+
+    public KeysetExporter<T> format(ExportFormat format) {
+        if (format == null) throw new IllegalArgumentException("KeysetExporter.format is not allowed to be null");
+
+        this.format = format;
+        return this;
+    }
+
+    /**
+     * Sets object mapper that serializes items.
+     * If this is not set, uses a new object mapper.
+     *
+     * @param objectMapper object mapper
+     * @return this exporter
+     */
+    public KeysetExporter<T> objectMapper(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        return this;
+    }
+
+    /**
+     * Sets executor that fetches the next chunk while the current chunk is written.
+     * The mapper method is invoked on the thread of the executor,
+     * so it must not be bound to {@link org.apache.ibatis.session.SqlSession} that is not thread-safe.
+     *
+     * @param executor executor for prefetch
+     * @return this exporter
+     */
+    public KeysetExporter<T> executor(Executor executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    /**
+     * Writes all items to the output stream.
+     *
+     * @param out output stream, which is not closed by this
+     * @return number of written items
+     * @throws IOException if failed to write items
+     */
+    public long export(OutputStream out) throws IOException {
+        return export(out, null);
+    }
+
+    /**
+     * Writes all items to the output stream.
+     *
+     * @param out        output stream, which is not closed by this
+     * @param checkpoint consumer of cursor token after each chunk is flushed,
+     *                   which is null after the last chunk
+     * @return number of written items
+     * @throws IOException if failed to write items
+     */
+    public long export(OutputStream out, Consumer<String> checkpoint) throws IOException {
+        ObjectMapper mapper = this.objectMapper == null ? new ObjectMapper() : this.objectMapper;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+
+        ItemWriter itemWriter = this.format == ExportFormat.CSV
+                ? new CsvItemWriter(mapper, writer, this.request.getCursor() == null)
+                : new JsonItemWriter(mapper, writer);
+
+        long count = 0;
+        KeysetPaginator<T> chunk = fetch(this.request.getCursor());
+        while (true) {
+            String nextCursor = chunk.getKeysetInfo().getNextCursor();
+
+            // Fetches the next chunk while the current chunk is written, but not further.
+            CompletableFuture<KeysetPaginator<T>> pending = nextCursor == null || this.executor == null
+                    ? null : CompletableFuture.supplyAsync(() -> fetch(nextCursor), this.executor);
+
+            try {
+                for (T item : chunk) {
+                    itemWriter.write(item);
+                }
+                itemWriter.flush();
+            } catch (IOException | RuntimeException e) {
+                if (pending != null) pending.cancel(true);
+                throw e;
+            }
+
+            count += chunk.size();
+            if (checkpoint != null) checkpoint.accept(nextCursor);
+            if (nextCursor == null) return count;
+
+            // Releases the written chunk.
+            chunk = pending == null ? fetch(nextCursor) : await(pending);
+        }
+    }
+
+    private KeysetPaginator<T> fetch(String cursor) {
+        this.request.setCursor(cursor);
+        return this.fetcher.apply(this.request);
+    }
+
+    private static <E> E await(CompletableFuture<E> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw e;
+        }
+    }
+
+    private interface ItemWriter {
+
+        void write(Object item) throws IOException;
+
+        /**
+         * Flushes all written items to the output stream.
+         *
+         * @throws IOException if failed to flush
+         */
+        void flush() throws IOException;
+
+    }
+
+    private static final class JsonItemWriter implements ItemWriter {
+
+        private final ObjectWriter objectWriter;
+
+        private final JsonGenerator generator;
+
+        private JsonItemWriter(ObjectMapper mapper, Writer writer) throws IOException {
+            this.objectWriter = mapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+            this.generator = mapper.getFactory().createGenerator(writer)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                    .setRootValueSeparator(null);
+        }
+
+        @Override
+        public void write(Object item) throws IOException {
+            this.objectWriter.writeValue(this.generator, item);
+            this.generator.writeRaw('\n');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            this.generator.flush();
+        }
+
+    }
+
+    private static final class CsvItemWriter implements ItemWriter {
+
+        private final ObjectMapper mapper;
+
+        private final Writer writer;
+
+        private final boolean header;
+
+        /**
+         * Property names of the first item, which are the columns.
+         */
+        private List<String> columns;
+
+        private CsvItemWriter(ObjectMapper mapper, Writer writer, boolean header) {
+            this.mapper = mapper;
+            this.writer = writer;
+            this.header = header;
+        }
+
+        @Override
+        public void write(Object item) throws IOException {
+            JsonNode node = this.mapper.valueToTree(item);
+
+            if (this.columns == null) {
+                this.columns = new ArrayList<>();
+                for (Iterator<String> it = node.fieldNames(); it.hasNext(); ) {
+                    this.columns.add(it.next());
+                }
+                if (this.header) writeLine(this.columns);
+            }
+
+            List<String> values = new ArrayList<>(this.columns.size());
+            for (String column : this.columns) {
+                JsonNode value = node.get(column);
+                if (value == null || value.isNull()) {
+                    values.add("");
+                } else {
+                    values.add(value.isContainerNode() ? value.toString() : value.asText());
+                }
+            }
+            writeLine(values);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            this.writer.flush();
+        }
+
+        private void writeLine(List<String> values) throws IOException {
+            for (int i = 0; i < values.size(); i++) {
+                if (i > 0) this.writer.write(',');
+                this.writer.write(escape(values.get(i)));
+            }
+            this.writer.write("\r\n");
+        }
+
+        private static String escape(String value) {
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0
+                    && value.indexOf('\r') < 0) return value;
+
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+
+    }
+
+}
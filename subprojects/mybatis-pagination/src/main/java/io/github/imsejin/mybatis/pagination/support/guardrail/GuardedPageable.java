@@ -0,0 +1,142 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Im Sejin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.imsejin.mybatis.pagination.support.guardrail;
+
+import io.github.imsejin.mybatis.pagination.constant.CountMode;
+import io.github.imsejin.mybatis.pagination.model.KeysetPageable;
+import io.github.imsejin.mybatis.pagination.model.Pageable;
+import io.github.imsejin.mybatis.pagination.model.SortKey;
+import io.github.imsejin.mybatis.pagination.support.LookAheadPageable;
+import lombok.ToString;
+
+import java.util.List;
+
+/**
+ * Pageable whose page size or offset is changed by {@link Guardrail}.
+ * <p>
+ * This keeps the original pageable, which can be {@link KeysetPageable} or
+ * {@link io.github.imsejin.mybatis.pagination.model.PageInfoAware}.
+ *
+ * @see #unwrap(Pageable)
+ */
+@ToString
+public class GuardedPageable implements Pageable {
+
+    private final Pageable origin;
+
+    private final int offset;
+
+    private final int limit;
+
+    /**
+     * Whether the offset is too deep, so that it should be paginated with a cheaper strategy.
+     */
+    private final boolean downgraded;
+
+    private GuardedPageable(Pageable origin, int offset, int limit, boolean downgraded) {
+        this.origin = origin;
+        this.offset = offset;
+        this.limit = limit;
+        this.downgraded = downgraded;
+    }
+
+    public static GuardedPageable of(Pageable origin, int offset, int limit, boolean downgraded) {
+        return origin instanceof KeysetPageable
+                ? new Keyset((KeysetPageable) origin, offset, limit, downgraded)
+                : new GuardedPageable(origin, offset, limit, downgraded);
+    }
+
+    /**
+     * Returns the original pageable, if it is changed by guardrail.
+     *
+     * @param pageable pageable
+     * @return original pageable
+     */
+    public static Pageable unwrap(Pageable pageable) {
+        return pageable instanceof GuardedPageable ? ((GuardedPageable) pageable).origin : pageable;
+    }
+
+    /**
+     * Returns whether the pageable should be paginated with a cheaper strategy.
+     * This sees through {@link LookAheadPageable}.
+     *
+     * @param pageable pageable
+     * @return whether it is downgraded
+     */
+    public static boolean isDowngraded(Pageable pageable) {
+        if (pageable instanceof LookAheadPageable) pageable = ((LookAheadPageable) pageable).getPageable();
+        return pageable instanceof GuardedPageable && ((GuardedPageable) pageable).downgraded;
+    }
+
+    @Override
+    public int getOffset() {
+        return this.offset;
+    }
+
+    @Override
+    public int getLimit() {
+        return this.limit;
+    }
+
+    @Override
+    public int getStartRowNum() {
+        return this.offset + 1;
+    }
+
+    @Override
+    public int getEndRowNum() {
+        return this.offset + this.limit;
+    }
+
+    @Override
+    public CountMode getCountMode() {
+        return this.origin.getCountMode();
+    }
+
+    /**
+     * Guarded pageable for keyset pagination.
+     */
+    @ToString(callSuper = true)
+    private static final class Keyset extends GuardedPageable implements KeysetPageable {
+
+        private final KeysetPageable keyset;
+
+        private Keyset(KeysetPageable origin, int offset, int limit, boolean downgraded) {
+            super(origin, offset, limit, downgraded);
+            this.keyset = origin;
+        }
+
+        @Override
+        public List<SortKey> getSortKeys() {
+            return this.keyset.getSortKeys();
+        }
+
+        @Override
+        public String getCursor() {
+            return this.keyset.getCursor();
+        }
+
+    }
+
+}
@@ -0,0 +1,103 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Im Sejin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.imsejin.mybatis.pagination.support.guardrail;
+
+import io.github.imsejin.mybatis.pagination.constant.GuardrailPolicy;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Limits of a request for pagination. Zero of each maximum means no limit.
+ *
+ * @see GuardrailRegistry
+ */
+@Getter
+@ToString
+public final class Guardrail {
+
+    /**
+     * Guardrail that limits nothing.
+     */
+    public static final Guardrail NONE = new Guardrail(0, 0, 0, GuardrailPolicy.CLAMP);
+
+    /**
+     * Maximum number of items per page.
+     */
+    private final int maxSize;
+
+    /**
+     * Maximum number of rows skipped before the page.
+     */
+    private final int maxOffset;
+
+    /**
+     * Maximum row estimate of query for total items.
+     */
+    private final long maxCountCost;
+
+    private final GuardrailPolicy policy;
+
+    private Guardrail(int maxSize, int maxOffset, long maxCountCost, GuardrailPolicy policy) {
+        if (maxSize < 0) throw new IllegalArgumentException("Guardrail.maxSize should not be negative: " + maxSize);
+        if (maxOffset < 0) {
+            throw new IllegalArgumentException("Guardrail.maxOffset should not be negative: " + maxOffset);
+        }
+        if (maxCountCost < 0) {
+            throw new IllegalArgumentException("Guardrail.maxCountCost should not be negative: " + maxCountCost);
+        }
+        if (policy == null) throw new IllegalArgumentException("Guardrail.policy is not allowed to be null");
+
+        this.maxSize = maxSize;
+        this.maxOffset = maxOffset;
+        this.maxCountCost = maxCountCost;
+        this.policy = policy;
+    }
+
+    public static Guardrail of(int maxSize, int maxOffset, long maxCountCost, GuardrailPolicy policy) {
+        if (maxSize == 0 && maxOffset == 0 && maxCountCost == 0) return NONE;
+        return new Guardrail(maxSize, maxOffset, maxCountCost, policy);
+    }
+
+    public boolean isSizeExceeded(int size) {
+        return this.maxSize > 0 && size > this.maxSize;
+    }
+
+    public boolean isOffsetExceeded(int offset) {
+        return this.maxOffset > 0 && offset > this.maxOffset;
+    }
+
+    public boolean isCountCostExceeded(long estimate) {
+        return this.maxCountCost > 0 && estimate > this.maxCountCost;
+    }
+
+    /**
+     * Returns whether the cost of query for total items needs to be estimated before executing it.
+     *
+     * @return whether count cost is limited
+     */
+    public boolean limitsCountCost() {
+        return this.maxCountCost > 0;
+    }
+
+}
@@ -0,0 +1,150 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Im Sejin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.imsejin.mybatis.pagination.support.guardrail;
+
+import io.github.imsejin.mybatis.pagination.constant.GuardrailPolicy;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of guardrails, keyed by id of mapped statement.
+ *
+ * <p> Guardrails are given as properties below. Each of guardrail by mapper is keyed by namespace of mapper
+ * or id of mapped statement, and overrides only the properties it has. Guardrail of mapped statement
+ * overrides one of its namespace, which overrides the global one.
+ *
+ * <ul>
+ *     <li>{@code guardrail.maxSize}, {@code guardrail.maxOffset}, {@code guardrail.maxCountCost},
+ *     {@code guardrail.policy}</li>
+ *     <li>{@code guardrail.mappers.<namespace or id>.maxSize}, ...</li>
+ * </ul>
+ */
+public class GuardrailRegistry {
+
+    /**
+     * Registry that has no guardrail.
+     */
+    public static final GuardrailRegistry NONE = new GuardrailRegistry(Guardrail.NONE, Collections.emptyMap());
+
+    private static final String PREFIX = "guardrail.";
+
+    private static final String MAPPERS_PREFIX = PREFIX + "mappers.";
+
+    private final Guardrail global;
+
+    /**
+     * Guardrails by namespace of mapper or id of mapped statement.
+     */
+    private final Map<String, Guardrail> overrides;
+
+    private final Map<String, Guardrail> resolved = new ConcurrentHashMap<>();
+
+    public GuardrailRegistry(Guardrail global, Map<String, Guardrail> overrides) {
+        this.global = global;
+        this.overrides = overrides;
+    }
+
+    /**
+     * Creates registry of guardrails from properties.
+     *
+     * @param properties properties
+     * @return registry of guardrails
+     */
+    public static GuardrailRegistry from(Properties properties) {
+        Guardrail global = Guardrail.of(
+                Integer.parseInt(properties.getProperty(PREFIX + "maxSize", "0")),
+                Integer.parseInt(properties.getProperty(PREFIX + "maxOffset", "0")),
+                Long.parseLong(properties.getProperty(PREFIX + "maxCountCost", "0")),
+                GuardrailPolicy.valueOf(properties.getProperty(PREFIX + "policy", GuardrailPolicy.CLAMP.name())));
+
+        // Namespace and id have dots, so the name of property is after the last one.
+        Map<String, Properties> mappers = new HashMap<>();
+        for (String name : properties.stringPropertyNames()) {
+            if (!name.startsWith(MAPPERS_PREFIX)) continue;
+
+            int index = name.lastIndexOf('.');
+            if (index <= MAPPERS_PREFIX.length()) continue;
+
+            String key = name.substring(MAPPERS_PREFIX.length(), index);
+            mappers.computeIfAbsent(key, it -> new Properties())
+                    .setProperty(name.substring(index + 1), properties.getProperty(name));
+        }
+
+        if (global == Guardrail.NONE && mappers.isEmpty()) return NONE;
+
+        // Namespace is shorter than id of its mapped statement, so it is resolved first.
+        List<String> keys = new ArrayList<>(mappers.keySet());
+        keys.sort(Comparator.comparingInt(String::length));
+
+        Map<String, Guardrail> overrides = new HashMap<>();
+        for (String key : keys) {
+            int index = key.lastIndexOf('.');
+            Guardrail base = index > 0 ? overrides.getOrDefault(key.substring(0, index), global) : global;
+            overrides.put(key, override(base, mappers.get(key)));
+        }
+
+        return new GuardrailRegistry(global, overrides);
+    }
+
+    private static Guardrail override(Guardrail base, Properties properties) {
+        return Guardrail.of(
+                Integer.parseInt(properties.getProperty("maxSize", String.valueOf(base.getMaxSize()))),
+                Integer.parseInt(properties.getProperty("maxOffset", String.valueOf(base.getMaxOffset()))),
+                Long.parseLong(properties.getProperty("maxCountCost", String.valueOf(base.getMaxCountCost()))),
+                GuardrailPolicy.valueOf(properties.getProperty("policy", base.getPolicy().name())));
+    }
+
+    /**
+     * Returns guardrail of the mapped statement.
+     *
+     * @param statementId id of mapped statement
+     * @return guardrail
+     */
+    public Guardrail get(String statementId) {
+        if (this.overrides.isEmpty()) return this.global;
+
+        Guardrail guardrail = this.resolved.get(statementId);
+        if (guardrail != null) return guardrail;
+
+        return this.resolved.computeIfAbsent(statementId, this::resolve);
+    }
+
+    private Guardrail resolve(String statementId) {
+        Guardrail guardrail = this.overrides.get(statementId);
+        if (guardrail != null) return guardrail;
+
+        int index = statementId.lastIndexOf('.');
+        if (index > 0) guardrail = this.overrides.get(statementId.substring(0, index));
+
+        return guardrail == null ? this.global : guardrail;
+    }
+
+}
@@ -0,0 +1,276 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Im Sejin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.imsejin.mybatis.pagination.support.iterator;
+
+import io.github.imsejin.mybatis.pagination.model.PageInfo;
+import io.github.imsejin.mybatis.pagination.model.PageRequest;
+import io.github.imsejin.mybatis.pagination.model.Pageable;
+import io.github.imsejin.mybatis.pagination.model.Paginator;
+import io.github.imsejin.mybatis.pagination.model.Slice;
+import io.github.imsejin.mybatis.pagination.support.CountedPageable;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Iterator that walks every page of a paginated mapper method.
+ *
+ * <p> The first page is fetched with {@link Pageable} as usual. If the mapper method returns {@link Paginator},
+ * the total items of the first page are passed to the next pages as {@link CountedPageable},
+ * so query for total items runs only once. If it returns {@link Slice}, query for total items never runs
+ * and the iteration stops when {@link io.github.imsejin.mybatis.pagination.model.SliceInfo#hasNext()}
+ * is {@code false}. Otherwise, it stops at the first page that has fewer items than the page size.
+ *
+ * <p> If guardrail clamps the page size, the next pages are fetched with the size of {@link PageInfo}
+ * or {@link io.github.imsejin.mybatis.pagination.model.SliceInfo} of the fetched page, so that no item is skipped.
+ *
+ * <p> With {@link Executor}, the next page is fetched in the background while the current page is consumed.
+ * The fetcher is invoked on the thread of the executor, so it must not be bound to a
+ * {@link org.apache.ibatis.session.SqlSession} that is not thread-safe(e.g. use {@code SqlSessionTemplate}).
+ * At most two pages are held by this: the current page and the prefetched page.
+ *
+ * <pre>{@code
+ *     try (PageIterator<Author> iterator = PageIterator.of(authorMapper::selectAll, 1000, executor)) {
+ *         iterator.stream().forEach(writer::write);
+ *     }
+ * }</pre>
+ *
+ * @param <T> type of item
+ */
+public final class PageIterator<T> implements Iterator<List<T>>, AutoCloseable {
+
+    private final Function<Pageable, ? extends List<T>> fetcher;
+
+    /**
+     * Number of items per page, which follows the size clamped by guardrail.
+     */
+    private int size;
+
+    /**
+     * Executor for prefetch or null.
+     */
+    private final Executor executor;
+
+    /**
+     * Page number to be fetched next.
+     */
+    private int page = 1;
+
+    /**
+     * Total items known from the first page or null.
+     */
+    private PageInfo pageInfo;
+
+    /**
+     * Page fetched or being fetched, that is not yet returned.
+     */
+    private CompletableFuture<List<T>> pending;
+
+    private boolean exhausted;
+
+    private PageIterator(Function<Pageable, ? extends List<T>> fetcher, int size, Executor executor) {
+        if (fetcher == null) throw new IllegalArgumentException("PageIterator.fetcher is not allowed to be null");
+        if (size < 1) throw new IllegalArgumentException("PageIterator.size must be positive: " + size);
+
+        this.fetcher = fetcher;
+        this.size = size;
+        this.executor = executor;
+    }
+
+    /**
+     * Returns iterator that fetches each page when it is required.
+     *
+     * @param fetcher paginated mapper method
+     * @param size    number of items per page
+     * @param <T>     type of item
+     * @return page iterator
+     */
+    public static <T> PageIterator<T> of(Function<Pageable, ? extends List<T>> fetcher, int size) {
+        return new PageIterator<>(fetcher, size, null);
+    }
+
+    /**
+     * Returns iterator that prefetches the next page on the executor.
+     *
+     * @param fetcher  paginated mapper method
+     * @param size     number of items per page
+     * @param executor executor for prefetch
+     * @param <T>      type of item
+     * @return page iterator
+     */
+    public static <T> PageIterator<T> of(Function<Pageable, ? extends List<T>> fetcher, int size, Executor executor) {
+        if (executor == null) throw new IllegalArgumentException("PageIterator.executor is not allowed to be null");
+        return new PageIterator<>(fetcher, size, executor);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (this.pending != null) return true;
+        if (this.exhausted) return false;
+
+        // The first page is always fetched on the current thread to find total items.
+        this.pending = CompletableFuture.completedFuture(fetch());
+        return true;
+    }
+
+    @Override
+    public List<T> next() {
+        if (!hasNext()) throw new NoSuchElementException("PageIterator has no more pages");
+
+        List<T> items = await(this.pending);
+        this.pending = null;
+
+        if (isLastPage(items)) {
+            this.exhausted = true;
+        } else if (this.executor != null) {
+            // Fetches the next page while the current page is consumed.
+            this.pending = CompletableFuture.supplyAsync(this::fetch, this.executor);
+        }
+
+        return items;
+    }
+
+    /**
+     * Returns spliterator over items of all pages.
+     *
+     * <p> Each page is released after all of its items are consumed.
+     *
+     * @return spliterator
+     */
+    public Spliterator<T> spliterator() {
+        return Spliterators.spliteratorUnknownSize(new ItemIterator(), Spliterator.ORDERED | Spliterator.NONNULL);
+    }
+
+    /**
+     * Returns sequential stream over items of all pages.
+     *
+     * <p> Closing the stream closes this iterator.
+     *
+     * @return stream
+     */
+    public Stream<T> stream() {
+        return StreamSupport.stream(spliterator(), false).onClose(this::close);
+    }
+
+    /**
+     * Cancels the page being prefetched and stops the iteration.
+     */
+    @Override
+    public void close() {
+        this.exhausted = true;
+
+        CompletableFuture<List<T>> future = this.pending;
+        this.pending = null;
+        if (future != null) future.cancel(true);
+    }
+
+    private List<T> fetch() {
+        Pageable pageable;
+        if (this.pageInfo == null) {
+            // Runs query for total items only on the first page.
+            PageRequest request = new PageRequest();
+            request.setPage(this.page);
+            request.setSize(this.size);
+            pageable = request;
+        } else {
+            pageable = CountedPageable.of(this.page, this.size,
+                    this.pageInfo.getTotalItems(), this.pageInfo.isEstimated());
+        }
+
+        List<T> items = this.fetcher.apply(pageable);
+        if (items == null) items = Collections.emptyList();
+        if (items instanceof Paginator) {
+            PageInfo info = ((Paginator<T>) items).getPageInfo();
+            if (this.pageInfo == null) this.pageInfo = info;
+            this.size = info.getSize();
+        } else if (items instanceof Slice) {
+            this.size = ((Slice<T>) items).getSliceInfo().getSize();
+        }
+
+        this.page++;
+        return items;
+    }
+
+    private boolean isLastPage(List<T> items) {
+        if (items.isEmpty()) return true;
+
+        if (items instanceof Slice) return !((Slice<T>) items).getSliceInfo().hasNext();
+
+        // Estimated total items cannot tell where the last page is.
+        if (this.pageInfo != null && !this.pageInfo.isEstimated()) {
+            return this.page > this.pageInfo.getTotalPages();
+        }
+
+        return items.size() < this.size;
+    }
+
+    private static <E> List<E> await(CompletableFuture<List<E>> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw e;
+        }
+    }
+
+    /**
+     * Iterator over items, that holds only the page being consumed.
+     */
+    private final class ItemIterator implements Iterator<T> {
+
+        private Iterator<T> current = Collections.emptyIterator();
+
+        @Override
+        public boolean hasNext() {
+            while (!this.current.hasNext()) {
+                if (!PageIterator.this.hasNext()) return false;
+
+                // Releases the consumed page.
+                this.current = PageIterator.this.next().iterator();
+            }
+
+            return true;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) throw new NoSuchElementException("PageIterator has no more items");
+            return this.current.next();
+        }
+
+    }
+
+}
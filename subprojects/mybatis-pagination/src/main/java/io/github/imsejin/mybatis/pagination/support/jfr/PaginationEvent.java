@@ -0,0 +1,125 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Im Sejin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.imsejin.mybatis.pagination.support.jfr;
+
+import io.github.imsejin.mybatis.pagination.constant.PaginationStage;
+import io.github.imsejin.mybatis.pagination.model.Pageable;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Event of Java Flight Recorder for a stage of pagination.
+ *
+ * <p> This must be loaded only through {@link PaginationEvents}, which checks if JFR is available.
+ */
+@Category({"MyBatis", "Pagination"})
+@StackTrace(false)
+@Threshold("10 ms")
+abstract class PaginationEvent extends Event implements PaginationEventScope {
+
+    private static final String NAME_PREFIX = "io.github.imsejin.mybatis.pagination.";
+
+    @Label("Statement Id")
+    @Description("Id of the original mapped statement")
+    String statementId;
+
+    @Label("SQL Length")
+    @Description("Length of the query of the stage")
+    int sqlLength;
+
+    @Label("Offset")
+    long offset;
+
+    @Label("Limit")
+    long limit;
+
+    static PaginationEventScope begin(PaginationStage stage) {
+        PaginationEvent event;
+        switch (stage) {
+            case PARSE:
+                event = new ParseEvent();
+                break;
+            case REWRITE:
+                event = new RewriteEvent();
+                break;
+            case ITEMS_QUERY:
+                event = new ItemsQueryEvent();
+                break;
+            case COUNT_QUERY:
+                event = new CountQueryEvent();
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown pagination stage: " + stage);
+        }
+
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public void commit(String statementId, String sql, Pageable pageable) {
+        end();
+        if (!shouldCommit()) return;
+
+        this.statementId = statementId;
+        this.sqlLength = sql == null ? 0 : sql.length();
+        if (pageable != null) {
+            this.offset = pageable.getOffset();
+            this.limit = pageable.getLimit();
+        }
+
+        commit();
+    }
+
+    @Name(NAME_PREFIX + "Parse")
+    @Label("Pagination Parse")
+    @Description("Parses original query, when it is not found in cache of rewritten queries")
+    @Threshold("0 ms")
+    static final class ParseEvent extends PaginationEvent {
+    }
+
+    @Name(NAME_PREFIX + "Rewrite")
+    @Label("Pagination Rewrite")
+    @Description("Rewrites original query as query for pagination or total items")
+    static final class RewriteEvent extends PaginationEvent {
+    }
+
+    @Name(NAME_PREFIX + "ItemsQuery")
+    @Label("Pagination Items Query")
+    @Description("Executes query for pagination")
+    static final class ItemsQueryEvent extends PaginationEvent {
+    }
+
+    @Name(NAME_PREFIX + "CountQuery")
+    @Label("Pagination Count Query")
+    @Description("Executes query for total items")
+    static final class CountQueryEvent extends PaginationEvent {
+    }
+
+}
@@ -0,0 +1,52 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Im Sejin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.imsejin.mybatis.pagination.support.jfr;
+
+import io.github.imsejin.mybatis.pagination.model.Pageable;
+
+/**
+ * Scope of a stage of pagination, which begins when it is created and ends when it is committed.
+ *
+ * <p> This doesn't expose types of Java Flight Recorder, so it can be used where they are not available.
+ *
+ * @see PaginationEvents#begin(io.github.imsejin.mybatis.pagination.constant.PaginationStage)
+ */
+public interface PaginationEventScope {
+
+    /**
+     * Scope that records nothing.
+     */
+    PaginationEventScope NONE = (statementId, sql, pageable) -> {
+    };
+
+    /**
+     * Ends the stage and records it, if its duration exceeds the threshold of the event.
+     *
+     * @param statementId id of mapped statement or null
+     * @param sql         query of the stage or null
+     * @param pageable    pageable or null
+     */
+    void commit(String statementId, String sql, Pageable pageable);
+
+}
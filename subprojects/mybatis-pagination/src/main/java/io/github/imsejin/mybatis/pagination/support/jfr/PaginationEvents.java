@@ -0,0 +1,64 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Im Sejin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.imsejin.mybatis.pagination.support.jfr;
+
+import io.github.imsejin.mybatis.pagination.constant.PaginationStage;
+
+/**
+ * Entry point of events of Java Flight Recorder for each stage of pagination.
+ *
+ * <p> Events are enabled and thresholded through standard settings of JFR with their names,
+ * e.g. {@code io.github.imsejin.mybatis.pagination.ItemsQuery#threshold=50 ms}.
+ * If the runtime doesn't have module {@code jdk.jfr}(before JDK 8u262), this records nothing
+ * and the event classes are never loaded.
+ *
+ * @see PaginationEvent
+ */
+public final class PaginationEvents {
+
+    private static final boolean AVAILABLE = isAvailable();
+
+    private PaginationEvents() {
+    }
+
+    /**
+     * Begins the stage.
+     *
+     * @param stage stage of pagination
+     * @return scope of the stage
+     */
+    public static PaginationEventScope begin(PaginationStage stage) {
+        return AVAILABLE ? PaginationEvent.begin(stage) : PaginationEventScope.NONE;
+    }
+
+    private static boolean isAvailable() {
+        try {
+            Class.forName("jdk.jfr.Event", false, PaginationEvents.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+}
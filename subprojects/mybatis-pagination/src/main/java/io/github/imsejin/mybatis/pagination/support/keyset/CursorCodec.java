@@ -0,0 +1,265 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Im Sejin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.imsejin.mybatis.pagination.support.keyset;
+
+import io.github.imsejin.mybatis.pagination.model.SortKey;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Codec between {@link Keyset} and opaque cursor token.
+ *
+ * <p> Cursor token is URL-safe Base64 of compact binary, which consists of
+ * version, direction, fingerprint of sort keys and typed values of sort keys.
+ * Fingerprint rejects a cursor issued for other sort keys.
+ *
+ * <pre>{@code
+ *     +---------+-----------+-------------+-------+--------------------------+
+ *     | version | direction | fingerprint | count | (type, value) * count    |
+ *     | 1 byte  | 1 byte    | 4 bytes     | 1 byte| variable                 |
+ *     +---------+-----------+-------------+-------+--------------------------+
+ * }</pre>
+ */
+public final class CursorCodec {
+
+    private static final byte VERSION = 1;
+
+    private static final byte FORWARD = 0;
+    private static final byte BACKWARD = 1;
+
+    private static final byte TYPE_NULL = 0;
+    private static final byte TYPE_BOOLEAN = 1;
+    private static final byte TYPE_INTEGER = 2;
+    private static final byte TYPE_LONG = 3;
+    private static final byte TYPE_DOUBLE = 4;
+    private static final byte TYPE_BIG_DECIMAL = 5;
+    private static final byte TYPE_STRING = 6;
+    private static final byte TYPE_TIMESTAMP = 7;
+    private static final byte TYPE_DATE = 8;
+    private static final byte TYPE_LOCAL_DATE = 9;
+    private static final byte TYPE_LOCAL_DATE_TIME = 10;
+    private static final byte TYPE_BIG_INTEGER = 11;
+
+    private static final int MAX_BYTES_LENGTH = 0xFFFF;
+
+    private CursorCodec() {
+    }
+
+    /**
+     * Encodes values of sort keys into cursor token.
+     *
+     * @param sortKeys sort keys
+     * @param values   values of sort keys
+     * @param backward whether the cursor is for the previous page
+     * @return cursor token
+     * @throws IllegalArgumentException if type of value is not supported or value is too long
+     */
+    public static String encode(List<SortKey> sortKeys, Object[] values, boolean backward) {
+        if (sortKeys.size() != values.length) {
+            throw new IllegalArgumentException(String.format(
+                    "Number of values(%d) is not equal to number of sort keys(%d)", values.length, sortKeys.size()));
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(32);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            out.writeByte(backward ? BACKWARD : FORWARD);
+            out.writeInt(fingerprint(sortKeys));
+            out.writeByte(values.length);
+
+            for (Object value : values) {
+                writeValue(out, value);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to encode cursor", e);
+        }
+
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+    }
+
+    /**
+     * Decodes cursor token into keyset.
+     *
+     * @param token    cursor token or null
+     * @param sortKeys sort keys
+     * @return keyset, which is for the first page when token is empty
+     * @throws IllegalArgumentException if token is invalid or issued for other sort keys
+     */
+    public static Keyset decode(String token, List<SortKey> sortKeys) {
+        Keyset first = Keyset.first(sortKeys);
+        if (token == null || token.isEmpty()) return first;
+
+        byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(token);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token, e);
+        }
+
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            if (in.readByte() != VERSION) throw new IllegalArgumentException("Unsupported version of cursor: " + token);
+
+            boolean backward = in.readByte() == BACKWARD;
+            if (in.readInt() != fingerprint(sortKeys) || in.readUnsignedByte() != sortKeys.size()) {
+                throw new IllegalArgumentException("Cursor is not issued for the sort keys: " + token);
+            }
+
+            Object[] values = new Object[sortKeys.size()];
+            for (int i = 0; i < values.length; i++) {
+                try {
+                    values[i] = readValue(in);
+                } catch (RuntimeException e) {
+                    // Value out of range such as epoch day of LocalDate fails with DateTimeException.
+                    throw new IllegalArgumentException("Invalid cursor: " + token, e);
+                }
+            }
+
+            return new Keyset(first.getSortKeys(), values, backward);
+
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token, e);
+        }
+    }
+
+    private static int fingerprint(List<SortKey> sortKeys) {
+        int hash = 1;
+        for (SortKey sortKey : sortKeys) {
+            hash = 31 * hash + sortKey.getColumn().hashCode();
+            hash = 31 * hash + sortKey.getDirection().ordinal();
+        }
+
+        return hash;
+    }
+
+    private static void writeValue(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(TYPE_NULL);
+        } else if (value instanceof Boolean) {
+            out.writeByte(TYPE_BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            out.writeByte(TYPE_INTEGER);
+            out.writeInt(((Number) value).intValue());
+        } else if (value instanceof Long) {
+            out.writeByte(TYPE_LONG);
+            out.writeLong((Long) value);
+        } else if (value instanceof Double || value instanceof Float) {
+            out.writeByte(TYPE_DOUBLE);
+            out.writeDouble(((Number) value).doubleValue());
+        } else if (value instanceof BigDecimal) {
+            out.writeByte(TYPE_BIG_DECIMAL);
+            writeBytes(out, value.toString().getBytes(StandardCharsets.US_ASCII));
+        } else if (value instanceof BigInteger) {
+            out.writeByte(TYPE_BIG_INTEGER);
+            writeBytes(out, ((BigInteger) value).toByteArray());
+        } else if (value instanceof CharSequence) {
+            out.writeByte(TYPE_STRING);
+            writeBytes(out, value.toString().getBytes(StandardCharsets.UTF_8));
+        } else if (value instanceof Timestamp) {
+            Timestamp timestamp = (Timestamp) value;
+            out.writeByte(TYPE_TIMESTAMP);
+            out.writeLong(Math.floorDiv(timestamp.getTime(), 1000));
+            out.writeInt(timestamp.getNanos());
+        } else if (value instanceof Date) {
+            out.writeByte(TYPE_DATE);
+            out.writeLong(((Date) value).getTime());
+        } else if (value instanceof LocalDate) {
+            out.writeByte(TYPE_LOCAL_DATE);
+            out.writeLong(((LocalDate) value).toEpochDay());
+        } else if (value instanceof LocalDateTime) {
+            LocalDateTime dateTime = (LocalDateTime) value;
+            out.writeByte(TYPE_LOCAL_DATE_TIME);
+            out.writeLong(dateTime.toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(dateTime.getNano());
+        } else {
+            throw new IllegalArgumentException("Unsupported type of sort key value: " + value.getClass().getName());
+        }
+    }
+
+    private static Object readValue(DataInputStream in) throws IOException {
+        byte type = in.readByte();
+        switch (type) {
+            case TYPE_NULL:
+                return null;
+            case TYPE_BOOLEAN:
+                return in.readBoolean();
+            case TYPE_INTEGER:
+                return in.readInt();
+            case TYPE_LONG:
+                return in.readLong();
+            case TYPE_DOUBLE:
+                return in.readDouble();
+            case TYPE_BIG_DECIMAL:
+                return new BigDecimal(new String(readBytes(in), StandardCharsets.US_ASCII));
+            case TYPE_BIG_INTEGER:
+                return new BigInteger(readBytes(in));
+            case TYPE_STRING:
+                return new String(readBytes(in), StandardCharsets.UTF_8);
+            case TYPE_TIMESTAMP:
+                return Timestamp.from(Instant.ofEpochSecond(in.readLong(), in.readInt()));
+            case TYPE_DATE:
+                return new Date(in.readLong());
+            case TYPE_LOCAL_DATE:
+                return LocalDate.ofEpochDay(in.readLong());
+            case TYPE_LOCAL_DATE_TIME:
+                return LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+            default:
+                throw new IOException("Unknown type of sort key value: " + type);
+        }
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        // Length is written as unsigned short, so longer one would be wrapped around.
+        if (bytes.length > MAX_BYTES_LENGTH) {
+            throw new IllegalArgumentException(String.format(
+                    "Sort key value is too long to be encoded into cursor: %d bytes (max: %d)",
+                    bytes.length, MAX_BYTES_LENGTH));
+        }
+
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readUnsignedShort()];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+}
@@ -0,0 +1,132 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Im Sejin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.imsejin.mybatis.pagination.support.keyset;
+
+import io.github.imsejin.mybatis.pagination.model.SortKey;
+import lombok.ToString;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Position of page in keyset pagination, which is decoded from cursor token.
+ *
+ * <p> Previous page is fetched by seeking in the opposite direction from the first row of the current page,
+ * so {@link #getSeekKeys()} returns reversed sort keys for it.
+ *
+ * @see CursorCodec
+ */
+@ToString
+public final class Keyset {
+
+    private final List<SortKey> sortKeys;
+
+    /**
+     * Values of sort keys. This is null for the first page.
+     */
+    private final Object[] values;
+
+    private final boolean backward;
+
+    Keyset(List<SortKey> sortKeys, Object[] values, boolean backward) {
+        this.sortKeys = Collections.unmodifiableList(new ArrayList<>(sortKeys));
+        this.values = values;
+        this.backward = backward;
+    }
+
+    /**
+     * Returns keyset of the first page.
+     *
+     * @param sortKeys sort keys
+     * @return keyset without cursor
+     */
+    public static Keyset first(List<SortKey> sortKeys) {
+        if (sortKeys == null || sortKeys.isEmpty()) {
+            throw new IllegalArgumentException("Keyset pagination needs at least one sort key");
+        }
+
+        return new Keyset(sortKeys, null, false);
+    }
+
+    public List<SortKey> getSortKeys() {
+        return this.sortKeys;
+    }
+
+    /**
+     * Returns sort keys in order of seeking rows.
+     *
+     * @return sort keys, which are reversed when fetching the previous page
+     */
+    public List<SortKey> getSeekKeys() {
+        if (!this.backward) return this.sortKeys;
+
+        List<SortKey> reversed = new ArrayList<>(this.sortKeys.size());
+        for (SortKey sortKey : this.sortKeys) {
+            reversed.add(sortKey.reverse());
+        }
+
+        return reversed;
+    }
+
+    public boolean hasCursor() {
+        return this.values != null;
+    }
+
+    public boolean isBackward() {
+        return this.backward;
+    }
+
+    /**
+     * Returns value of the sort key.
+     *
+     * @param index index of sort key
+     * @return value of the sort key or null
+     */
+    public Object getValue(int index) {
+        return this.values == null ? null : this.values[index];
+    }
+
+    /**
+     * Returns signature of query shape.
+     *
+     * <p> Predicate differs by sort keys, direction and nullity of values,
+     * but not by the values themselves. So queries with the same signature are identical.
+     *
+     * @return signature
+     */
+    public String getSignature() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(this.values == null ? 'F' : this.backward ? 'B' : 'N');
+
+        for (int i = 0; i < this.sortKeys.size(); i++) {
+            SortKey sortKey = this.sortKeys.get(i);
+            sb.append('|').append(sortKey.getColumn()).append(' ').append(sortKey.getDirection());
+            if (sortKey.isNullable()) sb.append(getValue(i) == null ? " N" : " V");
+        }
+
+        return sb.toString();
+    }
+
+}
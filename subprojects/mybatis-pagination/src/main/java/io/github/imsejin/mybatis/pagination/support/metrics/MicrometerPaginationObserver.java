@@ -0,0 +1,203 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Im Sejin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.imsejin.mybatis.pagination.support.metrics;
+
+import io.github.imsejin.mybatis.pagination.constant.GuardrailPolicy;
+import io.github.imsejin.mybatis.pagination.constant.GuardrailViolation;
+import io.github.imsejin.mybatis.pagination.dialect.AbstractDialect;
+import io.github.imsejin.mybatis.pagination.interceptor.PaginationInterceptor;
+import io.github.imsejin.mybatis.pagination.model.Pageable;
+import io.github.imsejin.mybatis.pagination.support.cache.CountCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Observer that records each stage of pagination as Micrometer meters, tagged with id of mapped statement.
+ *
+ * <ul>
+ *     <li>{@code mybatis.pagination.rewrite}: timer of rewriting query, tagged with {@code outcome}</li>
+ *     <li>{@code mybatis.pagination.query}: timer of query, tagged with {@code query}({@code items} or
+ *     {@code count})</li>
+ *     <li>{@code mybatis.pagination.page.size}: distribution of page size</li>
+ *     <li>{@code mybatis.pagination.page.offset}: distribution of offset depth</li>
+ *     <li>{@code mybatis.pagination.count.cache}: counter of lookups in cache for total items,
+ *     tagged with {@code result}({@code hit} or {@code miss})</li>
+ *     <li>{@code mybatis.pagination.guardrail.violations}: counter of requests exceeding guardrails,
+ *     tagged with {@code violation} and {@code policy}</li>
+ * </ul>
+ *
+ * <p> Meters of each mapped statement are registered on its first notification and reused after that.
+ *
+ * @see #bindTo(PaginationInterceptor)
+ */
+public class MicrometerPaginationObserver implements PaginationObserver {
+
+    public static final String METRIC_PREFIX = "mybatis.pagination";
+
+    private static final String STATEMENT_TAG = "statement";
+
+    private final MeterRegistry registry;
+
+    private final Map<String, StatementMeters> meters = new ConcurrentHashMap<>();
+
+    public MicrometerPaginationObserver(MeterRegistry registry) {
+        if (registry == null) {
+            throw new IllegalArgumentException("MicrometerPaginationObserver.registry is not allowed to be null");
+        }
+
+        this.registry = registry;
+    }
+
+    @Override
+    public void onRewrite(String statementId, long elapsedNanos, boolean failed) {
+        StatementMeters meters = getMeters(statementId);
+        Timer timer = failed ? meters.rewriteFailure : meters.rewriteSuccess;
+        timer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void onItemsQuery(String statementId, Pageable pageable, long elapsedNanos) {
+        StatementMeters meters = getMeters(statementId);
+        meters.itemsQuery.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        meters.pageSize.record(pageable.getLimit());
+        meters.pageOffset.record(pageable.getOffset());
+    }
+
+    @Override
+    public void onCountQuery(String statementId, long elapsedNanos) {
+        getMeters(statementId).countQuery.record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void onCountCacheLookup(String statementId, boolean hit) {
+        StatementMeters meters = getMeters(statementId);
+        (hit ? meters.countCacheHit : meters.countCacheMiss).increment();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p> Violations are rare, so their counters are looked up in registry on each notification.
+     */
+    @Override
+    public void onGuardrailViolation(String statementId, GuardrailViolation violation, GuardrailPolicy policy) {
+        Counter.builder(METRIC_PREFIX + ".guardrail.violations").tag(STATEMENT_TAG, statementId)
+                .tag("violation", violation.name().toLowerCase(Locale.ROOT))
+                .tag("policy", policy.name().toLowerCase(Locale.ROOT))
+                .register(this.registry).increment();
+    }
+
+    /**
+     * Registers meters of the interceptor, which are not of each mapped statement,
+     * and adds this to its observers.
+     *
+     * <ul>
+     *     <li>{@code mybatis.pagination.rewrite.cache}: hits and misses of cache for rewritten queries</li>
+     *     <li>{@code mybatis.pagination.rewrite.fallbacks}: queries wrapped as a subquery without parsing</li>
+     *     <li>{@code mybatis.pagination.count.cache.stale}: stale hits of cache for total items</li>
+     * </ul>
+     *
+     * @param interceptor pagination interceptor
+     */
+    public void bindTo(PaginationInterceptor interceptor) {
+        if (interceptor.getDialect() instanceof AbstractDialect) {
+            AbstractDialect dialect = (AbstractDialect) interceptor.getDialect();
+
+            FunctionCounter.builder(METRIC_PREFIX + ".rewrite.cache", dialect,
+                            it -> it.getRewriteCacheStats().getHitCount())
+                    .tag("result", "hit").register(this.registry);
+            FunctionCounter.builder(METRIC_PREFIX + ".rewrite.cache", dialect,
+                            it -> it.getRewriteCacheStats().getMissCount())
+                    .tag("result", "miss").register(this.registry);
+            FunctionCounter.builder(METRIC_PREFIX + ".rewrite.fallbacks", dialect, AbstractDialect::getFallbackCount)
+                    .register(this.registry);
+        }
+
+        CountCache countCache = interceptor.getCountCache();
+        if (countCache != null) {
+            FunctionCounter.builder(METRIC_PREFIX + ".count.cache.stale", countCache, CountCache::getStaleHitCount)
+                    .register(this.registry);
+        }
+
+        interceptor.setObserver(interceptor.getObserver().andThen(this));
+    }
+
+    private StatementMeters getMeters(String statementId) {
+        StatementMeters meters = this.meters.get(statementId);
+        if (meters != null) return meters;
+
+        return this.meters.computeIfAbsent(statementId, it -> new StatementMeters(this.registry, it));
+    }
+
+    /**
+     * Meters of a mapped statement.
+     */
+    private static final class StatementMeters {
+
+        private final Timer rewriteSuccess;
+
+        private final Timer rewriteFailure;
+
+        private final Timer itemsQuery;
+
+        private final Timer countQuery;
+
+        private final DistributionSummary pageSize;
+
+        private final DistributionSummary pageOffset;
+
+        private final Counter countCacheHit;
+
+        private final Counter countCacheMiss;
+
+        private StatementMeters(MeterRegistry registry, String statementId) {
+            this.rewriteSuccess = Timer.builder(METRIC_PREFIX + ".rewrite").tag(STATEMENT_TAG, statementId)
+                    .tag("outcome", "success").register(registry);
+            this.rewriteFailure = Timer.builder(METRIC_PREFIX + ".rewrite").tag(STATEMENT_TAG, statementId)
+                    .tag("outcome", "failure").register(registry);
+            this.itemsQuery = Timer.builder(METRIC_PREFIX + ".query").tag(STATEMENT_TAG, statementId)
+                    .tag("query", "items").register(registry);
+            this.countQuery = Timer.builder(METRIC_PREFIX + ".query").tag(STATEMENT_TAG, statementId)
+                    .tag("query", "count").register(registry);
+            this.pageSize = DistributionSummary.builder(METRIC_PREFIX + ".page.size").tag(STATEMENT_TAG, statementId)
+                    .baseUnit("rows").register(registry);
+            this.pageOffset = DistributionSummary.builder(METRIC_PREFIX + ".page.offset")
+                    .tag(STATEMENT_TAG, statementId).baseUnit("rows").register(registry);
+            this.countCacheHit = Counter.builder(METRIC_PREFIX + ".count.cache").tag(STATEMENT_TAG, statementId)
+                    .tag("result", "hit").register(registry);
+            this.countCacheMiss = Counter.builder(METRIC_PREFIX + ".count.cache").tag(STATEMENT_TAG, statementId)
+                    .tag("result", "miss").register(registry);
+        }
+
+    }
+
+}
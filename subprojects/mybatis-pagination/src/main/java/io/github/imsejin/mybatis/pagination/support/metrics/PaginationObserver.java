@@ -0,0 +1,175 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Im Sejin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.imsejin.mybatis.pagination.support.metrics;
+
+import io.github.imsejin.mybatis.pagination.constant.GuardrailPolicy;
+import io.github.imsejin.mybatis.pagination.constant.GuardrailViolation;
+import io.github.imsejin.mybatis.pagination.model.Pageable;
+
+/**
+ * Observer of each stage of pagination, which is notified by
+ * {@link io.github.imsejin.mybatis.pagination.interceptor.PaginationInterceptor}.
+ *
+ * <p> All stages are identified by id of the original mapped statement.
+ * This is notified on the thread that executes the query, so it must be thread-safe
+ * and must not block.
+ *
+ * @see MicrometerPaginationObserver
+ * @see io.github.imsejin.mybatis.pagination.support.diagnostics.PaginationDiagnostics
+ */
+public interface PaginationObserver {
+
+    /**
+     * Observer that does nothing.
+     */
+    PaginationObserver NONE = new PaginationObserver() {
+    };
+
+    /**
+     * Notifies that original query is rewritten as query for pagination or total items.
+     *
+     * @param statementId  id of mapped statement
+     * @param elapsedNanos elapsed time in nanoseconds
+     * @param failed       whether dialect failed to rewrite it
+     */
+    default void onRewrite(String statementId, long elapsedNanos, boolean failed) {
+    }
+
+    /**
+     * Notifies that original query is rewritten, with the query to be executed.
+     *
+     * @param statementId id of mapped statement
+     * @param count       whether it is rewritten as query for total items
+     * @param sql         rewritten query
+     */
+    default void onRewritten(String statementId, boolean count, String sql) {
+    }
+
+    /**
+     * Notifies that dialect failed to rewrite original query.
+     *
+     * @param statementId id of mapped statement
+     * @param sql         original query
+     * @param cause       cause of failure
+     */
+    default void onRewriteFailure(String statementId, String sql, Throwable cause) {
+    }
+
+    /**
+     * Notifies that query for pagination is executed.
+     *
+     * @param statementId  id of mapped statement
+     * @param pageable     pageable
+     * @param elapsedNanos elapsed time in nanoseconds
+     */
+    default void onItemsQuery(String statementId, Pageable pageable, long elapsedNanos) {
+    }
+
+    /**
+     * Notifies that query for total items is executed.
+     * If it is executed on another connection, elapsed time is until its result is awaited.
+     *
+     * @param statementId  id of mapped statement
+     * @param elapsedNanos elapsed time in nanoseconds
+     */
+    default void onCountQuery(String statementId, long elapsedNanos) {
+    }
+
+    /**
+     * Notifies that total items are looked up in cache.
+     *
+     * @param statementId id of mapped statement
+     * @param hit         whether total items are found
+     */
+    default void onCountCacheLookup(String statementId, boolean hit) {
+    }
+
+    /**
+     * Notifies that a request for pagination exceeds a guardrail, before the policy is applied.
+     *
+     * @param statementId id of mapped statement
+     * @param violation   guardrail that is exceeded
+     * @param policy      policy applied to the request
+     */
+    default void onGuardrailViolation(String statementId, GuardrailViolation violation, GuardrailPolicy policy) {
+    }
+
+    /**
+     * Returns observer that notifies this and then the other one.
+     *
+     * @param other observer to be notified after this
+     * @return composed observer
+     */
+    default PaginationObserver andThen(PaginationObserver other) {
+        if (other == null || other == NONE) return this;
+        if (this == NONE) return other;
+
+        PaginationObserver self = this;
+        return new PaginationObserver() {
+            @Override
+            public void onRewrite(String statementId, long elapsedNanos, boolean failed) {
+                self.onRewrite(statementId, elapsedNanos, failed);
+                other.onRewrite(statementId, elapsedNanos, failed);
+            }
+
+            @Override
+            public void onRewritten(String statementId, boolean count, String sql) {
+                self.onRewritten(statementId, count, sql);
+                other.onRewritten(statementId, count, sql);
+            }
+
+            @Override
+            public void onRewriteFailure(String statementId, String sql, Throwable cause) {
+                self.onRewriteFailure(statementId, sql, cause);
+                other.onRewriteFailure(statementId, sql, cause);
+            }
+
+            @Override
+            public void onItemsQuery(String statementId, Pageable pageable, long elapsedNanos) {
+                self.onItemsQuery(statementId, pageable, elapsedNanos);
+                other.onItemsQuery(statementId, pageable, elapsedNanos);
+            }
+
+            @Override
+            public void onCountQuery(String statementId, long elapsedNanos) {
+                self.onCountQuery(statementId, elapsedNanos);
+                other.onCountQuery(statementId, elapsedNanos);
+            }
+
+            @Override
+            public void onCountCacheLookup(String statementId, boolean hit) {
+                self.onCountCacheLookup(statementId, hit);
+                other.onCountCacheLookup(statementId, hit);
+            }
+
+            @Override
+            public void onGuardrailViolation(String statementId, GuardrailViolation violation,
+                                             GuardrailPolicy policy) {
+                self.onGuardrailViolation(statementId, violation, policy);
+                other.onGuardrailViolation(statementId, violation, policy);
+            }
+        };
+    }
+
+}
@@ -7,25 +7,39 @@ import org.apache.ibatis.session.Configuration;
 
 import java.util.List;
 import java.util.Map;
-import java.util.UUID;
 
 /**
  * @see RebuildMode#WRAP
  */
 public class MappedStatementRebuilder implements Rebuilder<MappedStatement> {
 
+    private static final String DEFAULT_SUFFIX = "MyBatis";
+
     private final MappedStatement ms;
     private final RebuildMode rebuildMode;
-    private final MapperParameterType mapperParameterType;
+    private MapperParameterType mapperParameterType;
     private SqlSource sqlSource;
     private String suffix;
     private ParameterMap parameterMap;
     private List<ResultMap> resultMaps;
+    private Integer fetchSize;
 
     MappedStatementRebuilder(MappedStatement ms, RebuildMode rebuildMode) {
         this.ms = ms;
         this.rebuildMode = rebuildMode;
-        this.mapperParameterType = MapperParameterType.from(ms);
+    }
+
+    /**
+     * Sets parameter type of mapper method.
+     * If this is not set, finds it from mapper method of the mapped statement.
+     *
+     * @param mapperParameterType parameter type of mapper method
+     * @return this rebuilder
+     * @see io.github.imsejin.mybatis.pagination.support.registry.MapperMethodMetadata
+     */
+    public MappedStatementRebuilder mapperParameterType(MapperParameterType mapperParameterType) {
+        this.mapperParameterType = mapperParameterType;
+        return this;
     }
 
     public MappedStatementRebuilder sqlSource(SqlSource sqlSource) {
@@ -57,20 +71,30 @@ public class MappedStatementRebuilder implements Rebuilder<MappedStatement> {
         return this;
     }
 
+    /**
+     * Sets fetch size.
+     * If this is not set, uses fetch size of the original mapped statement.
+     *
+     * @param fetchSize fetch size
+     * @return this rebuilder
+     */
+    public MappedStatementRebuilder fetchSize(Integer fetchSize) {
+        this.fetchSize = fetchSize;
+        return this;
+    }
+
     @Override
     public MappedStatement rebuild() {
-        String id = this.ms.getId();
-        if (this.suffix != null) {
-            id += '$' + this.suffix;
-        } else {
-            String randomValue = UUID.randomUUID().toString().replace("-", "").substring(0, 8);
-            id += "$MyBatis$" + randomValue;
-        }
+        // Id must be deterministic for reusing the rebuilt statement.
+        String id = this.ms.getId() + '$' + (this.suffix == null ? DEFAULT_SUFFIX : this.suffix);
 
         // Sets options from original mapped statement.
         if (this.sqlSource == null) this.sqlSource = ms.getSqlSource();
         if (this.parameterMap == null) this.parameterMap = ms.getParameterMap();
         if (this.resultMaps == null) this.resultMaps = ms.getResultMaps();
+        if (this.fetchSize == null) this.fetchSize = ms.getFetchSize();
+
+        if (this.mapperParameterType == null) this.mapperParameterType = MapperParameterType.from(this.ms);
 
         // Converts the parameter type of mapper method to "java.util.Map".
         if (this.rebuildMode == RebuildMode.WRAP && this.mapperParameterType == MapperParameterType.SINGLE) {
@@ -84,7 +108,7 @@ public class MappedStatementRebuilder implements Rebuilder<MappedStatement> {
                 .resource(ms.getResource())
                 .parameterMap(this.parameterMap)
                 .resultMaps(this.resultMaps)
-                .fetchSize(ms.getFetchSize())
+                .fetchSize(this.fetchSize)
                 .timeout(ms.getTimeout())
                 .statementType(ms.getStatementType())
                 .resultSetType(ms.getResultSetType())
@@ -0,0 +1,184 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Im Sejin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.imsejin.mybatis.pagination.support.registry;
+
+import io.github.imsejin.mybatis.pagination.constant.RebuildMode;
+import io.github.imsejin.mybatis.pagination.support.rebuilder.Rebuilder;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.RowBounds;
+
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of mapped statements derived from paginated mapped statements.
+ *
+ * <p> Derived statements have deterministic ids({@code <id>$items}, {@code <id>$count}, {@code <id>$stream})
+ * and are created only once for each original statement. The query of derived statement
+ * varies with parameters, so it is executed with {@link BoundSql} passed explicitly to
+ * {@link Executor#query(MappedStatement, Object, RowBounds,
+ * org.apache.ibatis.session.ResultHandler, org.apache.ibatis.cache.CacheKey, BoundSql)}
+ * and {@link MappedStatement#getSqlSource()} of derived statement is never used for it,
+ * except for cursor of the statement for streaming.
+ */
+public class DerivedStatementRegistry {
+
+    public static final String ITEMS_SUFFIX = "items";
+
+    public static final String COUNT_SUFFIX = "count";
+
+    public static final String STREAM_SUFFIX = "stream";
+
+    /**
+     * Bound SQL for streaming, which is returned by SQL source of mapped statement for streaming
+     * while it is executed on the current thread.
+     */
+    private static final ThreadLocal<BoundSql> STREAM_BOUND_SQL = new ThreadLocal<>();
+
+    /**
+     * {@link MappedStatement} doesn't override {@link Object#equals(Object)},
+     * so original statements are compared by identity.
+     */
+    private final Map<MappedStatement, MappedStatement> itemsStatements = new ConcurrentHashMap<>();
+
+    private final Map<MappedStatement, MappedStatement> countStatements = new ConcurrentHashMap<>();
+
+    /**
+     * Mapped statements for streaming by fetch size.
+     */
+    private final Map<MappedStatement, Map<Integer, MappedStatement>> streamStatements = new ConcurrentHashMap<>();
+
+    private final Map<Configuration, List<ResultMap>> countResultMaps = new ConcurrentHashMap<>();
+
+    /**
+     * Returns mapped statement for pagination.
+     *
+     * @param ms       original mapped statement
+     * @param metadata metadata of mapper method
+     * @return mapped statement for pagination
+     */
+    public MappedStatement getItemsStatement(MappedStatement ms, MapperMethodMetadata metadata) {
+        return this.itemsStatements.computeIfAbsent(ms, it -> derive(it, metadata, it.getResultMaps(), ITEMS_SUFFIX));
+    }
+
+    /**
+     * Returns mapped statement for total items.
+     *
+     * @param ms       original mapped statement
+     * @param metadata metadata of mapper method
+     * @return mapped statement for total items
+     */
+    public MappedStatement getCountStatement(MappedStatement ms, MapperMethodMetadata metadata) {
+        return this.countStatements.computeIfAbsent(ms, it -> {
+            List<ResultMap> resultMaps = getCountResultMaps(it.getConfiguration());
+            return derive(it, metadata, resultMaps, COUNT_SUFFIX);
+        });
+    }
+
+    /**
+     * Returns result maps of {@link Long}, which are shared by all mapped statements for total items.
+     *
+     * @param config configuration
+     * @return result maps of {@link Long}
+     */
+    public List<ResultMap> getCountResultMaps(Configuration config) {
+        return this.countResultMaps.computeIfAbsent(config, it -> {
+            ResultMap resultMap = new ResultMap.Builder(it, "", Long.class, Collections.emptyList()).build();
+            return Collections.singletonList(resultMap);
+        });
+    }
+
+    /**
+     * Returns mapped statement for streaming items of the page.
+     *
+     * <p> {@link Executor#queryCursor(MappedStatement, Object, RowBounds)} cannot take bound SQL,
+     * so SQL source of this statement returns the bound SQL given to
+     * {@link #queryCursor(Executor, MappedStatement, BoundSql, RowBounds)} on the current thread.
+     * Fetch size is tuned to the page, so the statement is derived once for each fetch size.
+     *
+     * @param ms        original mapped statement
+     * @param metadata  metadata of mapper method
+     * @param fetchSize fetch size
+     * @return mapped statement for streaming
+     */
+    public MappedStatement getStreamStatement(MappedStatement ms, MapperMethodMetadata metadata, int fetchSize) {
+        return this.streamStatements.computeIfAbsent(ms, it -> new ConcurrentHashMap<>())
+                .computeIfAbsent(fetchSize, it -> Rebuilder.init(ms, RebuildMode.WRAP)
+                        .mapperParameterType(metadata.getMapperParameterType())
+                        .sqlSource(DerivedStatementRegistry::getStreamBoundSql)
+                        .fetchSize(it).suffix(STREAM_SUFFIX).rebuild());
+    }
+
+    /**
+     * Opens cursor of mapped statement for streaming with the bound SQL.
+     *
+     * @param executor  executor
+     * @param streamMs  mapped statement for streaming
+     * @param boundSql  bound SQL for pagination
+     * @param rowBounds row bounds
+     * @param <E>       type of item
+     * @return cursor
+     * @throws SQLException if failed to execute query
+     * @see #getStreamStatement(MappedStatement, MapperMethodMetadata, int)
+     */
+    public <E> Cursor<E> queryCursor(Executor executor, MappedStatement streamMs, BoundSql boundSql,
+                                     RowBounds rowBounds) throws SQLException {
+        STREAM_BOUND_SQL.set(boundSql);
+        try {
+            return executor.queryCursor(streamMs, boundSql.getParameterObject(), rowBounds);
+        } finally {
+            STREAM_BOUND_SQL.remove();
+        }
+    }
+
+    public int size() {
+        return this.itemsStatements.size() + this.countStatements.size()
+                + this.streamStatements.values().stream().mapToInt(Map::size).sum();
+    }
+
+    private static BoundSql getStreamBoundSql(Object param) {
+        BoundSql boundSql = STREAM_BOUND_SQL.get();
+        if (boundSql == null) {
+            throw new IllegalStateException("Mapped statement for streaming must be executed with its bound SQL");
+        }
+
+        return boundSql;
+    }
+
+    private static MappedStatement derive(MappedStatement ms, MapperMethodMetadata metadata,
+                                          List<ResultMap> resultMaps, String suffix) {
+        return Rebuilder.init(ms, RebuildMode.WRAP).mapperParameterType(metadata.getMapperParameterType())
+                .resultMaps(resultMaps).suffix(suffix).rebuild();
+    }
+
+}
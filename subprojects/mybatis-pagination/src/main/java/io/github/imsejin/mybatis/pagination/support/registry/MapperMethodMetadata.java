@@ -0,0 +1,157 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Im Sejin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.imsejin.mybatis.pagination.support.registry;
+
+import io.github.imsejin.mybatis.pagination.annotation.Pagination;
+import io.github.imsejin.mybatis.pagination.constant.CountMode;
+import io.github.imsejin.mybatis.pagination.constant.MapperParameterType;
+import io.github.imsejin.mybatis.pagination.constant.PaginationType;
+import io.github.imsejin.mybatis.pagination.model.Pageable;
+import io.github.imsejin.mybatis.pagination.support.InterceptorSupport;
+import lombok.Getter;
+import lombok.ToString;
+import org.apache.ibatis.binding.MapperMethod;
+
+import java.lang.reflect.Method;
+
+/**
+ * Metadata of mapper method, which is resolved once per mapped statement.
+ *
+ * @see MapperMethodRegistry
+ */
+@Getter
+@ToString
+public final class MapperMethodMetadata {
+
+    /**
+     * Negative entry for mapped statements that are not paginated.
+     */
+    static final MapperMethodMetadata NOT_PAGINATED = new MapperMethodMetadata(null, null, null, -1, null,
+            CountMode.EXACT, null, 0);
+
+    private final String statementId;
+
+    /**
+     * Mapper method. This is null, if the statement is not paginated.
+     */
+    private final Method method;
+
+    private final PaginationType paginationType;
+
+    /**
+     * Position of {@link Pageable} in the parameters of mapper method,
+     * except {@link org.apache.ibatis.session.RowBounds} and {@link org.apache.ibatis.session.ResultHandler}.
+     */
+    private final int pageableIndex;
+
+    private final MapperParameterType mapperParameterType;
+
+    /**
+     * Mode of getting total items declared on mapper method.
+     *
+     * @see Pagination#countMode()
+     */
+    private final CountMode countMode;
+
+    /**
+     * Key column for deferred join, or null if it is not used.
+     *
+     * @see Pagination#deferredJoinKey()
+     */
+    private final String deferredJoinKey;
+
+    /**
+     * Minimum offset from which deferred join is used.
+     *
+     * @see Pagination#deferredJoinOffset()
+     */
+    private final int deferredJoinOffset;
+
+    MapperMethodMetadata(String statementId, Method method, PaginationType paginationType, int pageableIndex,
+                         MapperParameterType mapperParameterType, CountMode countMode,
+                         String deferredJoinKey, int deferredJoinOffset) {
+        this.statementId = statementId;
+        this.method = method;
+        this.paginationType = paginationType;
+        this.pageableIndex = pageableIndex;
+        this.mapperParameterType = mapperParameterType;
+        this.countMode = countMode;
+        this.deferredJoinKey = deferredJoinKey;
+        this.deferredJoinOffset = deferredJoinOffset;
+    }
+
+    public boolean isPaginated() {
+        return this.method != null;
+    }
+
+    /**
+     * Returns mode of getting total items, which {@link Pageable} can override.
+     *
+     * @param pageable pageable
+     * @return count mode
+     */
+    public CountMode getCountMode(Pageable pageable) {
+        CountMode countMode = pageable.getCountMode();
+        return countMode == null ? this.countMode : countMode;
+    }
+
+    /**
+     * Returns whether the page is fetched with deferred join.
+     *
+     * @param pageable pageable
+     * @return whether deferred join is used
+     */
+    public boolean isDeferredJoin(Pageable pageable) {
+        return this.deferredJoinKey != null && pageable.getOffset() >= this.deferredJoinOffset;
+    }
+
+    /**
+     * Returns {@link Pageable} instance from parameter of mapper method.
+     *
+     * <p> MyBatis puts generic names("param1", "param2", ...) into {@link MapperMethod.ParamMap}
+     * unless the names are already used by {@link org.apache.ibatis.annotations.Param}.
+     * In that case, this falls back to finding it by type.
+     *
+     * @param param mapper parameter
+     * @return pageable instance
+     * @see InterceptorSupport#getPageableFromParam(Object)
+     */
+    public Pageable getPageable(Object param) {
+        if (param instanceof Pageable) return (Pageable) param;
+
+        if (param instanceof MapperMethod.ParamMap) {
+            MapperMethod.ParamMap<?> paramMap = (MapperMethod.ParamMap<?>) param;
+            String genericName = "param" + (this.pageableIndex + 1);
+
+            if (paramMap.containsKey(genericName)) {
+                Object value = paramMap.get(genericName);
+                if (value instanceof Pageable) return (Pageable) value;
+            }
+        }
+
+        return InterceptorSupport.getPageableFromParam(param);
+    }
+
+}
@@ -0,0 +1,173 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Im Sejin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.imsejin.mybatis.pagination.support.registry;
+
+import io.github.imsejin.mybatis.pagination.annotation.Pagination;
+import io.github.imsejin.mybatis.pagination.constant.CountMode;
+import io.github.imsejin.mybatis.pagination.constant.MapperParameterType;
+import io.github.imsejin.mybatis.pagination.constant.PaginationType;
+import io.github.imsejin.mybatis.pagination.model.Pageable;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ResultHandler;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of mapper method metadata, keyed by id of mapped statement.
+ *
+ * <p> Resolving a mapper method needs loading its class and scanning its methods.
+ * This resolves it only once for each mapped statement, including the ones
+ * that are not paginated, so that checking if a query will be paginated
+ * costs about one map lookup.
+ *
+ * <p> The first lookup from a configuration registers all mapped statements
+ * known to it at that time. Mapped statements added later are resolved
+ * one by one on the first lookup.
+ */
+public class MapperMethodRegistry {
+
+    private final Map<String, MapperMethodMetadata> registry = new ConcurrentHashMap<>();
+
+    private final Set<Configuration> configurations = Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+    /**
+     * Returns metadata of mapper method for the mapped statement.
+     *
+     * @param ms mapped statement
+     * @return metadata of mapper method
+     */
+    public MapperMethodMetadata get(MappedStatement ms) {
+        MapperMethodMetadata metadata = this.registry.get(ms.getId());
+        if (metadata != null) return metadata;
+
+        Configuration config = ms.getConfiguration();
+        if (this.configurations.add(config)) registerAll(config);
+
+        return this.registry.computeIfAbsent(ms.getId(), id -> resolve(ms));
+    }
+
+    /**
+     * Registers all mapped statements of the configuration.
+     *
+     * @param config configuration
+     */
+    public void registerAll(Configuration config) {
+        /*
+        Short names of mapped statements can be registered as "Ambiguity" in this collection.
+        It isn't an instance of MappedStatement, so iterates this with type "Object".
+         */
+        for (Object value : config.getMappedStatements()) {
+            if (!(value instanceof MappedStatement)) continue;
+
+            MappedStatement ms = (MappedStatement) value;
+            this.registry.computeIfAbsent(ms.getId(), id -> resolve(ms));
+        }
+    }
+
+    /**
+     * Returns all metadata of paginated mapper methods.
+     *
+     * @return metadata of paginated mapper methods
+     */
+    public Map<String, MapperMethodMetadata> getPaginatedMethods() {
+        Map<String, MapperMethodMetadata> methods = new TreeMap<>();
+        this.registry.forEach((id, metadata) -> {
+            if (metadata.isPaginated()) methods.put(id, metadata);
+        });
+
+        return Collections.unmodifiableMap(methods);
+    }
+
+    public int size() {
+        return this.registry.size();
+    }
+
+    private static MapperMethodMetadata resolve(MappedStatement ms) {
+        String id = ms.getId();
+        int index = id.lastIndexOf('.');
+        if (index < 0) return MapperMethodMetadata.NOT_PAGINATED;
+
+        String className = id.substring(0, index);
+        String methodName = id.substring(index + 1);
+
+        Class<?> mapperClass = findMapperClass(ms.getConfiguration(), className);
+        if (mapperClass == null) return MapperMethodMetadata.NOT_PAGINATED;
+
+        // Includes methods inherited from super interfaces.
+        for (Method method : mapperClass.getMethods()) {
+            if (!method.getName().equals(methodName)) continue;
+
+            PaginationType paginationType = PaginationType.from(method.getReturnType());
+            if (paginationType == null) continue;
+
+            Class<?>[] parameterTypes = method.getParameterTypes();
+            if (paginationType == PaginationType.RESULT_HANDLER && Arrays.stream(parameterTypes)
+                    .noneMatch(ResultHandler.class::isAssignableFrom)) continue;
+
+            // Index of pageable among parameters put into parameter object, like generic names of MyBatis.
+            int pageableIndex = 0;
+            for (Class<?> parameterType : parameterTypes) {
+                if (MapperParameterType.isSpecialParameter(parameterType)) continue;
+                if (!Pageable.class.isAssignableFrom(parameterType)) {
+                    pageableIndex++;
+                    continue;
+                }
+
+                Pagination pagination = method.getAnnotation(Pagination.class);
+                CountMode countMode = pagination == null ? CountMode.EXACT : pagination.countMode();
+                String deferredJoinKey = pagination == null || pagination.deferredJoinKey().isEmpty()
+                        ? null : pagination.deferredJoinKey();
+                int deferredJoinOffset = pagination == null ? 0 : pagination.deferredJoinOffset();
+
+                return new MapperMethodMetadata(id, method, paginationType, pageableIndex,
+                        MapperParameterType.from(method), countMode, deferredJoinKey, deferredJoinOffset);
+            }
+        }
+
+        return MapperMethodMetadata.NOT_PAGINATED;
+    }
+
+    private static Class<?> findMapperClass(Configuration config, String className) {
+        for (Class<?> mapper : config.getMapperRegistry().getMappers()) {
+            if (mapper.getName().equals(className)) return mapper;
+        }
+
+        // Namespace of mapper XML can be a name of non-existent class.
+        try {
+            return Resources.classForName(className);
+        } catch (ClassNotFoundException e) {
+            return null;
+        }
+    }
+
+}
@@ -1,6 +1,7 @@
 package io.github.imsejin.mybatis.typehandler.handler;
 
 import io.github.imsejin.mybatis.typehandler.model.CodeEnum;
+import io.github.imsejin.mybatis.typehandler.support.CodeEnumEvents;
 import io.github.imsejin.mybatis.typehandler.support.DynamicCodeEnumTypeHandlerGenerator;
 import org.apache.ibatis.type.BaseTypeHandler;
 import org.apache.ibatis.type.JdbcType;
@@ -53,6 +54,8 @@ public abstract class CodeEnumTypeHandler<E extends Enum<E>> extends BaseTypeHan
         CodeEnum codeEnum = this.cache.get(code);
 
         if (codeEnum != null) return codeEnum;
+
+        CodeEnumEvents.lookupMiss(this.type, code);
         throw new TypeException(String.format("Enumeration '%s' has no code '%s'", this.type.getSimpleName(), code));
     }
 
@@ -0,0 +1,39 @@
+package io.github.imsejin.mybatis.typehandler.support;
+
+/**
+ * Entry point of events of Java Flight Recorder for {@link io.github.imsejin.mybatis.typehandler.model.CodeEnum}.
+ *
+ * <p> Events are enabled through standard settings of JFR with their names,
+ * e.g. {@code io.github.imsejin.mybatis.typehandler.CodeEnumLookupMiss#enabled=true}.
+ * If the runtime doesn't have module {@code jdk.jfr}(before JDK 8u262), this records nothing
+ * and the event classes are never loaded.
+ *
+ * @see CodeEnumLookupMissEvent
+ */
+public final class CodeEnumEvents {
+
+    private static final boolean AVAILABLE = isAvailable();
+
+    private CodeEnumEvents() {
+    }
+
+    /**
+     * Records that the code is not found in the enum type.
+     *
+     * @param type enum type
+     * @param code code not found
+     */
+    public static void lookupMiss(Class<?> type, String code) {
+        if (AVAILABLE) CodeEnumLookupMissEvent.record(type, code);
+    }
+
+    private static boolean isAvailable() {
+        try {
+            Class.forName("jdk.jfr.Event", false, CodeEnumEvents.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+}
@@ -0,0 +1,37 @@
+package io.github.imsejin.mybatis.typehandler.support;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Event of Java Flight Recorder that code read from database is not found in the enum type.
+ *
+ * <p> This must be loaded only through {@link CodeEnumEvents}, which checks if JFR is available.
+ *
+ * @see io.github.imsejin.mybatis.typehandler.handler.CodeEnumTypeHandler
+ */
+@Name("io.github.imsejin.mybatis.typehandler.CodeEnumLookupMiss")
+@Label("Code Enum Lookup Miss")
+@Description("Code read from database is not found in the enum type")
+@Category({"MyBatis", "Type Handler"})
+final class CodeEnumLookupMissEvent extends Event {
+
+    @Label("Enum Type")
+    Class<?> enumType;
+
+    @Label("Code")
+    String code;
+
+    static void record(Class<?> type, String code) {
+        CodeEnumLookupMissEvent event = new CodeEnumLookupMissEvent();
+        if (!event.isEnabled()) return;
+
+        event.enumType = type;
+        event.code = code;
+        event.commit();
+    }
+
+}